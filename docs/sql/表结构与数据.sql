@@ -457,6 +457,63 @@ COMMENT ON TABLE "public"."model_invoke_log" IS '租户模型调用历史表';
 -- Records of model_invoke_log
 -- ----------------------------
 
+-- ----------------------------
+-- Table structure for model_quota_usage
+-- ----------------------------
+DROP TABLE IF EXISTS "public"."model_quota_usage";
+CREATE TABLE "public"."model_quota_usage" (
+  "counter_key" varchar(255) COLLATE "pg_catalog"."default" NOT NULL,
+  "spent_micros" int8 NOT NULL DEFAULT 0,
+  "expire_time" timestamp(6) NOT NULL,
+  "update_time" timestamp(6) NOT NULL DEFAULT CURRENT_TIMESTAMP
+)
+;
+COMMENT ON COLUMN "public"."model_quota_usage"."counter_key" IS '计数器键（维度:主体:窗口:周期）';
+COMMENT ON COLUMN "public"."model_quota_usage"."spent_micros" IS '已花费金额（百万分之一基准币种）';
+COMMENT ON COLUMN "public"."model_quota_usage"."expire_time" IS '窗口结束时间';
+COMMENT ON TABLE "public"."model_quota_usage" IS '租户模型预算用量表';
+
+-- ----------------------------
+-- Table structure for model_usage_rollup
+-- ----------------------------
+DROP TABLE IF EXISTS "public"."model_usage_rollup";
+CREATE TABLE "public"."model_usage_rollup" (
+  "bucket_time" timestamp(6) NOT NULL,
+  "tenant_id" varchar(64) COLLATE "pg_catalog"."default" NOT NULL,
+  "model_code" varchar(100) COLLATE "pg_catalog"."default" NOT NULL,
+  "provider_code" varchar(100) COLLATE "pg_catalog"."default" NOT NULL,
+  "status" varchar(20) COLLATE "pg_catalog"."default" NOT NULL,
+  "node_id" varchar(128) COLLATE "pg_catalog"."default" NOT NULL,
+  "request_count" int8 NOT NULL DEFAULT 0,
+  "prompt_tokens" int8 NOT NULL DEFAULT 0,
+  "completion_tokens" int8 NOT NULL DEFAULT 0,
+  "total_tokens" int8 NOT NULL DEFAULT 0,
+  "cost" numeric(16,6) NOT NULL DEFAULT 0,
+  "duration_sum" int8 NOT NULL DEFAULT 0,
+  "duration_max" int4 NOT NULL DEFAULT 0,
+  "latency_sketch" bytea,
+  "user_sketch" bytea,
+  "update_time" timestamp(6) NOT NULL DEFAULT CURRENT_TIMESTAMP
+)
+;
+COMMENT ON COLUMN "public"."model_usage_rollup"."bucket_time" IS '分钟起始时间';
+COMMENT ON COLUMN "public"."model_usage_rollup"."tenant_id" IS '租户ID';
+COMMENT ON COLUMN "public"."model_usage_rollup"."model_code" IS '模型代码';
+COMMENT ON COLUMN "public"."model_usage_rollup"."provider_code" IS '提供商代码';
+COMMENT ON COLUMN "public"."model_usage_rollup"."status" IS '调用状态：SUCCESS、ERROR、TIMEOUT';
+COMMENT ON COLUMN "public"."model_usage_rollup"."node_id" IS '写入节点（每节点每分钟一行，查询时合并）';
+COMMENT ON COLUMN "public"."model_usage_rollup"."request_count" IS '调用次数';
+COMMENT ON COLUMN "public"."model_usage_rollup"."prompt_tokens" IS '输入Token数';
+COMMENT ON COLUMN "public"."model_usage_rollup"."completion_tokens" IS '输出Token数';
+COMMENT ON COLUMN "public"."model_usage_rollup"."total_tokens" IS '总Token数';
+COMMENT ON COLUMN "public"."model_usage_rollup"."cost" IS '费用（基准币种）';
+COMMENT ON COLUMN "public"."model_usage_rollup"."duration_sum" IS '耗时总和（毫秒）';
+COMMENT ON COLUMN "public"."model_usage_rollup"."duration_max" IS '最大耗时（毫秒）';
+COMMENT ON COLUMN "public"."model_usage_rollup"."latency_sketch" IS '延迟分位数草图（对数分桶，相对误差2%）';
+COMMENT ON COLUMN "public"."model_usage_rollup"."user_sketch" IS '去重用户草图（HyperLogLog）';
+COMMENT ON COLUMN "public"."model_usage_rollup"."update_time" IS '更新时间';
+COMMENT ON TABLE "public"."model_usage_rollup" IS '模型用量分钟汇总表';
+
 -- ----------------------------
 -- Table structure for model_provider
 -- ----------------------------
@@ -1005,7 +1062,9 @@ CREATE TABLE "public"."plugin" (
   "installed_at" timestamp(6),
   "enabled_at" timestamp(6),
   "disabled_at" timestamp(6),
-  "icon_path" varchar(255) COLLATE "pg_catalog"."default"
+  "icon_path" varchar(255) COLLATE "pg_catalog"."default",
+  "checksum" varchar(64) COLLATE "pg_catalog"."default",
+  "dependencies" varchar(1024) COLLATE "pg_catalog"."default"
 )
 ;
 COMMENT ON COLUMN "public"."plugin"."plugin_id" IS '插件ID';
@@ -1026,13 +1085,15 @@ COMMENT ON COLUMN "public"."plugin"."installed_at" IS '安装时间';
 COMMENT ON COLUMN "public"."plugin"."enabled_at" IS '启用时间';
 COMMENT ON COLUMN "public"."plugin"."disabled_at" IS '禁用时间';
 COMMENT ON COLUMN "public"."plugin"."icon_path" IS '图标';
+COMMENT ON COLUMN "public"."plugin"."checksum" IS '插件JAR的SHA-256';
+COMMENT ON COLUMN "public"."plugin"."dependencies" IS '依赖的插件ID，逗号分隔';
 COMMENT ON TABLE "public"."plugin" IS '插件信息主表';
 
 -- ----------------------------
 -- Records of plugin
 -- ----------------------------
-INSERT INTO "public"."plugin" VALUES ('yonchain.deepseek', 'deepseek', '0.0.2', '深度求索提供的模型，包括 deepseek-chat、deepseek-reasoner、deepseek-coder 等。', 'yonchain', NULL, 'model', 'enabled', 'C:\Users\hongk\AppData\Local\Temp\yonchain-plugins\tenant_install_1762676226249_deepseek-0.1.0-SNAPSHOT.jar', NULL, NULL, NULL, '2025-11-09 16:17:06.27561', '2025-11-09 16:17:12.164271', '2025-11-09 16:17:06.264641', NULL, '2025-11-09 16:17:12.003789', 'C:\Users\hongk\AppData\Local\Temp\yonchain-plugins\icons\yonchain.deepseek_icon.svg');
-INSERT INTO "public"."plugin" VALUES ('yonchain.openai', 'openai', '0.2.5', 'OpenAI 提供的模型，例如 GPT-3.5-Turbo、GPT-4 和 GPT-5。', 'langgenius', NULL, 'model', 'enabled', 'C:\Users\hongk\AppData\Local\Temp\yonchain-plugins\tenant_install_1762676222052_openai-0.1.0-SNAPSHOT.jar', NULL, NULL, NULL, '2025-11-09 16:17:02.086498', '2025-11-09 16:17:14.433871', '2025-11-09 16:17:02.076524', NULL, '2025-11-09 16:17:14.274419', 'C:\Users\hongk\AppData\Local\Temp\yonchain-plugins\icons\yonchain.openai_icon.svg');
+INSERT INTO "public"."plugin" VALUES ('yonchain.deepseek', 'deepseek', '0.0.2', '深度求索提供的模型，包括 deepseek-chat、deepseek-reasoner、deepseek-coder 等。', 'yonchain', NULL, 'model', 'enabled', 'C:\Users\hongk\AppData\Local\Temp\yonchain-plugins\tenant_install_1762676226249_deepseek-0.1.0-SNAPSHOT.jar', NULL, NULL, NULL, '2025-11-09 16:17:06.27561', '2025-11-09 16:17:12.164271', '2025-11-09 16:17:06.264641', NULL, '2025-11-09 16:17:12.003789', 'C:\Users\hongk\AppData\Local\Temp\yonchain-plugins\icons\yonchain.deepseek_icon.svg', NULL, NULL);
+INSERT INTO "public"."plugin" VALUES ('yonchain.openai', 'openai', '0.2.5', 'OpenAI 提供的模型，例如 GPT-3.5-Turbo、GPT-4 和 GPT-5。', 'langgenius', NULL, 'model', 'enabled', 'C:\Users\hongk\AppData\Local\Temp\yonchain-plugins\tenant_install_1762676222052_openai-0.1.0-SNAPSHOT.jar', NULL, NULL, NULL, '2025-11-09 16:17:02.086498', '2025-11-09 16:17:14.433871', '2025-11-09 16:17:02.076524', NULL, '2025-11-09 16:17:14.274419', 'C:\Users\hongk\AppData\Local\Temp\yonchain-plugins\icons\yonchain.openai_icon.svg', NULL, NULL);
 
 -- ----------------------------
 -- Table structure for plugin_install_task
@@ -1046,9 +1107,14 @@ CREATE TABLE "public"."plugin_install_task" (
   "tenant_id" uuid NOT NULL,
   "total_plugins" int8 NOT NULL,
   "completed_plugins" int8 NOT NULL,
-  "plugins" text COLLATE "pg_catalog"."default"
+  "plugins" text COLLATE "pg_catalog"."default",
+  "error_message" text COLLATE "pg_catalog"."default"
 )
 ;
+COMMENT ON COLUMN "public"."plugin_install_task"."status" IS '任务状态：pending、running、completed、failed';
+COMMENT ON COLUMN "public"."plugin_install_task"."plugins" IS '插件列表（JSON）：文件名、SHA-256、大小、当前阶段、插件ID';
+COMMENT ON COLUMN "public"."plugin_install_task"."error_message" IS '失败原因';
+COMMENT ON TABLE "public"."plugin_install_task" IS '插件异步安装任务表';
 
 -- ----------------------------
 -- Records of plugin_install_task
@@ -2143,6 +2209,24 @@ CREATE INDEX "idx_model_invoke_log_tenant_id" ON "public"."model_invoke_log" USI
 -- ----------------------------
 ALTER TABLE "public"."model_invoke_log" ADD CONSTRAINT "model_invoke_log_pkey" PRIMARY KEY ("id");
 
+-- ----------------------------
+-- Primary Key structure for table model_quota_usage
+-- ----------------------------
+ALTER TABLE "public"."model_quota_usage" ADD CONSTRAINT "model_quota_usage_pkey" PRIMARY KEY ("counter_key");
+
+-- ----------------------------
+-- Indexes structure for table model_usage_rollup
+-- ----------------------------
+CREATE INDEX "idx_model_usage_rollup_tenant_time" ON "public"."model_usage_rollup" USING btree (
+  "tenant_id" COLLATE "pg_catalog"."default" "pg_catalog"."text_ops" ASC NULLS LAST,
+  "bucket_time" "pg_catalog"."timestamp_ops" ASC NULLS LAST
+);
+
+-- ----------------------------
+-- Primary Key structure for table model_usage_rollup
+-- ----------------------------
+ALTER TABLE "public"."model_usage_rollup" ADD CONSTRAINT "model_usage_rollup_pkey" PRIMARY KEY ("bucket_time", "tenant_id", "model_code", "provider_code", "status", "node_id");
+
 -- ----------------------------
 -- Indexes structure for table model_provider
 -- ----------------------------
@@ -1,13 +1,21 @@
 package com.yonchain.ai.openai;
 
+import com.yonchain.ai.model.deadline.DeadlineClientHttpRequestFactory;
+import com.yonchain.ai.model.deadline.DeadlineRetryTemplates;
 import com.yonchain.ai.model.enums.ModelType;
 import com.yonchain.ai.plugin.ModelProvider;
 import com.yonchain.ai.business.ModelConfig;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.image.ImageModel;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.openai.api.OpenAiApi;
 
@@ -48,8 +56,11 @@ public class OpenAiModelProvider implements ModelProvider {
                 throw new IllegalStateException(errorMsg);
             }
 
-            // 获取自定义的base URL（如果有）
-            String baseUrl = System.getenv("DEEPSEEK_BASE_URL");
+            // 获取自定义的base URL：优先使用模型定义的端点（如本地模拟上游），其次为环境变量和系统属性
+            String baseUrl = modelConfig.getEndpoint();
+            if (baseUrl == null || baseUrl.isBlank()) {
+                baseUrl = System.getenv("DEEPSEEK_BASE_URL");
+            }
             if (baseUrl == null) {
                 baseUrl = System.getProperty("openai.base.url");
                 if (baseUrl == null) {
@@ -67,12 +78,16 @@ public class OpenAiModelProvider implements ModelProvider {
             OpenAiApi deepSeekApi = OpenAiApi.builder()
                     .apiKey(apiKey)
                     .baseUrl(baseUrl)
+                    .restClientBuilder(createRestClientBuilder(modelConfig))
+                    .webClientBuilder(WebClient.builder().observationRegistry(getObservationRegistry(modelConfig)))
                     .build();
 
             // 创建聊天模型
             org.springframework.ai.openai.OpenAiChatModel chatModel = OpenAiChatModel.builder()
                     .openAiApi(deepSeekApi)
                     .defaultOptions(options)
+                    .retryTemplate(DeadlineRetryTemplates.create())
+                    .observationRegistry(getObservationRegistry(modelConfig))
                     .build();
 
             log.info("Successfully created DeepSeek chat model: {}", modelConfig.getName());
@@ -142,6 +157,37 @@ public class OpenAiModelProvider implements ModelProvider {
         }
     }
     
+    /**
+     * 根据模型配置的超时创建RestClient构建器
+     * 
+     * @param modelConfig 模型配置
+     * @return 带连接超时和读超时（不超过请求剩余时间）的RestClient构建器
+     */
+    private RestClient.Builder createRestClientBuilder(ModelConfig modelConfig) {
+        int connectTimeout = modelConfig.getProperty("connectTimeout", 10000);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .build();
+        
+        // 读超时按请求的剩余截止时间收紧
+        DeadlineClientHttpRequestFactory requestFactory =
+                new DeadlineClientHttpRequestFactory(httpClient, Duration.ofMillis(modelConfig.getTimeout()));
+        return RestClient.builder()
+                .requestFactory(requestFactory)
+                .observationRegistry(getObservationRegistry(modelConfig));
+    }
+    
+    /**
+     * 获取网关传入的ObservationRegistry，HTTP客户端据此记录Span并向上游传播W3C traceparent
+     * 
+     * @param modelConfig 模型配置
+     * @return ObservationRegistry，未传入时为NOOP
+     */
+    private ObservationRegistry getObservationRegistry(ModelConfig modelConfig) {
+        Object registry = modelConfig.getProperty("observationRegistry", null);
+        return registry instanceof ObservationRegistry observationRegistry ? observationRegistry : ObservationRegistry.NOOP;
+    }
+    
     /**
      * 检查是否支持指定的模型类型
      * 
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025-2028 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yonchain.ai.api.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 模型用量统计服务接口
+ *
+ * @author chengy
+ * @since 1.0.0
+ */
+public interface ModelUsageService {
+
+    /**
+     * 按时间粒度查询模型用量统计
+     *
+     * @param tenantId    租户ID
+     * @param modelCode   模型代码，为空时统计所有模型
+     * @param from        开始时间（含）
+     * @param to          结束时间（不含）
+     * @param granularity 时间粒度：minute、hour、day
+     * @param groupBy     分组维度：model、provider、none
+     * @return 用量统计列表，按时间排序
+     */
+    List<ModelUsageStat> getUsageStats(String tenantId, String modelCode, LocalDateTime from, LocalDateTime to,
+                                       String granularity, String groupBy);
+}
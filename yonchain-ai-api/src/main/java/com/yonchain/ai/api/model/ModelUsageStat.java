@@ -0,0 +1,225 @@
+/*
+ * Copyright 2025-2028 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yonchain.ai.api.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 模型用量统计
+ * 延迟分位数和去重用户数由草图合并得到，为估计值
+ *
+ * @author chengy
+ * @since 1.0.0
+ */
+public class ModelUsageStat {
+
+    /**
+     * 统计时间段起始时间
+     */
+    private LocalDateTime bucketTime;
+
+    /**
+     * 模型代码，未按模型分组时为空
+     */
+    private String modelCode;
+
+    /**
+     * 提供商代码，未按模型或提供商分组时为空
+     */
+    private String providerCode;
+
+    /**
+     * 调用次数
+     */
+    private Long requestCount;
+
+    /**
+     * 失败次数（包括超时）
+     */
+    private Long errorCount;
+
+    /**
+     * 输入Token数
+     */
+    private Long promptTokens;
+
+    /**
+     * 输出Token数
+     */
+    private Long completionTokens;
+
+    /**
+     * 总Token数
+     */
+    private Long totalTokens;
+
+    /**
+     * 费用（基准币种）
+     */
+    private BigDecimal cost;
+
+    /**
+     * 平均耗时（毫秒）
+     */
+    private Double avgLatency;
+
+    /**
+     * 耗时中位数（毫秒）
+     */
+    private Double p50Latency;
+
+    /**
+     * 耗时95分位（毫秒）
+     */
+    private Double p95Latency;
+
+    /**
+     * 耗时99分位（毫秒）
+     */
+    private Double p99Latency;
+
+    /**
+     * 最大耗时（毫秒）
+     */
+    private Integer maxLatency;
+
+    /**
+     * 去重用户数（估计值）
+     */
+    private Long distinctUsers;
+
+    public LocalDateTime getBucketTime() {
+        return bucketTime;
+    }
+
+    public void setBucketTime(LocalDateTime bucketTime) {
+        this.bucketTime = bucketTime;
+    }
+
+    public String getModelCode() {
+        return modelCode;
+    }
+
+    public void setModelCode(String modelCode) {
+        this.modelCode = modelCode;
+    }
+
+    public String getProviderCode() {
+        return providerCode;
+    }
+
+    public void setProviderCode(String providerCode) {
+        this.providerCode = providerCode;
+    }
+
+    public Long getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(Long requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public Long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(Long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public Long getPromptTokens() {
+        return promptTokens;
+    }
+
+    public void setPromptTokens(Long promptTokens) {
+        this.promptTokens = promptTokens;
+    }
+
+    public Long getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public void setCompletionTokens(Long completionTokens) {
+        this.completionTokens = completionTokens;
+    }
+
+    public Long getTotalTokens() {
+        return totalTokens;
+    }
+
+    public void setTotalTokens(Long totalTokens) {
+        this.totalTokens = totalTokens;
+    }
+
+    public BigDecimal getCost() {
+        return cost;
+    }
+
+    public void setCost(BigDecimal cost) {
+        this.cost = cost;
+    }
+
+    public Double getAvgLatency() {
+        return avgLatency;
+    }
+
+    public void setAvgLatency(Double avgLatency) {
+        this.avgLatency = avgLatency;
+    }
+
+    public Double getP50Latency() {
+        return p50Latency;
+    }
+
+    public void setP50Latency(Double p50Latency) {
+        this.p50Latency = p50Latency;
+    }
+
+    public Double getP95Latency() {
+        return p95Latency;
+    }
+
+    public void setP95Latency(Double p95Latency) {
+        this.p95Latency = p95Latency;
+    }
+
+    public Double getP99Latency() {
+        return p99Latency;
+    }
+
+    public void setP99Latency(Double p99Latency) {
+        this.p99Latency = p99Latency;
+    }
+
+    public Integer getMaxLatency() {
+        return maxLatency;
+    }
+
+    public void setMaxLatency(Integer maxLatency) {
+        this.maxLatency = maxLatency;
+    }
+
+    public Long getDistinctUsers() {
+        return distinctUsers;
+    }
+
+    public void setDistinctUsers(Long distinctUsers) {
+        this.distinctUsers = distinctUsers;
+    }
+}
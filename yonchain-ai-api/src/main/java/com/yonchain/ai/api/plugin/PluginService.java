@@ -128,6 +128,39 @@ public interface PluginService {
      */
     String installPluginFromMarketplaceForTenant(String tenantId, String marketplaceId);
 
+    /**
+     * 为租户提交后台安装任务
+     *
+     * 上传写入暂存目录后立即返回，解析、验证、安装在后台执行，进度通过 {@link #getInstallTask} 查询
+     *
+     * @param tenantId 租户ID
+     * @param inputStream 插件文件输入流
+     * @param fileName 文件名
+     * @return 安装任务ID（相同的插件文件正在安装时返回已有任务ID）
+     */
+    String submitPluginInstallForTenant(String tenantId, InputStream inputStream, String fileName);
+
+    /**
+     * 查询租户的安装任务
+     *
+     * @param tenantId 租户ID
+     * @param taskId 任务ID
+     * @return 任务信息Map，包含taskId、status、progress、plugins（各插件当前阶段）、errorMessage等字段，不存在返回null
+     */
+    Map<String, Object> getInstallTask(String tenantId, String taskId);
+
+    /**
+     * 升级插件（不中断服务）
+     * 
+     * 已启用的插件切换到新版本时，正在进行的调用在旧版本上完成，新调用使用新版本
+     * 
+     * @param pluginId 插件ID
+     * @param inputStream 新版本插件文件输入流
+     * @param fileName 文件名
+     * @return 升级结果消息
+     */
+    String upgradePlugin(String pluginId, InputStream inputStream, String fileName);
+
     /**
      * 卸载插件（全局卸载，删除所有租户的安装记录）
      * 
@@ -45,6 +45,18 @@ public interface SecurityService {
      */
     Map<String, Object> getClaimsFromToken(String token);
 
+    /**
+     * 校验令牌的签名和有效期并获取声明
+     * <p>
+     * 与 {@link #getClaimsFromToken(String)} 不同，本方法不依赖Spring Security过滤器链已校验过令牌，
+     * 可用于在过滤器链之前处理的请求（如模型网关）
+     *
+     * @param token 令牌
+     * @return 声明映射
+     * @throws com.yonchain.ai.api.exception.YonchainException 令牌无效或已过期
+     */
+    Map<String, Object> verifyToken(String token);
+
     /**
      * 生成密码
      *
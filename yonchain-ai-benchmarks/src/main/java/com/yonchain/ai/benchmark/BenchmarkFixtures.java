@@ -0,0 +1,141 @@
+package com.yonchain.ai.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.chat.ChatModelFilter;
+import com.yonchain.ai.embedding.EmbeddingModelFilter;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.metrics.GatewayMetrics;
+import com.yonchain.ai.model.DefaultModelClient;
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.model.definition.ModelDefinition;
+import com.yonchain.ai.quota.QuotaEngine;
+import com.yonchain.ai.quota.store.InMemoryQuotaStore;
+import com.yonchain.ai.tracing.ModelObservations;
+import com.yonchain.ai.usage.rollup.UsageRollupAggregator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试公共数据
+ * <p>
+ * 模型配置关闭调用日志、用量汇总、指标和链路追踪，过滤器只保留被测的转换逻辑，不访问数据库和上游。
+ * 生成的文本和请求体是确定的，不同版本之间的结果可以直接比较。
+ */
+public final class BenchmarkFixtures {
+
+    public static final String NAMESPACE = "openai";
+    public static final String MODEL = "gpt-4o-mini";
+    public static final String MODEL_ID = NAMESPACE + ":" + MODEL;
+
+    private static final String SAMPLE = "The gateway converts OpenAI compatible requests for every provider. "
+            + "模型网关负责将OpenAI兼容的请求转换为各个提供商的调用，并统计Token用量。";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private BenchmarkFixtures() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    /**
+     * 创建关闭了后台组件的模型配置，并注册 openai:gpt-4o-mini 及 extraModels 个其他模型
+     */
+    public static ModelConfiguration configuration(int extraModels) {
+        ModelConfiguration configuration = new ModelConfiguration();
+        configuration.setProperty(InvokeLogWriter.ENABLED, "false");
+        configuration.setProperty(UsageRollupAggregator.ENABLED, "false");
+        configuration.setProperty(GatewayMetrics.ENABLED, "false");
+        configuration.setProperty(ModelObservations.ENABLED, "false");
+        configuration.setProperty(ModelObservations.PHASES_ENABLED, "false");
+        configuration.initTokenizers();
+
+        configuration.registerModel(new ModelDefinition(MODEL, NAMESPACE, "chat"));
+        for (int i = 0; i < extraModels; i++) {
+            configuration.registerModel(new ModelDefinition("model-" + i, "namespace-" + (i % 16), "chat"));
+        }
+        return configuration;
+    }
+
+    public static DefaultModelClient modelClient(int extraModels) {
+        return new DefaultModelClient(configuration(extraModels));
+    }
+
+    public static ChatModelFilter chatFilter(DefaultModelClient modelClient) {
+        ModelConfiguration configuration = modelClient.getConfiguration();
+        return new ChatModelFilter(modelClient, OBJECT_MAPPER,
+                new QuotaEngine(configuration, List.of(new InMemoryQuotaStore())),
+                new InvokeLogWriter(configuration, null, OBJECT_MAPPER),
+                new UsageRollupAggregator(configuration, null),
+                new GatewayMetrics(configuration, null));
+    }
+
+    public static EmbeddingModelFilter embeddingFilter(DefaultModelClient modelClient) {
+        ModelConfiguration configuration = modelClient.getConfiguration();
+        return new EmbeddingModelFilter(modelClient, OBJECT_MAPPER,
+                new InvokeLogWriter(configuration, null, OBJECT_MAPPER),
+                new UsageRollupAggregator(configuration, null),
+                new GatewayMetrics(configuration, null));
+    }
+
+    /**
+     * 生成指定长度的中英文混合文本
+     */
+    public static String text(int chars) {
+        StringBuilder builder = new StringBuilder(chars);
+        while (builder.length() < chars) {
+            builder.append(SAMPLE, 0, Math.min(SAMPLE.length(), chars - builder.length()));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 生成聊天请求参数（第一条为system消息，其余user/assistant交替）
+     *
+     * @param messages     消息数
+     * @param contentChars 每条消息的字符数
+     */
+    public static Map<String, Object> chatRequest(int messages, int contentChars) {
+        String content = text(contentChars);
+        List<Map<String, Object>> messageList = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            Map<String, Object> message = new HashMap<>();
+            message.put("role", i == 0 ? "system" : (i % 2 == 1 ? "user" : "assistant"));
+            message.put("content", content);
+            messageList.add(message);
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("model", MODEL_ID);
+        request.put("messages", messageList);
+        request.put("temperature", 0.7);
+        request.put("max_tokens", 512);
+        request.put("stream", false);
+        return request;
+    }
+
+    /**
+     * 生成聊天请求体JSON
+     */
+    public static byte[] chatRequestBody(int messages, int contentChars) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(chatRequest(messages, contentChars));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize chat request", e);
+        }
+    }
+
+    /**
+     * 生成确定的嵌入向量
+     */
+    public static float[] vector(int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) Math.sin(i * 0.37) * 0.05f;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,83 @@
+package com.yonchain.ai.chat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.yonchain.ai.benchmark.BenchmarkFixtures;
+import com.yonchain.ai.model.request.ChatRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChatModelFilter 请求和响应转换基准测试
+ * <p>
+ * convertChatResponseStream 对应流式输出中的单个分块（每个Token一次），
+ * convertChatResponseSync 对应同步响应的完整文本，streamChunkEvent 额外包含分块的JSON序列化。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatModelFilterBenchmark {
+
+    @Param({"2", "16", "64"})
+    private int messages;
+
+    @Param({"2048"})
+    private int responseChars;
+
+    private ChatModelFilter filter;
+    private Map<String, Object> requestParams;
+    private ChatResponse syncResponse;
+    private ChatResponse streamChunk;
+
+    @Setup
+    public void setup() {
+        filter = BenchmarkFixtures.chatFilter(BenchmarkFixtures.modelClient(0));
+        requestParams = BenchmarkFixtures.chatRequest(messages, 512);
+        syncResponse = new ChatResponse(List.of(
+                new Generation(new AssistantMessage(BenchmarkFixtures.text(responseChars)))));
+        streamChunk = new ChatResponse(List.of(
+                new Generation(new AssistantMessage(BenchmarkFixtures.text(6)))));
+    }
+
+    @Benchmark
+    public ChatRequest convertToChatRequest() {
+        return filter.convertToChatRequest(requestParams);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertChatResponseSync() {
+        return filter.convertChatResponse(syncResponse, false);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertChatResponseStream() {
+        return filter.convertChatResponse(streamChunk, true);
+    }
+
+    /**
+     * 流式分块转换加序列化为SSE事件（与handleStreamRequest中每个分块的处理一致）
+     */
+    @Benchmark
+    public String streamChunkEvent() throws JsonProcessingException {
+        return "data: " + BenchmarkFixtures.objectMapper()
+                .writeValueAsString(filter.convertChatResponse(streamChunk, true)) + "\n\n";
+    }
+}
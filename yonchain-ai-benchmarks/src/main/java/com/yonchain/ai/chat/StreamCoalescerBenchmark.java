@@ -0,0 +1,111 @@
+package com.yonchain.ai.chat;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StreamCoalescer 基准测试
+ * <p>
+ * 每次调用写出一个完整的流式响应（chunks个SSE事件后关闭），底层Writer每次flush消耗固定CPU，
+ * 模拟一次网络写出的系统调用开销；flushes计数器为每次调用的实际flush次数。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamCoalescerBenchmark {
+
+    private static final String EVENT = "data: {\"id\":\"chatcmpl-0\",\"object\":\"chat.completion.chunk\","
+            + "\"choices\":[{\"index\":0,\"delta\":{\"content\":\"token\"}}]}\n\n";
+
+    @Param({"false", "true"})
+    private boolean coalescing;
+
+    @Param({"256"})
+    private int chunks;
+
+    /**
+     * 每次flush消耗的CPU（Blackhole.consumeCPU的单位）
+     */
+    @Param({"2000"})
+    private long flushCost;
+
+    private StreamCoalescingPolicy policy;
+
+    @Setup
+    public void setup() {
+        policy = coalescing ? new StreamCoalescingPolicy(true, 20, 4096) : StreamCoalescingPolicy.DISABLED;
+    }
+
+    @Benchmark
+    public void writeStream(FlushCounters counters) {
+        StreamCoalescer coalescer = new StreamCoalescer(new PrintWriter(new CostlyFlushWriter(counters, flushCost)),
+                policy);
+        for (int i = 0; i < chunks; i++) {
+            coalescer.write(EVENT);
+        }
+        coalescer.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FlushCounters {
+
+        public long flushes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            flushes = 0;
+        }
+    }
+
+    /**
+     * 丢弃写入内容、flush时消耗固定CPU的Writer
+     */
+    private static final class CostlyFlushWriter extends Writer {
+
+        private final FlushCounters counters;
+        private final long flushCost;
+
+        private CostlyFlushWriter(FlushCounters counters, long flushCost) {
+            this.counters = counters;
+            this.flushCost = flushCost;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+            counters.flushes++;
+            Blackhole.consumeCPU(flushCost);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
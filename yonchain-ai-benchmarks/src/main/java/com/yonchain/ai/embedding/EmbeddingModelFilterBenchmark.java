@@ -0,0 +1,63 @@
+package com.yonchain.ai.embedding;
+
+import com.yonchain.ai.benchmark.BenchmarkFixtures;
+import com.yonchain.ai.model.request.EmbeddingRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.EmbeddingResponseMetadata;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmbeddingModelFilter.convertEmbeddingResponse 基准测试
+ * <p>
+ * usageReported 为false时走本地Token计数（输入文本约2000字符），用于观察计数在转换中的占比。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbeddingModelFilterBenchmark {
+
+    @Param({"1536", "3072"})
+    private int dimensions;
+
+    @Param({"true", "false"})
+    private boolean usageReported;
+
+    private EmbeddingModelFilter filter;
+    private EmbeddingRequest request;
+    private EmbeddingResponse response;
+
+    @Setup
+    public void setup() {
+        filter = BenchmarkFixtures.embeddingFilter(BenchmarkFixtures.modelClient(0));
+        request = new EmbeddingRequest(BenchmarkFixtures.text(2000));
+        Embedding embedding = new Embedding(BenchmarkFixtures.vector(dimensions), 0);
+        EmbeddingResponseMetadata metadata = usageReported
+                ? new EmbeddingResponseMetadata(BenchmarkFixtures.MODEL, new DefaultUsage(420, 0, 420))
+                : new EmbeddingResponseMetadata();
+        response = new EmbeddingResponse(List.of(embedding), metadata);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertEmbeddingResponse() {
+        return filter.convertEmbeddingResponse(BenchmarkFixtures.MODEL_ID, request, response);
+    }
+}
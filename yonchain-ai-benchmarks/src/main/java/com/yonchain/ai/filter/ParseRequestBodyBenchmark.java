@@ -0,0 +1,87 @@
+package com.yonchain.ai.filter;
+
+import com.yonchain.ai.benchmark.BenchmarkFixtures;
+import com.yonchain.ai.model.ModelClient;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * BaseModelFilter.parseRequestBody 基准测试
+ * <p>
+ * 每次调用都创建一个新的MockHttpServletRequest（请求输入流只能读取一次），这部分开销对所有参数组合相同。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseRequestBodyBenchmark {
+
+    @Param({"2", "16", "64"})
+    private int messages;
+
+    @Param({"256", "4096"})
+    private int contentChars;
+
+    private ParseOnlyFilter filter;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        filter = new ParseOnlyFilter(BenchmarkFixtures.modelClient(0));
+        body = BenchmarkFixtures.chatRequestBody(messages, contentChars);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseRequestBody() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/chat/completions");
+        request.setContentType("application/json");
+        request.setContent(body);
+        return filter.parseRequestBody(request);
+    }
+
+    /**
+     * 只用于调用解析方法的过滤器
+     */
+    static final class ParseOnlyFilter extends BaseModelFilter {
+
+        private static final Pattern ENDPOINT_PATTERN = Pattern.compile(".*/chat/completions$");
+
+        ParseOnlyFilter(ModelClient modelClient) {
+            super(modelClient, BenchmarkFixtures.objectMapper());
+        }
+
+        @Override
+        protected Pattern getEndpointPattern() {
+            return ENDPOINT_PATTERN;
+        }
+
+        @Override
+        protected String getModelType() {
+            return "chat";
+        }
+
+        @Override
+        protected void handleModelRequest(HttpServletRequest request, HttpServletResponse response) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.yonchain.ai.model;
+
+import com.yonchain.ai.benchmark.BenchmarkFixtures;
+import com.yonchain.ai.model.definition.ModelDefinition;
+import com.yonchain.ai.model.definition.ModelTimeouts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DefaultModelClient 模型解析基准测试
+ * <p>
+ * 每个请求在过滤器和客户端中都会按 namespace:model 解析模型定义（以及超时配置），
+ * registeredModels 为注册表中的其他模型数量。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelResolutionBenchmark {
+
+    @Param({"10", "1000"})
+    private int registeredModels;
+
+    private DefaultModelClient modelClient;
+
+    @Setup
+    public void setup() {
+        modelClient = BenchmarkFixtures.modelClient(registeredModels);
+    }
+
+    @Benchmark
+    public ModelDefinition getModelDefinition() {
+        return modelClient.getModelDefinition(BenchmarkFixtures.MODEL_ID);
+    }
+
+    @Benchmark
+    public ModelTimeouts getTimeouts() {
+        return modelClient.getTimeouts(BenchmarkFixtures.MODEL_ID);
+    }
+}
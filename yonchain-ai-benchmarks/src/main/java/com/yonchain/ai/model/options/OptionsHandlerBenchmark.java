@@ -0,0 +1,77 @@
+package com.yonchain.ai.model.options;
+
+import com.yonchain.ai.benchmark.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.DefaultChatOptions;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ModelOptionsHandlerRegistry.resolveHandler 及选项构建基准测试
+ * <p>
+ * resolveModelHandler 命中模型级处理器，resolveNamespaceHandler 经过模型级和显式类名查找后命中命名空间级处理器，
+ * buildOptions 为命中后的运行时选项构建。
+ * <p>
+ * resolveHandler 每次调用都会向System.out打印调试信息，测试期间System.out指向丢弃输出的流，
+ * 保留字符串拼接和PrintStream加锁的开销，但不把输出写到控制台。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OptionsHandlerBenchmark {
+
+    private static final String OTHER_MODEL = "gpt-4.1";
+
+    private ModelOptionsHandlerRegistry registry;
+    private ModelOptionsHandler<DefaultChatOptions> handler;
+    private Map<String, Object> parameters;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        handler = ReflectiveOptionsHandler.forClass(DefaultChatOptions.class);
+        registry = new ModelOptionsHandlerRegistry();
+        registry.registerModelHandler(BenchmarkFixtures.NAMESPACE, BenchmarkFixtures.MODEL, handler);
+        registry.registerNamespaceHandler(BenchmarkFixtures.NAMESPACE, "chat", handler);
+        parameters = Map.of("temperature", 0.7, "max_tokens", 512, "top_p", 0.9);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public ModelOptionsHandler<ChatOptions> resolveModelHandler() {
+        return registry.resolveHandler(BenchmarkFixtures.NAMESPACE, BenchmarkFixtures.MODEL, "chat", null);
+    }
+
+    @Benchmark
+    public ModelOptionsHandler<ChatOptions> resolveNamespaceHandler() {
+        return registry.resolveHandler(BenchmarkFixtures.NAMESPACE, OTHER_MODEL, "chat", null);
+    }
+
+    @Benchmark
+    public DefaultChatOptions buildOptions() {
+        return handler.buildOptions(parameters);
+    }
+}
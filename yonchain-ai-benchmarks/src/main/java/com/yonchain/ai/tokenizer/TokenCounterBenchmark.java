@@ -0,0 +1,88 @@
+package com.yonchain.ai.tokenizer;
+
+import com.yonchain.ai.benchmark.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token计数基准测试
+ * <p>
+ * 词表通过 -Dbenchmark.tokenizer.dir=&lt;目录&gt; 指定（目录下为 tokenizer/{encoding}.tiktoken，与插件资源布局相同），
+ * 未指定时从类路径查找，找不到时测量的是 {@link ApproximateTokenCounter}（启动时在标准错误输出提示）。
+ * tokens计数器为每秒计数的Token数。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenCounterBenchmark {
+
+    private static final String VOCABULARY_DIR = "benchmark.tokenizer.dir";
+
+    @Param({"cl100k_base", "o200k_base"})
+    private String encoding;
+
+    @Param({"256", "8192"})
+    private int textChars;
+
+    private TokenCounter counter;
+    private String text;
+
+    @Setup
+    public void setup() throws MalformedURLException {
+        TokenizerRegistry registry = new TokenizerRegistry();
+        String directory = System.getProperty(VOCABULARY_DIR);
+        if (directory != null && !directory.isBlank()) {
+            Path path = Paths.get(directory).toAbsolutePath();
+            registry.registerResourceLoader("benchmark",
+                    new URLClassLoader(new URL[]{path.toUri().toURL()}, null));
+        }
+        registry.preload(List.of(encoding));
+        counter = registry.getTokenCounter(encoding);
+        if (counter instanceof ApproximateTokenCounter) {
+            System.err.println("Tokenizer vocabulary for " + encoding
+                    + " not found, measuring approximate counting (set -D" + VOCABULARY_DIR + ")");
+        }
+        text = BenchmarkFixtures.text(textChars);
+    }
+
+    @Benchmark
+    public int countTokens(TokenCounters counters) {
+        int tokens = counter.countTokens(text);
+        counters.tokens += tokens;
+        return tokens;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class TokenCounters {
+
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.yonchain.ai.api.common.Page;
 import com.yonchain.ai.api.exception.YonchainException;
 import com.yonchain.ai.api.model.ModelInfo;
 import com.yonchain.ai.api.model.ModelProviderInfo;
+import com.yonchain.ai.api.model.ModelUsageStat;
 import com.yonchain.ai.api.plugin.dto.PluginInfo;
 import com.yonchain.ai.api.sys.*;
 import com.yonchain.ai.api.tag.Tag;
@@ -16,10 +17,12 @@ import com.yonchain.ai.console.file.response.FileResponse;
 import com.yonchain.ai.console.model.response.ModelConfigResponse;
 import com.yonchain.ai.console.model.response.ModelProviderResponse;
 import com.yonchain.ai.console.model.response.ModelResponse;
+import com.yonchain.ai.console.model.response.ModelUsageResponse;
 import com.yonchain.ai.console.plugin.response.PluginPreviewResponse;
 import com.yonchain.ai.console.plugin.response.PluginResponse;
 import com.yonchain.ai.console.sys.response.*;
 import com.yonchain.ai.console.tag.response.TagResponse;
+import com.yonchain.ai.jfr.JfrRecordingManager;
 import com.yonchain.ai.web.response.ListResponse;
 import com.yonchain.ai.web.response.PageResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -28,6 +31,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.util.StringUtils;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -107,6 +113,66 @@ public class ResponseFactory {
 
     }
 
+    /**
+     * 创建模型用量统计列表响应对象
+     *
+     * @param stats 用量统计列表
+     * @return 用量统计列表响应对象
+     */
+    public ListResponse<ModelUsageResponse> createModelUsageListResponse(List<ModelUsageStat> stats) {
+        ListResponse<ModelUsageResponse> response = new ListResponse<>();
+        response.setData(stats.stream()
+                .map(this::createModelUsageResponse)
+                .toList());
+        return response;
+    }
+
+    /**
+     * 创建模型用量统计响应对象
+     *
+     * @param stat 用量统计
+     * @return 用量统计响应对象
+     */
+    public ModelUsageResponse createModelUsageResponse(ModelUsageStat stat) {
+        ModelUsageResponse response = new ModelUsageResponse();
+        response.setBucketTime(stat.getBucketTime());
+        response.setModelCode(stat.getModelCode());
+        response.setProviderCode(stat.getProviderCode());
+        response.setRequestCount(stat.getRequestCount());
+        response.setErrorCount(stat.getErrorCount());
+        response.setPromptTokens(stat.getPromptTokens());
+        response.setCompletionTokens(stat.getCompletionTokens());
+        response.setTotalTokens(stat.getTotalTokens());
+        response.setCost(stat.getCost());
+        response.setAvgLatency(stat.getAvgLatency());
+        response.setP50Latency(stat.getP50Latency());
+        response.setP95Latency(stat.getP95Latency());
+        response.setP99Latency(stat.getP99Latency());
+        response.setMaxLatency(stat.getMaxLatency());
+        response.setDistinctUsers(stat.getDistinctUsers());
+        return response;
+    }
+
+    /**
+     * 创建JFR记录状态响应对象
+     *
+     * @param status 记录状态
+     * @return 记录状态响应对象
+     */
+    public JfrRecordingResponse createJfrRecordingResponse(JfrRecordingManager.RecordingStatus status) {
+        JfrRecordingResponse response = new JfrRecordingResponse();
+        response.setState(status.state());
+        response.setStartTime(toLocalDateTime(status.startTime()));
+        response.setStopTime(toLocalDateTime(status.stopTime()));
+        response.setDurationSeconds(status.duration() != null ? status.duration().toSeconds() : null);
+        response.setSize(status.size());
+        return response;
+    }
+
+    private LocalDateTime toLocalDateTime(Instant instant) {
+        return instant != null ? LocalDateTime.ofInstant(instant, ZoneId.systemDefault()) : null;
+    }
+
     /**
      * 创建模型分页响应对象
      * <p>
@@ -0,0 +1,55 @@
+package com.yonchain.ai.console.model.controller;
+
+import com.yonchain.ai.api.model.ModelUsageService;
+import com.yonchain.ai.api.model.ModelUsageStat;
+import com.yonchain.ai.console.BaseController;
+import com.yonchain.ai.console.model.request.ModelUsageQueryRequest;
+import com.yonchain.ai.console.model.response.ModelUsageResponse;
+import com.yonchain.ai.web.response.ListResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 模型用量统计控制器
+ * 数据来自分钟汇总表，最近一分钟的调用在下次汇总写入后可见
+ *
+ * @author chengy
+ * @since 1.0.0
+ */
+@Tag(name = "模型用量统计", description = "模型调用量、Token、费用和延迟统计接口")
+@RestController
+@RequestMapping("/models/usage")
+public class ModelUsageController extends BaseController {
+
+    @Autowired
+    private ModelUsageService modelUsageService;
+
+    /**
+     * 查询模型用量统计
+     *
+     * @param request 查询请求
+     * @return 用量统计列表
+     */
+    @Operation(summary = "查询模型用量统计", description = "按时间粒度和分组维度查询当前租户的模型用量统计")
+    @GetMapping
+    public ListResponse<ModelUsageResponse> getUsageStats(
+            @Parameter(description = "查询条件", required = true)
+            ModelUsageQueryRequest request) {
+
+        LocalDateTime endTime = request.getEndTime() != null ? request.getEndTime() : LocalDateTime.now();
+        LocalDateTime startTime = request.getStartTime() != null ? request.getStartTime() : endTime.minusHours(24);
+
+        List<ModelUsageStat> stats = modelUsageService.getUsageStats(getCurrentTenantId(), request.getModelCode(),
+                startTime, endTime, request.getGranularity(), request.getGroupBy());
+
+        return responseFactory.createModelUsageListResponse(stats);
+    }
+}
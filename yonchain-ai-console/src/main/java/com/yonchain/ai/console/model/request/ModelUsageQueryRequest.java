@@ -0,0 +1,48 @@
+package com.yonchain.ai.console.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * 模型用量统计查询请求参数
+ */
+@Data
+@Schema(description = "模型用量统计查询请求参数")
+public class ModelUsageQueryRequest {
+
+    /**
+     * 模型编码
+     */
+    @Schema(description = "模型编码，为空时统计所有模型")
+    private String modelCode;
+
+    /**
+     * 开始时间
+     */
+    @Schema(description = "开始时间（含），默认结束时间前24小时")
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    @Schema(description = "结束时间（不含），默认当前时间")
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime endTime;
+
+    /**
+     * 时间粒度
+     */
+    @Schema(description = "时间粒度：minute、hour、day", defaultValue = "hour")
+    private String granularity = "hour";
+
+    /**
+     * 分组维度
+     */
+    @Schema(description = "分组维度：model、provider、none", defaultValue = "model")
+    private String groupBy = "model";
+
+}
@@ -0,0 +1,107 @@
+package com.yonchain.ai.console.model.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 模型用量统计响应对象
+ */
+@Data
+@Schema(description = "模型用量统计响应对象")
+public class ModelUsageResponse {
+
+    /**
+     * 统计时间段起始时间
+     */
+    @Schema(description = "统计时间段起始时间")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime bucketTime;
+
+    /**
+     * 模型编码
+     */
+    @Schema(description = "模型编码")
+    private String modelCode;
+
+    /**
+     * 提供商编码
+     */
+    @Schema(description = "提供商编码")
+    private String providerCode;
+
+    /**
+     * 调用次数
+     */
+    @Schema(description = "调用次数")
+    private Long requestCount;
+
+    /**
+     * 失败次数（包括超时）
+     */
+    @Schema(description = "失败次数（包括超时）")
+    private Long errorCount;
+
+    /**
+     * 输入Token数
+     */
+    @Schema(description = "输入Token数")
+    private Long promptTokens;
+
+    /**
+     * 输出Token数
+     */
+    @Schema(description = "输出Token数")
+    private Long completionTokens;
+
+    /**
+     * 总Token数
+     */
+    @Schema(description = "总Token数")
+    private Long totalTokens;
+
+    /**
+     * 费用
+     */
+    @Schema(description = "费用")
+    private BigDecimal cost;
+
+    /**
+     * 平均耗时（毫秒）
+     */
+    @Schema(description = "平均耗时（毫秒）")
+    private Double avgLatency;
+
+    /**
+     * 耗时中位数（毫秒）
+     */
+    @Schema(description = "耗时中位数（毫秒）")
+    private Double p50Latency;
+
+    /**
+     * 耗时95分位（毫秒）
+     */
+    @Schema(description = "耗时95分位（毫秒）")
+    private Double p95Latency;
+
+    /**
+     * 耗时99分位（毫秒）
+     */
+    @Schema(description = "耗时99分位（毫秒）")
+    private Double p99Latency;
+
+    /**
+     * 最大耗时（毫秒）
+     */
+    @Schema(description = "最大耗时（毫秒）")
+    private Integer maxLatency;
+
+    /**
+     * 去重用户数（估计值）
+     */
+    @Schema(description = "去重用户数（估计值）")
+    private Long distinctUsers;
+}
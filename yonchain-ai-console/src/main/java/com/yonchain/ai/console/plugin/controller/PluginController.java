@@ -3,6 +3,7 @@ package com.yonchain.ai.console.plugin.controller;
 import com.yonchain.ai.api.plugin.PluginService;
 import com.yonchain.ai.api.plugin.dto.PluginInfo;
 import com.yonchain.ai.api.common.Page;
+import com.yonchain.ai.api.exception.YonchainResourceNotFoundException;
 import com.yonchain.ai.console.BaseController;
 import com.yonchain.ai.console.plugin.request.PluginQueryRequest;
 import com.yonchain.ai.console.plugin.response.PluginPreviewResponse;
@@ -22,6 +23,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -127,6 +129,36 @@ public class PluginController extends BaseController {
         }
     }
 
+    @PostMapping("/install-async")
+    @Operation(summary = "后台安装插件", description = "上传插件文件后立即返回安装任务ID，解析、验证、安装在后台执行")
+    public ApiResponse<Map<String, Object>> submitPluginInstall(
+            @Parameter(description = "插件文件") @RequestParam("file") MultipartFile file) {
+        log.info("提交插件安装任务: {}", file.getOriginalFilename());
+        ValidationUtils.validatePluginFile(file);
+        
+        try (InputStream inputStream = file.getInputStream()) {
+            String tenantId = getCurrentTenantId();
+            String taskId = pluginService.submitPluginInstallForTenant(tenantId, inputStream, file.getOriginalFilename());
+            Map<String, Object> result = new HashMap<>();
+            result.put("taskId", taskId);
+            return ApiResponse.success(result);
+        } catch (Exception e) {
+            log.error("提交插件安装任务失败: {}", file.getOriginalFilename(), e);
+            throw new RuntimeException("提交插件安装任务失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @GetMapping("/install-tasks/{taskId}")
+    @Operation(summary = "查询安装任务", description = "查询后台安装任务的状态、当前阶段和失败原因")
+    public ApiResponse<Map<String, Object>> getInstallTask(
+            @Parameter(description = "任务ID") @PathVariable String taskId) {
+        Map<String, Object> task = pluginService.getInstallTask(getCurrentTenantId(), taskId);
+        if (task == null) {
+            throw new YonchainResourceNotFoundException("安装任务不存在: " + taskId);
+        }
+        return ApiResponse.success(task);
+    }
+
     
     @PostMapping("/install-url")
     @Operation(summary = "通过URL安装插件", description = "通过URL下载并安装插件")
@@ -164,6 +196,24 @@ public class PluginController extends BaseController {
         }
     }
     
+    @PostMapping("/{pluginId}/upgrade")
+    @Operation(summary = "升级插件", description = "上传新版本升级插件，已启用的插件切换过程中不中断调用")
+    public ApiResponse<Void> upgradePlugin(
+            @Parameter(description = "插件ID") @PathVariable String pluginId,
+            @Parameter(description = "插件文件") @RequestParam("file") MultipartFile file) {
+        log.info("升级插件: {} <- {}", pluginId, file.getOriginalFilename());
+        ValidationUtils.validatePluginId(pluginId);
+        ValidationUtils.validatePluginFile(file);
+        
+        try {
+            pluginService.upgradePlugin(pluginId, file.getInputStream(), file.getOriginalFilename());
+            return ApiResponse.success();
+        } catch (Exception e) {
+            log.error("升级插件失败: {}", pluginId, e);
+            throw new RuntimeException("升级插件失败: " + e.getMessage(), e);
+        }
+    }
+    
     @DeleteMapping("/{pluginId}/uninstall")
     @Operation(summary = "卸载插件", description = "卸载指定的插件")
     public ApiResponse<Void> uninstallPlugin(
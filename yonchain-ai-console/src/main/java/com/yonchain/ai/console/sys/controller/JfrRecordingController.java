@@ -0,0 +1,110 @@
+package com.yonchain.ai.console.sys.controller;
+
+import com.yonchain.ai.api.exception.YonchainForbiddenException;
+import com.yonchain.ai.api.sys.CurrentUser;
+import com.yonchain.ai.console.BaseController;
+import com.yonchain.ai.console.sys.response.JfrRecordingResponse;
+import com.yonchain.ai.jfr.JfrRecordingManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * JFR记录控制器
+ * 按需开启JDK Flight Recorder记录并导出.jfr文件，用于在生产环境关联GC、锁竞争与具体模型调用。
+ * 记录包含整个进程的数据，所有接口仅限超级管理员访问
+ *
+ * @author chengy
+ * @since 1.0.0
+ */
+@Tag(name = "JFR记录", description = "JDK Flight Recorder记录的开启、停止和导出接口")
+@RestController
+@RequestMapping("/sys/jfr")
+public class JfrRecordingController extends BaseController {
+
+    @Autowired
+    private JfrRecordingManager jfrRecordingManager;
+
+    /**
+     * 查询当前记录状态
+     *
+     * @return 记录状态
+     */
+    @Operation(summary = "查询JFR记录状态")
+    @GetMapping
+    public JfrRecordingResponse getStatus() {
+        checkSuperAdmin();
+        return responseFactory.createJfrRecordingResponse(jfrRecordingManager.getStatus());
+    }
+
+    /**
+     * 开始记录
+     *
+     * @param durationSeconds 记录时长（秒）
+     * @param settings        JFR配置名称
+     * @return 记录状态
+     */
+    @Operation(summary = "开始JFR记录", description = "同一时间只允许一个记录，到达时长后自动停止")
+    @PostMapping("/start")
+    public JfrRecordingResponse start(
+            @Parameter(description = "记录时长（秒），不超过jfr.max.duration.seconds")
+            @RequestParam(required = false) Long durationSeconds,
+            @Parameter(description = "JFR配置：default或profile，默认profile")
+            @RequestParam(required = false) String settings) {
+        checkSuperAdmin();
+        Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : null;
+        return responseFactory.createJfrRecordingResponse(jfrRecordingManager.start(duration, settings));
+    }
+
+    /**
+     * 停止并丢弃当前记录
+     *
+     * @return 记录状态
+     */
+    @Operation(summary = "停止JFR记录", description = "停止并丢弃当前记录，需要保留的数据请先导出")
+    @PostMapping("/stop")
+    public JfrRecordingResponse stop() {
+        checkSuperAdmin();
+        return responseFactory.createJfrRecordingResponse(jfrRecordingManager.stop());
+    }
+
+    /**
+     * 导出当前记录
+     *
+     * @return .jfr文件
+     */
+    @Operation(summary = "导出JFR记录", description = "导出运行中或已停止的记录，可用JDK Mission Control打开")
+    @PostMapping("/dump")
+    public ResponseEntity<Resource> dump() {
+        checkSuperAdmin();
+        Path file = jfrRecordingManager.dump();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + file.getFileName())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * 校验当前用户为超级管理员
+     */
+    private void checkSuperAdmin() {
+        CurrentUser currentUser = this.getCurrentUser();
+        if (!currentUser.isSuperAdmin()) {
+            throw new YonchainForbiddenException("JFR记录权限不足");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.yonchain.ai.console.sys.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * JFR记录状态响应对象
+ */
+@Data
+@Schema(description = "JFR记录状态响应对象")
+public class JfrRecordingResponse {
+
+    /**
+     * 记录状态
+     */
+    @Schema(description = "记录状态：NEW、DELAYED、RUNNING、STOPPED、CLOSED")
+    private String state;
+
+    /**
+     * 开始时间
+     */
+    @Schema(description = "开始时间")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    /**
+     * 停止时间
+     */
+    @Schema(description = "停止时间，运行中为计划停止时间")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime stopTime;
+
+    /**
+     * 记录时长（秒）
+     */
+    @Schema(description = "记录时长（秒）")
+    private Long durationSeconds;
+
+    /**
+     * 已写入磁盘的大小（字节）
+     */
+    @Schema(description = "已写入磁盘的大小（字节）")
+    private Long size;
+}
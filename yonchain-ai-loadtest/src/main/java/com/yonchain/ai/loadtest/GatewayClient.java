@@ -0,0 +1,169 @@
+package com.yonchain.ai.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 向网关发送压测请求并记录结果
+ */
+class GatewayClient {
+
+    private static final String CHAT_PATH = "/v1/chat/completions";
+    private static final String EMBEDDING_PATH = "/v1/embeddings";
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private static final String PROMPT_SAMPLE = "Summarize the following passage about model gateways. "
+            + "模型网关统一了不同提供商的接口，并负责鉴权、限流、计费和可观测性。";
+
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient;
+    private final Map<TrafficKind, byte[]> bodies = new EnumMap<>(TrafficKind.class);
+    private final URI chatUri;
+    private final URI embeddingUri;
+
+    GatewayClient(LoadTestSettings settings, HttpClient httpClient, ObjectMapper objectMapper) {
+        this.settings = settings;
+        this.httpClient = httpClient;
+        this.chatUri = URI.create(settings.getTargetUrl() + CHAT_PATH);
+        this.embeddingUri = URI.create(settings.getTargetUrl() + EMBEDDING_PATH);
+
+        String prompt = prompt(settings.getPromptChars());
+        try {
+            bodies.put(TrafficKind.SYNC, objectMapper.writeValueAsBytes(chatBody(objectMapper, prompt, false)));
+            bodies.put(TrafficKind.STREAM, objectMapper.writeValueAsBytes(chatBody(objectMapper, prompt, true)));
+            ObjectNode embedding = objectMapper.createObjectNode();
+            embedding.put("model", settings.getEmbeddingModel());
+            embedding.put("input", prompt);
+            bodies.put(TrafficKind.EMBEDDING, objectMapper.writeValueAsBytes(embedding));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to build request bodies", e);
+        }
+    }
+
+    /**
+     * 发送一个请求（在虚拟线程中调用）
+     *
+     * @param arrivalNanos 计划到达时间（System.nanoTime），延迟从此时开始计算
+     */
+    void execute(TrafficKind kind, String tenant, long arrivalNanos, LoadTestResults results) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(kind == TrafficKind.EMBEDDING ? embeddingUri : chatUri)
+                .timeout(settings.getRequestTimeout())
+                .header("Content-Type", "application/json")
+                .header(TENANT_HEADER, tenant)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(bodies.get(kind)));
+        if (settings.getApiKey() != null && !settings.getApiKey().isBlank()) {
+            builder.header("Authorization", "Bearer " + settings.getApiKey());
+        }
+        HttpRequest request = builder.build();
+
+        try {
+            if (kind == TrafficKind.STREAM) {
+                executeStream(request, arrivalNanos, results);
+            } else {
+                HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() == 200) {
+                    results.recordSuccess(kind, System.nanoTime() - arrivalNanos);
+                } else {
+                    results.recordError(kind, "http_" + response.statusCode());
+                }
+            }
+        } catch (HttpTimeoutException e) {
+            results.recordError(kind, "timeout");
+        } catch (IOException e) {
+            results.recordError(kind, "io");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            results.recordError(kind, "interrupted");
+        }
+    }
+
+    /**
+     * 流式请求：第一个内容分块记录首Token延迟，之后每个分块记录与上一个分块的间隔，收到 [DONE] 才算成功
+     * <p>
+     * 按 disconnect.rate 的比例在随机数量的分块后关闭响应流，模拟客户端中途断开
+     */
+    private void executeStream(HttpRequest request, long arrivalNanos, LoadTestResults results)
+            throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            if (response.statusCode() != 200) {
+                results.recordError(TrafficKind.STREAM, "http_" + response.statusCode());
+                return;
+            }
+            int disconnectAfter = ThreadLocalRandom.current().nextDouble() < settings.getDisconnectRate()
+                    ? 1 + ThreadLocalRandom.current().nextInt(Math.max(settings.getMaxTokens() / 2, 1))
+                    : -1;
+            int chunks = 0;
+            long lastChunkNanos = 0;
+            boolean done = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                if (line.contains("[DONE]")) {
+                    done = true;
+                    break;
+                }
+                if (!line.contains("\"delta\"")) {
+                    // 用量分块等没有内容的分块
+                    continue;
+                }
+                long now = System.nanoTime();
+                if (lastChunkNanos == 0) {
+                    results.recordTimeToFirstToken(now - arrivalNanos);
+                } else {
+                    results.recordInterToken(now - lastChunkNanos);
+                }
+                lastChunkNanos = now;
+                if (++chunks == disconnectAfter) {
+                    // 关闭响应流即断开连接
+                    results.recordClientDisconnect();
+                    return;
+                }
+            }
+            if (done) {
+                results.recordSuccess(TrafficKind.STREAM, System.nanoTime() - arrivalNanos);
+            } else {
+                results.recordError(TrafficKind.STREAM, lastChunkNanos == 0 ? "stream_empty" : "stream_incomplete");
+            }
+        }
+    }
+
+    private ObjectNode chatBody(ObjectMapper objectMapper, String prompt, boolean stream) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", settings.getChatModel());
+        ObjectNode message = body.putArray("messages").addObject();
+        message.put("role", "user");
+        message.put("content", prompt);
+        body.put("max_tokens", settings.getMaxTokens());
+        body.put("stream", stream);
+        if (stream) {
+            body.putObject("stream_options").put("include_usage", true);
+        }
+        return body;
+    }
+
+    private static String prompt(int chars) {
+        StringBuilder builder = new StringBuilder(chars);
+        while (builder.length() < chars) {
+            builder.append(PROMPT_SAMPLE, 0, Math.min(PROMPT_SAMPLE.length(), chars - builder.length()));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.yonchain.ai.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.http.HttpClient;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JVM状态快照，用于计算压测期间的GC次数、GC停顿和堆占用变化
+ * <p>
+ * 网关进程的数据来自其 /actuator/prometheus 端点（Micrometer的JVM指标），压测端自身的数据来自MXBean。
+ */
+public class JvmSnapshot {
+
+    private long gcCount;
+    private double gcPauseSeconds;
+    private double gcPauseMaxSeconds;
+    private double heapUsedBytes;
+    private double heapMaxBytes;
+    private double liveThreads;
+
+    /**
+     * 采集压测端自身的JVM状态
+     */
+    public static JvmSnapshot local() {
+        JvmSnapshot snapshot = new JvmSnapshot();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            snapshot.gcCount += Math.max(gc.getCollectionCount(), 0);
+            snapshot.gcPauseSeconds += Math.max(gc.getCollectionTime(), 0) / 1000.0;
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        snapshot.heapUsedBytes = heap.getUsed();
+        snapshot.heapMaxBytes = heap.getMax();
+        snapshot.liveThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        return snapshot;
+    }
+
+    /**
+     * 从网关的Prometheus端点采集JVM状态，采集失败时返回null
+     */
+    public static JvmSnapshot remote(HttpClient httpClient, String metricsUrl, String token) {
+        PrometheusText metrics = PrometheusText.scrape(httpClient, metricsUrl, token);
+        return metrics != null ? fromPrometheus(metrics) : null;
+    }
+
+    static JvmSnapshot fromPrometheus(PrometheusText metrics) {
+        JvmSnapshot snapshot = new JvmSnapshot();
+        snapshot.gcCount = (long) metrics.sum("jvm_gc_pause_seconds_count");
+        snapshot.gcPauseSeconds = metrics.sum("jvm_gc_pause_seconds_sum");
+        snapshot.gcPauseMaxSeconds = metrics.max("jvm_gc_pause_seconds_max");
+        snapshot.heapUsedBytes = metrics.sum("jvm_memory_used_bytes", "area=\"heap\"");
+        // 未设置上限的内存池max为-1
+        snapshot.heapMaxBytes = Math.max(metrics.sum("jvm_memory_max_bytes", "area=\"heap\""), 0);
+        snapshot.liveThreads = metrics.sum("jvm_threads_live_threads");
+        return snapshot;
+    }
+
+    /**
+     * 本快照与更早快照之间的变化
+     *
+     * @param before 压测开始时的快照
+     */
+    public Map<String, Object> delta(JvmSnapshot before) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("gcCount", gcCount - before.gcCount);
+        delta.put("gcPauseSeconds", gcPauseSeconds - before.gcPauseSeconds);
+        delta.put("gcPauseMaxSeconds", gcPauseMaxSeconds);
+        delta.put("heapUsedBeforeMb", before.heapUsedBytes / (1024 * 1024));
+        delta.put("heapUsedAfterMb", heapUsedBytes / (1024 * 1024));
+        delta.put("heapMaxMb", heapMaxBytes / (1024 * 1024));
+        delta.put("liveThreadsBefore", (long) before.liveThreads);
+        delta.put("liveThreadsAfter", (long) liveThreads);
+        return delta;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public double getGcPauseSeconds() {
+        return gcPauseSeconds;
+    }
+
+    public double getHeapUsedBytes() {
+        return heapUsedBytes;
+    }
+
+    public double getLiveThreads() {
+        return liveThreads;
+    }
+}
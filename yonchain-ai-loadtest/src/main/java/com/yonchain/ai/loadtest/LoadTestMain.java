@@ -0,0 +1,92 @@
+package com.yonchain.ai.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.mock.MockUpstreamServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 端到端压测入口
+ * <p>
+ * 参数格式为 key=value（可带 -- 前缀），见 {@link LoadTestSettings}。流程：启动内嵌模拟上游（可选）→ 预热 → 正式测量 → 输出报告。
+ * mode=soak 时正式测量改为浸泡测试（见 {@link SoakTest}），资源指标持续增长时以退出码1结束。
+ */
+public class LoadTestMain {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestMain.class);
+
+    public static void main(String[] args) throws Exception {
+        Properties properties = new Properties();
+        for (String arg : args) {
+            String pair = arg.startsWith("--") ? arg.substring(2) : arg;
+            int index = pair.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            properties.setProperty(pair.substring(0, index), pair.substring(index + 1));
+        }
+        LoadTestSettings settings = LoadTestSettings.fromProperties(properties);
+        log.info("{}", settings);
+
+        boolean passed = true;
+        MockUpstreamServer upstream = null;
+        if (settings.isUpstreamEmbedded()) {
+            upstream = new MockUpstreamServer(settings.getUpstream()).start();
+            log.info("Embedded mock upstream listening on {}", upstream.getBaseUrl());
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(executor)
+                    .build();
+            GatewayClient client = new GatewayClient(settings, httpClient, new ObjectMapper());
+            OpenLoopDriver driver = new OpenLoopDriver(settings, client, executor);
+
+            LoadTestResults warmup = driver.run("warmup", settings.getWarmup());
+            if (warmup.getSuccessCount() + warmup.getErrorCount() > 0) {
+                log.info("Warmup finished: {} succeeded, {} errors {}", warmup.getSuccessCount(),
+                        warmup.getErrorCount(), warmup.getErrors());
+            }
+
+            if (settings.isSoak()) {
+                passed = new SoakTest(settings, httpClient, driver).run(System.out);
+            } else {
+                JvmSnapshot gatewayBefore = JvmSnapshot.remote(httpClient, settings.getMetricsUrl(),
+                        settings.getMetricsToken());
+                JvmSnapshot harnessBefore = JvmSnapshot.local();
+                LoadTestResults results = driver.run("measure", settings.getDuration());
+                JvmSnapshot gatewayAfter = JvmSnapshot.remote(httpClient, settings.getMetricsUrl(),
+                        settings.getMetricsToken());
+                JvmSnapshot harnessAfter = JvmSnapshot.local();
+
+                LoadTestReport report = new LoadTestReport(settings, results,
+                        gatewayBefore != null && gatewayAfter != null ? gatewayAfter.delta(gatewayBefore) : null,
+                        harnessAfter.delta(harnessBefore));
+                report.print(System.out);
+                if (settings.getReportFile() != null) {
+                    report.writeJson(new File(settings.getReportFile()));
+                    log.info("Report written to {}", settings.getReportFile());
+                }
+            }
+            if (upstream != null) {
+                log.info("Mock upstream stats: {}", upstream.getStats().toMap());
+            }
+        } finally {
+            if (upstream != null) {
+                upstream.close();
+            }
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.yonchain.ai.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 压测报告
+ * <p>
+ * 延迟单位为毫秒。流式请求的抖动以分块间隔的 p99-p50 与标准差表示。
+ */
+public class LoadTestReport {
+
+    private final LoadTestSettings settings;
+    private final LoadTestResults results;
+    private final Map<String, Object> gatewayJvm;
+    private final Map<String, Object> harnessJvm;
+
+    public LoadTestReport(LoadTestSettings settings, LoadTestResults results,
+                          Map<String, Object> gatewayJvm, Map<String, Object> harnessJvm) {
+        this.settings = settings;
+        this.results = results;
+        this.gatewayJvm = gatewayJvm;
+        this.harnessJvm = harnessJvm;
+    }
+
+    public void print(PrintStream out) {
+        out.println();
+        out.printf("target=%s rate=%.1f/s duration=%ds mix=%s tenants=%d%n", settings.getTargetUrl(),
+                settings.getRate(), settings.getDuration().toSeconds(), settings.getMix(), settings.getTenants());
+        out.printf("elapsed=%.1fs succeeded=%d throughput=%.1f/s errors=%d skipped=%d disconnected=%d%n",
+                results.getElapsedSeconds(), results.getSuccessCount(), results.getThroughput(),
+                results.getErrorCount(), results.getSkippedCount(), results.getClientDisconnectCount());
+        out.println();
+        out.printf("%-12s %10s %10s %10s %10s %10s %10s%n", "latency(ms)", "count", "p50", "p99", "p99.9", "max", "mean");
+        for (TrafficKind kind : TrafficKind.values()) {
+            printRow(out, kind.getKey(), results.getLatency(kind));
+        }
+        printRow(out, "ttft", results.getTimeToFirstToken());
+        printRow(out, "inter-token", results.getInterTokenLatency());
+
+        Histogram interToken = results.getInterTokenLatency();
+        if (interToken.getTotalCount() > 0) {
+            out.printf("inter-token jitter: p99-p50=%.2fms stddev=%.2fms%n",
+                    millis(interToken.getValueAtPercentile(99) - interToken.getValueAtPercentile(50)),
+                    interToken.getStdDeviation() / 1000.0);
+        }
+        if (!results.getErrors().isEmpty()) {
+            out.println();
+            results.getErrors().forEach((error, count) -> out.printf("error %-30s %d%n", error, count));
+        }
+        out.println();
+        if (gatewayJvm != null) {
+            out.println("gateway jvm: " + gatewayJvm);
+        }
+        out.println("harness jvm: " + harnessJvm);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        out.printf("%-12s %10d %10.2f %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()),
+                histogram.getMean() / 1000.0);
+    }
+
+    public void writeJson(File file) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(file, toMap());
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("targetUrl", settings.getTargetUrl());
+        config.put("rate", settings.getRate());
+        config.put("durationSeconds", settings.getDuration().toSeconds());
+        config.put("mix", settings.getMix().toString());
+        config.put("tenants", settings.getTenants());
+        config.put("chatModel", settings.getChatModel());
+        config.put("embeddingModel", settings.getEmbeddingModel());
+        config.put("maxTokens", settings.getMaxTokens());
+        report.put("settings", config);
+
+        report.put("elapsedSeconds", results.getElapsedSeconds());
+        report.put("succeeded", results.getSuccessCount());
+        report.put("throughput", results.getThroughput());
+        report.put("errors", results.getErrors());
+        report.put("skipped", results.getSkippedCount());
+        report.put("clientDisconnects", results.getClientDisconnectCount());
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (TrafficKind kind : TrafficKind.values()) {
+            latency.put(kind.getKey(), summary(results.getLatency(kind)));
+        }
+        report.put("latencyMs", latency);
+        report.put("timeToFirstTokenMs", summary(results.getTimeToFirstToken()));
+        Map<String, Object> interToken = summary(results.getInterTokenLatency());
+        interToken.put("stddev", results.getInterTokenLatency().getStdDeviation() / 1000.0);
+        report.put("interTokenMs", interToken);
+        report.put("gatewayJvm", gatewayJvm);
+        report.put("harnessJvm", harnessJvm);
+        return report;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        if (histogram.getTotalCount() > 0) {
+            summary.put("p50", millis(histogram.getValueAtPercentile(50)));
+            summary.put("p90", millis(histogram.getValueAtPercentile(90)));
+            summary.put("p99", millis(histogram.getValueAtPercentile(99)));
+            summary.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+            summary.put("max", millis(histogram.getMaxValue()));
+            summary.put("mean", histogram.getMean() / 1000.0);
+        }
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,140 @@
+package com.yonchain.ai.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个阶段（预热或正式测量）的压测结果
+ * <p>
+ * 延迟从计划到达时间开始计算（而不是实际发出时间），压测端或网关排队造成的延迟不会被忽略（避免协调遗漏）。
+ * 所有直方图单位为微秒。
+ */
+public class LoadTestResults {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<TrafficKind, Histogram> latency = new EnumMap<>(TrafficKind.class);
+    private final Map<TrafficKind, LongAdder> successes = new EnumMap<>(TrafficKind.class);
+    private final Histogram timeToFirstToken = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final Histogram interTokenLatency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder streamChunks = new LongAdder();
+    private final LongAdder clientDisconnects = new LongAdder();
+
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    public LoadTestResults() {
+        for (TrafficKind kind : TrafficKind.values()) {
+            latency.put(kind, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            successes.put(kind, new LongAdder());
+        }
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    void recordSuccess(TrafficKind kind, long latencyNanos) {
+        latency.get(kind).recordValue(toMicros(latencyNanos));
+        successes.get(kind).increment();
+    }
+
+    void recordError(TrafficKind kind, String error) {
+        errors.computeIfAbsent(kind.getKey() + ":" + error, key -> new LongAdder()).increment();
+    }
+
+    void recordTimeToFirstToken(long nanos) {
+        timeToFirstToken.recordValue(toMicros(nanos));
+    }
+
+    void recordInterToken(long nanos) {
+        interTokenLatency.recordValue(toMicros(nanos));
+        streamChunks.increment();
+    }
+
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    void recordClientDisconnect() {
+        clientDisconnects.increment();
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0);
+    }
+
+    public Histogram getLatency(TrafficKind kind) {
+        return latency.get(kind);
+    }
+
+    public long getSuccessCount(TrafficKind kind) {
+        return successes.get(kind).sum();
+    }
+
+    public long getSuccessCount() {
+        return successes.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public Histogram getTimeToFirstToken() {
+        return timeToFirstToken;
+    }
+
+    public Histogram getInterTokenLatency() {
+        return interTokenLatency;
+    }
+
+    public Map<String, Long> getErrors() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((key, count) -> counts.put(key, count.sum()));
+        return counts;
+    }
+
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    public long getStreamChunkCount() {
+        return streamChunks.sum();
+    }
+
+    /**
+     * 压测端主动中途断开的流式请求数（不计入成功和错误）
+     */
+    public long getClientDisconnectCount() {
+        return clientDisconnects.sum();
+    }
+
+    /**
+     * 测量时长（秒）
+     */
+    public double getElapsedSeconds() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return (end - startNanos) / 1e9;
+    }
+
+    /**
+     * 成功请求吞吐（请求/秒）
+     */
+    public double getThroughput() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? getSuccessCount() / elapsed : 0;
+    }
+}
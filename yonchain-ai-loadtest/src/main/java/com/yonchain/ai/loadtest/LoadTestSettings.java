@@ -0,0 +1,356 @@
+package com.yonchain.ai.loadtest;
+
+import com.yonchain.ai.mock.MockUpstreamSettings;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 压测配置
+ * <p>
+ * 以 upstream. 开头的键去掉前缀后作为内嵌模拟上游的配置（见 {@link MockUpstreamSettings}），
+ * 内嵌上游默认监听 127.0.0.1:18080，网关中被压测的模型应以此为baseUrl。
+ */
+public class LoadTestSettings {
+
+    public static final String TARGET_URL = "target.url";
+    public static final String API_KEY = "api.key";
+    public static final String RATE = "rate";
+    public static final String DURATION_SECONDS = "duration.seconds";
+    public static final String WARMUP_SECONDS = "warmup.seconds";
+    public static final String MIX = "mix";
+    public static final String TENANTS = "tenants";
+    public static final String CHAT_MODEL = "chat.model";
+    public static final String EMBEDDING_MODEL = "embedding.model";
+    public static final String MAX_TOKENS = "max.tokens";
+    public static final String PROMPT_CHARS = "prompt.chars";
+    public static final String MAX_IN_FLIGHT = "max.in.flight";
+    public static final String REQUEST_TIMEOUT_SECONDS = "request.timeout.seconds";
+    public static final String METRICS_URL = "metrics.url";
+    public static final String METRICS_TOKEN = "metrics.token";
+    public static final String REPORT_FILE = "report.file";
+    public static final String UPSTREAM_EMBEDDED = "upstream.embedded";
+    public static final String MODE = "mode";
+    public static final String DISCONNECT_RATE = "disconnect.rate";
+    public static final String CONSOLE_URL = "console.url";
+    public static final String CONSOLE_TOKEN = "console.token";
+    public static final String SOAK_SAMPLE_SECONDS = "soak.sample.seconds";
+    public static final String SOAK_PLUGIN_IDS = "soak.plugin.ids";
+    public static final String SOAK_PLUGIN_RELOAD_SECONDS = "soak.plugin.reload.seconds";
+    public static final String SOAK_PLUGIN_DISABLED_SECONDS = "soak.plugin.disabled.seconds";
+    public static final String SOAK_REPORT_DIR = "soak.report.dir";
+    public static final String SOAK_MAX_HEAP_GROWTH_MB_PER_HOUR = "soak.max.heap.growth.mb.per.hour";
+    public static final String SOAK_MAX_THREAD_GROWTH = "soak.max.thread.growth";
+    public static final String SOAK_MAX_FD_GROWTH = "soak.max.fd.growth";
+    public static final String SOAK_MAX_CLASS_GROWTH = "soak.max.class.growth";
+    public static final String SOAK_MAX_CLASSLOADER_GROWTH = "soak.max.classloader.growth";
+    public static final String SOAK_MAX_MODEL_CACHE_GROWTH = "soak.max.model.cache.growth";
+
+    /**
+     * 压测模式：固定时长测量延迟和吞吐
+     */
+    public static final String MODE_LOAD = "load";
+    /**
+     * 浸泡模式：长时间运行并检查资源是否持续增长
+     */
+    public static final String MODE_SOAK = "soak";
+
+    private static final String UPSTREAM_PREFIX = "upstream.";
+
+    private String targetUrl = "http://127.0.0.1:8080";
+    private String apiKey;
+    private double rate = 50;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private TrafficMix mix = TrafficMix.parse("sync=30,stream=60,embedding=10");
+    private int tenants = 10;
+    private String chatModel = "openai:gpt-4o-mini";
+    private String embeddingModel = "openai:text-embedding-3-small";
+    private int maxTokens = 128;
+    private int promptChars = 400;
+    private int maxInFlight = 10_000;
+    private Duration requestTimeout = Duration.ofSeconds(120);
+    private String metricsUrl;
+    private String metricsToken;
+    private String reportFile;
+    private boolean upstreamEmbedded = true;
+    private MockUpstreamSettings upstream;
+    private String mode = MODE_LOAD;
+    private double disconnectRate;
+    private String consoleUrl;
+    private String consoleToken;
+    private Duration soakSampleInterval = Duration.ofSeconds(60);
+    private List<String> soakPluginIds = List.of();
+    private Duration soakPluginReloadInterval = Duration.ofMinutes(10);
+    private Duration soakPluginDisabled = Duration.ofSeconds(5);
+    private String soakReportDir = "target/soak";
+    private double soakMaxHeapGrowthMbPerHour = 16;
+    private double soakMaxThreadGrowth = 5;
+    private double soakMaxFdGrowth = 20;
+    private double soakMaxClassGrowth = 500;
+    private double soakMaxClassLoaderGrowth = 1;
+    private double soakMaxModelCacheGrowth = 2;
+
+    public static LoadTestSettings fromProperties(Properties properties) {
+        LoadTestSettings settings = new LoadTestSettings();
+        settings.targetUrl = trimSlash(properties.getProperty(TARGET_URL, settings.targetUrl));
+        settings.apiKey = properties.getProperty(API_KEY);
+        settings.rate = Double.parseDouble(properties.getProperty(RATE, String.valueOf(settings.rate)));
+        settings.duration = Duration.ofSeconds(Long.parseLong(properties.getProperty(DURATION_SECONDS, "60")));
+        settings.warmup = Duration.ofSeconds(Long.parseLong(properties.getProperty(WARMUP_SECONDS, "10")));
+        if (properties.getProperty(MIX) != null) {
+            settings.mix = TrafficMix.parse(properties.getProperty(MIX));
+        }
+        settings.tenants = Math.max(Integer.parseInt(properties.getProperty(TENANTS, "10")), 1);
+        settings.chatModel = properties.getProperty(CHAT_MODEL, settings.chatModel);
+        settings.embeddingModel = properties.getProperty(EMBEDDING_MODEL, settings.embeddingModel);
+        settings.maxTokens = Integer.parseInt(properties.getProperty(MAX_TOKENS, String.valueOf(settings.maxTokens)));
+        settings.promptChars = Integer.parseInt(
+                properties.getProperty(PROMPT_CHARS, String.valueOf(settings.promptChars)));
+        // 在途请求通过Phaser计数，其参与方上限为65535
+        settings.maxInFlight = Math.min(Integer.parseInt(
+                properties.getProperty(MAX_IN_FLIGHT, String.valueOf(settings.maxInFlight))), 65_000);
+        settings.requestTimeout = Duration.ofSeconds(
+                Long.parseLong(properties.getProperty(REQUEST_TIMEOUT_SECONDS, "120")));
+        settings.metricsUrl = properties.getProperty(METRICS_URL, settings.targetUrl + "/actuator/prometheus");
+        settings.reportFile = properties.getProperty(REPORT_FILE);
+        settings.upstreamEmbedded = Boolean.parseBoolean(properties.getProperty(UPSTREAM_EMBEDDED, "true"));
+
+        settings.mode = properties.getProperty(MODE, settings.mode).trim().toLowerCase();
+        if (!MODE_LOAD.equals(settings.mode) && !MODE_SOAK.equals(settings.mode)) {
+            throw new IllegalArgumentException("Unknown mode: " + settings.mode);
+        }
+        settings.disconnectRate = Double.parseDouble(properties.getProperty(DISCONNECT_RATE,
+                MODE_SOAK.equals(settings.mode) ? "0.1" : "0"));
+        settings.consoleUrl = trimSlash(properties.getProperty(CONSOLE_URL, settings.targetUrl));
+        settings.consoleToken = properties.getProperty(CONSOLE_TOKEN);
+        settings.metricsToken = properties.getProperty(METRICS_TOKEN, settings.consoleToken);
+        settings.soakSampleInterval = Duration.ofSeconds(Long.parseLong(
+                properties.getProperty(SOAK_SAMPLE_SECONDS, "60")));
+        String pluginIds = properties.getProperty(SOAK_PLUGIN_IDS, "");
+        settings.soakPluginIds = Arrays.stream(pluginIds.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .toList();
+        settings.soakPluginReloadInterval = Duration.ofSeconds(Long.parseLong(
+                properties.getProperty(SOAK_PLUGIN_RELOAD_SECONDS, "600")));
+        settings.soakPluginDisabled = Duration.ofSeconds(Long.parseLong(
+                properties.getProperty(SOAK_PLUGIN_DISABLED_SECONDS, "5")));
+        settings.soakReportDir = properties.getProperty(SOAK_REPORT_DIR, settings.soakReportDir);
+        settings.soakMaxHeapGrowthMbPerHour = doubleProperty(properties, SOAK_MAX_HEAP_GROWTH_MB_PER_HOUR,
+                settings.soakMaxHeapGrowthMbPerHour);
+        settings.soakMaxThreadGrowth = doubleProperty(properties, SOAK_MAX_THREAD_GROWTH,
+                settings.soakMaxThreadGrowth);
+        settings.soakMaxFdGrowth = doubleProperty(properties, SOAK_MAX_FD_GROWTH, settings.soakMaxFdGrowth);
+        settings.soakMaxClassGrowth = doubleProperty(properties, SOAK_MAX_CLASS_GROWTH, settings.soakMaxClassGrowth);
+        settings.soakMaxClassLoaderGrowth = doubleProperty(properties, SOAK_MAX_CLASSLOADER_GROWTH,
+                settings.soakMaxClassLoaderGrowth);
+        settings.soakMaxModelCacheGrowth = doubleProperty(properties, SOAK_MAX_MODEL_CACHE_GROWTH,
+                settings.soakMaxModelCacheGrowth);
+
+        Properties upstream = new Properties();
+        upstream.setProperty(MockUpstreamSettings.PORT, "18080");
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(UPSTREAM_PREFIX) && !key.equals(UPSTREAM_EMBEDDED)) {
+                upstream.setProperty(key.substring(UPSTREAM_PREFIX.length()), properties.getProperty(key));
+            }
+        }
+        settings.upstream = MockUpstreamSettings.fromProperties(upstream);
+        return settings;
+    }
+
+    private static double doubleProperty(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    private static String trimSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public String getTargetUrl() {
+        return targetUrl;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    /**
+     * 到达率（请求/秒），到达时间服从泊松过程，与响应快慢无关
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public TrafficMix getMix() {
+        return mix;
+    }
+
+    public int getTenants() {
+        return tenants;
+    }
+
+    public String getChatModel() {
+        return chatModel;
+    }
+
+    public String getEmbeddingModel() {
+        return embeddingModel;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public int getPromptChars() {
+        return promptChars;
+    }
+
+    /**
+     * 最大在途请求数，超出时本次到达计为skipped（保护压测端，出现skipped说明网关已无法承受该到达率）
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * 网关Prometheus指标地址，为none时不采集网关JVM指标
+     */
+    public String getMetricsUrl() {
+        return metricsUrl;
+    }
+
+    /**
+     * 网关指标端点的访问令牌（JWT），以 Authorization: Bearer 发送，默认与console.token相同
+     */
+    public String getMetricsToken() {
+        return metricsToken;
+    }
+
+    public String getReportFile() {
+        return reportFile;
+    }
+
+    public boolean isUpstreamEmbedded() {
+        return upstreamEmbedded;
+    }
+
+    public MockUpstreamSettings getUpstream() {
+        return upstream;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public boolean isSoak() {
+        return MODE_SOAK.equals(mode);
+    }
+
+    /**
+     * 流式请求中客户端主动断开的比例，断开发生在随机数量的分块之后（浸泡模式默认0.1）
+     */
+    public double getDisconnectRate() {
+        return disconnectRate;
+    }
+
+    /**
+     * 控制台地址，插件启用/禁用接口为 {consoleUrl}/plugins/{pluginId}/enable|disable，默认与target.url相同
+     */
+    public String getConsoleUrl() {
+        return consoleUrl;
+    }
+
+    /**
+     * 控制台访问令牌（JWT），以 Authorization: Bearer 发送
+     */
+    public String getConsoleToken() {
+        return consoleToken;
+    }
+
+    public Duration getSoakSampleInterval() {
+        return soakSampleInterval;
+    }
+
+    /**
+     * 浸泡期间周期性禁用再启用的插件，为空时不重载插件
+     */
+    public List<String> getSoakPluginIds() {
+        return soakPluginIds;
+    }
+
+    public Duration getSoakPluginReloadInterval() {
+        return soakPluginReloadInterval;
+    }
+
+    /**
+     * 插件禁用后保持禁用的时长，期间流量照常到达
+     */
+    public Duration getSoakPluginDisabled() {
+        return soakPluginDisabled;
+    }
+
+    public String getSoakReportDir() {
+        return soakReportDir;
+    }
+
+    public double getSoakMaxHeapGrowthMbPerHour() {
+        return soakMaxHeapGrowthMbPerHour;
+    }
+
+    public double getSoakMaxThreadGrowth() {
+        return soakMaxThreadGrowth;
+    }
+
+    public double getSoakMaxFdGrowth() {
+        return soakMaxFdGrowth;
+    }
+
+    public double getSoakMaxClassGrowth() {
+        return soakMaxClassGrowth;
+    }
+
+    public double getSoakMaxClassLoaderGrowth() {
+        return soakMaxClassLoaderGrowth;
+    }
+
+    public double getSoakMaxModelCacheGrowth() {
+        return soakMaxModelCacheGrowth;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadTestSettings{" +
+                "mode=" + mode +
+                ", targetUrl='" + targetUrl + '\'' +
+                ", rate=" + rate +
+                ", duration=" + duration +
+                ", warmup=" + warmup +
+                ", mix=" + mix +
+                ", tenants=" + tenants +
+                ", chatModel='" + chatModel + '\'' +
+                ", embeddingModel='" + embeddingModel + '\'' +
+                ", maxTokens=" + maxTokens +
+                ", promptChars=" + promptChars +
+                ", maxInFlight=" + maxInFlight +
+                ", disconnectRate=" + disconnectRate +
+                ", soakPluginIds=" + soakPluginIds +
+                ", upstreamEmbedded=" + upstreamEmbedded +
+                '}';
+    }
+}
@@ -0,0 +1,108 @@
+package com.yonchain.ai.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环压测驱动
+ * <p>
+ * 到达时间按泊松过程预先排定，与响应快慢无关：网关变慢时请求照常到达并在途堆积，而不是像闭环压测那样自动降速。
+ * 每个请求在独立的虚拟线程中执行，流式请求长时间占用连接不会影响后续到达。
+ */
+class OpenLoopDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenLoopDriver.class);
+
+    private final LoadTestSettings settings;
+    private final GatewayClient client;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final Random random = new Random();
+
+    OpenLoopDriver(LoadTestSettings settings, GatewayClient client, ExecutorService executor) {
+        this.settings = settings;
+        this.client = client;
+        this.executor = executor;
+        this.inFlight = new Semaphore(settings.getMaxInFlight());
+    }
+
+    /**
+     * 以配置的到达率运行一个阶段，到达窗口结束后等待在途请求完成
+     */
+    LoadTestResults run(String phase, Duration duration) {
+        return run(phase, duration, new LoadTestResults());
+    }
+
+    /**
+     * 以配置的到达率运行一个阶段，结果记录到给定对象（浸泡测试运行期间读取）
+     */
+    LoadTestResults run(String phase, Duration duration, LoadTestResults results) {
+        if (duration.isZero() || duration.isNegative()) {
+            return results;
+        }
+        log.info("{} phase: {} req/s for {}s", phase, settings.getRate(), duration.toSeconds());
+
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+        Phaser pending = new Phaser(1);
+        results.start();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double next = start;
+
+        while (true) {
+            // 指数分布的到达间隔
+            next += -Math.log(1 - random.nextDouble()) * meanIntervalNanos;
+            long arrival = (long) next;
+            if (arrival - end >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = arrival - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                results.recordSkipped();
+                continue;
+            }
+            TrafficKind kind = settings.getMix().pick(random);
+            String tenant = "tenant-" + random.nextInt(settings.getTenants());
+            pending.register();
+            executor.execute(() -> {
+                try {
+                    client.execute(kind, tenant, arrival, results);
+                } finally {
+                    inFlight.release();
+                    pending.arriveAndDeregister();
+                }
+            });
+        }
+
+        try {
+            pending.awaitAdvanceInterruptibly(pending.arrive(),
+                    settings.getRequestTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("{} phase: {} requests still in flight after drain timeout",
+                    phase, pending.getUnarrivedParties());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        results.stop();
+        return results;
+    }
+
+    /**
+     * 当前在途请求数
+     */
+    int getInFlight() {
+        return settings.getMaxInFlight() - inFlight.availablePermits();
+    }
+}
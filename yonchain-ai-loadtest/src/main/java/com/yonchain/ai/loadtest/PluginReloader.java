@@ -0,0 +1,80 @@
+package com.yonchain.ai.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 通过控制台插件接口（PluginService → PluginManager）周期性禁用再启用插件，制造插件启停抖动
+ */
+class PluginReloader implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginReloader.class);
+
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient;
+    private final AtomicLong reloads = new AtomicLong();
+    private final Map<String, Long> failures = new TreeMap<>();
+
+    PluginReloader(LoadTestSettings settings, HttpClient httpClient) {
+        this.settings = settings;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public void run() {
+        for (String pluginId : settings.getSoakPluginIds()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                post(pluginId, "disable");
+                Thread.sleep(settings.getSoakPluginDisabled().toMillis());
+                post(pluginId, "enable");
+                reloads.incrementAndGet();
+                log.info("Reloaded plugin {}", pluginId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Failed to reload plugin {}: {}", pluginId, e.getMessage());
+                synchronized (failures) {
+                    failures.merge(pluginId, 1L, Long::sum);
+                }
+            }
+        }
+    }
+
+    private void post(String pluginId, String action) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(
+                        URI.create(settings.getConsoleUrl() + "/plugins/" + pluginId + "/" + action))
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.noBody());
+        if (settings.getConsoleToken() != null && !settings.getConsoleToken().isBlank()) {
+            builder.header("Authorization", "Bearer " + settings.getConsoleToken());
+        }
+        HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(action + " returned HTTP " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    long getReloadCount() {
+        return reloads.get();
+    }
+
+    Map<String, Long> getFailures() {
+        synchronized (failures) {
+            return new TreeMap<>(failures);
+        }
+    }
+}
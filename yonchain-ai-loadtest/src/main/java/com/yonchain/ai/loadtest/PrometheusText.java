@@ -0,0 +1,133 @@
+package com.yonchain.ai.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prometheus文本格式的指标快照
+ */
+public class PrometheusText {
+
+    private static final Logger log = LoggerFactory.getLogger(PrometheusText.class);
+
+    private final List<String> series = new ArrayList<>();
+    private final List<Double> values = new ArrayList<>();
+
+    /**
+     * 抓取指标，地址为空、为none或抓取失败时返回null
+     *
+     * @param token 访问令牌，网关的指标端点需要认证，为空时不发送
+     */
+    public static PrometheusText scrape(HttpClient httpClient, String url, String token) {
+        if (url == null || "none".equalsIgnoreCase(url)) {
+            return null;
+        }
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(10))
+                    .GET();
+            if (token != null && !token.isBlank()) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.warn("Failed to scrape {}: HTTP {}", url, response.statusCode());
+                return null;
+            }
+            return parse(response.body());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Failed to scrape {}: {}", url, e.toString());
+            return null;
+        }
+    }
+
+    public static PrometheusText parse(String text) {
+        PrometheusText metrics = new PrometheusText();
+        for (String line : text.split("\n")) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int valueStart = line.lastIndexOf(' ');
+            if (valueStart < 0) {
+                continue;
+            }
+            double value;
+            try {
+                value = Double.parseDouble(line.substring(valueStart + 1));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (!Double.isNaN(value)) {
+                metrics.series.add(line.substring(0, valueStart));
+                metrics.values.add(value);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * 指定指标所有序列之和
+     *
+     * @param name  指标名
+     * @param label 标签过滤（如 area="heap"），为null时不过滤
+     */
+    public double sum(String name, String label) {
+        double sum = 0;
+        for (int i = 0; i < series.size(); i++) {
+            if (matches(series.get(i), name, label)) {
+                sum += values.get(i);
+            }
+        }
+        return sum;
+    }
+
+    public double sum(String name) {
+        return sum(name, null);
+    }
+
+    /**
+     * 指定指标所有序列的最大值，没有序列时为0
+     */
+    public double max(String name) {
+        double max = 0;
+        for (int i = 0; i < series.size(); i++) {
+            if (matches(series.get(i), name, null)) {
+                max = Math.max(max, values.get(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 是否存在指定指标
+     */
+    public boolean contains(String name) {
+        for (String s : series) {
+            if (matches(s, name, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String series, String name, String label) {
+        if (!series.startsWith(name)) {
+            return false;
+        }
+        if (series.length() > name.length() && series.charAt(name.length()) != '{') {
+            return false;
+        }
+        return label == null || series.contains(label);
+    }
+}
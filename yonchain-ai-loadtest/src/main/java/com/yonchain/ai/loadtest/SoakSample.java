@@ -0,0 +1,136 @@
+package com.yonchain.ai.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 浸泡测试的一次采样
+ * <p>
+ * 网关指标来自Prometheus端点，网关未暴露的指标为NaN，不参与趋势判断。
+ */
+public class SoakSample {
+
+    /**
+     * CSV列顺序，与 {@link #toCsv()} 一致
+     */
+    static final String CSV_HEADER = "elapsed_seconds,heap_used_mb,heap_live_mb,threads,open_files,loaded_classes,"
+            + "plugin_classloaders,model_cache_size,gateway_inflight,harness_inflight,succeeded,errors,"
+            + "client_disconnects,plugin_reloads";
+
+    private static final double MB = 1024 * 1024;
+
+    private final double elapsedSeconds;
+    private double heapUsedMb = Double.NaN;
+    private double heapLiveMb = Double.NaN;
+    private double threads = Double.NaN;
+    private double openFiles = Double.NaN;
+    private double loadedClasses = Double.NaN;
+    private double pluginClassLoaders = Double.NaN;
+    private double modelCacheSize = Double.NaN;
+    private double gatewayInFlight = Double.NaN;
+    private long harnessInFlight;
+    private long succeeded;
+    private long errors;
+    private long clientDisconnects;
+    private long pluginReloads;
+
+    SoakSample(double elapsedSeconds) {
+        this.elapsedSeconds = elapsedSeconds;
+    }
+
+    /**
+     * 填充网关指标
+     */
+    void readGateway(PrometheusText metrics) {
+        heapUsedMb = metrics.sum("jvm_memory_used_bytes", "area=\"heap\"") / MB;
+        // 老年代在最近一次GC后的存活数据量，比当前堆占用更能反映泄漏；没有发生过老年代回收时为0
+        double liveData = metrics.sum("jvm_gc_live_data_size_bytes");
+        heapLiveMb = liveData > 0 ? liveData / MB : Double.NaN;
+        threads = gauge(metrics, "jvm_threads_live_threads", null);
+        openFiles = gauge(metrics, "process_files_open_files", null);
+        loadedClasses = gauge(metrics, "jvm_classes_loaded_classes", null);
+        pluginClassLoaders = gauge(metrics, "yonchain_plugin_classloaders", "state=\"live\"");
+        modelCacheSize = gauge(metrics, "yonchain_model_cache_size", null);
+        gatewayInFlight = gauge(metrics, "yonchain_admission_inflight", null);
+    }
+
+    private static double gauge(PrometheusText metrics, String name, String label) {
+        return metrics.contains(name) ? metrics.sum(name, label) : Double.NaN;
+    }
+
+    /**
+     * 填充压测端计数
+     */
+    void readHarness(LoadTestResults results, long inFlight, long reloads) {
+        harnessInFlight = inFlight;
+        succeeded = results.getSuccessCount();
+        errors = results.getErrorCount();
+        clientDisconnects = results.getClientDisconnectCount();
+        pluginReloads = reloads;
+    }
+
+    String toCsv() {
+        return String.format("%.0f,%.1f,%s,%s,%s,%s,%s,%s,%s,%d,%d,%d,%d,%d", elapsedSeconds, heapUsedMb,
+                csv(heapLiveMb), csv(threads), csv(openFiles), csv(loadedClasses), csv(pluginClassLoaders),
+                csv(modelCacheSize), csv(gatewayInFlight), harnessInFlight, succeeded, errors, clientDisconnects,
+                pluginReloads);
+    }
+
+    private static String csv(double value) {
+        if (Double.isNaN(value)) {
+            return "";
+        }
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format("%.1f", value);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("elapsedSeconds", elapsedSeconds);
+        map.put("heapUsedMb", heapUsedMb);
+        map.put("heapLiveMb", heapLiveMb);
+        map.put("threads", threads);
+        map.put("openFiles", openFiles);
+        map.put("loadedClasses", loadedClasses);
+        map.put("pluginClassLoaders", pluginClassLoaders);
+        map.put("modelCacheSize", modelCacheSize);
+        map.put("gatewayInFlight", gatewayInFlight);
+        map.put("harnessInFlight", harnessInFlight);
+        return map;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public double getHeapUsedMb() {
+        return heapUsedMb;
+    }
+
+    public double getHeapLiveMb() {
+        return heapLiveMb;
+    }
+
+    public double getThreads() {
+        return threads;
+    }
+
+    public double getOpenFiles() {
+        return openFiles;
+    }
+
+    public double getLoadedClasses() {
+        return loadedClasses;
+    }
+
+    public double getPluginClassLoaders() {
+        return pluginClassLoaders;
+    }
+
+    public double getModelCacheSize() {
+        return modelCacheSize;
+    }
+
+    public double getGatewayInFlight() {
+        return gatewayInFlight;
+    }
+}
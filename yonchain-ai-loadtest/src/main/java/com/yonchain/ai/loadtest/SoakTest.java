@@ -0,0 +1,243 @@
+package com.yonchain.ai.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 浸泡测试
+ * <p>
+ * 以恒定到达率长时间运行流式为主的流量，按比例让客户端中途断开，并周期性禁用再启用插件；
+ * 定期采集网关的堆、线程、打开文件数、类和插件类加载器数量、模型实例缓存大小，写入CSV。
+ * 结束后对每项指标做最小二乘线性拟合（忽略前10%的采样），增长超过阈值判定为泄漏；
+ * 流量停止后网关在途请求数必须回到0（未完成的AsyncContext会使其无法归零）。
+ */
+class SoakTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SoakTest.class);
+
+    private static final String SAMPLES_FILE = "soak-samples.csv";
+    private static final String REPORT_FILE = "soak-report.json";
+    private static final double IGNORED_FRACTION = 0.1;
+    private static final int MIN_SAMPLES = 3;
+    private static final long IDLE_WAIT_MILLIS = 10_000;
+
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient;
+    private final OpenLoopDriver driver;
+    private final PluginReloader reloader;
+    private final List<SoakSample> samples = new CopyOnWriteArrayList<>();
+    private final LoadTestResults results = new LoadTestResults();
+
+    private volatile long startNanos;
+    private PrintWriter csv;
+
+    SoakTest(LoadTestSettings settings, HttpClient httpClient, OpenLoopDriver driver) {
+        this.settings = settings;
+        this.httpClient = httpClient;
+        this.driver = driver;
+        this.reloader = new PluginReloader(settings, httpClient);
+    }
+
+    /**
+     * 运行浸泡测试并输出报告
+     *
+     * @return 所有资源指标保持平稳时返回true
+     */
+    boolean run(PrintStream out) throws IOException, InterruptedException {
+        Path dir = Paths.get(settings.getSoakReportDir());
+        Files.createDirectories(dir);
+        csv = new PrintWriter(Files.newBufferedWriter(dir.resolve(SAMPLES_FILE), StandardCharsets.UTF_8));
+        csv.println(SoakSample.CSV_HEADER);
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        try {
+            startNanos = System.nanoTime();
+            long sampleMillis = settings.getSoakSampleInterval().toMillis();
+            scheduler.scheduleAtFixedRate(() -> sample(true), 0, sampleMillis, TimeUnit.MILLISECONDS);
+            if (!settings.getSoakPluginIds().isEmpty()) {
+                long reloadMillis = settings.getSoakPluginReloadInterval().toMillis();
+                scheduler.scheduleWithFixedDelay(reloader, reloadMillis, reloadMillis, TimeUnit.MILLISECONDS);
+            }
+
+            driver.run("soak", settings.getDuration(), results);
+        } finally {
+            scheduler.shutdownNow();
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        // 流量停止后等待网关完成收尾，再检查在途请求是否归零（空闲采样只写入CSV，不参与趋势拟合）
+        Thread.sleep(IDLE_WAIT_MILLIS);
+        SoakSample idle = sample(false);
+        csv.close();
+
+        Map<String, Object> report = analyze(idle);
+        print(out, report);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(dir.resolve(REPORT_FILE).toFile(), report);
+        log.info("Soak samples written to {}, report to {}", dir.resolve(SAMPLES_FILE), dir.resolve(REPORT_FILE));
+        return Boolean.TRUE.equals(report.get("passed"));
+    }
+
+    private synchronized SoakSample sample(boolean trend) {
+        SoakSample sample = new SoakSample((System.nanoTime() - startNanos) / 1e9);
+        PrometheusText metrics = PrometheusText.scrape(httpClient, settings.getMetricsUrl(),
+                settings.getMetricsToken());
+        if (metrics != null) {
+            sample.readGateway(metrics);
+        }
+        sample.readHarness(results, driver.getInFlight(), reloader.getReloadCount());
+        if (trend) {
+            samples.add(sample);
+        }
+        csv.println(sample.toCsv());
+        csv.flush();
+        return sample;
+    }
+
+    private Map<String, Object> analyze(SoakSample idle) {
+        List<Map<String, Object>> trends = new ArrayList<>();
+        boolean passed = true;
+
+        boolean liveHeap = count(SoakSample::getHeapLiveMb) >= MIN_SAMPLES;
+        passed &= trend(trends, liveHeap ? "heap_live_mb" : "heap_used_mb",
+                liveHeap ? SoakSample::getHeapLiveMb : SoakSample::getHeapUsedMb,
+                settings.getSoakMaxHeapGrowthMbPerHour(), true);
+        passed &= trend(trends, "threads", SoakSample::getThreads, settings.getSoakMaxThreadGrowth(), false);
+        passed &= trend(trends, "open_files", SoakSample::getOpenFiles, settings.getSoakMaxFdGrowth(), false);
+        passed &= trend(trends, "loaded_classes", SoakSample::getLoadedClasses,
+                settings.getSoakMaxClassGrowth(), false);
+        passed &= trend(trends, "plugin_classloaders", SoakSample::getPluginClassLoaders,
+                settings.getSoakMaxClassLoaderGrowth(), false);
+        passed &= trend(trends, "model_cache_size", SoakSample::getModelCacheSize,
+                settings.getSoakMaxModelCacheGrowth(), false);
+
+        Map<String, Object> idleCheck = new LinkedHashMap<>();
+        idleCheck.put("gatewayInFlight", idle.getGatewayInFlight());
+        if (Double.isNaN(idle.getGatewayInFlight())) {
+            idleCheck.put("verdict", "n/a");
+        } else {
+            boolean drained = idle.getGatewayInFlight() == 0;
+            idleCheck.put("verdict", drained ? "pass" : "fail");
+            passed &= drained;
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("passed", passed);
+        report.put("durationSeconds", settings.getDuration().toSeconds());
+        report.put("rate", settings.getRate());
+        report.put("mix", settings.getMix().toString());
+        report.put("disconnectRate", settings.getDisconnectRate());
+        report.put("pluginIds", settings.getSoakPluginIds());
+        report.put("succeeded", results.getSuccessCount());
+        report.put("errors", results.getErrors());
+        report.put("skipped", results.getSkippedCount());
+        report.put("clientDisconnects", results.getClientDisconnectCount());
+        report.put("pluginReloads", reloader.getReloadCount());
+        report.put("pluginReloadFailures", reloader.getFailures());
+        report.put("trends", trends);
+        report.put("idle", idleCheck);
+        report.put("samples", samples.stream().map(SoakSample::toMap).toList());
+        return report;
+    }
+
+    /**
+     * 对一项指标做线性拟合并判定
+     *
+     * @param perHour 为true时阈值是每小时增长量，否则是整个运行期间的增长量
+     * @return 增长未超过阈值或数据不足时返回true
+     */
+    private boolean trend(List<Map<String, Object>> trends, String name, ToDoubleFunction<SoakSample> metric,
+                          double limit, boolean perHour) {
+        Map<String, Object> trend = new LinkedHashMap<>();
+        trend.put("metric", name);
+        trend.put("limit", limit);
+        trend.put("unit", perHour ? "per_hour" : "total");
+        trends.add(trend);
+
+        double skipUntil = settings.getDuration().toSeconds() * IGNORED_FRACTION;
+        List<double[]> points = new ArrayList<>();
+        for (SoakSample sample : samples) {
+            double value = metric.applyAsDouble(sample);
+            if (sample.getElapsedSeconds() >= skipUntil && !Double.isNaN(value)) {
+                points.add(new double[]{sample.getElapsedSeconds(), value});
+            }
+        }
+        if (points.size() < MIN_SAMPLES) {
+            trend.put("verdict", "n/a");
+            return true;
+        }
+
+        double meanX = points.stream().mapToDouble(p -> p[0]).average().orElse(0);
+        double meanY = points.stream().mapToDouble(p -> p[1]).average().orElse(0);
+        double covariance = 0;
+        double variance = 0;
+        for (double[] p : points) {
+            covariance += (p[0] - meanX) * (p[1] - meanY);
+            variance += (p[0] - meanX) * (p[0] - meanX);
+        }
+        double slopePerSecond = variance > 0 ? covariance / variance : 0;
+        double span = points.get(points.size() - 1)[0] - points.get(0)[0];
+        double growth = perHour ? slopePerSecond * 3600 : slopePerSecond * span;
+
+        trend.put("first", points.get(0)[1]);
+        trend.put("last", points.get(points.size() - 1)[1]);
+        trend.put("slopePerHour", slopePerSecond * 3600);
+        trend.put("growth", growth);
+        boolean ok = growth <= limit;
+        trend.put("verdict", ok ? "pass" : "fail");
+        return ok;
+    }
+
+    private int count(ToDoubleFunction<SoakSample> metric) {
+        return (int) samples.stream().filter(sample -> !Double.isNaN(metric.applyAsDouble(sample))).count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(PrintStream out, Map<String, Object> report) {
+        out.println();
+        out.printf("soak: succeeded=%s errors=%s disconnects=%s pluginReloads=%s reloadFailures=%s%n",
+                report.get("succeeded"), report.get("errors"), report.get("clientDisconnects"),
+                report.get("pluginReloads"), report.get("pluginReloadFailures"));
+        out.println();
+        out.printf("%-22s %12s %12s %14s %12s %12s %8s%n", "metric", "first", "last", "slope/hour", "growth",
+                "limit", "verdict");
+        for (Map<String, Object> trend : (List<Map<String, Object>>) report.get("trends")) {
+            out.printf("%-22s %12s %12s %14s %12s %12s %8s%n", trend.get("metric"), format(trend.get("first")),
+                    format(trend.get("last")), format(trend.get("slopePerHour")), format(trend.get("growth")),
+                    format(trend.get("limit")) + (trend.get("unit").equals("per_hour") ? "/h" : ""),
+                    trend.get("verdict"));
+        }
+        Map<String, Object> idle = (Map<String, Object>) report.get("idle");
+        out.printf("%-22s %12s %12s %14s %12s %12s %8s%n", "idle_gateway_inflight", "", format(idle.get("gatewayInFlight")),
+                "", "", "0", idle.get("verdict"));
+        out.println();
+        out.println(Boolean.TRUE.equals(report.get("passed")) ? "SOAK PASSED" : "SOAK FAILED");
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Double number) {
+            return Double.isNaN(number) ? "-" : String.format("%.2f", number);
+        }
+        return value != null ? value.toString() : "-";
+    }
+}
@@ -0,0 +1,39 @@
+package com.yonchain.ai.loadtest;
+
+/**
+ * 压测流量类型
+ */
+public enum TrafficKind {
+
+    /**
+     * 同步聊天
+     */
+    SYNC("sync"),
+    /**
+     * 流式聊天
+     */
+    STREAM("stream"),
+    /**
+     * 嵌入
+     */
+    EMBEDDING("embedding");
+
+    private final String key;
+
+    TrafficKind(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static TrafficKind fromKey(String key) {
+        for (TrafficKind kind : values()) {
+            if (kind.key.equalsIgnoreCase(key.trim())) {
+                return kind;
+            }
+        }
+        throw new IllegalArgumentException("Unknown traffic kind: " + key);
+    }
+}
@@ -0,0 +1,75 @@
+package com.yonchain.ai.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 流量配比
+ * <p>
+ * 文本格式 sync=30,stream=60,embedding=10，权重为相对值，省略的类型权重为0。
+ */
+public class TrafficMix {
+
+    private final Map<TrafficKind, Double> weights;
+    private final TrafficKind[] kinds;
+    private final double[] cumulative;
+
+    private TrafficMix(Map<TrafficKind, Double> weights) {
+        this.weights = weights;
+        this.kinds = weights.keySet().toArray(new TrafficKind[0]);
+        this.cumulative = new double[kinds.length];
+        double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("Traffic mix must have a positive weight");
+        }
+        double sum = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            sum += weights.get(kinds[i]) / total;
+            cumulative[i] = sum;
+        }
+    }
+
+    public static TrafficMix parse(String text) {
+        Map<TrafficKind, Double> weights = new EnumMap<>(TrafficKind.class);
+        for (String part : text.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid traffic mix entry: " + part);
+            }
+            double weight = Double.parseDouble(pair[1].trim());
+            if (weight > 0) {
+                weights.put(TrafficKind.fromKey(pair[0]), weight);
+            }
+        }
+        return new TrafficMix(weights);
+    }
+
+    /**
+     * 按权重随机选择一种流量
+     */
+    public TrafficKind pick(Random random) {
+        double sample = random.nextDouble();
+        for (int i = 0; i < kinds.length; i++) {
+            if (sample < cumulative[i]) {
+                return kinds[i];
+            }
+        }
+        return kinds[kinds.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        weights.forEach((kind, weight) -> {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(kind.getKey()).append('=').append(weight);
+        });
+        return builder.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package com.yonchain.ai.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 模拟 /v1/chat/completions
+ * <p>
+ * 同步请求等待首字节延迟加生成时间后一次返回；流式请求等待首字节延迟后按 tokens.per.second 的间隔逐个输出分块，
+ * 每个分块一个Token，stream_options.include_usage 为true时在 [DONE] 之前输出用量分块。
+ */
+class ChatCompletionsHandler extends MockEndpointHandler {
+
+    private static final String[] WORDS = {"Hello", " from", " the", " mock", " upstream", ",", " this", " is",
+            " token", " text", "."};
+
+    private static final byte[] DATA_PREFIX = "data: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT_SUFFIX = "\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DONE = "data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8);
+
+    ChatCompletionsHandler(MockUpstreamSettings settings, MockUpstreamStats stats, ObjectMapper objectMapper) {
+        super(settings, stats, objectMapper);
+    }
+
+    @Override
+    protected void respond(HttpExchange exchange, JsonNode request, MockFault fault, long latencyMillis)
+            throws IOException {
+        String model = request.path("model").asText("mock-model");
+        int completionTokens = completionTokens(exchange, request);
+        int promptTokens = estimateTokens(request.path("messages"));
+
+        if (request.path("stream").asBoolean(false)) {
+            boolean includeUsage = settings.isUsage()
+                    && request.path("stream_options").path("include_usage").asBoolean(false);
+            stream(exchange, model, promptTokens, completionTokens, includeUsage, fault, latencyMillis);
+            return;
+        }
+
+        sleepNanos(latencyMillis * 1_000_000L + generationNanos(completionTokens));
+        if (fault == MockFault.DISCONNECT) {
+            throw new MockDisconnect();
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("id", nextId("chatcmpl"));
+        response.put("object", "chat.completion");
+        response.put("created", epochSeconds());
+        response.put("model", model);
+        ObjectNode choice = response.putArray("choices").addObject();
+        choice.put("index", 0);
+        ObjectNode message = choice.putObject("message");
+        message.put("role", "assistant");
+        message.put("content", text(completionTokens));
+        choice.put("finish_reason", "stop");
+        if (settings.isUsage()) {
+            putUsage(response, promptTokens, completionTokens);
+        }
+        stats.recordCompletionTokens(completionTokens);
+        sendJson(exchange, 200, response);
+    }
+
+    private void stream(HttpExchange exchange, String model, int promptTokens, int completionTokens,
+                        boolean includeUsage, MockFault fault, long latencyMillis) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        String id = nextId("chatcmpl");
+        long created = epochSeconds();
+        int disconnectAt = fault == MockFault.DISCONNECT ? completionTokens / 2 : -1;
+        long intervalNanos = generationNanos(1);
+
+        stats.streamStarted();
+        OutputStream output = exchange.getResponseBody();
+        try {
+            sleepMillis(latencyMillis);
+            long start = System.nanoTime();
+            for (int i = 0; i < completionTokens; i++) {
+                if (i == disconnectAt) {
+                    throw new MockDisconnect();
+                }
+                if (i > 0) {
+                    parkUntil(start + i * intervalNanos);
+                }
+                ObjectNode chunk = chunk(id, created, model);
+                ObjectNode choice = chunk.putArray("choices").addObject();
+                choice.put("index", 0);
+                ObjectNode delta = choice.putObject("delta");
+                if (i == 0) {
+                    delta.put("role", "assistant");
+                }
+                delta.put("content", WORDS[i % WORDS.length]);
+                choice.putNull("finish_reason");
+                writeEvent(output, chunk);
+                stats.recordCompletionTokens(1);
+            }
+
+            ObjectNode last = chunk(id, created, model);
+            ObjectNode lastChoice = last.putArray("choices").addObject();
+            lastChoice.put("index", 0);
+            lastChoice.putObject("delta");
+            lastChoice.put("finish_reason", "stop");
+            writeEvent(output, last);
+
+            if (includeUsage) {
+                ObjectNode usageChunk = chunk(id, created, model);
+                usageChunk.putArray("choices");
+                putUsage(usageChunk, promptTokens, completionTokens);
+                writeEvent(output, usageChunk);
+            }
+            output.write(DONE);
+            output.flush();
+            output.close();
+        } finally {
+            stats.streamFinished();
+        }
+    }
+
+    private ObjectNode chunk(String id, long created, String model) {
+        ObjectNode chunk = objectMapper.createObjectNode();
+        chunk.put("id", id);
+        chunk.put("object", "chat.completion.chunk");
+        chunk.put("created", created);
+        chunk.put("model", model);
+        return chunk;
+    }
+
+    private void writeEvent(OutputStream output, JsonNode event) throws IOException {
+        output.write(DATA_PREFIX);
+        output.write(objectMapper.writeValueAsBytes(event));
+        output.write(EVENT_SUFFIX);
+        output.flush();
+    }
+
+    private static void putUsage(ObjectNode response, int promptTokens, int completionTokens) {
+        ObjectNode usage = response.putObject("usage");
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", promptTokens + completionTokens);
+    }
+
+    private static String text(int tokens) {
+        StringBuilder builder = new StringBuilder(tokens * 6);
+        for (int i = 0; i < tokens; i++) {
+            builder.append(WORDS[i % WORDS.length]);
+        }
+        return builder.toString();
+    }
+}
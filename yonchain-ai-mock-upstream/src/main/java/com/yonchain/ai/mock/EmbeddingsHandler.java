@@ -0,0 +1,101 @@
+package com.yonchain.ai.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 模拟 /v1/embeddings
+ * <p>
+ * input可以是字符串或数组，每个输入生成一个确定的单位向量（相同输入得到相同向量），
+ * 维度取请求的dimensions或 embedding.dimensions；encoding_format 为base64时按小端float32编码。
+ */
+class EmbeddingsHandler extends MockEndpointHandler {
+
+    EmbeddingsHandler(MockUpstreamSettings settings, MockUpstreamStats stats, ObjectMapper objectMapper) {
+        super(settings, stats, objectMapper);
+    }
+
+    @Override
+    protected void respond(HttpExchange exchange, JsonNode request, MockFault fault, long latencyMillis)
+            throws IOException {
+        JsonNode input = request.path("input");
+        List<JsonNode> inputs = new ArrayList<>();
+        if (input.isArray()) {
+            input.forEach(inputs::add);
+        } else if (!input.isMissingNode() && !input.isNull()) {
+            inputs.add(input);
+        }
+        if (inputs.isEmpty()) {
+            sendError(exchange, 400, "Missing required parameter: input", "invalid_request_error", null);
+            return;
+        }
+
+        sleepMillis(latencyMillis);
+        if (fault == MockFault.DISCONNECT) {
+            throw new MockDisconnect();
+        }
+
+        int dimensions = request.path("dimensions").asInt(settings.getEmbeddingDimensions());
+        boolean base64 = "base64".equalsIgnoreCase(request.path("encoding_format").asText());
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("object", "list");
+        ArrayNode data = response.putArray("data");
+        for (int i = 0; i < inputs.size(); i++) {
+            float[] vector = vector(inputs.get(i).toString(), dimensions);
+            ObjectNode item = data.addObject();
+            item.put("object", "embedding");
+            item.put("index", i);
+            if (base64) {
+                item.put("embedding", encode(vector));
+            } else {
+                ArrayNode values = item.putArray("embedding");
+                for (float value : vector) {
+                    values.add(value);
+                }
+            }
+        }
+        response.put("model", request.path("model").asText("mock-embedding"));
+        if (settings.isUsage()) {
+            int promptTokens = estimateTokens(input);
+            ObjectNode usage = response.putObject("usage");
+            usage.put("prompt_tokens", promptTokens);
+            usage.put("total_tokens", promptTokens);
+        }
+        sendJson(exchange, 200, response);
+    }
+
+    private static float[] vector(String input, int dimensions) {
+        SplittableRandom random = new SplittableRandom(input.hashCode());
+        float[] vector = new float[Math.max(dimensions, 1)];
+        double norm = 0;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static String encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float value : vector) {
+            buffer.putFloat(value);
+        }
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+}
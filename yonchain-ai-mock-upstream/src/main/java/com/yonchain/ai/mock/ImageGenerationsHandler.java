@@ -0,0 +1,56 @@
+package com.yonchain.ai.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * 模拟 /v1/images/generations
+ * <p>
+ * 返回n张图片，response_format 为b64_json时返回一个1x1的PNG，否则返回占位URL。
+ */
+class ImageGenerationsHandler extends MockEndpointHandler {
+
+    private static final String PIXEL_PNG = "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNk"
+            + "+M9QDwADhgGAWjR9awAAAABJRU5ErkJggg==";
+
+    ImageGenerationsHandler(MockUpstreamSettings settings, MockUpstreamStats stats, ObjectMapper objectMapper) {
+        super(settings, stats, objectMapper);
+    }
+
+    @Override
+    protected void respond(HttpExchange exchange, JsonNode request, MockFault fault, long latencyMillis)
+            throws IOException {
+        String prompt = request.path("prompt").asText(null);
+        if (prompt == null || prompt.isBlank()) {
+            sendError(exchange, 400, "Missing required parameter: prompt", "invalid_request_error", null);
+            return;
+        }
+
+        sleepMillis(latencyMillis);
+        if (fault == MockFault.DISCONNECT) {
+            throw new MockDisconnect();
+        }
+
+        int count = Math.min(Math.max(request.path("n").asInt(1), 1), 10);
+        boolean base64 = "b64_json".equalsIgnoreCase(request.path("response_format").asText());
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("created", epochSeconds());
+        ArrayNode data = response.putArray("data");
+        for (int i = 0; i < count; i++) {
+            ObjectNode image = data.addObject();
+            if (base64) {
+                image.put("b64_json", PIXEL_PNG);
+            } else {
+                image.put("url", "https://mock-upstream.invalid/images/" + nextId("img") + ".png");
+            }
+            image.put("revised_prompt", prompt);
+        }
+        sendJson(exchange, 200, response);
+    }
+}
@@ -0,0 +1,111 @@
+package com.yonchain.ai.mock;
+
+import java.util.Random;
+
+/**
+ * 模拟延迟分布
+ * <p>
+ * 文本格式：
+ * <ul>
+ *     <li>fixed:200 —— 固定200毫秒</li>
+ *     <li>uniform:100:500 —— 100到500毫秒均匀分布</li>
+ *     <li>lognormal:300:2000 —— 中位数300毫秒、P99为2000毫秒的对数正态分布（贴近真实上游的长尾）</li>
+ * </ul>
+ */
+public abstract class LatencyDistribution {
+
+    /**
+     * 标准正态分布的99分位点
+     */
+    private static final double Z_99 = 2.326347874;
+
+    public static final LatencyDistribution NONE = fixed(0);
+
+    /**
+     * 采样一次延迟
+     *
+     * @return 延迟（毫秒），不小于0
+     */
+    public abstract long sampleMillis(Random random);
+
+    public static LatencyDistribution fixed(long millis) {
+        long value = Math.max(millis, 0);
+        return new LatencyDistribution() {
+            @Override
+            public long sampleMillis(Random random) {
+                return value;
+            }
+
+            @Override
+            public String toString() {
+                return "fixed:" + value;
+            }
+        };
+    }
+
+    public static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        long min = Math.max(minMillis, 0);
+        long max = Math.max(maxMillis, min);
+        return new LatencyDistribution() {
+            @Override
+            public long sampleMillis(Random random) {
+                return min == max ? min : min + (long) (random.nextDouble() * (max - min + 1));
+            }
+
+            @Override
+            public String toString() {
+                return "uniform:" + min + ":" + max;
+            }
+        };
+    }
+
+    /**
+     * 对数正态分布
+     *
+     * @param medianMillis 中位数（毫秒）
+     * @param p99Millis    99分位（毫秒），不小于中位数
+     */
+    public static LatencyDistribution logNormal(long medianMillis, long p99Millis) {
+        double median = Math.max(medianMillis, 1);
+        double p99 = Math.max(p99Millis, median);
+        double mu = Math.log(median);
+        double sigma = Math.log(p99 / median) / Z_99;
+        return new LatencyDistribution() {
+            @Override
+            public long sampleMillis(Random random) {
+                return Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+            }
+
+            @Override
+            public String toString() {
+                return "lognormal:" + (long) median + ":" + (long) p99;
+            }
+        };
+    }
+
+    /**
+     * 解析文本格式的延迟分布
+     *
+     * @param text 如 fixed:200、uniform:100:500、lognormal:300:2000，纯数字等同于fixed
+     */
+    public static LatencyDistribution parse(String text) {
+        if (text == null || text.isBlank()) {
+            return NONE;
+        }
+        String[] parts = text.trim().split(":");
+        try {
+            switch (parts[0].toLowerCase()) {
+                case "fixed":
+                    return fixed(Long.parseLong(parts[1]));
+                case "uniform":
+                    return uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                case "lognormal":
+                    return logNormal(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                default:
+                    return fixed(Long.parseLong(parts[0]));
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + text, e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.yonchain.ai.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 模拟接口的公共处理：解析请求、决定故障和延迟、输出JSON和错误响应
+ */
+abstract class MockEndpointHandler {
+
+    static final String LATENCY_HEADER = "X-Mock-Latency-Ms";
+    static final String TOKENS_HEADER = "X-Mock-Tokens";
+
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+    protected final MockUpstreamSettings settings;
+    protected final MockUpstreamStats stats;
+    protected final ObjectMapper objectMapper;
+
+    MockEndpointHandler(MockUpstreamSettings settings, MockUpstreamStats stats, ObjectMapper objectMapper) {
+        this.settings = settings;
+        this.stats = stats;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 处理请求
+     *
+     * @throws MockDisconnect 需要断开连接时抛出，由服务器关闭连接
+     */
+    final void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed", "invalid_request_error", null);
+            return;
+        }
+
+        JsonNode request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = objectMapper.readTree(body);
+        } catch (IOException e) {
+            sendError(exchange, 400, "Invalid JSON body: " + e.getMessage(), "invalid_request_error", null);
+            return;
+        }
+        if (request == null || !request.isObject()) {
+            sendError(exchange, 400, "Request body must be a JSON object", "invalid_request_error", null);
+            return;
+        }
+
+        Random random = ThreadLocalRandom.current();
+        MockFault fault;
+        try {
+            fault = MockFault.decide(settings, exchange.getRequestHeaders().getFirst(MockFault.HEADER), random);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage(), "invalid_request_error", null);
+            return;
+        }
+        stats.recordRequest(fault);
+
+        switch (fault) {
+            case RATE_LIMITED:
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, fault.getStatus(), "Rate limit reached (injected by mock upstream)",
+                        "requests", "rate_limit_exceeded");
+                return;
+            case INTERNAL_ERROR:
+                sendError(exchange, fault.getStatus(), "The server had an error (injected by mock upstream)",
+                        "server_error", null);
+                return;
+            case UNAVAILABLE:
+                sendError(exchange, fault.getStatus(), "The engine is currently overloaded (injected by mock upstream)",
+                        "server_error", "service_unavailable");
+                return;
+            case TIMEOUT:
+                sleepMillis(settings.getTimeoutMillis());
+                throw new MockDisconnect();
+            default:
+                respond(exchange, request, fault, latencyMillis(exchange, random));
+        }
+    }
+
+    /**
+     * 输出正常响应（fault为NONE或DISCONNECT）
+     *
+     * @param latencyMillis 首字节延迟
+     */
+    protected abstract void respond(HttpExchange exchange, JsonNode request, MockFault fault, long latencyMillis)
+            throws IOException;
+
+    protected void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * 输出OpenAI格式的错误响应
+     */
+    protected void sendError(HttpExchange exchange, int status, String message, String type, String code)
+            throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        ObjectNode error = body.putObject("error");
+        error.put("message", message);
+        error.put("type", type);
+        error.putNull("param");
+        if (code != null) {
+            error.put("code", code);
+        } else {
+            error.putNull("code");
+        }
+        sendJson(exchange, status, body);
+    }
+
+    /**
+     * 输出Token数：请求头 X-Mock-Tokens 优先，否则为配置值和请求max_tokens中的较小者
+     */
+    protected int completionTokens(HttpExchange exchange, JsonNode request) {
+        String header = exchange.getRequestHeaders().getFirst(TOKENS_HEADER);
+        if (header != null && !header.isBlank()) {
+            return Math.max(Integer.parseInt(header.trim()), 0);
+        }
+        int tokens = settings.getCompletionTokens();
+        int maxTokens = request.path("max_completion_tokens").asInt(request.path("max_tokens").asInt(0));
+        return maxTokens > 0 ? Math.min(tokens, maxTokens) : tokens;
+    }
+
+    /**
+     * 粗略估算输入Token数（约4个字符一个Token）
+     */
+    protected static int estimateTokens(JsonNode node) {
+        if (node == null || node.isMissingNode() || node.isNull()) {
+            return 0;
+        }
+        long chars;
+        if (node.isTextual()) {
+            chars = node.asText().length();
+        } else if (node.isArray() || node.isObject()) {
+            long total = 0;
+            for (JsonNode child : node) {
+                total += estimateTokens(child);
+            }
+            return (int) Math.min(total, Integer.MAX_VALUE);
+        } else {
+            chars = node.asText().length();
+        }
+        return (int) Math.max((chars + 3) / 4, 1);
+    }
+
+    protected static String nextId(String prefix) {
+        return prefix + "-mock-" + ID_SEQUENCE.incrementAndGet();
+    }
+
+    protected static long epochSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * 按输出速度计算生成指定Token数所需的时间
+     */
+    protected long generationNanos(int tokens) {
+        double tokensPerSecond = settings.getTokensPerSecond();
+        return tokensPerSecond > 0 ? (long) (tokens * 1e9 / tokensPerSecond) : 0;
+    }
+
+    protected static void sleepMillis(long millis) {
+        sleepNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * 等待指定时间（虚拟线程上park不占用载体线程）
+     */
+    protected static void sleepNanos(long nanos) {
+        if (nanos > 0) {
+            parkUntil(System.nanoTime() + nanos);
+        }
+    }
+
+    protected static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new MockDisconnect();
+            }
+        }
+    }
+
+    private long latencyMillis(HttpExchange exchange, Random random) {
+        String header = exchange.getRequestHeaders().getFirst(LATENCY_HEADER);
+        if (header != null && !header.isBlank()) {
+            return Math.max(Long.parseLong(header.trim()), 0);
+        }
+        return settings.getLatency().sampleMillis(random);
+    }
+
+    /**
+     * 断开连接：抛出到HttpServer后连接被直接关闭，不输出剩余的响应（流式响应没有结束分块）
+     */
+    static final class MockDisconnect extends RuntimeException {
+
+        MockDisconnect() {
+            super("Connection dropped by mock upstream", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.yonchain.ai.mock;
+
+import java.util.Random;
+
+/**
+ * 注入的故障
+ */
+public enum MockFault {
+
+    NONE(200),
+    RATE_LIMITED(429),
+    INTERNAL_ERROR(500),
+    UNAVAILABLE(503),
+    /**
+     * 不响应，连接保持 timeout.ms 后断开
+     */
+    TIMEOUT(0),
+    /**
+     * 中途断开：流式请求输出一半分块后断开，其他请求在响应前断开
+     */
+    DISCONNECT(0);
+
+    public static final String HEADER = "X-Mock-Fault";
+
+    private final int status;
+
+    MockFault(int status) {
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * 决定本次请求注入的故障
+     *
+     * @param override 请求头 X-Mock-Fault 的值，为空时按配置的比例抽样
+     */
+    static MockFault decide(MockUpstreamSettings settings, String override, Random random) {
+        if (override != null && !override.isBlank()) {
+            return parse(override);
+        }
+        double sample = random.nextDouble();
+        if ((sample -= settings.getErrorRate429()) < 0) {
+            return RATE_LIMITED;
+        }
+        if ((sample -= settings.getErrorRate5xx()) < 0) {
+            return random.nextBoolean() ? INTERNAL_ERROR : UNAVAILABLE;
+        }
+        if ((sample -= settings.getTimeoutRate()) < 0) {
+            return TIMEOUT;
+        }
+        if (sample - settings.getDisconnectRate() < 0) {
+            return DISCONNECT;
+        }
+        return NONE;
+    }
+
+    private static MockFault parse(String value) {
+        switch (value.trim().toLowerCase()) {
+            case "429":
+                return RATE_LIMITED;
+            case "500":
+                return INTERNAL_ERROR;
+            case "503":
+                return UNAVAILABLE;
+            case "timeout":
+                return TIMEOUT;
+            case "disconnect":
+                return DISCONNECT;
+            case "none":
+                return NONE;
+            default:
+                throw new IllegalArgumentException("Unknown " + HEADER + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.yonchain.ai.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 本地OpenAI兼容模拟上游
+ * <p>
+ * 基于JDK HttpServer，每个请求在一个虚拟线程上处理，流式响应的等待不占用平台线程，单机可以同时保持数千个流。
+ * 按路径后缀路由，基础URL带不带 /v1 都可以：
+ * <ul>
+ *     <li>POST .../chat/completions —— 同步和SSE流式</li>
+ *     <li>POST .../embeddings</li>
+ *     <li>POST .../images/generations</li>
+ *     <li>GET /mock/stats —— 请求统计</li>
+ * </ul>
+ * 嵌入使用：
+ * <pre>
+ * try (MockUpstreamServer upstream = new MockUpstreamServer(settings).start()) {
+ *     modelDefinition.setBaseUrl(upstream.getBaseUrl());
+ *     ...
+ * }
+ * </pre>
+ * 独立运行：java -jar yonchain-ai-mock-upstream-*-all.jar port=18080 latency=lognormal:300:2000 tokens.per.second=40
+ */
+public class MockUpstreamServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MockUpstreamServer.class);
+
+    private static final int BACKLOG = 4096;
+
+    static {
+        // 流式分块很小，关闭Nagle算法避免与客户端延迟确认叠加造成的分块延迟（需在HttpServer首次创建前设置）
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final MockUpstreamSettings settings;
+    private final MockUpstreamStats stats = new MockUpstreamStats();
+    private final ChatCompletionsHandler chatHandler;
+    private final EmbeddingsHandler embeddingsHandler;
+    private final ImageGenerationsHandler imagesHandler;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MockUpstreamServer(MockUpstreamSettings settings) {
+        this.settings = settings;
+        this.chatHandler = new ChatCompletionsHandler(settings, stats, objectMapper);
+        this.embeddingsHandler = new EmbeddingsHandler(settings, stats, objectMapper);
+        this.imagesHandler = new ImageGenerationsHandler(settings, stats, objectMapper);
+    }
+
+    /**
+     * 启动服务
+     *
+     * @return 当前实例
+     */
+    public synchronized MockUpstreamServer start() throws IOException {
+        if (server != null) {
+            return this;
+        }
+        server = HttpServer.create(new InetSocketAddress(settings.getHost(), settings.getPort()), BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::dispatch);
+        server.start();
+        log.info("Mock upstream listening on {} with {}", getBaseUrl(), settings);
+        return this;
+    }
+
+    /**
+     * 基础URL，可直接作为ModelDefinition的baseUrl
+     */
+    public String getBaseUrl() {
+        if (server == null) {
+            throw new IllegalStateException("Mock upstream is not started");
+        }
+        return "http://" + settings.getHost() + ":" + server.getAddress().getPort();
+    }
+
+    public int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Mock upstream is not started");
+        }
+        return server.getAddress().getPort();
+    }
+
+    public MockUpstreamSettings getSettings() {
+        return settings;
+    }
+
+    public MockUpstreamStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+        log.info("Mock upstream stopped, stats: {}", stats.toMap());
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        boolean dropped = false;
+        try {
+            if (path.endsWith("/chat/completions")) {
+                chatHandler.handle(exchange);
+            } else if (path.endsWith("/embeddings")) {
+                embeddingsHandler.handle(exchange);
+            } else if (path.endsWith("/images/generations")) {
+                imagesHandler.handle(exchange);
+            } else if (path.equals("/mock/stats")) {
+                writeStats(exchange);
+            } else {
+                byte[] body = ("{\"error\":{\"message\":\"Unknown path: " + path
+                        + "\",\"type\":\"invalid_request_error\",\"param\":null,\"code\":null}}").getBytes();
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(404, body.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            }
+        } catch (MockEndpointHandler.MockDisconnect e) {
+            // 不关闭交换（关闭会输出流式响应的结束分块），异常抛给HttpServer后直接关闭连接
+            dropped = true;
+            throw e;
+        } catch (IOException e) {
+            // 客户端提前断开
+            log.debug("Mock upstream exchange aborted: {} {}", path, e.getMessage());
+            throw e;
+        } finally {
+            if (!dropped) {
+                exchange.close();
+            }
+        }
+    }
+
+    private void writeStats(HttpExchange exchange) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(stats.toMap());
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    /**
+     * 独立运行，参数为 key=value（可带 -- 前缀），键见 {@link MockUpstreamSettings} 中的常量
+     */
+    public static void main(String[] args) throws Exception {
+        Properties properties = new Properties();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value argument, got: " + arg);
+            }
+            properties.setProperty(option.substring(0, separator), option.substring(separator + 1));
+        }
+        if (!properties.containsKey(MockUpstreamSettings.PORT)) {
+            properties.setProperty(MockUpstreamSettings.PORT, "18080");
+        }
+
+        MockUpstreamServer server = new MockUpstreamServer(MockUpstreamSettings.fromProperties(properties)).start();
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            stopped.countDown();
+        }, "mock-upstream-shutdown"));
+        stopped.await();
+    }
+}
@@ -0,0 +1,213 @@
+package com.yonchain.ai.mock;
+
+import java.util.Properties;
+
+/**
+ * 模拟上游配置
+ * <p>
+ * 错误注入的比例按请求独立抽样，依次判断429、5xx、超时和中途断开，四者之和不应超过1。
+ * 单个请求可以通过请求头覆盖：X-Mock-Fault（429、500、503、timeout、disconnect、none）、
+ * X-Mock-Latency-Ms（首字节延迟）和 X-Mock-Tokens（输出Token数）。
+ */
+public class MockUpstreamSettings {
+
+    public static final String HOST = "host";
+    public static final String PORT = "port";
+    public static final String LATENCY = "latency";
+    public static final String TOKENS_PER_SECOND = "tokens.per.second";
+    public static final String COMPLETION_TOKENS = "completion.tokens";
+    public static final String EMBEDDING_DIMENSIONS = "embedding.dimensions";
+    public static final String ERROR_RATE_429 = "error.rate.429";
+    public static final String ERROR_RATE_5XX = "error.rate.5xx";
+    public static final String TIMEOUT_RATE = "timeout.rate";
+    public static final String TIMEOUT_MS = "timeout.ms";
+    public static final String DISCONNECT_RATE = "disconnect.rate";
+    public static final String USAGE = "usage";
+
+    private String host = "127.0.0.1";
+    private int port = 0;
+    private LatencyDistribution latency = LatencyDistribution.NONE;
+    private double tokensPerSecond = 50;
+    private int completionTokens = 64;
+    private int embeddingDimensions = 1536;
+    private double errorRate429;
+    private double errorRate5xx;
+    private double timeoutRate;
+    private long timeoutMillis = 60_000;
+    private double disconnectRate;
+    private boolean usage = true;
+
+    /**
+     * 从属性创建配置，未配置的项使用默认值
+     */
+    public static MockUpstreamSettings fromProperties(Properties properties) {
+        MockUpstreamSettings settings = new MockUpstreamSettings();
+        settings.host = properties.getProperty(HOST, settings.host);
+        settings.port = Integer.parseInt(properties.getProperty(PORT, String.valueOf(settings.port)));
+        settings.latency = LatencyDistribution.parse(properties.getProperty(LATENCY));
+        settings.tokensPerSecond = Double.parseDouble(
+                properties.getProperty(TOKENS_PER_SECOND, String.valueOf(settings.tokensPerSecond)));
+        settings.completionTokens = Integer.parseInt(
+                properties.getProperty(COMPLETION_TOKENS, String.valueOf(settings.completionTokens)));
+        settings.embeddingDimensions = Integer.parseInt(
+                properties.getProperty(EMBEDDING_DIMENSIONS, String.valueOf(settings.embeddingDimensions)));
+        settings.errorRate429 = Double.parseDouble(properties.getProperty(ERROR_RATE_429, "0"));
+        settings.errorRate5xx = Double.parseDouble(properties.getProperty(ERROR_RATE_5XX, "0"));
+        settings.timeoutRate = Double.parseDouble(properties.getProperty(TIMEOUT_RATE, "0"));
+        settings.timeoutMillis = Long.parseLong(
+                properties.getProperty(TIMEOUT_MS, String.valueOf(settings.timeoutMillis)));
+        settings.disconnectRate = Double.parseDouble(properties.getProperty(DISCONNECT_RATE, "0"));
+        settings.usage = Boolean.parseBoolean(properties.getProperty(USAGE, "true"));
+        return settings;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public MockUpstreamSettings setHost(String host) {
+        this.host = host;
+        return this;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @param port 监听端口，0表示随机端口
+     */
+    public MockUpstreamSettings setPort(int port) {
+        this.port = port;
+        return this;
+    }
+
+    public LatencyDistribution getLatency() {
+        return latency;
+    }
+
+    /**
+     * @param latency 首字节延迟分布（同步响应、首个流式分块、嵌入和图片响应之前）
+     */
+    public MockUpstreamSettings setLatency(LatencyDistribution latency) {
+        this.latency = latency != null ? latency : LatencyDistribution.NONE;
+        return this;
+    }
+
+    public double getTokensPerSecond() {
+        return tokensPerSecond;
+    }
+
+    /**
+     * @param tokensPerSecond 输出速度，流式分块按此间隔发送，同步响应额外等待对应的生成时间；不大于0时不限速
+     */
+    public MockUpstreamSettings setTokensPerSecond(double tokensPerSecond) {
+        this.tokensPerSecond = tokensPerSecond;
+        return this;
+    }
+
+    public int getCompletionTokens() {
+        return completionTokens;
+    }
+
+    /**
+     * @param completionTokens 默认输出Token数，请求中的max_tokens更小时以请求为准
+     */
+    public MockUpstreamSettings setCompletionTokens(int completionTokens) {
+        this.completionTokens = completionTokens;
+        return this;
+    }
+
+    public int getEmbeddingDimensions() {
+        return embeddingDimensions;
+    }
+
+    /**
+     * @param embeddingDimensions 默认向量维度，请求中的dimensions优先
+     */
+    public MockUpstreamSettings setEmbeddingDimensions(int embeddingDimensions) {
+        this.embeddingDimensions = embeddingDimensions;
+        return this;
+    }
+
+    public double getErrorRate429() {
+        return errorRate429;
+    }
+
+    public MockUpstreamSettings setErrorRate429(double errorRate429) {
+        this.errorRate429 = errorRate429;
+        return this;
+    }
+
+    public double getErrorRate5xx() {
+        return errorRate5xx;
+    }
+
+    public MockUpstreamSettings setErrorRate5xx(double errorRate5xx) {
+        this.errorRate5xx = errorRate5xx;
+        return this;
+    }
+
+    public double getTimeoutRate() {
+        return timeoutRate;
+    }
+
+    /**
+     * @param timeoutRate 不响应的请求比例，连接保持 timeout.ms 后直接断开
+     */
+    public MockUpstreamSettings setTimeoutRate(double timeoutRate) {
+        this.timeoutRate = timeoutRate;
+        return this;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public MockUpstreamSettings setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    public double getDisconnectRate() {
+        return disconnectRate;
+    }
+
+    /**
+     * @param disconnectRate 中途断开的请求比例：流式请求在输出一半分块后断开，其他请求在响应前断开
+     */
+    public MockUpstreamSettings setDisconnectRate(double disconnectRate) {
+        this.disconnectRate = disconnectRate;
+        return this;
+    }
+
+    public boolean isUsage() {
+        return usage;
+    }
+
+    /**
+     * @param usage 是否返回usage（流式请求还需要客户端指定stream_options.include_usage）
+     */
+    public MockUpstreamSettings setUsage(boolean usage) {
+        this.usage = usage;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "MockUpstreamSettings{" +
+                "host='" + host + '\'' +
+                ", port=" + port +
+                ", latency=" + latency +
+                ", tokensPerSecond=" + tokensPerSecond +
+                ", completionTokens=" + completionTokens +
+                ", embeddingDimensions=" + embeddingDimensions +
+                ", errorRate429=" + errorRate429 +
+                ", errorRate5xx=" + errorRate5xx +
+                ", timeoutRate=" + timeoutRate +
+                ", timeoutMillis=" + timeoutMillis +
+                ", disconnectRate=" + disconnectRate +
+                ", usage=" + usage +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package com.yonchain.ai.mock;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 模拟上游的请求统计，可通过 GET /mock/stats 查询
+ */
+public class MockUpstreamStats {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder streams = new LongAdder();
+    private final LongAdder completionTokens = new LongAdder();
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final AtomicInteger maxActiveStreams = new AtomicInteger();
+    private final Map<MockFault, LongAdder> faults = new EnumMap<>(MockFault.class);
+
+    public MockUpstreamStats() {
+        for (MockFault fault : MockFault.values()) {
+            faults.put(fault, new LongAdder());
+        }
+    }
+
+    void recordRequest(MockFault fault) {
+        requests.increment();
+        faults.get(fault).increment();
+    }
+
+    void recordCompletionTokens(int tokens) {
+        completionTokens.add(tokens);
+    }
+
+    void streamStarted() {
+        streams.increment();
+        int active = activeStreams.incrementAndGet();
+        maxActiveStreams.accumulateAndGet(active, Math::max);
+    }
+
+    void streamFinished() {
+        activeStreams.decrementAndGet();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getStreams() {
+        return streams.sum();
+    }
+
+    public long getCompletionTokens() {
+        return completionTokens.sum();
+    }
+
+    public int getActiveStreams() {
+        return activeStreams.get();
+    }
+
+    public int getMaxActiveStreams() {
+        return maxActiveStreams.get();
+    }
+
+    public long getFaultCount(MockFault fault) {
+        return faults.get(fault).sum();
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("requests", getRequests());
+        map.put("streams", getStreams());
+        map.put("active_streams", getActiveStreams());
+        map.put("max_active_streams", getMaxActiveStreams());
+        map.put("completion_tokens", getCompletionTokens());
+        Map<String, Long> faultCounts = new LinkedHashMap<>();
+        for (MockFault fault : MockFault.values()) {
+            if (fault != MockFault.NONE) {
+                faultCounts.put(fault.name().toLowerCase(), getFaultCount(fault));
+            }
+        }
+        map.put("faults", faultCounts);
+        return map;
+    }
+}
@@ -2,7 +2,11 @@ package com.yonchain.ai.audio;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yonchain.ai.filter.BaseModelFilter;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.invokelog.entity.ModelInvokeLogEntity;
+import com.yonchain.ai.metrics.GatewayMetrics;
 import com.yonchain.ai.model.ModelClient;
+import com.yonchain.ai.usage.rollup.UsageRollupAggregator;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -19,8 +23,9 @@ public class AudioModelFilter extends BaseModelFilter {
     
     private static final Pattern ENDPOINT_PATTERN = Pattern.compile(".*/audio/(transcriptions|speech)$");
     
-    public AudioModelFilter(ModelClient modelClient, ObjectMapper objectMapper) {
-        super(modelClient, objectMapper);
+    public AudioModelFilter(ModelClient modelClient, ObjectMapper objectMapper, InvokeLogWriter invokeLogWriter,
+                            UsageRollupAggregator usageRollup, GatewayMetrics metrics) {
+        super(modelClient, objectMapper, invokeLogWriter, usageRollup, metrics);
     }
     
     @Override
@@ -38,6 +43,9 @@ public class AudioModelFilter extends BaseModelFilter {
             throws IOException {
         
         String requestURI = request.getRequestURI();
+        long startNanos = System.nanoTime();
+        // 音频接口尚未实现，不解析请求体，按未知模型记录调用
+        ModelInvokeLogEntity invocation = createInvocation(request, "unknown", null, null);
         
         try {
             if (requestURI.contains("/transcriptions")) {
@@ -46,13 +54,17 @@ public class AudioModelFilter extends BaseModelFilter {
                 handleSpeechRequest(request, response);
             } else {
                 sendErrorResponse(response, "Unknown audio endpoint", 404);
+                return;
             }
+            completeFailedInvocation(invocation, startNanos,
+                    new UnsupportedOperationException("Audio endpoint not implemented yet: " + requestURI));
             
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid audio request: {}", e.getMessage());
             sendErrorResponse(response, e.getMessage(), 400);
         } catch (Exception e) {
             logger.error("Error in audio request", e);
+            completeFailedInvocation(invocation, startNanos, e);
             sendErrorResponse(response, "Failed to process audio request: " + e.getMessage(), 500);
         }
     }
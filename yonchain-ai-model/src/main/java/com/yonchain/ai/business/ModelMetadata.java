@@ -3,7 +3,10 @@ package com.yonchain.ai.business;
 import com.yonchain.ai.model.enums.ModelType;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -21,6 +24,9 @@ public class ModelMetadata {
     private String version;
     private Integer maxTokens;
     private Set<String> supportedFeatures = new HashSet<>();
+    private Map<String, Object> properties = new HashMap<>();  // 模型属性（插件模型YAML中的model_properties）
+    private List<Map<String, Object>> parameterRules;  // 参数规则（插件模型YAML中的parameter_rules）
+    private Map<String, Object> pricing;  // 价格（插件模型YAML中的pricing）
     private ModelConfig config;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -129,6 +135,33 @@ public class ModelMetadata {
         this.updatedAt = LocalDateTime.now();
     }
     
+    public Map<String, Object> getProperties() { 
+        return properties; 
+    }
+    
+    public void setProperties(Map<String, Object> properties) { 
+        this.properties = properties;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public List<Map<String, Object>> getParameterRules() { 
+        return parameterRules; 
+    }
+    
+    public void setParameterRules(List<Map<String, Object>> parameterRules) { 
+        this.parameterRules = parameterRules;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public Map<String, Object> getPricing() { 
+        return pricing; 
+    }
+    
+    public void setPricing(Map<String, Object> pricing) { 
+        this.pricing = pricing;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
     public ModelConfig getConfig() { 
         return config; 
     }
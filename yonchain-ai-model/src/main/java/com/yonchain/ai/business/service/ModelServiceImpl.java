@@ -546,6 +546,9 @@ public class ModelServiceImpl implements ModelService {
             modelConfig.put("type", metadata.getType() != null ? metadata.getType().toString() : null);
             modelConfig.put("capabilities", metadata.getSupportedFeatures());
             modelConfig.put("maxTokens", metadata.getMaxTokens());
+            modelConfig.put("properties", metadata.getProperties());
+            modelConfig.put("parameterRules", metadata.getParameterRules());
+            modelConfig.put("pricing", metadata.getPricing());
             modelConfig.put("icon", null); // ModelMetadata没有icon字段
 
             ObjectMapper objectMapper = new ObjectMapper();
@@ -580,6 +583,9 @@ public class ModelServiceImpl implements ModelService {
             modelConfig.put("type", metadata.getType() != null ? metadata.getType().toString() : null);
             modelConfig.put("capabilities", metadata.getSupportedFeatures());
             modelConfig.put("maxTokens", metadata.getMaxTokens());
+            modelConfig.put("properties", metadata.getProperties());
+            modelConfig.put("parameterRules", metadata.getParameterRules());
+            modelConfig.put("pricing", metadata.getPricing());
             modelConfig.put("icon", null); // ModelMetadata没有icon字段
 
             ObjectMapper objectMapper = new ObjectMapper();
@@ -829,6 +835,18 @@ public class ModelServiceImpl implements ModelService {
                     modelDefinition.setAuthValue(metadata.getConfig().getApiKey());
                     modelDefinition.setBaseUrl(metadata.getConfig().getEndpoint());
                     modelDefinition.setType(metadata.getType().getCode());
+                    if (metadata.getProperties() != null) {
+                        modelDefinition.getMetadata().putAll(metadata.getProperties());
+                    }
+                    if (metadata.getParameterRules() != null) {
+                        modelDefinition.setMetadata("parameter_rules", metadata.getParameterRules());
+                    }
+                    if (metadata.getSupportedFeatures() != null && !metadata.getSupportedFeatures().isEmpty()) {
+                        modelDefinition.setMetadata("features", new ArrayList<>(metadata.getSupportedFeatures()));
+                    }
+                    if (metadata.getPricing() != null) {
+                        modelDefinition.setMetadata("pricing", metadata.getPricing());
+                    }
                     modelClient.getConfiguration().registerModel(modelDefinition);
                     log.debug("Registered model to ModelRegistry: {}", metadata.getModelId());
                 }
@@ -897,6 +915,27 @@ public class ModelServiceImpl implements ModelService {
                         capabilities.forEach(metadata::addSupportedFeature);
                     }
 
+                    // 解析模型属性
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> properties = (Map<String, Object>) modelConfigMap.get("properties");
+                    if (properties != null) {
+                        metadata.setProperties(properties);
+                    }
+
+                    // 解析参数规则
+                    @SuppressWarnings("unchecked")
+                    List<Map<String, Object>> parameterRules = (List<Map<String, Object>>) modelConfigMap.get("parameterRules");
+                    if (parameterRules != null) {
+                        metadata.setParameterRules(parameterRules);
+                    }
+
+                    // 解析价格
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> pricing = (Map<String, Object>) modelConfigMap.get("pricing");
+                    if (pricing != null) {
+                        metadata.setPricing(pricing);
+                    }
+
                 } catch (Exception e) {
                     log.warn("Failed to parse model config for: {}, using defaults",
                             modelEntity.getModelCode(), e);
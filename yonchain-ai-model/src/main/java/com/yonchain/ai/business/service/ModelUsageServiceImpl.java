@@ -0,0 +1,161 @@
+package com.yonchain.ai.business.service;
+
+import com.yonchain.ai.api.exception.YonchainException;
+import com.yonchain.ai.api.model.ModelUsageService;
+import com.yonchain.ai.api.model.ModelUsageStat;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.usage.rollup.HyperLogLog;
+import com.yonchain.ai.usage.rollup.LatencySketch;
+import com.yonchain.ai.usage.rollup.entity.ModelUsageRollupEntity;
+import com.yonchain.ai.usage.rollup.mapper.ModelUsageRollupMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 模型用量统计服务实现类
+ * 读取model_usage_rollup的分钟汇总行，按时间粒度和分组维度合并计数、延迟草图和用户草图
+ */
+@Slf4j
+@Service
+public class ModelUsageServiceImpl implements ModelUsageService {
+
+    private static final Duration MAX_RANGE = Duration.ofDays(31);
+    private static final Duration MAX_MINUTE_RANGE = Duration.ofDays(1);
+
+    @Autowired(required = false)
+    private ModelUsageRollupMapper modelUsageRollupMapper;
+
+    @Override
+    public List<ModelUsageStat> getUsageStats(String tenantId, String modelCode, LocalDateTime from,
+                                              LocalDateTime to, String granularity, String groupBy) {
+        ChronoUnit unit = parseGranularity(granularity);
+        String group = groupBy == null || groupBy.isBlank() ? "model" : groupBy.toLowerCase();
+        if (!group.equals("model") && !group.equals("provider") && !group.equals("none")) {
+            throw new YonchainException("Unsupported groupBy: " + groupBy);
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new YonchainException("Invalid time range: " + from + " - " + to);
+        }
+        Duration range = Duration.between(from, to);
+        if (range.compareTo(MAX_RANGE) > 0 || (unit == ChronoUnit.MINUTES && range.compareTo(MAX_MINUTE_RANGE) > 0)) {
+            throw new YonchainException("Time range too large for granularity " + granularity + ": " + range);
+        }
+
+        if (modelUsageRollupMapper == null) {
+            throw new YonchainException("Usage statistics are not available: model_usage_rollup mapper is not configured");
+        }
+
+        log.debug("Querying usage stats for tenant {}, model {}, {} - {}", tenantId, modelCode, from, to);
+        List<ModelUsageRollupEntity> rollups = modelUsageRollupMapper.selectRollups(tenantId, modelCode,
+                from.truncatedTo(ChronoUnit.MINUTES), to);
+
+        Map<List<Object>, StatAccumulator> buckets = new LinkedHashMap<>();
+        for (ModelUsageRollupEntity rollup : rollups) {
+            LocalDateTime bucketTime = rollup.getBucketTime().truncatedTo(unit);
+            String model = group.equals("model") ? rollup.getModelCode() : null;
+            String provider = group.equals("none") ? null : rollup.getProviderCode();
+            buckets.computeIfAbsent(List.of(bucketTime, Objects.toString(model, ""), Objects.toString(provider, "")),
+                            key -> new StatAccumulator(bucketTime, model, provider))
+                    .add(rollup);
+        }
+
+        List<ModelUsageStat> stats = new ArrayList<>(buckets.size());
+        for (StatAccumulator accumulator : buckets.values()) {
+            stats.add(accumulator.toStat());
+        }
+        return stats;
+    }
+
+    private ChronoUnit parseGranularity(String granularity) {
+        if (granularity == null || granularity.isBlank()) {
+            return ChronoUnit.HOURS;
+        }
+        return switch (granularity.toLowerCase()) {
+            case "minute" -> ChronoUnit.MINUTES;
+            case "hour" -> ChronoUnit.HOURS;
+            case "day" -> ChronoUnit.DAYS;
+            default -> throw new YonchainException("Unsupported granularity: " + granularity);
+        };
+    }
+
+    /**
+     * 单个统计时间段的累加器（跨节点、跨状态、跨分钟合并）
+     */
+    private static final class StatAccumulator {
+
+        private final LocalDateTime bucketTime;
+        private final String modelCode;
+        private final String providerCode;
+        private final LatencySketch latency = new LatencySketch();
+        private final HyperLogLog users = new HyperLogLog();
+        private long requestCount;
+        private long errorCount;
+        private long promptTokens;
+        private long completionTokens;
+        private long totalTokens;
+        private BigDecimal cost = BigDecimal.ZERO;
+        private long durationSum;
+        private int durationMax;
+
+        StatAccumulator(LocalDateTime bucketTime, String modelCode, String providerCode) {
+            this.bucketTime = bucketTime;
+            this.modelCode = modelCode;
+            this.providerCode = providerCode;
+        }
+
+        void add(ModelUsageRollupEntity rollup) {
+            long requests = nullToZero(rollup.getRequestCount());
+            requestCount += requests;
+            if (!InvokeLogWriter.STATUS_SUCCESS.equals(rollup.getStatus())) {
+                errorCount += requests;
+            }
+            promptTokens += nullToZero(rollup.getPromptTokens());
+            completionTokens += nullToZero(rollup.getCompletionTokens());
+            totalTokens += nullToZero(rollup.getTotalTokens());
+            if (rollup.getCost() != null) {
+                cost = cost.add(rollup.getCost());
+            }
+            durationSum += nullToZero(rollup.getDurationSum());
+            if (rollup.getDurationMax() != null) {
+                durationMax = Math.max(durationMax, rollup.getDurationMax());
+            }
+            latency.merge(LatencySketch.fromBytes(rollup.getLatencySketch()));
+            users.merge(HyperLogLog.fromBytes(rollup.getUserSketch()));
+        }
+
+        ModelUsageStat toStat() {
+            ModelUsageStat stat = new ModelUsageStat();
+            stat.setBucketTime(bucketTime);
+            stat.setModelCode(modelCode);
+            stat.setProviderCode(providerCode);
+            stat.setRequestCount(requestCount);
+            stat.setErrorCount(errorCount);
+            stat.setPromptTokens(promptTokens);
+            stat.setCompletionTokens(completionTokens);
+            stat.setTotalTokens(totalTokens);
+            stat.setCost(cost);
+            stat.setAvgLatency(requestCount > 0 ? (double) durationSum / requestCount : 0);
+            stat.setP50Latency(latency.quantile(0.5));
+            stat.setP95Latency(latency.quantile(0.95));
+            stat.setP99Latency(latency.quantile(0.99));
+            stat.setMaxLatency(durationMax);
+            stat.setDistinctUsers(users.isEmpty() ? 0 : users.cardinality());
+            return stat;
+        }
+
+        private static long nullToZero(Long value) {
+            return value != null ? value : 0;
+        }
+    }
+}
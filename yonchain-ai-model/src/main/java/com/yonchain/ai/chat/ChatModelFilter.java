@@ -2,21 +2,51 @@ package com.yonchain.ai.chat;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yonchain.ai.filter.BaseModelFilter;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.invokelog.entity.ModelInvokeLogEntity;
+import com.yonchain.ai.metrics.GatewayMetrics;
 import com.yonchain.ai.model.ModelClient;
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.model.deadline.Deadline;
+import com.yonchain.ai.model.deadline.DeadlineExceededException;
+import com.yonchain.ai.model.definition.ModelDefinition;
+import com.yonchain.ai.model.options.CompiledParameterRules;
+import com.yonchain.ai.model.options.ModelOptionsHandler;
 import com.yonchain.ai.model.request.ChatRequest;
+import com.yonchain.ai.quota.QuotaEngine;
+import com.yonchain.ai.quota.QuotaReservation;
+import com.yonchain.ai.quota.QuotaSubject;
+import com.yonchain.ai.routing.CostAwareRouter;
+import com.yonchain.ai.routing.CostEstimator;
+import com.yonchain.ai.routing.ModelLoadTracker;
+import com.yonchain.ai.routing.ModelPricing;
+import com.yonchain.ai.routing.RouteRequirements;
+import com.yonchain.ai.tokenizer.TokenCounter;
+import com.yonchain.ai.tracing.ModelObservations;
+import com.yonchain.ai.usage.TokenUsage;
+import com.yonchain.ai.usage.rollup.UsageRollupAggregator;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
 import jakarta.servlet.AsyncContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.model.ModelOptions;
 import reactor.core.publisher.Flux;
 
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.security.Principal;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
@@ -27,8 +57,34 @@ public class ChatModelFilter extends BaseModelFilter {
 
     private static final Pattern ENDPOINT_PATTERN = Pattern.compile(".*/chat/completions$");
 
-    public ChatModelFilter(ModelClient modelClient, ObjectMapper objectMapper) {
-        super(modelClient, objectMapper);
+    // AsyncContext超时在截止时间之后留出的余量，保证由截止时间而不是容器超时结束流
+    private static final long ASYNC_TIMEOUT_GRACE_MILLIS = 5000;
+
+    /**
+     * 路由请求实际选择的模型
+     */
+    public static final String ROUTED_MODEL_HEADER = "X-Routed-Model";
+
+    /**
+     * 上下文窗口预检为适应窗口丢弃的历史消息数
+     */
+    public static final String CONTEXT_TRUNCATED_HEADER = "X-Context-Truncated-Messages";
+
+    private static final String[] MAX_TOKENS_KEYS = {"max_tokens", "max_completion_tokens", "maxTokens"};
+
+    private final ContextWindowGuard contextWindowGuard;
+    private final CostAwareRouter router;
+    private final QuotaEngine quotaEngine;
+    private final CostEstimator costEstimator;
+
+    public ChatModelFilter(ModelClient modelClient, ObjectMapper objectMapper, QuotaEngine quotaEngine,
+                           InvokeLogWriter invokeLogWriter, UsageRollupAggregator usageRollup,
+                           GatewayMetrics metrics) {
+        super(modelClient, objectMapper, invokeLogWriter, usageRollup, metrics);
+        this.contextWindowGuard = new ContextWindowGuard(modelClient.getConfiguration());
+        this.router = new CostAwareRouter(modelClient.getConfiguration());
+        this.quotaEngine = quotaEngine;
+        this.costEstimator = new CostEstimator(modelClient.getConfiguration());
     }
 
     @Override
@@ -47,55 +103,174 @@ public class ChatModelFilter extends BaseModelFilter {
 
         // 1. 解析请求
         Map<String, Object> requestParams = parseRequestBody(request);
-        String modelName = extractModelName(requestParams);
+        String requestedModel = extractModelName(requestParams);
 
-        logger.debug("Processing chat request for model: {}", modelName);
+        logger.debug("Processing chat request for model: {}", requestedModel);
 
         // 2. 转换为ChatRequest
         ChatRequest chatRequest = convertToChatRequest(requestParams);
+        chatRequest.setDeadline(resolveClientDeadline(request));
+        chatRequest.setTenantId(resolveTenantId(request));
+        chatRequest.setRequestBytes(Math.max(request.getContentLengthLong(), 0));
+
+        // 预算降级：花费接近限额时改用降级别名（通常为成本路由别名）
+        QuotaSubject subject = resolveQuotaSubject(request);
+        String downgradeAlias = quotaEngine.resolveDowngrade(subject);
+        if (downgradeAlias != null && !downgradeAlias.equals(requestedModel)) {
+            logger.debug("Downgraded request of {} from {} to {}", subject, requestedModel, downgradeAlias);
+            requestedModel = downgradeAlias;
+        }
+
+        // 成本路由：model为路由别名时按价格、能力和延迟选择实际模型
+        String modelName = requestedModel;
+        if (router.isRouted(requestedModel)) {
+            RouteRequirements requirements = RouteRequirements.from(requestParams, chatRequest.getDeadline());
+            modelName = router.route(chatRequest, requirements).getModelId();
+            response.setHeader(ROUTED_MODEL_HEADER, modelName);
+        }
+        requestParams.put("model", modelName);
+        requestParams.remove(RouteRequirements.ROUTING_KEY);
+
+        // 上下文窗口预检：超出窗口时拒绝或裁剪，并收紧max_tokens
+        ModelDefinition definition = modelClient.getModelDefinition(modelName);
+        int droppedMessages = contextWindowGuard.apply(chatRequest, definition);
+        if (droppedMessages > 0) {
+            response.setHeader(CONTEXT_TRUNCATED_HEADER, String.valueOf(droppedMessages));
+        }
+
+        // 参数规则校验：按模型YAML的parameter_rules校验、转换参数并构建选项，不合法时提前返回400
+        if (modelClient.getConfiguration().getBooleanProperty("parameter.rules.enabled", true)) {
+            applyParameterRules(definition, chatRequest);
+        }
+
+        // 预算预留：按输入Token数和max_tokens估算费用，超出限额时返回429
+        String estimatedModel = modelName;
+        QuotaReservation reservation = quotaEngine.reserve(subject,
+                () -> estimateCost(estimatedModel, definition, chatRequest));
+
+        // 调用日志：请求头在异步处理中不可用，提前填充请求信息
+        ModelInvokeLogEntity invokeLog = createInvocation(request, modelName, definition, requestParams);
+        Observation observation = ModelObservations.current(modelClient.getConfiguration());
+        if (observation != null) {
+            observation.highCardinalityKeyValue("model", modelName)
+                    .highCardinalityKeyValue("tenant", String.valueOf(invokeLog.getTenantId()));
+        }
 
         // 3. 使用ModelClient调用
-        if (isStreamRequest(requestParams)) {
-            handleStreamRequest(modelName, chatRequest, request, response);
-        } else {
-            handleSyncRequest(modelName, chatRequest, response);
+        try {
+            if (isStreamRequest(requestParams)) {
+                handleStreamRequest(modelName, definition, chatRequest, isIncludeUsage(requestParams),
+                        reservation, invokeLog, request, response);
+            } else {
+                handleSyncRequest(modelName, definition, chatRequest, reservation, invokeLog, request, response);
+            }
+        } catch (RuntimeException | IOException e) {
+            quotaEngine.settle(reservation, 0);
+            throw e;
         }
     }
 
     /**
-     * 处理同步聊天请求
+     * 按参数规则校验请求参数，并在同一次遍历中构建模型的运行时选项
+     * <p>
+     * 选项设置到请求上，ModelClient不再重复构建；模型没有选项处理器时只校验参数
      */
-    private void handleSyncRequest(String modelName, ChatRequest chatRequest,
-                                   HttpServletResponse response) throws IOException {
+    private void applyParameterRules(ModelDefinition definition, ChatRequest chatRequest) {
+        Map<String, Object> rawParameters = chatRequest.getRawParameters();
+        if (rawParameters == null) {
+            return;
+        }
+        ModelConfiguration configuration = modelClient.getConfiguration();
+        CompiledParameterRules rules = CompiledParameterRules.of(definition);
+        boolean applyDefaults = configuration.getBooleanProperty("parameter.rules.apply.defaults", false);
+        ModelOptionsHandler<ModelOptions> handler = definition != null
+                ? configuration.resolveHandler(definition.getNamespace(), definition.getId(), definition.getType(),
+                        definition.getOptionsHandler())
+                : null;
+        if (handler == null) {
+            rules.apply(rawParameters, applyDefaults);
+            return;
+        }
+        ModelOptions options = rules.buildOptions(rawParameters, applyDefaults, handler);
+        if (options instanceof ChatOptions) {
+            chatRequest.setOptions((ChatOptions) options);
+        }
+    }
 
+    /**
+     * 处理同步聊天请求
+     */
+    private void handleSyncRequest(String modelName, ModelDefinition definition, ChatRequest chatRequest,
+                                   QuotaReservation reservation, ModelInvokeLogEntity invokeLog,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        ModelLoadTracker loadTracker = router.getLoadTracker();
+        long startNanos = loadTracker.begin(modelName);
+        // 成功和超时的请求计入延迟，其余失败请求的耗时不反映模型延迟
+        boolean recordLatency = false;
         try {
             // 调用ModelClient
-            ChatResponse chatResponse = modelClient.chat(modelName, chatRequest);
+            ChatResponse chatResponse;
+            try {
+                chatResponse = modelClient.chat(modelName, chatRequest);
+            } finally {
+                recordUpstreamTime(request, startNanos);
+            }
+            recordLatency = true;
 
             // 转换为OpenAI格式
             Map<String, Object> responseData = convertChatResponse(chatResponse, false);
+            TokenUsage usage = resolveUsage(modelName, chatRequest, chatResponse.getMetadata().getUsage(),
+                    extractContent(chatResponse));
+            responseData.put("usage", usage.toMap());
+            double cost = settleQuota(reservation, definition, usage);
+            submitInvokeLog(invokeLog, GatewayMetrics.MODE_SYNC, startNanos, startNanos, usage, cost,
+                    responseData, null);
 
             // 发送响应
             sendSuccessResponse(response, responseData);
 
             logger.debug("Chat request completed successfully");
 
+        } catch (DeadlineExceededException e) {
+            recordLatency = true;
+            logger.warn("Sync chat request exceeded deadline: {}", e.getMessage());
+            submitInvokeLog(invokeLog, GatewayMetrics.MODE_SYNC, startNanos, 0, null, Double.NaN, null, e);
+            sendErrorResponse(response, e.getMessage(), HttpServletResponse.SC_GATEWAY_TIMEOUT);
         } catch (Exception e) {
             logger.error("Error in sync chat request", e);
+            submitInvokeLog(invokeLog, GatewayMetrics.MODE_SYNC, startNanos, 0, null, Double.NaN, null, e);
             sendErrorResponse(response, "Failed to process chat request: " + e.getMessage(), 500);
+        } finally {
+            // 失败的请求释放预留（成功的请求已结算，重复结算会被忽略）
+            quotaEngine.settle(reservation, 0);
+            loadTracker.end(modelName, startNanos, recordLatency);
         }
     }
 
     /**
      * 处理流式聊天请求
      */
-    private void handleStreamRequest(String modelName, ChatRequest chatRequest,
+    private void handleStreamRequest(String modelName, ModelDefinition definition, ChatRequest chatRequest,
+                                     boolean includeUsage, QuotaReservation reservation,
+                                     ModelInvokeLogEntity invokeLog,
                                      HttpServletRequest request, HttpServletResponse response)
             throws IOException {
 
-        // 启动异步上下文
+        // 流式截止时间：客户端截止时间与模型流式总超时中较早的一个
+        Deadline deadline = Deadline.earliest(chatRequest.getDeadline(),
+                Deadline.after(modelClient.getTimeouts(modelName).getStreamTimeout()));
+        chatRequest.setDeadline(deadline);
+
+        // 分块合并策略（租户 > 模型 > 全局）
+        StreamCoalescingPolicy coalescingPolicy = StreamCoalescingPolicy.resolve(modelClient.getConfiguration(),
+                definition, resolveTenantId(request));
+
+        // 启动异步上下文；客户端断开或超时时由StreamCancellation结算并取消上游订阅
         AsyncContext asyncContext = request.startAsync(request, response);
-        asyncContext.setTimeout(300000); // 5分钟超时
+        asyncContext.setTimeout(deadline.remainingMillis() + ASYNC_TIMEOUT_GRACE_MILLIS);
+        StreamCancellation cancellation = new StreamCancellation();
+        asyncContext.addListener(cancellation);
 
         // 设置SSE响应头
         response.setContentType("text/event-stream");
@@ -105,62 +280,158 @@ public class ChatModelFilter extends BaseModelFilter {
         response.setHeader("Access-Control-Allow-Origin", "*");
 
         // 异步处理流式响应
+        long submittedNanos = System.nanoTime();
+        Observation requestObservation = ModelObservations.current(modelClient.getConfiguration());
         CompletableFuture.runAsync(() -> {
-            try {
-                PrintWriter writer = response.getWriter();
+            ModelLoadTracker loadTracker = router.getLoadTracker();
+            long startNanos = loadTracker.begin(modelName);
+            metrics.recordQueueWait("chat_stream", startNanos - submittedNanos);
+            StreamUsageTracker usageTracker = new StreamUsageTracker();
+            // 流式输出Span：请求Span在异步任务开始前可能已结束，显式指定父Span
+            Observation streamObservation = ModelObservations.create(modelClient.getConfiguration(),
+                            ModelObservations.STREAM, "chat stream " + modelName)
+                    .parentObservation(requestObservation)
+                    .lowCardinalityKeyValue("model", invokeLog.getModelCode())
+                    .start();
+            try (Observation.Scope scope = streamObservation.openScope()) {
+                StreamCoalescer writer = new StreamCoalescer(response.getWriter(), coalescingPolicy);
+                Timer interTokenTimer = metrics.interTokenTimer(invokeLog.getProviderCode(),
+                        invokeLog.getModelCode());
+
+                // 中断的流（上游出错、客户端断开、异步超时）按已输出的内容结算
+                Consumer<Throwable> abort = error -> {
+                    if (!cancellation.finish()) {
+                        return;
+                    }
+                    if (error instanceof DeadlineExceededException) {
+                        logger.warn("Stream chat request exceeded deadline: {}", error.getMessage());
+                    } else if (error instanceof StreamCancellation.ClientDisconnectedException) {
+                        logger.debug("Client disconnected from stream chat request for model {}", modelName);
+                    } else {
+                        logger.error("Error in stream chat request", error);
+                    }
+                    try {
+                        TokenUsage usage = resolveUsage(modelName, chatRequest,
+                                usageTracker.getReported(), usageTracker.getCompletion());
+                        double cost = settleQuota(reservation, definition, usage);
+                        submitInvokeLog(invokeLog, GatewayMetrics.MODE_STREAM, startNanos,
+                                usageTracker.getFirstChunkNanos(), usage, cost,
+                                usageTracker.toResponseData(), error);
+                        writer.write("data: [DONE]\n\n");
+                        writer.close();
+                    } catch (Exception e) {
+                        logger.error("Error closing stream on error", e);
+                    } finally {
+                        stopStreamObservation(streamObservation, usageTracker, error);
+                        asyncContext.complete();
+                    }
+                };
+                cancellation.setAbortHandler(abort);
 
                 // 调用ModelClient流式接口
                 Flux<ChatResponse> responseStream = modelClient.chatStream(modelName, chatRequest);
 
-                responseStream.subscribe(
+                cancellation.setSubscription(responseStream
+                        .doFinally(signal -> {
+                            loadTracker.end(modelName, startNanos, false);
+                            // 兜底释放预留（正常结束、出错和中止时已按用量结算）
+                            quotaEngine.settle(reservation, 0);
+                        })
+                        .subscribe(
                         chatResponse -> {
                             try {
+                                long chunkNanos = System.nanoTime();
+                                if (usageTracker.isFirstChunk()) {
+                                    streamObservation.event(ModelObservations.FIRST_TOKEN);
+                                    loadTracker.firstToken(modelName, startNanos);
+                                    metrics.recordFirstToken(invokeLog.getProviderCode(), invokeLog.getModelCode(),
+                                            invokeLog.getTenantId(), chunkNanos - startNanos);
+                                } else if (interTokenTimer != null) {
+                                    interTokenTimer.record(chunkNanos - usageTracker.getLastChunkNanos(),
+                                            TimeUnit.NANOSECONDS);
+                                }
+                                usageTracker.onChunk(chatResponse, chunkNanos);
                                 Map<String, Object> responseData = convertChatResponse(chatResponse, true);
+                                if (includeUsage) {
+                                    // 与OpenAI一致：开启include_usage时普通分块的usage为null
+                                    responseData.put("usage", null);
+                                }
                                 String jsonResponse = objectMapper.writeValueAsString(responseData);
                                 writer.write("data: " + jsonResponse + "\n\n");
-                                writer.flush();
+                                usageTracker.addWriteNanos(System.nanoTime() - chunkNanos);
                             } catch (Exception e) {
                                 logger.error("Error writing stream response", e);
                             }
-                        },
-                        error -> {
-                            logger.error("Error in stream chat request", error);
-                            try {
-                                writer.write("data: [DONE]\n\n");
-                                writer.flush();
-                            } catch (Exception e) {
-                                logger.error("Error closing stream on error", e);
-                            } finally {
-                                asyncContext.complete();
+                            if (writer.isClientGone()) {
+                                cancellation.cancel(new StreamCancellation.ClientDisconnectedException(null));
                             }
                         },
+                        abort,
                         () -> {
+                            if (!cancellation.finish()) {
+                                return;
+                            }
                             try {
+                                TokenUsage usage = resolveUsage(modelName, chatRequest,
+                                        usageTracker.getReported(), usageTracker.getCompletion());
+                                double cost = settleQuota(reservation, definition, usage);
+                                submitInvokeLog(invokeLog, GatewayMetrics.MODE_STREAM, startNanos,
+                                        usageTracker.getFirstChunkNanos(), usage, cost,
+                                        usageTracker.toResponseData(), null);
+                                if (includeUsage) {
+                                    writer.write("data: " + objectMapper.writeValueAsString(
+                                            createUsageChunk(usage)) + "\n\n");
+                                }
+                                logger.debug("Stream chat usage for model {}: {}", modelName, usage);
                                 writer.write("data: [DONE]\n\n");
-                                writer.flush();
+                                writer.close();
                                 logger.debug("Stream chat request completed");
                             } catch (Exception e) {
                                 logger.error("Error closing stream on completion", e);
                             } finally {
+                                stopStreamObservation(streamObservation, usageTracker, null);
                                 asyncContext.complete();
                             }
                         }
-                );
+                ));
 
             } catch (Exception e) {
+                cancellation.finish();
+                loadTracker.end(modelName, startNanos, false);
+                quotaEngine.settle(reservation, 0);
+                submitInvokeLog(invokeLog, GatewayMetrics.MODE_STREAM, startNanos, 0, null, Double.NaN, null, e);
+                stopStreamObservation(streamObservation, usageTracker, e);
                 logger.error("Error in async stream processing", e);
                 completeAsyncWithError(asyncContext,e);
             }
         });
     }
 
+    /**
+     * 结束流式输出Span：补记最后一个分块事件，记录分块数和SSE写出耗时
+     */
+    private void stopStreamObservation(Observation observation, StreamUsageTracker usageTracker, Throwable error) {
+        if (!usageTracker.isFirstChunk()) {
+            observation.event(ModelObservations.eventAt(ModelObservations.LAST_TOKEN,
+                    usageTracker.getLastChunkNanos()));
+        }
+        observation.highCardinalityKeyValue("chunks", String.valueOf(usageTracker.getChunks()))
+                .highCardinalityKeyValue("sse.write.ms",
+                        String.valueOf(TimeUnit.NANOSECONDS.toMillis(usageTracker.getWriteNanos())));
+        if (error != null) {
+            observation.error(error);
+        }
+        observation.stop();
+    }
+
     /**
      * 转换为ChatRequest
      * 
-     * 注意：不再在这里构建ChatOptions，而是传递原始参数给ModelClient处理
-     * ModelClient会在运行时根据具体模型使用相应的OptionsHandler构建运行时选项
+     * 注意：不在这里构建ChatOptions，而是传递原始参数：参数规则开启时在校验的同一次遍历中构建选项，
+     * 否则ModelClient在运行时根据具体模型使用相应的OptionsHandler构建运行时选项
+     * （包级可见，供基准测试调用）
      */
-    private ChatRequest convertToChatRequest(Map<String, Object> requestParams) {
+    ChatRequest convertToChatRequest(Map<String, Object> requestParams) {
         ChatRequest.Builder builder = ChatRequest.builder();
 
         // 处理messages
@@ -198,9 +469,137 @@ public class ChatModelFilter extends BaseModelFilter {
     }
 
     /**
-     * 转换ChatResponse为OpenAI格式
+     * 是否请求在流式响应末尾返回用量（stream_options.include_usage）
+     */
+    private boolean isIncludeUsage(Map<String, Object> requestParams) {
+        Object streamOptions = requestParams.get("stream_options");
+        if (streamOptions instanceof Map) {
+            Object includeUsage = ((Map<?, ?>) streamOptions).get("include_usage");
+            return Boolean.TRUE.equals(includeUsage) || "true".equals(includeUsage);
+        }
+        return false;
+    }
+
+    /**
+     * 解析本次调用的用量：优先使用上游返回的用量，缺失部分使用本地计数兜底（只在需要时计数）
+     */
+    private TokenUsage resolveUsage(String modelName, ChatRequest chatRequest, Usage reported,
+                                    CharSequence completion) {
+        TokenCounter counter = modelClient.getConfiguration()
+                .getTokenCounter(modelClient.getModelDefinition(modelName));
+        return TokenUsage.of(reported,
+                () -> counter.countMessages(chatRequest.getMessages()),
+                () -> counter.countTokens(completion));
+    }
+
+    /**
+     * 解析预算主体
+     * 默认取已认证的身份（GatewayIdentityFilter设置的请求属性），请求头可被客户端任意修改，
+     * 只有开启 quota.subject.trusted.headers 时才使用租户、Authorization Bearer和智能体请求头
      */
-    private Map<String, Object> convertChatResponse(ChatResponse chatResponse, boolean isStream) {
+    private QuotaSubject resolveQuotaSubject(HttpServletRequest request) {
+        if (quotaEngine.isTrustedHeaders()) {
+            String authorization = request.getHeader("Authorization");
+            String apiKey = authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)
+                    ? authorization.substring(7) : null;
+            return QuotaSubject.of(resolveTenantId(request), apiKey, request.getHeader(AGENT_HEADER));
+        }
+        String caller = attributeValue(request, QuotaSubject.CALLER_ATTRIBUTE);
+        if (caller == null) {
+            Principal principal = request.getUserPrincipal();
+            caller = principal != null ? principal.getName() : null;
+        }
+        return QuotaSubject.of(attributeValue(request, QuotaSubject.TENANT_ATTRIBUTE), caller,
+                attributeValue(request, QuotaSubject.AGENT_ATTRIBUTE));
+    }
+
+    private static String attributeValue(HttpServletRequest request, String name) {
+        Object value = request.getAttribute(name);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * 估算请求费用：本地分词统计输入Token数，输出Token数取max_tokens或quota.default.completion.tokens
+     */
+    private double estimateCost(String modelName, ModelDefinition definition, ChatRequest chatRequest) {
+        ModelPricing pricing = definition != null ? ModelPricing.of(definition) : null;
+        if (pricing == null) {
+            logger.debug("Model {} has no pricing, quota is checked without reservation", modelName);
+            return Double.NaN;
+        }
+        int completionTokens = quotaEngine.getDefaultCompletionTokens();
+        Map<String, Object> rawParameters = chatRequest.getRawParameters();
+        if (rawParameters != null) {
+            for (String key : MAX_TOKENS_KEYS) {
+                Object value = rawParameters.get(key);
+                if (value instanceof Number && ((Number) value).intValue() > 0) {
+                    completionTokens = ((Number) value).intValue();
+                    break;
+                }
+            }
+        }
+        int promptTokens = modelClient.getConfiguration().getTokenCounter(definition)
+                .countMessages(chatRequest.getMessages());
+        return costEstimator.estimate(pricing, promptTokens, completionTokens);
+    }
+
+    /**
+     * 按实际用量结算预算
+     *
+     * @return 实际费用（基准币种），模型未配置价格时返回NaN
+     */
+    private double settleQuota(QuotaReservation reservation, ModelDefinition definition, TokenUsage usage) {
+        double cost = costEstimator.estimate(definition, usage.getPromptTokens(), usage.getCompletionTokens());
+        quotaEngine.settle(reservation, cost);
+        return cost;
+    }
+
+    /**
+     * 填充调用结果，记录指标、累加到用量汇总并提交调用日志（异步写入）
+     *
+     * @param generationStartNanos 输出开始时间（同步请求为请求开始，流式请求为首个分块），为0时不记录输出速度
+     */
+    private void submitInvokeLog(ModelInvokeLogEntity invokeLog, String mode, long startNanos,
+                                 long generationStartNanos, TokenUsage usage, double cost, Object responseData,
+                                 Throwable error) {
+        invokeLog.setResponseData(invokeLogWriter.toPayload(responseData))
+                .setCost(Double.isNaN(cost) ? null : BigDecimal.valueOf(cost).setScale(6, RoundingMode.HALF_UP));
+        completeInvocation(invokeLog, mode, startNanos, generationStartNanos, usage, error);
+    }
+
+    /**
+     * 创建流式响应末尾的用量分块（choices为空）
+     */
+    private Map<String, Object> createUsageChunk(TokenUsage usage) {
+        Map<String, Object> chunk = new HashMap<>();
+        chunk.put("id", "chatcmpl-" + UUID.randomUUID().toString());
+        chunk.put("object", "chat.completion.chunk");
+        chunk.put("created", System.currentTimeMillis() / 1000);
+        chunk.put("model", "unknown");
+        chunk.put("choices", Collections.emptyList());
+        chunk.put("usage", usage.toMap());
+        return chunk;
+    }
+
+    /**
+     * 提取响应文本
+     */
+    private String extractContent(ChatResponse chatResponse) {
+        try {
+            if (chatResponse.getResult() != null && chatResponse.getResult().getOutput() != null) {
+                String content = chatResponse.getResult().getOutput().getText();
+                return content != null ? content : "";
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to get content from chat response", e);
+        }
+        return "";
+    }
+
+    /**
+     * 转换ChatResponse为OpenAI格式（同步响应的usage由调用方填充，包级可见，供基准测试调用）
+     */
+    Map<String, Object> convertChatResponse(ChatResponse chatResponse, boolean isStream) {
         Map<String, Object> response = new HashMap<>();
         response.put("id", "chatcmpl-" + UUID.randomUUID().toString());
         response.put("object", isStream ? "chat.completion.chunk" : "chat.completion");
@@ -213,15 +612,7 @@ public class ChatModelFilter extends BaseModelFilter {
             choice.put("index", 0);
             choice.put("finish_reason", isStream ? null : "stop");
 
-            String content = "";
-            try {
-                if (chatResponse.getResult().getOutput() != null) {
-                    content = chatResponse.getResult().getOutput().getText();
-                }
-            } catch (Exception e) {
-                logger.warn("Failed to get content from chat response", e);
-                content = "";
-            }
+            String content = extractContent(chatResponse);
 
             if (isStream) {
                 Map<String, Object> delta = new HashMap<>();
@@ -238,15 +629,86 @@ public class ChatModelFilter extends BaseModelFilter {
         }
         response.put("choices", choices);
 
-        if (!isStream) {
-            Map<String, Object> usage = new HashMap<>();
-            usage.put("prompt_tokens", 0);
-            usage.put("completion_tokens", 0);
-            usage.put("total_tokens", 0);
-            response.put("usage", usage);
+        return response;
+    }
+
+    /**
+     * 流式用量跟踪：记录上游最后一次返回的有效用量，并累积输出文本用于本地计数兜底。
+     * <p>
+     * onNext在上游线程上串行调用，但中止处理（客户端断开、异步超时）在容器线程上读取结算数据，
+     * 因此所有方法在对象锁上同步（onNext路径上基本无竞争），输出文本以快照返回。
+     */
+    private class StreamUsageTracker {
+
+        private final StringBuilder completion = new StringBuilder();
+        private Usage reported;
+        private int chunks;
+        private long firstChunkNanos;
+        private long lastChunkNanos;
+        private long writeNanos;
+
+        synchronized void onChunk(ChatResponse chatResponse, long nanos) {
+            if (chunks == 0) {
+                firstChunkNanos = nanos;
+            }
+            lastChunkNanos = nanos;
+            chunks++;
+            if (chatResponse.getMetadata() != null && TokenUsage.isReported(chatResponse.getMetadata().getUsage())) {
+                reported = chatResponse.getMetadata().getUsage();
+            }
+            completion.append(extractContent(chatResponse));
         }
 
-        return response;
+        synchronized boolean isFirstChunk() {
+            return chunks == 0;
+        }
+
+        /**
+         * 首个分块的到达时间（System.nanoTime），没有分块时为0
+         */
+        synchronized long getFirstChunkNanos() {
+            return firstChunkNanos;
+        }
+
+        synchronized long getLastChunkNanos() {
+            return lastChunkNanos;
+        }
+
+        synchronized int getChunks() {
+            return chunks;
+        }
+
+        /**
+         * 累加SSE写出耗时（序列化和写入合并缓冲区）
+         */
+        synchronized void addWriteNanos(long nanos) {
+            writeNanos += nanos;
+        }
+
+        synchronized long getWriteNanos() {
+            return writeNanos;
+        }
+
+        synchronized Usage getReported() {
+            return reported;
+        }
+
+        /**
+         * 已输出文本的快照
+         */
+        synchronized String getCompletion() {
+            return completion.toString();
+        }
+
+        /**
+         * 流式响应的调用日志数据（合并后的输出内容）
+         */
+        synchronized Map<String, Object> toResponseData() {
+            Map<String, Object> data = new HashMap<>();
+            data.put("content", completion.toString());
+            data.put("chunks", chunks);
+            return data;
+        }
     }
 
     /**
@@ -0,0 +1,225 @@
+package com.yonchain.ai.chat;
+
+import com.yonchain.ai.model.InvalidModelRequestException;
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.model.definition.ModelDefinition;
+import com.yonchain.ai.model.request.ChatRequest;
+import com.yonchain.ai.tokenizer.TokenCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 上下文窗口预检
+ * <p>
+ * 在调用上游之前使用本地分词统计输入Token数，与模型的 context_size 比较：
+ * - 超出窗口时按溢出策略处理：reject 直接返回400（context_length_exceeded）；truncate 从最早的对话轮次开始
+ *   整轮丢弃（一轮为一条user消息及其后的assistant、tool消息，保留system消息和最后一轮），仍超出时返回400。
+ *   丢弃会改变对话内容，因此只在显式配置truncate且加载了模型词表时执行，丢弃的消息数通过返回值告知调用方
+ * - max_tokens 超过剩余窗口或参数规则上限时收紧到允许的最大值
+ * <p>
+ * 只有加载了模型词表（精确计数）时才会返回400或裁剪消息。使用近似计数时，估算值先按
+ * context.approximate.margin 打折（近似计数对中文等按每字1个Token计，通常偏高），
+ * 只用于收紧max_tokens，折后仍超出窗口的请求交给上游判断。
+ * <p>
+ * 配置：
+ * - context.preflight.enabled：是否启用，默认true
+ * - context.overflow.strategy：溢出策略，默认reject，模型options中的context_overflow_strategy可覆盖
+ * - context.min.completion.tokens：输入之外至少保留的输出Token数，默认1，最小为1（max_tokens不会被收紧到0）
+ * - context.approximate.margin：近似计数的折扣比例，默认0.3
+ */
+public class ContextWindowGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContextWindowGuard.class);
+
+    public static final String STRATEGY_REJECT = "reject";
+    public static final String STRATEGY_TRUNCATE = "truncate";
+
+    private static final String[] MAX_TOKENS_KEYS = {"max_tokens", "max_completion_tokens", "maxTokens"};
+
+    private final ModelConfiguration configuration;
+
+    public ContextWindowGuard(ModelConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * 对请求执行上下文窗口预检，必要时裁剪消息并收紧max_tokens
+     *
+     * @param request    聊天请求
+     * @param definition 模型定义，可为null
+     * @return 为适应窗口丢弃的消息数，未裁剪时为0
+     * @throws InvalidModelRequestException 输入超出上下文窗口且无法裁剪
+     */
+    public int apply(ChatRequest request, ModelDefinition definition) {
+        if (definition == null || !configuration.getBooleanProperty("context.preflight.enabled", true)) {
+            return 0;
+        }
+        Object contextSizeValue = definition.getMetadata() != null ? definition.getMetadata().get("context_size") : null;
+        if (contextSizeValue == null && definition.getOptions() != null) {
+            contextSizeValue = definition.getOption("context_size");
+        }
+        int contextSize = readInt(contextSizeValue);
+        List<Message> messages = request.getMessages();
+        if (contextSize <= 0 || messages == null || messages.isEmpty()) {
+            return 0;
+        }
+
+        TokenCounter counter = configuration.getTokenCounter(definition);
+        boolean exact = counter.isExact();
+        double scale = exact ? 1.0
+                : 1.0 - Math.min(Math.max(configuration.getDoubleProperty("context.approximate.margin", 0.3), 0), 0.9);
+        int[] messageTokens = new int[messages.size()];
+        int promptTokens = TokenCounter.TOKENS_PER_REPLY;
+        for (int i = 0; i < messages.size(); i++) {
+            messageTokens[i] = (int) Math.ceil(countMessage(counter, messages.get(i)) * scale);
+            promptTokens += messageTokens[i];
+        }
+
+        // 至少保留1个输出Token：输入占满窗口时拒绝，而不是把max_tokens收紧到0后仍发往上游
+        int minCompletion = Math.max(configuration.getIntProperty("context.min.completion.tokens", 1), 1);
+        int droppedCount = 0;
+        if (promptTokens + minCompletion > contextSize) {
+            if (exact && STRATEGY_TRUNCATE.equalsIgnoreCase(resolveStrategy(definition))) {
+                int originalTokens = promptTokens;
+                int originalCount = messages.size();
+                promptTokens = truncate(request, messageTokens, promptTokens, contextSize - minCompletion);
+                droppedCount = originalCount - request.getMessages().size();
+                if (droppedCount > 0) {
+                    logger.info("Dropped {} oldest messages of model {} to fit context size {}, prompt tokens {} -> {}",
+                            droppedCount, definition.getFullId(), contextSize, originalTokens, promptTokens);
+                }
+            }
+            if (promptTokens + minCompletion > contextSize) {
+                if (!exact) {
+                    // 近似计数不足以判定超出窗口，由上游返回准确的错误
+                    logger.debug("Estimated {} prompt tokens exceed context size {}, no exact tokenizer to confirm",
+                            promptTokens, contextSize);
+                    return droppedCount;
+                }
+                String message = promptTokens > contextSize
+                        ? String.format("This model's maximum context length is %d tokens. "
+                                + "However, your messages resulted in %d tokens.", contextSize, promptTokens)
+                        : String.format("This model's maximum context length is %d tokens. However, your messages "
+                                + "resulted in %d tokens, leaving less than the minimum of %d tokens for the completion.",
+                                contextSize, promptTokens, minCompletion);
+                throw new InvalidModelRequestException(message, "messages", "context_length_exceeded");
+            }
+        }
+
+        clampMaxTokens(request, definition, contextSize - promptTokens);
+        return droppedCount;
+    }
+
+    /**
+     * 从最早的对话轮次开始整轮丢弃，直到输入Token数不超过上限
+     * <p>
+     * 一轮从一条user消息开始，包含其后的assistant和tool消息，整轮丢弃不会留下没有调用的工具结果
+     * 或没有提问的回答。system消息和包含最后一条消息的一轮始终保留。
+     *
+     * @return 裁剪后的输入Token数
+     */
+    private int truncate(ChatRequest request, int[] messageTokens, int promptTokens, int limit) {
+        List<Message> messages = request.getMessages();
+        int lastTurnStart = messages.size() - 1;
+        while (lastTurnStart > 0 && messages.get(lastTurnStart).getMessageType() != MessageType.USER) {
+            lastTurnStart--;
+        }
+
+        boolean[] dropped = new boolean[messages.size()];
+        int droppedCount = 0;
+        int turnStart = 0;
+        while (turnStart < lastTurnStart && promptTokens > limit) {
+            int turnEnd = turnStart + 1;
+            while (turnEnd < lastTurnStart && messages.get(turnEnd).getMessageType() != MessageType.USER) {
+                turnEnd++;
+            }
+            for (int i = turnStart; i < turnEnd; i++) {
+                if (messages.get(i).getMessageType() != MessageType.SYSTEM) {
+                    dropped[i] = true;
+                    droppedCount++;
+                    promptTokens -= messageTokens[i];
+                }
+            }
+            turnStart = turnEnd;
+        }
+        if (droppedCount == 0) {
+            return promptTokens;
+        }
+
+        List<Message> kept = new ArrayList<>(messages.size() - droppedCount);
+        for (int i = 0; i < messages.size(); i++) {
+            if (!dropped[i]) {
+                kept.add(messages.get(i));
+            }
+        }
+        request.setMessages(kept);
+        return promptTokens;
+    }
+
+    /**
+     * 将max_tokens收紧到剩余窗口与参数规则上限中较小的一个
+     */
+    private void clampMaxTokens(ChatRequest request, ModelDefinition definition, int available) {
+        Map<String, Object> rawParameters = request.getRawParameters();
+        if (rawParameters == null) {
+            return;
+        }
+        int limit = available;
+        int ruleMax = readMaxTokensRule(definition);
+        if (ruleMax > 0) {
+            limit = Math.min(limit, ruleMax);
+        }
+        for (String key : MAX_TOKENS_KEYS) {
+            Object value = rawParameters.get(key);
+            if (value instanceof Number && ((Number) value).longValue() > limit) {
+                logger.debug("Clamped {} from {} to {}", key, value, limit);
+                rawParameters.put(key, limit);
+            }
+        }
+    }
+
+    private String resolveStrategy(ModelDefinition definition) {
+        Object strategy = definition.getOptions() != null ? definition.getOption("context_overflow_strategy") : null;
+        return strategy != null ? strategy.toString()
+                : configuration.getProperty("context.overflow.strategy", STRATEGY_REJECT);
+    }
+
+    private static int countMessage(TokenCounter counter, Message message) {
+        String text = message.getText();
+        return TokenCounter.TOKENS_PER_MESSAGE + (text != null ? counter.countTokens(text) : 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int readMaxTokensRule(ModelDefinition definition) {
+        Object rules = definition.getMetadata() != null ? definition.getMetadata().get("parameter_rules") : null;
+        if (!(rules instanceof List)) {
+            return 0;
+        }
+        for (Object rule : (List<Object>) rules) {
+            if (rule instanceof Map && "max_tokens".equals(((Map<String, Object>) rule).get("name"))) {
+                return readInt(((Map<String, Object>) rule).get("max"));
+            }
+        }
+        return 0;
+    }
+
+    private static int readInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            try {
+                return Integer.parseInt((String) value);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.yonchain.ai.chat;
+
+import com.yonchain.ai.model.deadline.DeadlineExceededException;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 流式请求的结束与取消控制
+ * <p>
+ * 客户端断开（写出失败或容器报告异步错误）、异步上下文超时时，先按已输出的内容结算并结束请求，再取消上游订阅，
+ * 避免上游连接在客户端离开后继续占用直到自然结束。取消可能发生在订阅注册之前，之后注册的订阅会被立即取消。
+ */
+class StreamCancellation implements AsyncListener {
+
+    private final Disposable.Swap subscription = Disposables.swap();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private volatile Consumer<Throwable> abortHandler;
+
+    /**
+     * 设置上游订阅，已取消时立即取消该订阅
+     */
+    void setSubscription(Disposable disposable) {
+        subscription.update(disposable);
+    }
+
+    /**
+     * 设置中止处理（结算、记录调用日志、结束异步上下文）
+     */
+    void setAbortHandler(Consumer<Throwable> abortHandler) {
+        this.abortHandler = abortHandler;
+    }
+
+    /**
+     * 标记流已结束，只有第一次调用返回true，保证完成、出错和中止只处理一次
+     */
+    boolean finish() {
+        return finished.compareAndSet(false, true);
+    }
+
+    /**
+     * 中止流：执行中止处理后取消上游订阅
+     */
+    void cancel(Throwable reason) {
+        Consumer<Throwable> handler = abortHandler;
+        if (handler != null) {
+            handler.accept(reason);
+        }
+        subscription.dispose();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        // 正常结束时订阅已终止，取消无副作用
+        subscription.dispose();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        cancel(new DeadlineExceededException("Async context timed out"));
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        cancel(new ClientDisconnectedException(event.getThrowable()));
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    /**
+     * 客户端在流式输出过程中断开
+     */
+    static class ClientDisconnectedException extends IOException {
+
+        ClientDisconnectedException(Throwable cause) {
+            super("Client disconnected", cause);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.yonchain.ai.chat;
+
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式响应合并写入器
+ * <p>
+ * 类似Nagle算法：首个分块立即刷新以保证首字延迟，之后的分块先写入响应缓冲区，
+ * 累计字符数达到上限或自第一个未刷新分块起经过最大延迟时才刷新一次，减少小包写入和系统调用。
+ * 策略未启用时每个分块立即刷新，与不合并的行为一致。
+ * <p>
+ * 上游回调与定时刷新可能在不同线程执行，所有方法都在实例锁内完成。
+ * <p>
+ * 刷新失败（客户端已断开）后不再写入，调用方通过 {@link #isClientGone()} 决定是否取消上游。
+ */
+public class StreamCoalescer {
+
+    private final PrintWriter writer;
+    private final StreamCoalescingPolicy policy;
+
+    private boolean firstFlushed;
+    private boolean closed;
+    private boolean clientGone;
+    private int pendingChars;
+    private Disposable scheduledFlush;
+
+    public StreamCoalescer(PrintWriter writer, StreamCoalescingPolicy policy) {
+        this.writer = writer;
+        this.policy = policy;
+    }
+
+    /**
+     * 写入一个SSE事件
+     *
+     * @param event 完整的事件文本（包含结尾的空行）
+     */
+    public synchronized void write(String event) {
+        if (closed) {
+            return;
+        }
+        writer.write(event);
+
+        if (!firstFlushed || !policy.isEnabled()) {
+            firstFlushed = true;
+            flushNow();
+            return;
+        }
+
+        pendingChars += event.length();
+        if (pendingChars >= policy.getMaxBytes()) {
+            flushNow();
+        } else if (scheduledFlush == null) {
+            scheduledFlush = Schedulers.parallel().schedule(this::flush,
+                    policy.getMaxDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 立即刷新已缓冲的分块
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            flushNow();
+        }
+    }
+
+    /**
+     * 客户端是否已断开（刷新时写出失败）
+     */
+    public synchronized boolean isClientGone() {
+        return clientGone;
+    }
+
+    /**
+     * 刷新剩余分块并关闭，之后的写入将被忽略
+     */
+    public synchronized void close() {
+        if (!closed) {
+            flushNow();
+            closed = true;
+        }
+    }
+
+    private void flushNow() {
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+            scheduledFlush = null;
+        }
+        pendingChars = 0;
+        // Servlet的PrintWriter吞掉IOException，只能通过checkError得知写出失败
+        if (writer.checkError()) {
+            clientGone = true;
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.yonchain.ai.chat;
+
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.model.definition.ModelDefinition;
+
+/**
+ * 流式响应合并策略
+ * <p>
+ * 配置查找顺序（前者覆盖后者）：
+ * 1. 租户级设置：stream.coalesce.tenant.{tenantId}.enabled / .delay / .bytes
+ * 2. 模型级options：stream_coalesce_enabled / stream_coalesce_delay / stream_coalesce_bytes
+ * 3. 全局设置：stream.coalesce.enabled / stream.coalesce.delay / stream.coalesce.bytes
+ * <p>
+ * delay单位为毫秒，bytes为触发刷新的累计字符数
+ */
+public class StreamCoalescingPolicy {
+
+    /**
+     * 不合并：每个分块立即刷新
+     */
+    public static final StreamCoalescingPolicy DISABLED = new StreamCoalescingPolicy(false, 0, 0);
+
+    private static final long DEFAULT_DELAY_MILLIS = 20;
+    private static final int DEFAULT_MAX_BYTES = 4096;
+
+    private final boolean enabled;
+    private final long maxDelayMillis;
+    private final int maxBytes;
+
+    public StreamCoalescingPolicy(boolean enabled, long maxDelayMillis, int maxBytes) {
+        this.enabled = enabled && maxDelayMillis > 0 && maxBytes > 0;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 解析指定模型和租户的合并策略
+     *
+     * @param configuration 模型配置
+     * @param definition    模型定义，可为null
+     * @param tenantId      租户标识，可为null
+     * @return 合并策略
+     */
+    public static StreamCoalescingPolicy resolve(ModelConfiguration configuration, ModelDefinition definition,
+                                                 String tenantId) {
+        boolean enabled = configuration.getBooleanProperty("stream.coalesce.enabled", false);
+        long delay = configuration.getLongProperty("stream.coalesce.delay", DEFAULT_DELAY_MILLIS);
+        long bytes = configuration.getIntProperty("stream.coalesce.bytes", DEFAULT_MAX_BYTES);
+
+        if (definition != null) {
+            enabled = readBoolean(definition.getOption("stream_coalesce_enabled"), enabled);
+            delay = readLong(definition.getOption("stream_coalesce_delay"), delay);
+            bytes = readLong(definition.getOption("stream_coalesce_bytes"), bytes);
+        }
+
+        if (tenantId != null) {
+            String prefix = "stream.coalesce.tenant." + tenantId + ".";
+            enabled = configuration.getBooleanProperty(prefix + "enabled", enabled);
+            delay = configuration.getLongProperty(prefix + "delay", delay);
+            bytes = configuration.getLongProperty(prefix + "bytes", bytes);
+        }
+
+        return enabled ? new StreamCoalescingPolicy(true, delay, (int) Math.min(bytes, Integer.MAX_VALUE)) : DISABLED;
+    }
+
+    private static boolean readBoolean(Object value, boolean defaultValue) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            return Boolean.parseBoolean((String) value);
+        }
+        return defaultValue;
+    }
+
+    private static long readLong(Object value, long defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            try {
+                return Long.parseLong((String) value);
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamCoalescingPolicy{" +
+                "enabled=" + enabled +
+                ", maxDelayMillis=" + maxDelayMillis +
+                ", maxBytes=" + maxBytes +
+                '}';
+    }
+}
@@ -2,10 +2,19 @@ package com.yonchain.ai.embedding;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yonchain.ai.filter.BaseModelFilter;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.invokelog.entity.ModelInvokeLogEntity;
+import com.yonchain.ai.metrics.GatewayMetrics;
+import com.yonchain.ai.model.InvalidModelRequestException;
 import com.yonchain.ai.model.ModelClient;
+import com.yonchain.ai.model.deadline.DeadlineExceededException;
 import com.yonchain.ai.model.request.EmbeddingRequest;
+import com.yonchain.ai.tokenizer.TokenCounter;
+import com.yonchain.ai.usage.TokenUsage;
+import com.yonchain.ai.usage.rollup.UsageRollupAggregator;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.ai.embedding.EmbeddingResponse;
 
 import java.io.IOException;
@@ -20,8 +29,9 @@ public class EmbeddingModelFilter extends BaseModelFilter {
     
     private static final Pattern ENDPOINT_PATTERN = Pattern.compile(".*/embeddings$");
     
-    public EmbeddingModelFilter(ModelClient modelClient, ObjectMapper objectMapper) {
-        super(modelClient, objectMapper);
+    public EmbeddingModelFilter(ModelClient modelClient, ObjectMapper objectMapper, InvokeLogWriter invokeLogWriter,
+                                UsageRollupAggregator usageRollup, GatewayMetrics metrics) {
+        super(modelClient, objectMapper, invokeLogWriter, usageRollup, metrics);
     }
     
     @Override
@@ -38,6 +48,8 @@ public class EmbeddingModelFilter extends BaseModelFilter {
     protected void handleModelRequest(HttpServletRequest request, HttpServletResponse response) 
             throws IOException {
         
+        long startNanos = System.nanoTime();
+        ModelInvokeLogEntity invocation = null;
         try {
             // 1. 解析请求
             Map<String, Object> requestParams = parseRequestBody(request);
@@ -47,23 +59,44 @@ public class EmbeddingModelFilter extends BaseModelFilter {
             
             // 2. 转换为EmbeddingRequest
             EmbeddingRequest embeddingRequest = convertToEmbeddingRequest(requestParams);
+            embeddingRequest.setDeadline(resolveClientDeadline(request));
+            embeddingRequest.setTenantId(resolveTenantId(request));
+            embeddingRequest.setRequestBytes(Math.max(request.getContentLengthLong(), 0));
+            invocation = createInvocation(request, modelName, findModelDefinition(modelName), requestParams);
             
             // 3. 使用ModelClient调用
-            EmbeddingResponse embeddingResponse = modelClient.embedding(modelName, embeddingRequest);
+            long upstreamStartNanos = System.nanoTime();
+            EmbeddingResponse embeddingResponse;
+            try {
+                embeddingResponse = modelClient.embedding(modelName, embeddingRequest);
+            } finally {
+                recordUpstreamTime(request, upstreamStartNanos);
+            }
             
             // 4. 转换为OpenAI格式
-            Map<String, Object> responseData = convertEmbeddingResponse(embeddingResponse);
+            TokenUsage usage = calculateTokens(modelName, embeddingRequest, embeddingResponse);
+            Map<String, Object> responseData = convertEmbeddingResponse(embeddingResponse, usage);
+            invocation.setResponseData(invokeLogWriter.toPayload(responseData));
+            completeInvocation(invocation, GatewayMetrics.MODE_SYNC, startNanos, 0, usage, null);
             
             // 5. 发送响应
             sendSuccessResponse(response, responseData);
             
             logger.debug("Embedding request completed successfully");
             
+        } catch (InvalidModelRequestException e) {
+            // 交给BaseModelFilter返回400
+            throw e;
+        } catch (DeadlineExceededException e) {
+            logger.warn("Embedding request exceeded deadline: {}", e.getMessage());
+            completeFailedInvocation(invocation, startNanos, e);
+            sendErrorResponse(response, e.getMessage(), HttpServletResponse.SC_GATEWAY_TIMEOUT);
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid embedding request: {}", e.getMessage());
             sendErrorResponse(response, e.getMessage(), 400);
         } catch (Exception e) {
             logger.error("Error in embedding request", e);
+            completeFailedInvocation(invocation, startNanos, e);
             sendErrorResponse(response, "Failed to process embedding: " + e.getMessage(), 500);
         }
     }
@@ -122,9 +155,15 @@ public class EmbeddingModelFilter extends BaseModelFilter {
     }
     
     /**
-     * 转换EmbeddingResponse为OpenAI格式
+     * 转换EmbeddingResponse为OpenAI格式（包级可见，供基准测试调用）
      */
-    private Map<String, Object> convertEmbeddingResponse(EmbeddingResponse embeddingResponse) {
+    Map<String, Object> convertEmbeddingResponse(String modelName, EmbeddingRequest embeddingRequest,
+                                                 EmbeddingResponse embeddingResponse) {
+        return convertEmbeddingResponse(embeddingResponse,
+                calculateTokens(modelName, embeddingRequest, embeddingResponse));
+    }
+    
+    private Map<String, Object> convertEmbeddingResponse(EmbeddingResponse embeddingResponse, TokenUsage tokenUsage) {
         Map<String, Object> response = new HashMap<>();
         response.put("object", "list");
         response.put("model", "unknown");
@@ -153,25 +192,31 @@ public class EmbeddingModelFilter extends BaseModelFilter {
         
         // 使用信息
         Map<String, Object> usage = new HashMap<>();
-        usage.put("prompt_tokens", calculateTokens(embeddingResponse));
-        usage.put("total_tokens", calculateTokens(embeddingResponse));
+        usage.put("prompt_tokens", tokenUsage.getPromptTokens());
+        usage.put("total_tokens", tokenUsage.getTotalTokens());
         response.put("usage", usage);
         
         return response;
     }
     
     /**
-     * 计算token数量（简单估算）
+     * 计算token数量：优先使用上游返回的用量，未返回时使用本地计数估算输入文本
      */
-    private int calculateTokens(EmbeddingResponse embeddingResponse) {
-        // 这里可以根据实际需要实现token计算逻辑
-        // 简单估算：假设每个字符约0.75个token
-        try {
-            // 从metadata中获取token信息，如果有的话
-            // return embeddingResponse.getMetadata().getUsage().getTotalTokens();
-            return 0; // 占位符
-        } catch (Exception e) {
-            return 0;
+    private TokenUsage calculateTokens(String modelName, EmbeddingRequest embeddingRequest,
+                                      EmbeddingResponse embeddingResponse) {
+        Usage reported = embeddingResponse.getMetadata() != null ? embeddingResponse.getMetadata().getUsage() : null;
+        if (TokenUsage.isReported(reported)) {
+            return TokenUsage.of(reported, () -> 0, () -> 0);
+        }
+        
+        TokenCounter counter = modelClient.getConfiguration()
+                .getTokenCounter(modelClient.getModelDefinition(modelName));
+        int promptTokens = 0;
+        if (embeddingRequest.getTexts() != null) {
+            for (String text : embeddingRequest.getTexts()) {
+                promptTokens += counter.countTokens(text);
+            }
         }
+        return new TokenUsage(promptTokens, 0, promptTokens, true);
     }
 }
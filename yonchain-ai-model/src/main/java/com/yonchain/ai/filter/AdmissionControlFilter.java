@@ -0,0 +1,155 @@
+package com.yonchain.ai.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.quota.QuotaSubject;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 准入控制过滤器
+ * <p>
+ * 位于 {@link GatewayIdentityFilter} 之后、所有模型过滤器之前，在解析请求体之前根据
+ * {@link AdmissionController} 的负载压力拒绝低优先级请求，返回503和Retry-After响应头
+ * <p>
+ * 模型过滤器通过 {@link #addUpstreamTime} 登记调用上游的耗时，请求结束时从延迟样本中扣除
+ */
+public class AdmissionControlFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    private static final String UPSTREAM_NANOS_ATTRIBUTE = AdmissionControlFilter.class.getName() + ".upstreamNanos";
+
+    private final AdmissionController admissionController;
+    private final ObjectMapper objectMapper;
+
+    public AdmissionControlFilter(AdmissionController admissionController, ObjectMapper objectMapper) {
+        this.admissionController = admissionController;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        if (!"POST".equals(httpRequest.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // 请求头只能在租户的优先级上限内声明，租户取自GatewayIdentityFilter认证的身份
+        Object tenantId = httpRequest.getAttribute(QuotaSubject.TENANT_ATTRIBUTE);
+        RequestPriority priority = admissionController.resolvePriority(httpRequest.getHeader(RequestPriority.HEADER),
+                tenantId != null ? tenantId.toString() : null);
+        if (!admissionController.tryAcquire(priority)) {
+            logger.debug("Rejected {} priority request {} under pressure {}",
+                    priority, httpRequest.getRequestURI(), admissionController.getPressure());
+            sendOverloadedResponse(httpResponse);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        AtomicLong upstreamNanos = new AtomicLong();
+        httpRequest.setAttribute(UPSTREAM_NANOS_ATTRIBUTE, upstreamNanos);
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (httpRequest.isAsyncStarted()) {
+                // 异步请求在AsyncContext完成时释放，容器保证完成事件在本次分发返回后才触发
+                httpRequest.getAsyncContext().addListener(new ReleaseListener(startNanos));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                admissionController.release(startNanos, upstreamNanos.get(), true);
+            }
+        }
+    }
+
+    /**
+     * 登记本次请求调用上游模型的耗时
+     *
+     * @param request       当前请求
+     * @param upstreamNanos 上游调用耗时（纳秒）
+     */
+    public static void addUpstreamTime(ServletRequest request, long upstreamNanos) {
+        if (request.getAttribute(UPSTREAM_NANOS_ATTRIBUTE) instanceof AtomicLong total) {
+            total.addAndGet(upstreamNanos);
+        }
+    }
+
+    /**
+     * 发送过载响应
+     */
+    private void sendOverloadedResponse(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionController.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", "Service overloaded, please retry later");
+        error.put("type", "overloaded");
+        error.put("code", HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+        response.getWriter().flush();
+    }
+
+    /**
+     * 异步请求完成时释放准入名额
+     */
+    private class ReleaseListener implements AsyncListener {
+
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseListener(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                admissionController.release(startNanos, 0, false);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // 超时后容器会继续触发onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // 出错后容器会继续触发onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.yonchain.ai.filter;
+
+import com.yonchain.ai.model.ModelConfiguration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 网关准入控制器
+ * <p>
+ * 根据网关健康信号计算负载压力，过载时按请求优先级提前拒绝请求：
+ * - 在途请求数：已准入但尚未完成的请求
+ * - 队列深度：等待异步执行的流式任务数（公共ForkJoinPool）
+ * - 堆内存压力：最近一次GC后老年代（或整个堆）的占用 / 最大值，不含尚未回收的垃圾
+ * - P99延迟：最近 admission.latency.window 毫秒内同步请求的网关侧延迟分位数
+ *   （总耗时扣除调用上游模型的耗时，某个模型变慢不会导致所有模型的请求被拒绝）
+ * <p>
+ * 压力值为各信号与阈值之比的最大值。压力 >= 1 时拒绝LOW请求，
+ * 压力 >= admission.shed.normal.factor 时同时拒绝NORMAL请求，HIGH和CRITICAL请求始终准入。
+ * <p>
+ * 优先级上限由服务端按已认证租户配置（admission.priority.tenant.{租户ID}，默认normal），
+ * 客户端请求头只能在上限内声明，匿名请求和未配置的租户最高为NORMAL，不能通过请求头绕过负载卸除。
+ * 堆内存和P99这类较重的信号按刷新间隔采样，准入判断本身只读取原子变量。
+ * 延迟按对数分桶计数，每次刷新把当前分桶转入时间窗口并清零，窗口内没有新样本时P99随之回落，
+ * 拒绝请求期间不会因旧样本一直保持高压力。
+ */
+public class AdmissionController {
+
+    public static final String ENABLED = "admission.enabled";
+    public static final String MAX_IN_FLIGHT = "admission.max.inflight";
+    public static final String MAX_QUEUE_DEPTH = "admission.max.queue";
+    public static final String HEAP_THRESHOLD = "admission.heap.threshold";
+    public static final String P99_THRESHOLD_MS = "admission.p99.threshold";
+    public static final String SHED_NORMAL_FACTOR = "admission.shed.normal.factor";
+    public static final String RETRY_AFTER_SECONDS = "admission.retry.after";
+    public static final String REFRESH_INTERVAL_MS = "admission.refresh.interval";
+    public static final String LATENCY_WINDOW_MS = "admission.latency.window";
+    public static final String TENANT_PRIORITY_PREFIX = "admission.priority.tenant.";
+
+    // 延迟分桶：每个2的幂区间分4个桶（相对误差约19%），最大约70分钟
+    private static final int LATENCY_BUCKETS = 88;
+
+    private final ModelConfiguration configuration;
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final int maxQueueDepth;
+    private final double heapThreshold;
+    private final long p99ThresholdMs;
+    private final double shedNormalFactor;
+    private final int retryAfterSeconds;
+    private final long refreshIntervalNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLongArray latencyCounts = new AtomicLongArray(LATENCY_BUCKETS);
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final List<MemoryPoolMXBean> tenuredPools;
+
+    // 最近若干个刷新周期的延迟分桶，只由持有refreshing的线程访问
+    private final long[][] latencyWindow;
+    private int latencyWindowCursor;
+
+    // 周期性采样的信号
+    private volatile double heapUsage;
+    private volatile long p99LatencyMs;
+    private volatile long nextRefreshNanos;
+
+    public AdmissionController(ModelConfiguration configuration) {
+        this.configuration = configuration;
+        this.enabled = configuration.getBooleanProperty(ENABLED, true);
+        this.maxInFlight = configuration.getIntProperty(MAX_IN_FLIGHT, 512);
+        this.maxQueueDepth = configuration.getIntProperty(MAX_QUEUE_DEPTH, 256);
+        this.heapThreshold = configuration.getDoubleProperty(HEAP_THRESHOLD, 0.90);
+        this.p99ThresholdMs = configuration.getLongProperty(P99_THRESHOLD_MS, 2000L);
+        this.shedNormalFactor = configuration.getDoubleProperty(SHED_NORMAL_FACTOR, 1.25);
+        this.retryAfterSeconds = configuration.getIntProperty(RETRY_AFTER_SECONDS, 5);
+        long refreshIntervalMs = Math.max(configuration.getLongProperty(REFRESH_INTERVAL_MS, 1000L), 1L);
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMs);
+        long windowMs = configuration.getLongProperty(LATENCY_WINDOW_MS, 10000L);
+        this.latencyWindow = new long[(int) Math.max(1, Math.min(windowMs / refreshIntervalMs, 600))][LATENCY_BUCKETS];
+        this.tenuredPools = findTenuredPools();
+    }
+
+    /**
+     * 确定请求的有效优先级
+     *
+     * @param requested 客户端声明的优先级代码，可为null
+     * @param tenantId  已认证的租户ID，匿名请求为null
+     * @return 租户配置的优先级（未声明时），或不超过该优先级的声明值
+     */
+    public RequestPriority resolvePriority(String requested, String tenantId) {
+        RequestPriority ceiling = tenantId != null
+                ? RequestPriority.fromCode(configuration.getProperty(TENANT_PRIORITY_PREFIX + tenantId))
+                : RequestPriority.NORMAL;
+        if (requested == null || requested.isBlank()) {
+            return ceiling;
+        }
+        RequestPriority priority = RequestPriority.fromCode(requested);
+        return priority.compareTo(ceiling) > 0 ? ceiling : priority;
+    }
+
+    /**
+     * 尝试准入请求
+     *
+     * @param priority 请求优先级
+     * @return 准入返回true，此时必须在请求结束后调用 {@link #release(long, long, boolean)}
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        if (!enabled) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+
+        refreshIfNecessary();
+
+        double pressure = getPressure();
+        if ((priority == RequestPriority.LOW && pressure >= 1.0)
+                || (priority == RequestPriority.NORMAL && pressure >= shedNormalFactor)) {
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+
+        inFlight.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 释放已准入的请求
+     *
+     * @param startNanos    请求开始时间（System.nanoTime）
+     * @param upstreamNanos 请求中调用上游模型的总耗时，从延迟样本中扣除
+     * @param recordLatency 是否计入延迟采样（流式请求的时长取决于输出长度，不计入）
+     */
+    public void release(long startNanos, long upstreamNanos, boolean recordLatency) {
+        inFlight.decrementAndGet();
+        if (recordLatency) {
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(Math.max(System.nanoTime() - startNanos - upstreamNanos, 0));
+            latencyCounts.incrementAndGet(bucketOf(latencyMs));
+        }
+    }
+
+    /**
+     * 计算当前负载压力
+     *
+     * @return 各信号与阈值之比的最大值，未配置的阈值不参与计算
+     */
+    public double getPressure() {
+        double pressure = 0;
+        if (maxInFlight > 0) {
+            pressure = Math.max(pressure, (double) inFlight.get() / maxInFlight);
+        }
+        if (maxQueueDepth > 0) {
+            pressure = Math.max(pressure, (double) getQueueDepth() / maxQueueDepth);
+        }
+        if (heapThreshold > 0) {
+            pressure = Math.max(pressure, heapUsage / heapThreshold);
+        }
+        if (p99ThresholdMs > 0) {
+            pressure = Math.max(pressure, (double) p99LatencyMs / p99ThresholdMs);
+        }
+        return pressure;
+    }
+
+    /**
+     * 按刷新间隔重新采样堆内存和P99延迟，同一时刻只有一个线程执行采样
+     */
+    private void refreshIfNecessary() {
+        long now = System.nanoTime();
+        if (now - nextRefreshNanos < 0 || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            heapUsage = computeHeapUsage();
+            p99LatencyMs = computeP99();
+            nextRefreshNanos = now + refreshIntervalNanos;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * 最近一次GC后的老年代占用比例；JVM不提供GC后占用时退回到当前堆占用
+     */
+    private double computeHeapUsage() {
+        double usage = -1;
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (afterGc == null) {
+                continue;
+            }
+            long max = afterGc.getMax() > 0 ? afterGc.getMax() : pool.getUsage().getCommitted();
+            if (max > 0) {
+                usage = Math.max(usage, (double) afterGc.getUsed() / max);
+            }
+        }
+        if (usage >= 0) {
+            return usage;
+        }
+        MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+        long max = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        return max > 0 ? (double) heap.getUsed() / max : 0;
+    }
+
+    /**
+     * 把本周期的延迟分桶转入时间窗口并清零，按窗口内的全部样本计算P99（取所在分桶的上界）
+     */
+    private long computeP99() {
+        long[] slice = latencyWindow[latencyWindowCursor];
+        latencyWindowCursor = (latencyWindowCursor + 1) % latencyWindow.length;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            slice[i] = latencyCounts.getAndSet(i, 0);
+        }
+
+        long[] merged = new long[LATENCY_BUCKETS];
+        long total = 0;
+        for (long[] counts : latencyWindow) {
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                merged[i] += counts[i];
+                total += counts[i];
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * 0.99);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(LATENCY_BUCKETS - 1);
+    }
+
+    private static int bucketOf(long latencyMs) {
+        if (latencyMs < 4) {
+            return (int) latencyMs;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(latencyMs);
+        int sub = (int) (latencyMs >>> (exponent - 2)) & 3;
+        return Math.min(exponent * 4 + sub - 4, LATENCY_BUCKETS - 1);
+    }
+
+    private static long bucketUpperBound(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int exponent = (bucket + 4) / 4;
+        int sub = (bucket + 4) % 4;
+        return ((4L + sub + 1) << (exponent - 2)) - 1;
+    }
+
+    /**
+     * 支持用量阈值的堆内存池即老年代（G1 Old Gen、PS Old Gen、Tenured Gen、ZGC等）
+     */
+    private static List<MemoryPoolMXBean> findTenuredPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()
+                    && pool.isCollectionUsageThresholdSupported()) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    public int getQueueDepth() {
+        return ForkJoinPool.commonPool().getQueuedSubmissionCount();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getHeapUsage() {
+        return heapUsage;
+    }
+
+    public long getP99LatencyMs() {
+        return p99LatencyMs;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
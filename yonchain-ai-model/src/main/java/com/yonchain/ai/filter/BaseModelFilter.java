@@ -1,7 +1,20 @@
 package com.yonchain.ai.filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.invokelog.entity.ModelInvokeLogEntity;
+import com.yonchain.ai.metrics.GatewayMetrics;
+import com.yonchain.ai.model.InvalidModelRequestException;
 import com.yonchain.ai.model.ModelClient;
+import com.yonchain.ai.model.deadline.Deadline;
+import com.yonchain.ai.model.deadline.DeadlineExceededException;
+import com.yonchain.ai.model.definition.ModelDefinition;
+import com.yonchain.ai.quota.QuotaExceededException;
+import com.yonchain.ai.quota.QuotaSubject;
+import com.yonchain.ai.tracing.ModelObservations;
+import com.yonchain.ai.usage.TokenUsage;
+import com.yonchain.ai.usage.rollup.UsageRollupAggregator;
+import io.micrometer.observation.Observation;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -14,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -25,14 +39,47 @@ import java.util.regex.Pattern;
  */
 public abstract class BaseModelFilter implements Filter {
     
+    /**
+     * 客户端声明的请求超时（秒，支持小数）
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+    private static final long MAX_CLIENT_TIMEOUT_MILLIS = Duration.ofDays(1).toMillis();
+    
+    /**
+     * 调用方租户标识
+     */
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+    
+    /**
+     * 调用方智能体标识（预算维度），由 {@link GatewayIdentityFilter} 校验属于当前租户
+     */
+    public static final String AGENT_HEADER = "X-Agent-Id";
+    
+    /**
+     * 调用方请求ID（记录到调用日志）
+     */
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    
+    /**
+     * 终端用户ID（记录到调用日志并计入去重用户数），未提供时使用请求体的user字段
+     */
+    public static final String USER_ID_HEADER = "X-User-Id";
+    
     protected final Logger logger = LoggerFactory.getLogger(getClass());
     
     protected final ModelClient modelClient;
     protected final ObjectMapper objectMapper;
+    protected final InvokeLogWriter invokeLogWriter;
+    protected final UsageRollupAggregator usageRollup;
+    protected final GatewayMetrics metrics;
     
-    public BaseModelFilter(ModelClient modelClient, ObjectMapper objectMapper) {
+    public BaseModelFilter(ModelClient modelClient, ObjectMapper objectMapper, InvokeLogWriter invokeLogWriter,
+                           UsageRollupAggregator usageRollup, GatewayMetrics metrics) {
         this.modelClient = modelClient;
         this.objectMapper = objectMapper;
+        this.invokeLogWriter = invokeLogWriter;
+        this.usageRollup = usageRollup;
+        this.metrics = metrics;
     }
     
     @Override
@@ -51,12 +98,33 @@ public abstract class BaseModelFilter implements Filter {
             return;
         }
         
-        try {
+        // 请求Span，父Span为HTTP服务端Span；流式请求的输出在异步线程中继续，由子Span记录
+        Observation observation = ModelObservations.create(modelClient.getConfiguration(),
+                        ModelObservations.REQUEST, getModelType() + " request")
+                .lowCardinalityKeyValue("model.type", getModelType())
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
             logger.debug("Processing {} request: {}", getModelType(), requestURI);
             handleModelRequest(httpRequest, httpResponse);
+            observation.lowCardinalityKeyValue("outcome", "success");
+        } catch (InvalidModelRequestException e) {
+            observation.lowCardinalityKeyValue("outcome", "invalid_request");
+            logger.debug("Rejected invalid {} request: {}", getModelType(), e.getMessage());
+            sendInvalidRequestResponse(httpResponse, e);
+        } catch (QuotaExceededException e) {
+            observation.lowCardinalityKeyValue("outcome", "quota_exceeded");
+            logger.info("Rejected {} request over quota: {}", getModelType(), e.getMessage());
+            sendQuotaExceededResponse(httpResponse, e);
+        } catch (DeadlineExceededException e) {
+            observation.lowCardinalityKeyValue("outcome", "timeout").error(e);
+            logger.warn("Deadline exceeded for {} request: {}", getModelType(), requestURI);
+            sendErrorResponse(httpResponse, e.getMessage(), HttpServletResponse.SC_GATEWAY_TIMEOUT);
         } catch (Exception e) {
+            observation.lowCardinalityKeyValue("outcome", "error").error(e);
             logger.error("Error processing {} request: {}", getModelType(), requestURI, e);
             sendErrorResponse(httpResponse, "Internal server error: " + e.getMessage(), 500);
+        } finally {
+            observation.stop();
         }
     }
     
@@ -87,12 +155,17 @@ public abstract class BaseModelFilter implements Filter {
      * 解析请求体
      */
     protected Map<String, Object> parseRequestBody(HttpServletRequest request) throws IOException {
+        Observation observation = ModelObservations.phase(modelClient.getConfiguration(),
+                ModelObservations.PARSE, "parse request").start();
         try {
             @SuppressWarnings("unchecked")
             Map<String, Object> requestMap = objectMapper.readValue(request.getInputStream(), Map.class);
             return requestMap;
         } catch (Exception e) {
+            observation.error(e);
             throw new IllegalArgumentException("Invalid JSON request body", e);
+        } finally {
+            observation.stop();
         }
     }
     
@@ -107,6 +180,137 @@ public abstract class BaseModelFilter implements Filter {
         return model.toString();
     }
     
+    /**
+     * 登记调用上游模型的耗时，准入控制的延迟信号只统计网关自身的处理时间
+     *
+     * @param upstreamStartNanos 开始调用上游的时间（System.nanoTime）
+     */
+    protected void recordUpstreamTime(HttpServletRequest request, long upstreamStartNanos) {
+        AdmissionControlFilter.addUpstreamTime(request, System.nanoTime() - upstreamStartNanos);
+    }
+    
+    /**
+     * 获取模型定义
+     * 
+     * @return 模型定义，模型不存在时返回null
+     */
+    protected ModelDefinition findModelDefinition(String modelName) {
+        try {
+            return modelClient.getModelDefinition(modelName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * 创建本次调用的调用日志并填充请求信息（同时用于指标标签），请求结束时交给 {@link #completeInvocation}
+     * 
+     * @param requestParams 请求体，未解析时为null
+     */
+    protected ModelInvokeLogEntity createInvocation(HttpServletRequest request, String modelName,
+                                                    ModelDefinition definition, Map<String, Object> requestParams) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        if ((userId == null || userId.isBlank()) && requestParams != null
+                && requestParams.get("user") instanceof String user) {
+            userId = user;
+        }
+        return new ModelInvokeLogEntity()
+                .setTenantId(resolveTenantId(request))
+                .setModelCode(definition != null ? definition.getId() : modelName)
+                .setProviderCode(definition != null ? definition.getNamespace() : "unknown")
+                .setRequestId(request.getHeader(REQUEST_ID_HEADER))
+                .setUserId(userId == null || userId.isBlank() ? null : userId)
+                .setRequestParams(invokeLogWriter.toPayload(requestParams));
+    }
+    
+    /**
+     * 填充调用结果（耗时、Token数、状态），记录请求、Token和错误指标，累加到用量汇总并提交调用日志（异步写入）
+     * 
+     * @param generationStartNanos 输出开始时间（同步请求为请求开始，流式请求为首个分块），为0时不记录输出速度
+     */
+    protected void completeInvocation(ModelInvokeLogEntity invocation, String mode, long startNanos,
+                                      long generationStartNanos, TokenUsage usage, Throwable error) {
+        long endNanos = System.nanoTime();
+        invocation.setDuration((int) ((endNanos - startNanos) / 1_000_000));
+        if (usage != null) {
+            invocation.setPromptTokens(usage.getPromptTokens())
+                    .setCompletionTokens(usage.getCompletionTokens())
+                    .setTotalTokens(usage.getTotalTokens());
+        }
+        if (error == null) {
+            invocation.setStatus(InvokeLogWriter.STATUS_SUCCESS);
+        } else {
+            invocation.setStatus(error instanceof DeadlineExceededException
+                            ? InvokeLogWriter.STATUS_TIMEOUT : InvokeLogWriter.STATUS_ERROR)
+                    .setErrorMessage(error.getMessage());
+        }
+        
+        String namespace = invocation.getProviderCode();
+        String model = invocation.getModelCode();
+        metrics.recordRequest(namespace, model, invocation.getTenantId(), invocation.getStatus(), mode,
+                endNanos - startNanos);
+        if (usage != null) {
+            metrics.recordTokens(namespace, model, invocation.getTenantId(), usage.getPromptTokens(),
+                    usage.getCompletionTokens());
+            if (error == null && generationStartNanos > 0) {
+                metrics.recordTokensPerSecond(namespace, model, mode, usage.getCompletionTokens(),
+                        endNanos - generationStartNanos);
+            }
+        }
+        metrics.recordError(namespace, model, error);
+        
+        usageRollup.record(invocation);
+        invokeLogWriter.submit(invocation);
+    }
+    
+    /**
+     * 记录失败的同步请求，请求在创建调用记录之前失败（如请求体不合法）时不记录
+     */
+    protected void completeFailedInvocation(ModelInvokeLogEntity invocation, long startNanos, Throwable error) {
+        if (invocation != null) {
+            completeInvocation(invocation, GatewayMetrics.MODE_SYNC, startNanos, 0, null, error);
+        }
+    }
+    
+    /**
+     * 提取租户标识
+     * 优先使用 {@link GatewayIdentityFilter} 认证的租户，匿名请求取 {@value #TENANT_HEADER} 请求头
+     * 
+     * @return 租户标识，未声明时返回null
+     */
+    protected String resolveTenantId(HttpServletRequest request) {
+        if (request.getAttribute(QuotaSubject.TENANT_ATTRIBUTE) instanceof String authenticated) {
+            return authenticated;
+        }
+        String tenantId = request.getHeader(TENANT_HEADER);
+        return tenantId == null || tenantId.isBlank() ? null : tenantId.trim();
+    }
+    
+    /**
+     * 根据请求头解析客户端截止时间
+     * 
+     * @return 客户端截止时间，未声明时返回null
+     * @throws InvalidModelRequestException 请求头不是正的有限秒数
+     */
+    protected Deadline resolveClientDeadline(HttpServletRequest request) {
+        String timeout = request.getHeader(TIMEOUT_HEADER);
+        if (timeout == null || timeout.isBlank()) {
+            return null;
+        }
+        double seconds;
+        try {
+            seconds = Double.parseDouble(timeout.trim());
+        } catch (NumberFormatException e) {
+            seconds = Double.NaN;
+        }
+        if (!(seconds > 0) || Double.isInfinite(seconds)) {
+            throw new InvalidModelRequestException("Invalid " + TIMEOUT_HEADER + " header: '" + timeout
+                    + "', expected a positive number of seconds", TIMEOUT_HEADER, "invalid_value");
+        }
+        // 超大取值按一天处理，避免截止时间的纳秒计算溢出
+        return Deadline.after(Duration.ofMillis((long) Math.min(seconds * 1000, MAX_CLIENT_TIMEOUT_MILLIS)));
+    }
+    
     /**
      * 判断是否为流式请求
      */
@@ -124,9 +328,18 @@ public abstract class BaseModelFilter implements Filter {
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         response.setCharacterEncoding("UTF-8");
         
-        String jsonResponse = objectMapper.writeValueAsString(responseData);
-        response.getWriter().write(jsonResponse);
-        response.getWriter().flush();
+        Observation observation = ModelObservations.phase(modelClient.getConfiguration(),
+                ModelObservations.WRITE, "write response").start();
+        try {
+            String jsonResponse = objectMapper.writeValueAsString(responseData);
+            response.getWriter().write(jsonResponse);
+            response.getWriter().flush();
+        } catch (IOException | RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
     }
     
     /**
@@ -150,4 +363,50 @@ public abstract class BaseModelFilter implements Filter {
         response.getWriter().write(jsonResponse);
         response.getWriter().flush();
     }
-}
\ No newline at end of file
+    
+    /**
+     * 发送请求参数错误响应（400）
+     */
+    protected void sendInvalidRequestResponse(HttpServletResponse response, InvalidModelRequestException e) 
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", e.getMessage());
+        error.put("type", "invalid_request_error");
+        error.put("param", e.getParam());
+        error.put("code", e.getCode());
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        
+        String jsonResponse = objectMapper.writeValueAsString(errorResponse);
+        response.getWriter().write(jsonResponse);
+        response.getWriter().flush();
+    }
+    
+    /**
+     * 发送预算超限响应（429）
+     */
+    protected void sendQuotaExceededResponse(HttpServletResponse response, QuotaExceededException e) 
+            throws IOException {
+        response.setStatus(429);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", e.getMessage());
+        error.put("type", "insufficient_quota");
+        error.put("param", null);
+        error.put("code", "quota_exceeded");
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        
+        String jsonResponse = objectMapper.writeValueAsString(errorResponse);
+        response.getWriter().write(jsonResponse);
+        response.getWriter().flush();
+    }
+}
@@ -1,15 +1,40 @@
 package com.yonchain.ai.filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.api.agent.AgentService;
+import com.yonchain.ai.api.security.SecurityService;
+import com.yonchain.ai.api.sys.IdmCacheService;
+import com.yonchain.ai.api.sys.TenantService;
 import com.yonchain.ai.audio.AudioModelFilter;
 import com.yonchain.ai.chat.ChatModelFilter;
 import com.yonchain.ai.embedding.EmbeddingModelFilter;
 import com.yonchain.ai.image.ImageModelFilter;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.invokelog.mapper.ModelInvokeLogMapper;
+import com.yonchain.ai.metrics.GatewayMetrics;
+import com.yonchain.ai.model.DefaultModelClient;
 import com.yonchain.ai.model.ModelClient;
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.quota.QuotaEngine;
+import com.yonchain.ai.quota.mapper.QuotaUsageMapper;
+import com.yonchain.ai.quota.store.InMemoryQuotaStore;
+import com.yonchain.ai.quota.store.JdbcQuotaStore;
+import com.yonchain.ai.quota.store.QuotaStore;
+import com.yonchain.ai.quota.store.RedisQuotaStore;
+import com.yonchain.ai.usage.rollup.UsageRollupAggregator;
+import com.yonchain.ai.usage.rollup.mapper.ModelUsageRollupMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 过滤器配置类
@@ -18,15 +43,140 @@ import org.springframework.core.Ordered;
 @Configuration
 public class FilterConfiguration {
     
+    /**
+     * 所有模型端点
+     */
+    private static final String[] GATEWAY_URL_PATTERNS = {"/v1/chat/*", "/chat/*", "/v1/images/*", "/images/*",
+            "/v1/embeddings", "/embeddings", "/v1/audio/*", "/audio/*"};
+    
+    /**
+     * 网关准入控制器
+     */
+    @Bean
+    public AdmissionController admissionController(ModelClient modelClient) {
+        return new AdmissionController(modelClient.getConfiguration());
+    }
+    
+    /**
+     * 注册网关身份过滤器，最先执行，为准入控制和模型过滤器提供已认证的租户、调用方和智能体
+     * 缺少安全服务（未引入安全模块）时不注册
+     */
+    @Bean
+    public FilterRegistrationBean<GatewayIdentityFilter> gatewayIdentityFilterRegistration(
+            ModelClient modelClient, ObjectMapper objectMapper, ObjectProvider<SecurityService> securityService,
+            ObjectProvider<IdmCacheService> idmCacheService, ObjectProvider<TenantService> tenantService,
+            ObjectProvider<AgentService> agentService) {
+        
+        FilterRegistrationBean<GatewayIdentityFilter> registration = new FilterRegistrationBean<>();
+        if (securityService.getIfAvailable() == null || idmCacheService.getIfAvailable() == null
+                || tenantService.getIfAvailable() == null || agentService.getIfAvailable() == null) {
+            registration.setEnabled(false);
+            return registration;
+        }
+        registration.setFilter(new GatewayIdentityFilter(modelClient.getConfiguration(),
+                securityService.getObject(), idmCacheService.getObject(), tenantService.getObject(),
+                agentService.getObject(), objectMapper));
+        registration.addUrlPatterns(GATEWAY_URL_PATTERNS);
+        registration.setName("gatewayIdentityFilter");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        
+        return registration;
+    }
+    
+    /**
+     * 注册准入控制过滤器，优先于所有模型过滤器执行
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+            AdmissionController admissionController, ObjectMapper objectMapper) {
+        
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(new AdmissionControlFilter(admissionController, objectMapper));
+        registration.addUrlPatterns(GATEWAY_URL_PATTERNS);
+        registration.setName("admissionControlFilter");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        
+        return registration;
+    }
+    
+    /**
+     * 数据库预算存储
+     */
+    @Bean
+    @Order(10)
+    public JdbcQuotaStore jdbcQuotaStore(QuotaUsageMapper quotaUsageMapper) {
+        return new JdbcQuotaStore(quotaUsageMapper);
+    }
+    
+    /**
+     * 租户预算引擎
+     * 存储按顺序使用：Redis（跨节点汇总）> 数据库（持久化），都不可用时使用内存存储
+     */
+    @Bean(destroyMethod = "close")
+    public QuotaEngine quotaEngine(ModelClient modelClient, ObjectProvider<QuotaStore> quotaStores) {
+        ModelConfiguration configuration = modelClient.getConfiguration();
+        List<QuotaStore> stores = new ArrayList<>();
+        quotaStores.orderedStream().forEach(store -> {
+            // quota.store.{redis|jdbc}.enabled 可关闭指定存储
+            if (store.isAvailable()
+                    && configuration.getBooleanProperty("quota.store." + store.getName() + ".enabled", true)) {
+                stores.add(store);
+            }
+        });
+        if (stores.isEmpty()) {
+            stores.add(new InMemoryQuotaStore());
+        }
+        return new QuotaEngine(configuration, stores);
+    }
+    
+    /**
+     * 模型调用日志异步写入器
+     */
+    @Bean(destroyMethod = "close")
+    public InvokeLogWriter invokeLogWriter(ModelClient modelClient, ModelInvokeLogMapper modelInvokeLogMapper,
+                                           ObjectMapper objectMapper) {
+        return new InvokeLogWriter(modelClient.getConfiguration(), modelInvokeLogMapper, objectMapper);
+    }
+    
+    /**
+     * 模型用量分钟汇总器
+     */
+    @Bean(destroyMethod = "close")
+    public UsageRollupAggregator usageRollupAggregator(ModelClient modelClient,
+                                                       ModelUsageRollupMapper modelUsageRollupMapper) {
+        return new UsageRollupAggregator(modelClient.getConfiguration(), modelUsageRollupMapper);
+    }
+    
+    /**
+     * 模型网关指标
+     * 没有MeterRegistry（未引入actuator）时不记录指标
+     */
+    @Bean
+    public GatewayMetrics gatewayMetrics(ModelClient modelClient, ObjectProvider<MeterRegistry> meterRegistry,
+                                         AdmissionController admissionController, InvokeLogWriter invokeLogWriter,
+                                         UsageRollupAggregator usageRollupAggregator) {
+        GatewayMetrics metrics = new GatewayMetrics(modelClient.getConfiguration(), meterRegistry.getIfUnique());
+        metrics.bindAdmission(admissionController);
+        metrics.bindInvokeLog(invokeLogWriter);
+        metrics.bindUsageRollup(usageRollupAggregator);
+        if (modelClient instanceof DefaultModelClient defaultModelClient) {
+            metrics.bindModelCache(defaultModelClient);
+        }
+        return metrics;
+    }
+    
     /**
      * 注册聊天模型过滤器
      */
     @Bean
     public FilterRegistrationBean<ChatModelFilter> chatModelFilterRegistration(
-            ModelClient modelClient, ObjectMapper objectMapper) {
+            ModelClient modelClient, ObjectMapper objectMapper, QuotaEngine quotaEngine,
+            InvokeLogWriter invokeLogWriter, UsageRollupAggregator usageRollupAggregator,
+            GatewayMetrics gatewayMetrics) {
         
         FilterRegistrationBean<ChatModelFilter> registration = new FilterRegistrationBean<>();
-        registration.setFilter(new ChatModelFilter(modelClient, objectMapper));
+        registration.setFilter(new ChatModelFilter(modelClient, objectMapper, quotaEngine, invokeLogWriter,
+                usageRollupAggregator, gatewayMetrics));
         registration.addUrlPatterns("/v1/chat/*", "/chat/*");
         registration.setName("chatModelFilter");
         registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
@@ -39,10 +189,12 @@ public class FilterConfiguration {
      */
     @Bean
     public FilterRegistrationBean<ImageModelFilter> imageModelFilterRegistration(
-            ModelClient modelClient, ObjectMapper objectMapper) {
+            ModelClient modelClient, ObjectMapper objectMapper, InvokeLogWriter invokeLogWriter,
+            UsageRollupAggregator usageRollupAggregator, GatewayMetrics gatewayMetrics) {
         
         FilterRegistrationBean<ImageModelFilter> registration = new FilterRegistrationBean<>();
-        registration.setFilter(new ImageModelFilter(modelClient, objectMapper));
+        registration.setFilter(new ImageModelFilter(modelClient, objectMapper, invokeLogWriter, usageRollupAggregator,
+                gatewayMetrics));
         registration.addUrlPatterns("/v1/images/*", "/images/*");
         registration.setName("imageModelFilter");
         registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
@@ -55,10 +207,12 @@ public class FilterConfiguration {
      */
     @Bean
     public FilterRegistrationBean<EmbeddingModelFilter> embeddingModelFilterRegistration(
-            ModelClient modelClient, ObjectMapper objectMapper) {
+            ModelClient modelClient, ObjectMapper objectMapper, InvokeLogWriter invokeLogWriter,
+            UsageRollupAggregator usageRollupAggregator, GatewayMetrics gatewayMetrics) {
         
         FilterRegistrationBean<EmbeddingModelFilter> registration = new FilterRegistrationBean<>();
-        registration.setFilter(new EmbeddingModelFilter(modelClient, objectMapper));
+        registration.setFilter(new EmbeddingModelFilter(modelClient, objectMapper, invokeLogWriter, usageRollupAggregator,
+                gatewayMetrics));
         registration.addUrlPatterns("/v1/embeddings", "/embeddings");
         registration.setName("embeddingModelFilter");
         registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
@@ -71,15 +225,30 @@ public class FilterConfiguration {
      */
     @Bean
     public FilterRegistrationBean<AudioModelFilter> audioModelFilterRegistration(
-            ModelClient modelClient, ObjectMapper objectMapper) {
+            ModelClient modelClient, ObjectMapper objectMapper, InvokeLogWriter invokeLogWriter,
+            UsageRollupAggregator usageRollupAggregator, GatewayMetrics gatewayMetrics) {
         
         FilterRegistrationBean<AudioModelFilter> registration = new FilterRegistrationBean<>();
-        registration.setFilter(new AudioModelFilter(modelClient, objectMapper));
+        registration.setFilter(new AudioModelFilter(modelClient, objectMapper, invokeLogWriter, usageRollupAggregator,
+                gatewayMetrics));
         registration.addUrlPatterns("/v1/audio/*", "/audio/*");
         registration.setName("audioModelFilter");
         registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 40);
         
         return registration;
     }
+    
+    /**
+     * Redis预算存储（引入Redis依赖时注册）
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.data.redis.core.StringRedisTemplate")
+    static class RedisQuotaStoreConfiguration {
+        
+        @Bean
+        @Order(0)
+        public RedisQuotaStore redisQuotaStore(ObjectProvider<StringRedisTemplate> redisTemplate) {
+            return new RedisQuotaStore(redisTemplate, "yonchain:quota:");
+        }
+    }
 }
-
@@ -0,0 +1,213 @@
+package com.yonchain.ai.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.api.agent.Agent;
+import com.yonchain.ai.api.agent.AgentService;
+import com.yonchain.ai.api.exception.YonchainException;
+import com.yonchain.ai.api.security.SecurityService;
+import com.yonchain.ai.api.sys.IdmCacheService;
+import com.yonchain.ai.api.sys.Tenant;
+import com.yonchain.ai.api.sys.TenantService;
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.quota.QuotaEngine;
+import com.yonchain.ai.quota.QuotaSubject;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 网关身份过滤器
+ * <p>
+ * 模型过滤器在Spring Security过滤器链之前处理请求，本过滤器负责在它们之前认证调用方：
+ * 校验Authorization Bearer令牌的签名和有效期，取令牌用户的当前租户，并校验X-Agent-Id声明的智能体属于该租户，
+ * 然后设置 {@link QuotaSubject#TENANT_ATTRIBUTE}、{@link QuotaSubject#AGENT_ATTRIBUTE}、
+ * {@link QuotaSubject#CALLER_ATTRIBUTE} 请求属性，供准入控制、预算、调用日志和用量汇总使用。
+ * <p>
+ * 只有开启 gateway.auth.required 或 quota.enabled 时才校验令牌，两者都关闭时所有请求匿名放行（不设置身份属性），
+ * OpenAI兼容客户端携带的API Key（如 Bearer sk-...）不会被拒绝。校验时：令牌无效、智能体不存在或不属于该租户返回401/403；
+ * gateway.auth.required 关闭时，未携带令牌或令牌不是JWT的请求匿名放行，开启时返回401。
+ * 开启 quota.subject.trusted.headers 时身份由前置网关负责，本过滤器不做处理。
+ */
+public class GatewayIdentityFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayIdentityFilter.class);
+
+    public static final String AUTH_REQUIRED = "gateway.auth.required";
+    public static final String AGENT_CACHE_TTL_MS = "gateway.agent.cache.ttl";
+
+    private static final int MAX_CACHED_AGENTS = 10_000;
+
+    private final SecurityService securityService;
+    private final IdmCacheService idmCacheService;
+    private final TenantService tenantService;
+    private final AgentService agentService;
+    private final ObjectMapper objectMapper;
+    private final boolean authRequired;
+    private final boolean verifyTokens;
+    private final boolean trustedHeaders;
+    private final long agentCacheTtlMillis;
+
+    // 智能体ID -> 所属租户，避免每个请求查询数据库
+    private final Map<String, CachedAgent> agentTenants = new ConcurrentHashMap<>();
+
+    public GatewayIdentityFilter(ModelConfiguration configuration, SecurityService securityService,
+                                 IdmCacheService idmCacheService, TenantService tenantService,
+                                 AgentService agentService, ObjectMapper objectMapper) {
+        this.securityService = securityService;
+        this.idmCacheService = idmCacheService;
+        this.tenantService = tenantService;
+        this.agentService = agentService;
+        this.objectMapper = objectMapper;
+        this.authRequired = configuration.getBooleanProperty(AUTH_REQUIRED, false);
+        this.verifyTokens = authRequired || configuration.getBooleanProperty(QuotaEngine.ENABLED, false);
+        this.trustedHeaders = configuration.getBooleanProperty(QuotaEngine.SUBJECT_TRUSTED_HEADERS, false);
+        this.agentCacheTtlMillis = Math.max(configuration.getLongProperty(AGENT_CACHE_TTL_MS, 60_000L), 0L);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        if (trustedHeaders || !verifyTokens || !"POST".equals(httpRequest.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String authorization = httpRequest.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            if (authRequired) {
+                sendErrorResponse(httpResponse, HttpServletResponse.SC_UNAUTHORIZED,
+                        "Missing bearer token", "invalid_api_key");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String token = authorization.substring(7).trim();
+        if (!authRequired && !isJwt(token)) {
+            // 不要求认证时，非JWT令牌（如上游API Key）按匿名请求处理
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String userId;
+        try {
+            Map<String, Object> claims = securityService.verifyToken(token);
+            Object claim = claims.get("user_id");
+            userId = claim != null ? claim.toString() : null;
+        } catch (YonchainException e) {
+            logger.debug("Rejected gateway request with invalid token: {}", e.getMessage());
+            sendErrorResponse(httpResponse, HttpServletResponse.SC_UNAUTHORIZED,
+                    "Invalid or expired bearer token", "invalid_api_key");
+            return;
+        }
+        if (userId == null || userId.isBlank()) {
+            sendErrorResponse(httpResponse, HttpServletResponse.SC_UNAUTHORIZED,
+                    "Bearer token has no user", "invalid_api_key");
+            return;
+        }
+
+        Tenant tenant = resolveTenant(userId);
+        if (tenant == null) {
+            sendErrorResponse(httpResponse, HttpServletResponse.SC_FORBIDDEN,
+                    "No tenant for the authenticated user", "tenant_not_found");
+            return;
+        }
+
+        String agentId = httpRequest.getHeader(BaseModelFilter.AGENT_HEADER);
+        if (agentId != null && !agentId.isBlank()) {
+            agentId = agentId.trim();
+            if (!tenant.getId().equals(resolveAgentTenant(agentId))) {
+                sendErrorResponse(httpResponse, HttpServletResponse.SC_FORBIDDEN,
+                        "Agent " + agentId + " does not belong to the current tenant", "agent_not_found");
+                return;
+            }
+            httpRequest.setAttribute(QuotaSubject.AGENT_ATTRIBUTE, agentId);
+        }
+        httpRequest.setAttribute(QuotaSubject.TENANT_ATTRIBUTE, tenant.getId());
+        httpRequest.setAttribute(QuotaSubject.CALLER_ATTRIBUTE, userId);
+
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * 令牌是否为JWT格式（header.payload.signature）
+     */
+    private static boolean isJwt(String token) {
+        int first = token.indexOf('.');
+        int second = first > 0 ? token.indexOf('.', first + 1) : -1;
+        return second > first + 1 && second < token.length() - 1 && token.indexOf('.', second + 1) < 0;
+    }
+
+    /**
+     * 获取用户的当前租户，优先从缓存读取
+     */
+    private Tenant resolveTenant(String userId) {
+        Tenant tenant = idmCacheService.getTenantByUserId(userId);
+        if (tenant == null) {
+            tenant = tenantService.getCurrentTenantByUserId(userId);
+            if (tenant != null) {
+                idmCacheService.cacheTenant(userId, tenant);
+            }
+        }
+        return tenant;
+    }
+
+    /**
+     * 获取智能体所属租户
+     *
+     * @return 租户ID，智能体不存在时返回null
+     */
+    private String resolveAgentTenant(String agentId) {
+        long now = System.currentTimeMillis();
+        CachedAgent cached = agentTenants.get(agentId);
+        if (cached != null && cached.expireAtMillis > now) {
+            return cached.tenantId;
+        }
+        Agent agent = agentService.getAppById(agentId);
+        String tenantId = agent != null ? agent.getTenantId() : null;
+        if (agentTenants.size() >= MAX_CACHED_AGENTS) {
+            agentTenants.clear();
+        }
+        agentTenants.put(agentId, new CachedAgent(tenantId, now + agentCacheTtlMillis));
+        return tenantId;
+    }
+
+    private void sendErrorResponse(HttpServletResponse response, int status, String message, String code)
+            throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", message);
+        error.put("type", status == HttpServletResponse.SC_UNAUTHORIZED ? "authentication_error" : "permission_error");
+        error.put("code", code);
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+        response.getWriter().flush();
+    }
+
+    private record CachedAgent(String tenantId, long expireAtMillis) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.yonchain.ai.filter;
+
+/**
+ * 请求优先级枚举
+ *
+ * 由客户端通过请求头 {@value #HEADER} 声明，不能超过服务端为已认证租户配置的上限
+ * （见 {@link AdmissionController#resolvePriority}），网关过载时按优先级从低到高依次拒绝
+ */
+public enum RequestPriority {
+
+    /**
+     * 低优先级 - 批处理、离线任务等，过载时最先被拒绝
+     */
+    LOW("low"),
+
+    /**
+     * 普通优先级 - 未声明优先级的请求默认使用
+     */
+    NORMAL("normal"),
+
+    /**
+     * 高优先级 - 在线交互请求
+     */
+    HIGH("high"),
+
+    /**
+     * 关键优先级 - 永不被负载卸除
+     */
+    CRITICAL("critical");
+
+    /**
+     * 声明请求优先级的请求头
+     */
+    public static final String HEADER = "X-Request-Priority";
+
+    private final String code;
+
+    RequestPriority(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 根据代码获取优先级
+     *
+     * @param code 优先级代码
+     * @return 优先级，无法识别时返回NORMAL
+     */
+    public static RequestPriority fromCode(String code) {
+        if (code == null || code.isEmpty()) {
+            return NORMAL;
+        }
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            if (priority.getCode().equalsIgnoreCase(code)) {
+                return priority;
+            }
+        }
+        return NORMAL;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
@@ -2,8 +2,14 @@ package com.yonchain.ai.image;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yonchain.ai.filter.BaseModelFilter;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.invokelog.entity.ModelInvokeLogEntity;
+import com.yonchain.ai.metrics.GatewayMetrics;
+import com.yonchain.ai.model.InvalidModelRequestException;
 import com.yonchain.ai.model.ModelClient;
+import com.yonchain.ai.model.deadline.DeadlineExceededException;
 import com.yonchain.ai.model.request.ImageRequest;
+import com.yonchain.ai.usage.rollup.UsageRollupAggregator;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.ai.image.ImageResponse;
@@ -20,8 +26,9 @@ public class ImageModelFilter extends BaseModelFilter {
     
     private static final Pattern ENDPOINT_PATTERN = Pattern.compile(".*/images/generations$");
     
-    public ImageModelFilter(ModelClient modelClient, ObjectMapper objectMapper) {
-        super(modelClient, objectMapper);
+    public ImageModelFilter(ModelClient modelClient, ObjectMapper objectMapper, InvokeLogWriter invokeLogWriter,
+                            UsageRollupAggregator usageRollup, GatewayMetrics metrics) {
+        super(modelClient, objectMapper, invokeLogWriter, usageRollup, metrics);
     }
     
     @Override
@@ -38,6 +45,8 @@ public class ImageModelFilter extends BaseModelFilter {
     protected void handleModelRequest(HttpServletRequest request, HttpServletResponse response) 
             throws IOException {
         
+        long startNanos = System.nanoTime();
+        ModelInvokeLogEntity invocation = null;
         try {
             // 1. 解析请求
             Map<String, Object> requestParams = parseRequestBody(request);
@@ -47,23 +56,43 @@ public class ImageModelFilter extends BaseModelFilter {
             
             // 2. 转换为ImageRequest
             ImageRequest imageRequest = convertToImageRequest(requestParams);
+            imageRequest.setDeadline(resolveClientDeadline(request));
+            imageRequest.setTenantId(resolveTenantId(request));
+            imageRequest.setRequestBytes(Math.max(request.getContentLengthLong(), 0));
+            invocation = createInvocation(request, modelName, findModelDefinition(modelName), requestParams);
             
             // 3. 使用ModelClient调用
-            ImageResponse imageResponse = modelClient.generateImage(modelName, imageRequest);
+            long upstreamStartNanos = System.nanoTime();
+            ImageResponse imageResponse;
+            try {
+                imageResponse = modelClient.generateImage(modelName, imageRequest);
+            } finally {
+                recordUpstreamTime(request, upstreamStartNanos);
+            }
             
             // 4. 转换为OpenAI格式
             Map<String, Object> responseData = convertImageResponse(imageResponse);
+            invocation.setResponseData(invokeLogWriter.toPayload(responseData));
+            completeInvocation(invocation, GatewayMetrics.MODE_SYNC, startNanos, 0, null, null);
             
             // 5. 发送响应
             sendSuccessResponse(response, responseData);
             
             logger.debug("Image generation request completed successfully");
             
+        } catch (InvalidModelRequestException e) {
+            // 交给BaseModelFilter返回400
+            throw e;
+        } catch (DeadlineExceededException e) {
+            logger.warn("Image generation request exceeded deadline: {}", e.getMessage());
+            completeFailedInvocation(invocation, startNanos, e);
+            sendErrorResponse(response, e.getMessage(), HttpServletResponse.SC_GATEWAY_TIMEOUT);
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid image generation request: {}", e.getMessage());
             sendErrorResponse(response, e.getMessage(), 400);
         } catch (Exception e) {
             logger.error("Error in image generation request", e);
+            completeFailedInvocation(invocation, startNanos, e);
             sendErrorResponse(response, "Failed to generate image: " + e.getMessage(), 500);
         }
     }
@@ -0,0 +1,95 @@
+package com.yonchain.ai.invokelog;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形队列（多生产者、单消费者）
+ * <p>
+ * 每个槽位带序号：生产者通过CAS领取写入位置，写入元素后发布序号；消费者按序号判断槽位是否可读，
+ * 读取后把序号推进一圈，槽位即可再次写入。请求线程入队不加锁、不分配节点对象。
+ * 容量向上取整为2的幂。
+ */
+final class InvokeLogRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    InvokeLogRingBuffer(int requestedCapacity) {
+        int capacity = requestedCapacity <= 2 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.items = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 入队
+     *
+     * @return 队列已满时返回false
+     */
+    boolean offer(E item) {
+        while (true) {
+            long index = producerIndex.get();
+            int slot = (int) (index & mask);
+            long sequence = sequences.get(slot);
+            if (sequence == index) {
+                if (producerIndex.compareAndSet(index, index + 1)) {
+                    items.lazySet(slot, item);
+                    sequences.set(slot, index + 1);
+                    return true;
+                }
+            } else if (sequence < index) {
+                // 槽位还未被消费者释放：队列已满
+                return false;
+            }
+            // 其他生产者已领取该位置，重新读取
+        }
+    }
+
+    /**
+     * 取出最多max个元素（只能由消费者线程调用）
+     *
+     * @return 取出的元素数
+     */
+    int drainTo(List<E> target, int max) {
+        long index = consumerIndex.get();
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) (index & mask);
+            if (sequences.get(slot) != index + 1) {
+                // 槽位为空，或生产者已领取但尚未发布
+                break;
+            }
+            target.add(items.get(slot));
+            items.lazySet(slot, null);
+            sequences.set(slot, index + mask + 1);
+            index++;
+            drained++;
+        }
+        if (drained > 0) {
+            consumerIndex.set(index);
+        }
+        return drained;
+    }
+
+    int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+}
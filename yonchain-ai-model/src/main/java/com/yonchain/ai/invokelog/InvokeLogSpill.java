@@ -0,0 +1,242 @@
+package com.yonchain.ai.invokelog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.invokelog.entity.ModelInvokeLogEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 调用日志溢出文件
+ * <p>
+ * 数据库不可用时，写入线程把批次以JSON Lines追加到溢出目录下的分段文件（invoke-log-{序号}.jsonl，
+ * 每段不超过8MB），数据库恢复后每次重放最早的一段并删除，避免长时间重放阻塞写入线程。
+ * 启动时已存在的分段（上次运行未重放完）同样会被重放。
+ * 溢出总大小超过上限时不再写入，调用方按丢弃计数。
+ * <p>
+ * 因数据错误被数据库拒绝的记录追加到隔离文件（rejected-invoke-log.jsonl），不参与重放，
+ * 供人工排查；隔离文件与溢出分段共用大小上限。只由写入线程访问，不需要同步。
+ */
+final class InvokeLogSpill {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvokeLogSpill.class);
+
+    private static final String PREFIX = "invoke-log-";
+    private static final String SUFFIX = ".jsonl";
+    private static final long SEGMENT_MAX_BYTES = 8L * 1024 * 1024;
+    private static final String QUARANTINE_FILE = "rejected-invoke-log.jsonl";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper;
+
+    private BufferedWriter activeWriter;
+    private Path activeSegment;
+    private long activeBytes;
+    private long sequence;
+    private long totalBytes;
+    private long quarantineBytes;
+
+    InvokeLogSpill(Path directory, long maxBytes, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.objectMapper = objectMapper;
+        for (Path segment : listSegments()) {
+            sequence = Math.max(sequence, parseSequence(segment));
+            totalBytes += sizeOf(segment);
+        }
+        if (totalBytes > 0) {
+            logger.info("Found {} bytes of spilled invoke logs in {}", totalBytes, directory);
+        }
+        quarantineBytes = sizeOf(directory.resolve(QUARANTINE_FILE));
+    }
+
+    /**
+     * 追加批次
+     *
+     * @return 超出溢出上限或写入失败时返回false
+     */
+    boolean append(List<ModelInvokeLogEntity> batch) {
+        try {
+            StringBuilder lines = new StringBuilder(batch.size() * 256);
+            for (ModelInvokeLogEntity log : batch) {
+                lines.append(objectMapper.writeValueAsString(log)).append('\n');
+            }
+            String text = lines.toString();
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (totalBytes + quarantineBytes + bytes.length > maxBytes) {
+                return false;
+            }
+            if (activeWriter == null) {
+                Files.createDirectories(directory);
+                activeSegment = directory.resolve(PREFIX + (++sequence) + SUFFIX);
+                activeWriter = Files.newBufferedWriter(activeSegment, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            activeWriter.write(text);
+            activeWriter.flush();
+            totalBytes += bytes.length;
+            activeBytes += bytes.length;
+            if (activeBytes >= SEGMENT_MAX_BYTES) {
+                closeActive();
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to spill {} invoke logs to {}", batch.size(), directory, e);
+            return false;
+        }
+    }
+
+    /**
+     * 把被数据库拒绝的记录追加到隔离文件
+     *
+     * @return 超出溢出上限或写入失败时返回false
+     */
+    boolean quarantine(ModelInvokeLogEntity log) {
+        try {
+            byte[] bytes = (objectMapper.writeValueAsString(log) + '\n').getBytes(StandardCharsets.UTF_8);
+            if (totalBytes + quarantineBytes + bytes.length > maxBytes) {
+                return false;
+            }
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(QUARANTINE_FILE), bytes,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            quarantineBytes += bytes.length;
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to quarantine invoke log {} to {}", log.getId(), directory, e);
+            return false;
+        }
+    }
+
+    boolean hasPending() {
+        return totalBytes > 0;
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 重放最早的分段，全部处理成功后删除该分段
+     *
+     * @param chunkSize 每次交给处理器的记录数
+     * @param sink      批次处理器，返回false时停止重放（如数据库再次不可用），分段保留到下次重放
+     * @return 成功重放的记录数
+     */
+    long replayOldest(int chunkSize, Predicate<List<ModelInvokeLogEntity>> sink) {
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            totalBytes = 0;
+            return 0;
+        }
+        Path segment = segments.get(0);
+        if (segment.equals(activeSegment)) {
+            closeActive();
+        }
+        long replayed = 0;
+        List<ModelInvokeLogEntity> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(objectMapper.readValue(line, ModelInvokeLogEntity.class));
+                } catch (IOException e) {
+                    // 进程中断时最后一行可能不完整
+                    logger.warn("Skipped corrupt spilled invoke log line in {}", segment.getFileName());
+                    continue;
+                }
+                if (chunk.size() >= chunkSize) {
+                    if (!sink.test(chunk)) {
+                        return replayed;
+                    }
+                    replayed += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read spilled invoke logs from {}", segment, e);
+            return replayed;
+        }
+        if (!chunk.isEmpty()) {
+            if (!sink.test(chunk)) {
+                return replayed;
+            }
+            replayed += chunk.size();
+        }
+        long size = sizeOf(segment);
+        try {
+            Files.deleteIfExists(segment);
+            totalBytes = Math.max(0, totalBytes - size);
+        } catch (IOException e) {
+            logger.error("Failed to delete replayed invoke log segment {}", segment, e);
+        }
+        return replayed;
+    }
+
+    void close() {
+        closeActive();
+    }
+
+    private void closeActive() {
+        if (activeWriter != null) {
+            try {
+                activeWriter.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close invoke log segment {}", activeSegment, e);
+            }
+            activeWriter = null;
+            activeSegment = null;
+            activeBytes = 0;
+        }
+    }
+
+    private List<Path> listSegments() {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>();
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX) && parseSequence(path) > 0;
+            }).forEach(segments::add);
+            segments.sort((a, b) -> Long.compare(parseSequence(a), parseSequence(b)));
+            return segments;
+        } catch (IOException e) {
+            logger.error("Failed to list invoke log segments in {}", directory, e);
+            return new ArrayList<>();
+        }
+    }
+
+    private static long parseSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static long sizeOf(Path segment) {
+        try {
+            return Files.size(segment);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.yonchain.ai.invokelog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.invokelog.entity.ModelInvokeLogEntity;
+import com.yonchain.ai.invokelog.mapper.ModelInvokeLogMapper;
+import com.yonchain.ai.model.ModelConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 模型调用日志异步写入器
+ * <p>
+ * 请求线程把调用日志放入有界无锁环形队列后立即返回，由后台线程批量写入model_invoke_log：
+ * - 批次达到 invoke.log.batch.size 条或最早的记录等待超过 invoke.log.flush.interval 毫秒时写入一次
+ * - 队列满时按 invoke.log.overflow.policy 处理：drop（默认）直接丢弃，block 最多等待 invoke.log.block.timeout 毫秒
+ * - 请求参数和响应数据可能包含提示词等敏感内容，默认不记录，开启 invoke.log.payload.enabled 后记录，
+ *   超过 invoke.log.payload.max.chars 个字符时替换为包含截断预览的JSON
+ * - 租户、用户、请求ID等来自请求头的字段按列长度截断
+ * - 数据库不可用时批次写入溢出文件（invoke.log.spill.dir），每 invoke.log.retry.interval 毫秒重试数据库，
+ *   恢复后重放溢出文件；溢出文件超过 invoke.log.spill.max.mb 后丢弃
+ * - 批次因数据错误（SQLState 22/23，如超长、非法字符）被拒绝时逐行重试，被拒绝的行写入隔离文件，
+ *   不进入溢出重放，也不影响数据库可用状态
+ * <p>
+ * 写入、丢弃、溢出数量和写入延迟通过getter暴露，丢弃时每分钟最多输出一次告警日志。
+ */
+public class InvokeLogWriter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvokeLogWriter.class);
+
+    public static final String ENABLED = "invoke.log.enabled";
+    public static final String BUFFER_SIZE = "invoke.log.buffer.size";
+    public static final String BATCH_SIZE = "invoke.log.batch.size";
+    public static final String FLUSH_INTERVAL_MS = "invoke.log.flush.interval";
+    public static final String OVERFLOW_POLICY = "invoke.log.overflow.policy";
+    public static final String BLOCK_TIMEOUT_MS = "invoke.log.block.timeout";
+    public static final String PAYLOAD_ENABLED = "invoke.log.payload.enabled";
+    public static final String PAYLOAD_MAX_CHARS = "invoke.log.payload.max.chars";
+    public static final String RETRY_INTERVAL_MS = "invoke.log.retry.interval";
+    public static final String SPILL_ENABLED = "invoke.log.spill.enabled";
+    public static final String SPILL_DIR = "invoke.log.spill.dir";
+    public static final String SPILL_MAX_MB = "invoke.log.spill.max.mb";
+    public static final String DEFAULT_TENANT = "invoke.log.default.tenant";
+
+    public static final String POLICY_DROP = "drop";
+    public static final String POLICY_BLOCK = "block";
+
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_ERROR = "ERROR";
+    public static final String STATUS_TIMEOUT = "TIMEOUT";
+
+    // PostgreSQL单条语句最多65535个绑定参数，每行16列
+    private static final int MAX_BATCH_SIZE = 4000;
+    private static final int ERROR_MESSAGE_MAX_CHARS = 2000;
+    // model_invoke_log列长度
+    private static final int TENANT_ID_MAX_CHARS = 64;
+    private static final int USER_ID_MAX_CHARS = 64;
+    private static final int REQUEST_ID_MAX_CHARS = 128;
+    private static final int CODE_MAX_CHARS = 100;
+    private static final int STATUS_MAX_CHARS = 32;
+    private static final long DROP_LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ModelInvokeLogMapper invokeLogMapper;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final boolean blockOnOverflow;
+    private final long blockTimeoutNanos;
+    private final boolean payloadEnabled;
+    private final int payloadMaxChars;
+    private final long retryIntervalNanos;
+    private final String defaultTenant;
+    private final InvokeLogRingBuffer<ModelInvokeLogEntity> buffer;
+    private final InvokeLogSpill spill;
+    private final Thread writerThread;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile long lagMillis;
+    private volatile long spillBytes;
+    private volatile boolean databaseAvailable = true;
+    private volatile boolean running;
+
+    // 以下字段只由写入线程访问
+    private long nextRetryNanos;
+    private long nextDropLogNanos;
+    private long reportedDropped;
+
+    public InvokeLogWriter(ModelConfiguration configuration, ModelInvokeLogMapper invokeLogMapper,
+                           ObjectMapper objectMapper) {
+        this.invokeLogMapper = invokeLogMapper;
+        this.objectMapper = objectMapper;
+        this.enabled = configuration.getBooleanProperty(ENABLED, true);
+        this.batchSize = Math.min(Math.max(configuration.getIntProperty(BATCH_SIZE, 500), 1), MAX_BATCH_SIZE);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(configuration.getLongProperty(FLUSH_INTERVAL_MS, 200L), 1L));
+        this.blockOnOverflow = POLICY_BLOCK.equalsIgnoreCase(configuration.getProperty(OVERFLOW_POLICY, POLICY_DROP));
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getLongProperty(BLOCK_TIMEOUT_MS, 50L));
+        this.payloadEnabled = configuration.getBooleanProperty(PAYLOAD_ENABLED, false);
+        this.payloadMaxChars = configuration.getIntProperty(PAYLOAD_MAX_CHARS, 4096);
+        this.retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getLongProperty(RETRY_INTERVAL_MS, 5000L));
+        this.defaultTenant = configuration.getProperty(DEFAULT_TENANT, "default");
+
+        if (!enabled) {
+            this.buffer = null;
+            this.spill = null;
+            this.writerThread = null;
+            return;
+        }
+
+        this.buffer = new InvokeLogRingBuffer<>(configuration.getIntProperty(BUFFER_SIZE, 8192));
+        if (configuration.getBooleanProperty(SPILL_ENABLED, true)) {
+            String spillDir = configuration.getProperty(SPILL_DIR, "");
+            Path directory = spillDir.isBlank()
+                    ? Paths.get(System.getProperty("java.io.tmpdir"), "yonchain", "invoke-log")
+                    : Paths.get(spillDir);
+            this.spill = new InvokeLogSpill(directory,
+                    configuration.getLongProperty(SPILL_MAX_MB, 256L) * 1024 * 1024, objectMapper);
+            this.spillBytes = spill.getTotalBytes();
+        } else {
+            this.spill = null;
+        }
+
+        this.running = true;
+        this.writerThread = new Thread(this::runWriter, "invoke-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("Invoke log writer started: buffer {}, batch {}, overflow policy {}",
+                buffer.capacity(), batchSize, blockOnOverflow ? POLICY_BLOCK : POLICY_DROP);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 提交调用日志（不等待写入）
+     * 未设置的ID、租户和创建时间在此补齐，字符串字段超过列长度时截断。
+     *
+     * @return 已入队返回true，队列满被丢弃或写入器已关闭返回false
+     */
+    public boolean submit(ModelInvokeLogEntity log) {
+        if (!enabled || !running) {
+            return false;
+        }
+        if (log.getId() == null) {
+            log.setId(UUID.randomUUID().toString());
+        }
+        if (log.getTenantId() == null) {
+            log.setTenantId(defaultTenant);
+        }
+        if (log.getCreateTime() == null) {
+            log.setCreateTime(LocalDateTime.now());
+        }
+        log.setTenantId(truncate(log.getTenantId(), TENANT_ID_MAX_CHARS));
+        log.setUserId(truncate(log.getUserId(), USER_ID_MAX_CHARS));
+        log.setRequestId(truncate(log.getRequestId(), REQUEST_ID_MAX_CHARS));
+        log.setModelCode(truncate(log.getModelCode(), CODE_MAX_CHARS));
+        log.setProviderCode(truncate(log.getProviderCode(), CODE_MAX_CHARS));
+        log.setStatus(truncate(log.getStatus(), STATUS_MAX_CHARS));
+        log.setErrorMessage(truncate(log.getErrorMessage(), ERROR_MESSAGE_MAX_CHARS));
+
+        if (offer(log)) {
+            enqueued.increment();
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writerThread);
+            }
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * 序列化请求参数或响应数据，超过 invoke.log.payload.max.chars 时替换为
+     * {"truncated": true, "length": 原长度, "preview": 前N个字符}，保证jsonb列收到合法的JSON
+     *
+     * @return JSON字符串，未开启调用日志或负载记录、无法序列化时返回null
+     */
+    public String toPayload(Object payload) {
+        if (payload == null || !enabled || !payloadEnabled || payloadMaxChars <= 0) {
+            return null;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(payload);
+            if (json.length() <= payloadMaxChars) {
+                return json;
+            }
+            Map<String, Object> truncated = new LinkedHashMap<>();
+            truncated.put("truncated", true);
+            truncated.put("length", json.length());
+            truncated.put("preview", json.substring(0, payloadMaxChars));
+            return objectMapper.writeValueAsString(truncated);
+        } catch (JsonProcessingException e) {
+            logger.debug("Failed to serialize invoke log payload: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean offer(ModelInvokeLogEntity log) {
+        if (buffer.offer(log)) {
+            return true;
+        }
+        if (!blockOnOverflow || blockTimeoutNanos <= 0) {
+            return false;
+        }
+        LockSupport.unpark(writerThread);
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() < deadline && running) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (buffer.offer(log)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runWriter() {
+        List<ModelInvokeLogEntity> batch = new ArrayList<>(batchSize);
+        long flushAt = System.nanoTime() + flushIntervalNanos;
+        while (true) {
+            boolean closing = !running;
+            buffer.drainTo(batch, batchSize - batch.size());
+            long now = System.nanoTime();
+
+            if (!batch.isEmpty() && (batch.size() >= batchSize || now - flushAt >= 0 || closing)) {
+                flush(batch, now);
+                batch = new ArrayList<>(batchSize);
+                flushAt = now + flushIntervalNanos;
+                continue;
+            }
+            if (closing && batch.isEmpty() && buffer.isEmpty()) {
+                break;
+            }
+            if (batch.isEmpty()) {
+                flushAt = now + flushIntervalNanos;
+                replaySpill(now);
+            }
+            reportDrops(now);
+            LockSupport.parkNanos(Math.max(flushAt - now, TimeUnit.MICROSECONDS.toNanos(100)));
+        }
+        if (spill != null) {
+            spill.close();
+        }
+    }
+
+    private void flush(List<ModelInvokeLogEntity> batch, long now) {
+        ModelInvokeLogEntity oldest = batch.get(0);
+        lagMillis = Math.max(0, System.currentTimeMillis()
+                - oldest.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+        if (databaseAvailable || now - nextRetryNanos >= 0) {
+            int count = insert(batch);
+            if (count >= 0) {
+                written.add(count);
+                return;
+            }
+        }
+        if (spill != null && spill.append(batch)) {
+            spilled.add(batch.size());
+            spillBytes = spill.getTotalBytes();
+        } else {
+            dropped.add(batch.size());
+        }
+    }
+
+    /**
+     * 数据库可用时每次空闲重放一个溢出分段
+     */
+    private void replaySpill(long now) {
+        if (spill == null || !spill.hasPending() || !(databaseAvailable || now - nextRetryNanos >= 0)) {
+            return;
+        }
+        long count = spill.replayOldest(batchSize, logs -> insert(logs) >= 0);
+        if (count > 0) {
+            replayed.add(count);
+            logger.info("Replayed {} spilled invoke logs, {} bytes remaining", count, spill.getTotalBytes());
+        }
+        spillBytes = spill.getTotalBytes();
+    }
+
+    /**
+     * 写入批次，数据错误时逐行重试并隔离被拒绝的行
+     *
+     * @return 写入的行数，数据库不可用时返回-1（调用方溢出整个批次，重放时按ID去重）
+     */
+    private int insert(List<ModelInvokeLogEntity> batch) {
+        try {
+            invokeLogMapper.batchInsert(batch);
+            markAvailable();
+            return batch.size();
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            if (!isDataError(e)) {
+                markUnavailable(batch.size(), e);
+                return -1;
+            }
+            logger.warn("Invoke log batch of {} rejected by the database, retrying row by row: {}",
+                    batch.size(), e.getMessage());
+        }
+
+        int count = 0;
+        for (ModelInvokeLogEntity log : batch) {
+            try {
+                invokeLogMapper.batchInsert(List.of(log));
+                count++;
+            } catch (RuntimeException e) {
+                if (!isDataError(e)) {
+                    markUnavailable(batch.size(), e);
+                    return -1;
+                }
+                quarantine(log, e);
+            }
+        }
+        markAvailable();
+        return count;
+    }
+
+    private void quarantine(ModelInvokeLogEntity log, RuntimeException e) {
+        rejected.increment();
+        boolean kept = spill != null && spill.quarantine(log);
+        logger.warn("Rejected invoke log {} (tenant {}, request {}){}: {}", log.getId(), log.getTenantId(),
+                log.getRequestId(), kept ? ", moved to quarantine" : "", e.getMessage());
+    }
+
+    private void markAvailable() {
+        if (!databaseAvailable) {
+            databaseAvailable = true;
+            logger.info("Invoke log database writes recovered");
+        }
+    }
+
+    private void markUnavailable(int size, RuntimeException e) {
+        nextRetryNanos = System.nanoTime() + retryIntervalNanos;
+        if (databaseAvailable) {
+            databaseAvailable = false;
+            logger.warn("Failed to write {} invoke logs, spilling to disk until the database recovers: {}",
+                    size, e.getMessage());
+        }
+    }
+
+    /**
+     * 是否为数据本身的错误（SQLState 22数据异常、23约束冲突），重试不会成功，与连接错误区分处理
+     */
+    public static boolean isDataError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                String state = sqlException.getSQLState();
+                return state.startsWith("22") || state.startsWith("23");
+            }
+        }
+        return false;
+    }
+
+    private static String truncate(String value, int maxChars) {
+        return value != null && value.length() > maxChars ? value.substring(0, maxChars) : value;
+    }
+
+    private void reportDrops(long now) {
+        long total = dropped.sum();
+        if (total > reportedDropped && now - nextDropLogNanos >= 0) {
+            logger.warn("Dropped {} invoke logs (total {}), pending {}, spilled bytes {}",
+                    total - reportedDropped, total, buffer.size(), spillBytes);
+            reportedDropped = total;
+            nextDropLogNanos = now + DROP_LOG_INTERVAL_NANOS;
+        }
+    }
+
+    /**
+     * 停止接收新日志，写完队列中剩余的日志（数据库不可用时写入溢出文件）
+     */
+    @Override
+    public void close() {
+        if (writerThread == null || !running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Invoke log writer stopped: written {}, spilled {}, dropped {}",
+                written.sum(), spilled.sum(), dropped.sum());
+    }
+
+    /**
+     * 已入队的日志数
+     */
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    /**
+     * 已写入数据库的日志数（不含重放）
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * 因队列满或溢出文件超限丢弃的日志数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 写入溢出文件的日志数
+     */
+    public long getSpilledCount() {
+        return spilled.sum();
+    }
+
+    /**
+     * 从溢出文件重放到数据库的日志数
+     */
+    public long getReplayedCount() {
+        return replayed.sum();
+    }
+
+    /**
+     * 数据库写入失败的批次数
+     */
+    public long getFailedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * 因数据错误被数据库拒绝并隔离的日志数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 队列中等待写入的日志数
+     */
+    public int getPendingCount() {
+        return enabled ? buffer.size() : 0;
+    }
+
+    /**
+     * 最近一个批次中最早的日志从创建到写入的延迟（毫秒）
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    /**
+     * 溢出文件总大小（字节）
+     */
+    public long getSpillBytes() {
+        return spillBytes;
+    }
+
+    public boolean isDatabaseAvailable() {
+        return databaseAvailable;
+    }
+}
@@ -0,0 +1,96 @@
+package com.yonchain.ai.invokelog.entity;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 模型调用日志实体类
+ * 对应数据库表：model_invoke_log
+ */
+@Data
+@Accessors(chain = true)
+public class ModelInvokeLogEntity {
+
+    /**
+     * 主键ID，入队时生成，重放溢出文件时用于去重
+     */
+    private String id;
+
+    /**
+     * 租户ID
+     */
+    private String tenantId;
+
+    /**
+     * 模型代码
+     */
+    private String modelCode;
+
+    /**
+     * 提供商代码
+     */
+    private String providerCode;
+
+    /**
+     * 请求ID
+     */
+    private String requestId;
+
+    /**
+     * 用户ID
+     */
+    private String userId;
+
+    /**
+     * 请求参数，JSON格式（超长时截断）
+     */
+    private String requestParams;
+
+    /**
+     * 响应数据，JSON格式（超长时截断）
+     */
+    private String responseData;
+
+    /**
+     * 输入Token数
+     */
+    private Integer promptTokens;
+
+    /**
+     * 输出Token数
+     */
+    private Integer completionTokens;
+
+    /**
+     * 总Token数
+     */
+    private Integer totalTokens;
+
+    /**
+     * 费用（基准币种）
+     */
+    private BigDecimal cost;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private Integer duration;
+
+    /**
+     * 调用状态：SUCCESS、ERROR、TIMEOUT
+     */
+    private String status;
+
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
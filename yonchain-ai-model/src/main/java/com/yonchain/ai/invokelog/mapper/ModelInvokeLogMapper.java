@@ -0,0 +1,22 @@
+package com.yonchain.ai.invokelog.mapper;
+
+import com.yonchain.ai.invokelog.entity.ModelInvokeLogEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 模型调用日志Mapper接口
+ */
+@Mapper
+public interface ModelInvokeLogMapper {
+
+    /**
+     * 批量插入调用日志，ID已存在的记录忽略（溢出文件重放可能重复写入）
+     *
+     * @param logs 调用日志列表
+     * @return 插入行数
+     */
+    int batchInsert(@Param("logs") List<ModelInvokeLogEntity> logs);
+}
@@ -0,0 +1,20 @@
+package com.yonchain.ai.jfr;
+
+import com.yonchain.ai.model.ModelClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JFR配置类
+ */
+@Configuration
+public class JfrConfiguration {
+
+    /**
+     * 管理端JFR记录管理器，应用关闭时关闭未导出的记录
+     */
+    @Bean(destroyMethod = "close")
+    public JfrRecordingManager jfrRecordingManager(ModelClient modelClient) {
+        return new JfrRecordingManager(modelClient.getConfiguration());
+    }
+}
@@ -0,0 +1,194 @@
+package com.yonchain.ai.jfr;
+
+import com.yonchain.ai.api.exception.YonchainException;
+import com.yonchain.ai.model.ModelConfiguration;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * JFR记录管理器
+ * <p>
+ * 管理端按需开启一个JFR记录（JDK内置的default或profile配置，外加网关的模型调用和插件事件），
+ * 到达时长后自动停止；导出时把记录写入 jfr.dump.dir 下的.jfr文件，只保留最近 jfr.dump.keep 个文件。
+ * 同一时间只允许一个管理端记录。
+ * <p>
+ * 记录会被下载到进程之外，因此关闭了会带出环境变量、系统属性和JVM启动参数的事件，避免其中的密钥随.jfr文件泄露。
+ */
+public class JfrRecordingManager implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingManager.class);
+
+    public static final String DUMP_DIR = "jfr.dump.dir";
+    public static final String DUMP_KEEP = "jfr.dump.keep";
+    public static final String MAX_DURATION_SECONDS = "jfr.max.duration.seconds";
+
+    private static final String RECORDING_NAME = "yonchain-admin";
+    private static final String FILE_PREFIX = "yonchain-";
+    private static final String FILE_SUFFIX = ".jfr";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /**
+     * 网关自定义事件，插件事件定义在插件模块，按名称开启
+     */
+    private static final List<String> GATEWAY_EVENTS = List.of(
+            ModelInvocationEvent.NAME,
+            ModelCreationEvent.NAME,
+            "com.yonchain.ai.PluginClassLoad",
+            "com.yonchain.ai.PluginEnable");
+
+    /**
+     * 可能包含密钥的JDK事件，无论使用哪个配置都关闭
+     */
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation");
+
+    private final Path dumpDir;
+    private final int dumpKeep;
+    private final Duration maxDuration;
+    private Recording recording;
+
+    public JfrRecordingManager(ModelConfiguration configuration) {
+        this.dumpDir = Paths.get(configuration.getProperty(DUMP_DIR,
+                Paths.get(System.getProperty("java.io.tmpdir"), "yonchain-jfr").toString()));
+        this.dumpKeep = Math.max(configuration.getIntProperty(DUMP_KEEP, 5), 1);
+        this.maxDuration = Duration.ofSeconds(Math.max(configuration.getLongProperty(MAX_DURATION_SECONDS, 3600L), 1L));
+    }
+
+    /**
+     * 开始记录
+     *
+     * @param duration 记录时长，为null或超过 jfr.max.duration.seconds 时使用上限
+     * @param settings JFR配置名称（default：开销约1%；profile：约2%，包含更多采样），为空时使用profile
+     * @return 记录状态
+     */
+    public synchronized RecordingStatus start(Duration duration, String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new YonchainException("JFR recording is already running");
+        }
+        closeRecording();
+
+        String configName = settings == null || settings.isBlank() ? "profile" : settings;
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(configName);
+        } catch (IOException | ParseException e) {
+            throw new YonchainException("Unknown JFR settings: " + configName, e);
+        }
+        Duration effective = duration == null || duration.isNegative() || duration.isZero()
+                || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+
+        Recording newRecording = new Recording(configuration);
+        newRecording.setName(RECORDING_NAME);
+        newRecording.setToDisk(true);
+        newRecording.setDuration(effective);
+        for (String event : GATEWAY_EVENTS) {
+            newRecording.enable(event);
+        }
+        for (String event : SENSITIVE_EVENTS) {
+            newRecording.disable(event);
+        }
+        newRecording.start();
+        recording = newRecording;
+        logger.info("Started JFR recording with {} settings for {}", configName, effective);
+        return getStatus();
+    }
+
+    /**
+     * 导出当前记录（运行中或已到时停止的记录均可导出）
+     *
+     * @return 导出的.jfr文件
+     */
+    public synchronized Path dump() {
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            throw new YonchainException("No JFR recording to dump");
+        }
+        try {
+            Files.createDirectories(dumpDir);
+            Path file = dumpDir.resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_TIME) + FILE_SUFFIX);
+            recording.dump(file);
+            logger.info("Dumped JFR recording to {}", file);
+            pruneDumps();
+            return file;
+        } catch (IOException e) {
+            throw new YonchainException("Failed to dump JFR recording: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 停止并丢弃当前记录
+     */
+    public synchronized RecordingStatus stop() {
+        closeRecording();
+        return getStatus();
+    }
+
+    /**
+     * 获取当前记录状态
+     */
+    public synchronized RecordingStatus getStatus() {
+        if (recording == null) {
+            return new RecordingStatus(RecordingState.CLOSED.name(), null, null, null, 0);
+        }
+        return new RecordingStatus(recording.getState().name(), recording.getStartTime(),
+                recording.getDuration(), recording.getStopTime(), recording.getSize());
+    }
+
+    @Override
+    public synchronized void close() {
+        closeRecording();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * 只保留最近的导出文件
+     */
+    private void pruneDumps() throws IOException {
+        try (Stream<Path> files = Files.list(dumpDir)) {
+            List<Path> dumps = files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+            for (int i = 0; i < dumps.size() - dumpKeep; i++) {
+                Files.deleteIfExists(dumps.get(i));
+            }
+        }
+    }
+
+    /**
+     * 记录状态
+     *
+     * @param state     NEW、DELAYED、RUNNING、STOPPED或CLOSED
+     * @param startTime 开始时间
+     * @param duration  记录时长
+     * @param stopTime  停止时间，运行中为按时长计划的停止时间
+     * @param size      已写入磁盘的大小（字节）
+     */
+    public record RecordingStatus(String state, Instant startTime, Duration duration, Instant stopTime, long size) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.yonchain.ai.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 模型实例创建JFR事件
+ * <p>
+ * 由PluginModelFactory在模型实例首次使用时记录，事件时长为配置转换和插件创建模型的耗时
+ */
+@Name(ModelCreationEvent.NAME)
+@Label("Model Creation")
+@Category({"Yonchain", "Model"})
+@Description("Model instance created by a plugin provider")
+@StackTrace(false)
+public class ModelCreationEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.yonchain.ai.ModelCreation";
+
+    @Label("Provider")
+    public String provider;
+
+    @Label("Model")
+    public String model;
+
+    @Label("Model Type")
+    public String modelType;
+
+    @Label("Error")
+    public String error;
+
+    /**
+     * 开始记录一次模型创建
+     */
+    public static ModelCreationEvent start(String provider, String model, String modelType) {
+        ModelCreationEvent event = new ModelCreationEvent();
+        if (event.isEnabled()) {
+            event.provider = provider;
+            event.model = model;
+            event.modelType = modelType;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * 结束并提交事件
+     *
+     * @param failure 创建异常，成功时为null
+     */
+    public void finish(Throwable failure) {
+        if (shouldCommit()) {
+            if (failure != null) {
+                error = failure.getClass().getSimpleName();
+            }
+            commit();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.yonchain.ai.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * 模型调用JFR事件
+ * <p>
+ * 由DefaultModelClient在每次上游调用时记录，事件时长为调用开始到结束（流式为订阅到流结束），
+ * 可与同一时间段的GC、锁竞争和线程事件关联到具体模型。未开启记录时各记录方法只有一次isEnabled判断。
+ * <p>
+ * 流式调用的分块在Reactor线程上串行回调，事件字段不需要同步。
+ */
+@Name(ModelInvocationEvent.NAME)
+@Label("Model Invocation")
+@Category({"Yonchain", "Model"})
+@Description("Upstream model call made by the gateway")
+@StackTrace(false)
+public class ModelInvocationEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.yonchain.ai.ModelInvocation";
+
+    @Label("Model")
+    public String model;
+
+    @Label("Operation")
+    @Description("chat, chat_stream, embedding or image")
+    public String operation;
+
+    @Label("Tenant")
+    public String tenant;
+
+    @Label("Request Size")
+    @DataAmount
+    public long requestBytes;
+
+    @Label("Response Size")
+    @Description("UTF-8 size of generated text, or vector size for embeddings")
+    @DataAmount
+    public long responseBytes;
+
+    @Label("Prompt Tokens")
+    public long promptTokens;
+
+    @Label("Completion Tokens")
+    public long completionTokens;
+
+    @Label("Chunks")
+    public int chunks;
+
+    @Label("Time to First Token")
+    @Timespan(Timespan.NANOSECONDS)
+    public long timeToFirstToken;
+
+    @Label("Error")
+    public String error;
+
+    /**
+     * 开始记录一次调用
+     */
+    public static ModelInvocationEvent start(String model, String operation, String tenant, long requestBytes) {
+        ModelInvocationEvent event = new ModelInvocationEvent();
+        if (event.isEnabled()) {
+            event.model = model;
+            event.operation = operation;
+            event.tenant = tenant;
+            event.requestBytes = requestBytes;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * 记录聊天响应（同步响应或流式分块）的输出大小和Token用量
+     */
+    public void onResponse(ChatResponse response) {
+        if (!isEnabled() || response == null) {
+            return;
+        }
+        for (Generation generation : response.getResults()) {
+            if (generation.getOutput() != null && generation.getOutput().getText() != null) {
+                responseBytes += utf8Length(generation.getOutput().getText());
+            }
+        }
+        if (response.getMetadata() != null) {
+            Usage usage = response.getMetadata().getUsage();
+            if (usage != null) {
+                if (usage.getPromptTokens() != null && usage.getPromptTokens() > 0) {
+                    promptTokens = usage.getPromptTokens();
+                }
+                if (usage.getCompletionTokens() != null && usage.getCompletionTokens() > 0) {
+                    completionTokens = usage.getCompletionTokens();
+                }
+            }
+        }
+    }
+
+    /**
+     * 记录流式分块，首个分块记录首Token延迟
+     *
+     * @param startNanos 订阅上游的时间（System.nanoTime）
+     */
+    public void onChunk(ChatResponse chunk, long startNanos) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (chunks++ == 0) {
+            timeToFirstToken = System.nanoTime() - startNanos;
+        }
+        onResponse(chunk);
+    }
+
+    /**
+     * 记录向量响应的大小和Token用量
+     */
+    public void onResponse(EmbeddingResponse response) {
+        if (!isEnabled() || response == null) {
+            return;
+        }
+        for (Embedding embedding : response.getResults()) {
+            responseBytes += (long) embedding.getOutput().length * Float.BYTES;
+        }
+        if (response.getMetadata() != null && response.getMetadata().getUsage() != null
+                && response.getMetadata().getUsage().getPromptTokens() != null) {
+            promptTokens = response.getMetadata().getUsage().getPromptTokens();
+        }
+    }
+
+    /**
+     * 结束并提交事件
+     *
+     * @param failure 调用异常，成功时为null
+     */
+    public void finish(Throwable failure) {
+        if (shouldCommit()) {
+            if (failure != null && error == null) {
+                error = failure.getClass().getSimpleName();
+            }
+            commit();
+        }
+    }
+
+    private static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
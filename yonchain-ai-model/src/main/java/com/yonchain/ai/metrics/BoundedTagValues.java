@@ -0,0 +1,50 @@
+package com.yonchain.ai.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 有上限的指标标签值
+ * <p>
+ * 先出现的前N个取值原样作为标签，之后出现的新取值统一归为"other"，
+ * 避免租户、模型等开放取值的标签让指标时间序列无限增长。并发首次登记时可能略超上限。
+ */
+final class BoundedTagValues {
+
+    static final String OVERFLOW = "other";
+    static final String UNKNOWN = "unknown";
+
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    private final int maxValues;
+    private final Set<String> values = ConcurrentHashMap.newKeySet();
+
+    BoundedTagValues(int maxValues) {
+        this.maxValues = Math.max(maxValues, 0);
+    }
+
+    /**
+     * 转换为可用作标签的取值
+     *
+     * @param value 原始取值，为空时返回"unknown"
+     * @return 已登记或未超上限时返回原值（超长时截断），否则返回"other"
+     */
+    String bound(String value) {
+        if (value == null || value.isEmpty()) {
+            return UNKNOWN;
+        }
+        String tag = value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) : value;
+        if (values.contains(tag)) {
+            return tag;
+        }
+        if (values.size() < maxValues) {
+            values.add(tag);
+            return tag;
+        }
+        return OVERFLOW;
+    }
+
+    int size() {
+        return values.size();
+    }
+}
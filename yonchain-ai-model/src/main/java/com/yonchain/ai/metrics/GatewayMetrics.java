@@ -0,0 +1,348 @@
+package com.yonchain.ai.metrics;
+
+import com.yonchain.ai.filter.AdmissionController;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.model.DefaultModelClient;
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.model.deadline.DeadlineExceededException;
+import com.yonchain.ai.usage.rollup.UsageRollupAggregator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 模型网关指标
+ * <p>
+ * 请求结束时记录延迟、Token数和错误，流式请求额外记录首Token延迟、Token间隔和输出速度，
+ * 标签为 namespace、model、tenant、status、mode（stream/sync）。租户和模型标签分别最多保留
+ * metrics.max.tenant.tags 和 metrics.max.model.tags 个取值，超出的归为"other"；Token间隔和输出速度
+ * 按每个分块记录，不带租户标签。准入控制、调用日志、用量汇总和模型实例缓存的状态以函数计数器和仪表绑定。
+ * <p>
+ * 计时器、计数器按标签组合缓存，请求路径上不重复构建和注册。分位数直方图（metrics.histogram.enabled）
+ * 默认关闭：每个带租户标签的计时器会增加约70个桶序列，开启前应收紧 metrics.max.tenant.tags。
+ * <p>
+ * enable.metrics 为false或没有MeterRegistry时所有记录方法直接返回。
+ */
+public class GatewayMetrics {
+
+    public static final String ENABLED = "enable.metrics";
+    public static final String MAX_TENANT_TAGS = "metrics.max.tenant.tags";
+    public static final String MAX_MODEL_TAGS = "metrics.max.model.tags";
+    public static final String HISTOGRAM_ENABLED = "metrics.histogram.enabled";
+
+    public static final String MODE_STREAM = "stream";
+    public static final String MODE_SYNC = "sync";
+
+    private static final String PREFIX = "yonchain.model.";
+    private static final int MAX_NAMESPACE_TAGS = 50;
+    private static final int MAX_ERROR_TAGS = 50;
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final boolean histogram;
+    private final BoundedTagValues tenants;
+    private final BoundedTagValues models;
+    private final BoundedTagValues namespaces = new BoundedTagValues(MAX_NAMESPACE_TAGS);
+    private final BoundedTagValues errorClasses = new BoundedTagValues(MAX_ERROR_TAGS);
+    // 指标名和标签值 -> 已注册的指标；标签取值都有上限，缓存大小有界
+    private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<List<String>, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<List<String>, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry 指标注册表，为null时不记录指标
+     */
+    public GatewayMetrics(ModelConfiguration configuration, MeterRegistry registry) {
+        this.registry = registry;
+        this.enabled = registry != null && configuration.getBooleanProperty(ENABLED, true);
+        this.histogram = configuration.getBooleanProperty(HISTOGRAM_ENABLED, false);
+        this.tenants = new BoundedTagValues(configuration.getIntProperty(MAX_TENANT_TAGS, 100));
+        this.models = new BoundedTagValues(configuration.getIntProperty(MAX_MODEL_TAGS, 200));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录请求结束
+     *
+     * @param status        调用状态（InvokeLogWriter.STATUS_*）
+     * @param mode          stream或sync
+     * @param durationNanos 请求耗时
+     */
+    public void recordRequest(String namespace, String model, String tenant, String status, String mode,
+                              long durationNanos) {
+        if (!enabled) {
+            return;
+        }
+        String namespaceTag = namespaces.bound(namespace);
+        String modelTag = models.bound(model);
+        String tenantTag = tenants.bound(tenant);
+        String statusTag = statusTag(status);
+        timers.computeIfAbsent(List.of("requests", namespaceTag, modelTag, tenantTag, statusTag, mode),
+                        key -> Timer.builder(PREFIX + "requests")
+                                .description("Model request latency")
+                                .tags("namespace", namespaceTag, "model", modelTag, "tenant", tenantTag,
+                                        "status", statusTag, "mode", mode)
+                                .publishPercentileHistogram(histogram)
+                                .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录Token用量
+     */
+    public void recordTokens(String namespace, String model, String tenant, long promptTokens,
+                             long completionTokens) {
+        if (!enabled) {
+            return;
+        }
+        String namespaceTag = namespaces.bound(namespace);
+        String modelTag = models.bound(model);
+        String tenantTag = tenants.bound(tenant);
+        if (promptTokens > 0) {
+            tokenCounter(namespaceTag, modelTag, tenantTag, "prompt").increment(promptTokens);
+        }
+        if (completionTokens > 0) {
+            tokenCounter(namespaceTag, modelTag, tenantTag, "completion").increment(completionTokens);
+        }
+    }
+
+    /**
+     * 记录输出速度（Token/秒）
+     *
+     * @param completionTokens 输出Token数
+     * @param generationNanos  生成耗时：流式请求为首Token到结束，同步请求为整个请求
+     */
+    public void recordTokensPerSecond(String namespace, String model, String mode, long completionTokens,
+                                      long generationNanos) {
+        if (!enabled || completionTokens <= 0 || generationNanos <= 0) {
+            return;
+        }
+        String namespaceTag = namespaces.bound(namespace);
+        String modelTag = models.bound(model);
+        summaries.computeIfAbsent(List.of("tokens.per.second", namespaceTag, modelTag, mode),
+                        key -> DistributionSummary.builder(PREFIX + "tokens.per.second")
+                                .description("Completion tokens generated per second")
+                                .baseUnit("tokens")
+                                .tags("namespace", namespaceTag, "model", modelTag, "mode", mode)
+                                .publishPercentileHistogram(histogram)
+                                .register(registry))
+                .record(completionTokens * 1e9 / generationNanos);
+    }
+
+    /**
+     * 记录首Token延迟（流式请求）
+     */
+    public void recordFirstToken(String namespace, String model, String tenant, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        String namespaceTag = namespaces.bound(namespace);
+        String modelTag = models.bound(model);
+        String tenantTag = tenants.bound(tenant);
+        timers.computeIfAbsent(List.of("time.to.first.token", namespaceTag, modelTag, tenantTag),
+                        key -> Timer.builder(PREFIX + "time.to.first.token")
+                                .description("Time from upstream call to first streamed chunk")
+                                .tags("namespace", namespaceTag, "model", modelTag, "tenant", tenantTag)
+                                .publishPercentileHistogram(histogram)
+                                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取Token间隔计时器（流式请求开始时获取一次，每个分块记录一次）
+     *
+     * @return 计时器，未开启指标时返回null
+     */
+    public Timer interTokenTimer(String namespace, String model) {
+        if (!enabled) {
+            return null;
+        }
+        String namespaceTag = namespaces.bound(namespace);
+        String modelTag = models.bound(model);
+        return timers.computeIfAbsent(List.of("inter.token.latency", namespaceTag, modelTag),
+                key -> Timer.builder(PREFIX + "inter.token.latency")
+                        .description("Interval between consecutive streamed chunks")
+                        .tags("namespace", namespaceTag, "model", modelTag)
+                        .publishPercentileHistogram(histogram)
+                        .register(registry));
+    }
+
+    /**
+     * 记录上游错误
+     */
+    public void recordError(String namespace, String model, Throwable error) {
+        if (!enabled || error == null) {
+            return;
+        }
+        String namespaceTag = namespaces.bound(namespace);
+        String modelTag = models.bound(model);
+        String errorTag = classifyError(error);
+        counters.computeIfAbsent(List.of("errors", namespaceTag, modelTag, errorTag),
+                        key -> Counter.builder(PREFIX + "errors")
+                                .description("Upstream model errors by class")
+                                .tags("namespace", namespaceTag, "model", modelTag, "error", errorTag)
+                                .register(registry))
+                .increment();
+    }
+
+    /**
+     * 记录异步任务的排队等待时间
+     *
+     * @param queue 队列名称，如chat_stream
+     */
+    public void recordQueueWait(String queue, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        timers.computeIfAbsent(List.of("queue.wait", queue),
+                        key -> Timer.builder(PREFIX + "queue.wait")
+                                .description("Time tasks wait before execution")
+                                .tags("queue", queue)
+                                .publishPercentileHistogram(histogram)
+                                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 绑定准入控制状态
+     */
+    public void bindAdmission(AdmissionController admission) {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("yonchain.admission.inflight", admission, AdmissionController::getInFlight)
+                .description("Admitted requests in flight")
+                .register(registry);
+        Gauge.builder("yonchain.admission.queue.depth", admission, AdmissionController::getQueueDepth)
+                .description("Queued asynchronous stream tasks")
+                .register(registry);
+        Gauge.builder("yonchain.admission.pressure", admission, AdmissionController::getPressure)
+                .description("Gateway load pressure, requests are shed at >= 1")
+                .register(registry);
+        FunctionCounter.builder("yonchain.admission.rejected", admission, AdmissionController::getRejectedCount)
+                .description("Requests rejected by admission control")
+                .register(registry);
+    }
+
+    /**
+     * 绑定调用日志写入器状态
+     */
+    public void bindInvokeLog(InvokeLogWriter writer) {
+        if (!enabled || !writer.isEnabled()) {
+            return;
+        }
+        invokeLogCounter(writer, "written", InvokeLogWriter::getWrittenCount);
+        invokeLogCounter(writer, "dropped", InvokeLogWriter::getDroppedCount);
+        invokeLogCounter(writer, "spilled", InvokeLogWriter::getSpilledCount);
+        invokeLogCounter(writer, "replayed", InvokeLogWriter::getReplayedCount);
+        invokeLogCounter(writer, "rejected", InvokeLogWriter::getRejectedCount);
+        FunctionCounter.builder("yonchain.invoke.log.failed.batches", writer, InvokeLogWriter::getFailedBatchCount)
+                .register(registry);
+        Gauge.builder("yonchain.invoke.log.pending", writer, InvokeLogWriter::getPendingCount)
+                .register(registry);
+        Gauge.builder("yonchain.invoke.log.lag", writer, InvokeLogWriter::getLagMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("yonchain.invoke.log.spill.size", writer, InvokeLogWriter::getSpillBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * 绑定用量汇总器状态
+     */
+    public void bindUsageRollup(UsageRollupAggregator aggregator) {
+        if (!enabled || !aggregator.isEnabled()) {
+            return;
+        }
+        FunctionCounter.builder("yonchain.usage.rollup.flushed", aggregator,
+                        UsageRollupAggregator::getFlushedRowCount)
+                .register(registry);
+        FunctionCounter.builder("yonchain.usage.rollup.dropped", aggregator,
+                        UsageRollupAggregator::getDroppedRowCount)
+                .register(registry);
+        FunctionCounter.builder("yonchain.usage.rollup.rejected", aggregator,
+                        UsageRollupAggregator::getRejectedRowCount)
+                .register(registry);
+        Gauge.builder("yonchain.usage.rollup.pending", aggregator, UsageRollupAggregator::getPendingCellCount)
+                .register(registry);
+    }
+
+    /**
+     * 绑定模型实例缓存命中情况和缓存大小
+     */
+    public void bindModelCache(DefaultModelClient modelClient) {
+        if (!enabled) {
+            return;
+        }
+        FunctionCounter.builder(PREFIX + "cache", modelClient, DefaultModelClient::getModelCacheHitCount)
+                .description("Model instance cache lookups")
+                .tags("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "cache", modelClient, DefaultModelClient::getModelCacheMissCount)
+                .description("Model instance cache lookups")
+                .tags("result", "miss")
+                .register(registry);
+        Gauge.builder(PREFIX + "cache.size", modelClient, DefaultModelClient::getModelCacheSize)
+                .description("Cached model instances")
+                .register(registry);
+    }
+
+    private Counter tokenCounter(String namespace, String model, String tenant, String type) {
+        return counters.computeIfAbsent(List.of("tokens", namespace, model, tenant, type),
+                key -> Counter.builder(PREFIX + "tokens")
+                        .description("Tokens consumed")
+                        .baseUnit("tokens")
+                        .tags("namespace", namespace, "model", model, "tenant", tenant, "type", type)
+                        .register(registry));
+    }
+
+    private void invokeLogCounter(InvokeLogWriter writer, String name,
+                                  ToDoubleFunction<InvokeLogWriter> count) {
+        FunctionCounter.builder("yonchain.invoke.log." + name, writer, count)
+                .register(registry);
+    }
+
+    private static String statusTag(String status) {
+        return status != null ? status.toLowerCase() : BoundedTagValues.UNKNOWN;
+    }
+
+    /**
+     * 错误分类：超时、限流、上游4xx/5xx、网络错误，其余按异常类名（有上限）
+     */
+    private String classifyError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException) {
+                return "timeout";
+            }
+            if (cause instanceof RestClientResponseException responseException) {
+                int status = responseException.getStatusCode().value();
+                if (status == 429) {
+                    return "rate_limited";
+                }
+                return status >= 500 ? "server_error" : "client_error";
+            }
+            if (cause instanceof IOException) {
+                return "io";
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return errorClasses.bound(error.getClass().getSimpleName());
+    }
+}
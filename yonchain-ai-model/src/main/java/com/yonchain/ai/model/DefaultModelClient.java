@@ -1,12 +1,19 @@
 package com.yonchain.ai.model;
 
 import com.yonchain.ai.api.exception.YonchainException;
+import com.yonchain.ai.jfr.ModelInvocationEvent;
+import com.yonchain.ai.model.deadline.Deadline;
+import com.yonchain.ai.model.deadline.DeadlineExceededException;
 import com.yonchain.ai.model.definition.ModelDefinition;
+import com.yonchain.ai.model.definition.ModelTimeouts;
 import com.yonchain.ai.model.options.ModelOptionsHandler;
 import com.yonchain.ai.model.request.ChatRequest;
 import com.yonchain.ai.model.request.EmbeddingRequest;
 import com.yonchain.ai.model.request.ImageRequest;
 import com.yonchain.ai.model.util.ModelIdParser;
+import com.yonchain.ai.tracing.ModelObservations;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.ChatOptions;
@@ -16,20 +23,37 @@ import org.springframework.ai.embedding.EmbeddingResponse;
 import org.springframework.ai.image.ImageModel;
 import org.springframework.ai.image.ImageResponse;
 import org.springframework.ai.model.Model;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
 
 /**
  * 默认的ModelClient实现
  */
 public class DefaultModelClient implements ModelClient {
     
+    // 同步上游调用在虚拟线程上执行，截止时间到达时中断调用线程以取消HTTP请求和重试等待
+    private static final Scheduler UPSTREAM_SCHEDULER =
+            Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "model-upstream");
+    
     private final ModelConfiguration configuration;
     
     // 模型实例缓存
-    private final ConcurrentHashMap<String, Model<?, ?>> modelCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedModel> modelCache = new ConcurrentHashMap<>();
+    private final LongAdder modelCacheHits = new LongAdder();
+    private final LongAdder modelCacheMisses = new LongAdder();
+    private volatile long modelCacheFactoryVersion;
     
     public DefaultModelClient(ModelConfiguration configuration) {
         this.configuration = configuration;
@@ -37,38 +61,119 @@ public class DefaultModelClient implements ModelClient {
     
     @Override
     public ChatResponse chat(String modelId, ChatRequest request) {
-        ChatModel chatModel = getChatModel(modelId);
-        
-        // 处理运行时模型选项
-        ChatOptions runtimeOptions = buildRuntimeOptions(modelId, request);
+        Deadline deadline = resolveDeadline(modelId, request.getDeadline());
+        CachedModel lease = acquireModel(modelId, "chat", ModelFactory::createChatModel);
+        try {
+            ChatModel chatModel = (ChatModel) lease.model();
+            
+            // 处理运行时模型选项
+            ChatOptions runtimeOptions = buildRuntimeOptions(modelId, request);
 
-        Prompt prompt = request.toPrompt(runtimeOptions);
+            Prompt prompt = request.toPrompt(runtimeOptions);
 
-        return chatModel.call(prompt);
+            ModelInvocationEvent event = ModelInvocationEvent.start(modelId, "chat", request.getTenantId(),
+                    request.getRequestBytes());
+            return callWithDeadline(modelId, "chat", deadline, event, () -> {
+                ChatResponse response = chatModel.call(prompt);
+                event.onResponse(response);
+                return response;
+            });
+        } finally {
+            lease.generation().release();
+        }
     }
     
     @Override
     public Flux<ChatResponse> chatStream(String modelId, ChatRequest request) {
-        ChatModel chatModel = getChatModel(modelId);
+        ModelTimeouts timeouts = getTimeouts(modelId);
+        Deadline deadline = Deadline.earliest(request.getDeadline(), Deadline.after(timeouts.getStreamTimeout()));
+        deadline.checkNotExpired("stream call to " + modelId);
+        // 提前校验模型和工厂，订阅时再占用当前一代的工厂（未订阅的流不会阻塞插件升级时的排空）
+        getCachedModel(modelId, "chat", ModelFactory::createChatModel);
         
         // 处理运行时模型选项
         ChatOptions runtimeOptions = buildRuntimeOptions(modelId, request);
 
         Prompt prompt = request.toPrompt(runtimeOptions);
 
-        return chatModel.stream(prompt);
+        // 上游Span在订阅时开始、流结束或取消时结束，写入Reactor上下文作为Spring AI和HTTP客户端Span的父Span
+        Observation parent = ModelObservations.current(configuration);
+        return Flux.defer(() -> {
+            CachedModel lease = acquireModel(modelId, "chat", ModelFactory::createChatModel);
+            Flux<ChatResponse> upstream;
+            try {
+                upstream = ((ChatModel) lease.model()).stream(prompt);
+            } catch (RuntimeException e) {
+                lease.generation().release();
+                throw e;
+            }
+            Observation observation = upstreamObservation(modelId, "chat_stream").parentObservation(parent).start();
+            ModelInvocationEvent event = ModelInvocationEvent.start(modelId, "chat_stream", request.getTenantId(),
+                    request.getRequestBytes());
+            long subscribedNanos = System.nanoTime();
+            // 首个分块和相邻分块的超时都不超过剩余时间，截止时间到达时取消上游订阅
+            return upstream
+                    .timeout(Mono.defer(() -> Mono.delay(deadline.cap(timeouts.getFirstTokenTimeout()))),
+                            chunk -> Mono.defer(() -> Mono.delay(deadline.cap(timeouts.getIdleTimeout()))))
+                    .onErrorMap(TimeoutException.class, e -> new DeadlineExceededException(
+                            (deadline.isExpired() ? "Deadline exceeded" : "Stream idle timeout") + " for model: " + modelId, e))
+                    .doOnNext(chunk -> event.onChunk(chunk, subscribedNanos))
+                    .doOnError(error -> {
+                        observation.error(error);
+                        event.error = error.getClass().getSimpleName();
+                    })
+                    .doFinally(signal -> {
+                        lease.generation().release();
+                        observation.stop();
+                        if (signal == SignalType.CANCEL) {
+                            event.error = "cancelled";
+                        }
+                        event.finish(null);
+                    })
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
     }
     
     @Override
     public ImageResponse generateImage(String modelId, ImageRequest request) {
-        ImageModel imageModel = getImageModel(modelId);
-        return imageModel.call(request.toImagePrompt());
+        Deadline deadline = resolveDeadline(modelId, request.getDeadline());
+        CachedModel lease = acquireModel(modelId, "image", ModelFactory::createImageModel);
+        try {
+            ImageModel imageModel = (ImageModel) lease.model();
+            ModelInvocationEvent event = ModelInvocationEvent.start(modelId, "image", request.getTenantId(),
+                    request.getRequestBytes());
+            return callWithDeadline(modelId, "image", deadline, event, () -> imageModel.call(request.toImagePrompt()));
+        } finally {
+            lease.generation().release();
+        }
     }
     
     @Override
     public EmbeddingResponse embedding(String modelId, EmbeddingRequest request) {
-        EmbeddingModel embeddingModel = getEmbeddingModel(modelId);
-        return embeddingModel.call(request.toEmbeddingRequest());
+        Deadline deadline = resolveDeadline(modelId, request.getDeadline());
+        CachedModel lease = acquireModel(modelId, "embedding", ModelFactory::createEmbeddingModel);
+        try {
+            EmbeddingModel embeddingModel = (EmbeddingModel) lease.model();
+            ModelInvocationEvent event = ModelInvocationEvent.start(modelId, "embedding", request.getTenantId(),
+                    request.getRequestBytes());
+            return callWithDeadline(modelId, "embedding", deadline, event, () -> {
+                EmbeddingResponse response = embeddingModel.call(request.toEmbeddingRequest());
+                event.onResponse(response);
+                return response;
+            });
+        } finally {
+            lease.generation().release();
+        }
+    }
+    
+    @Override
+    public ModelDefinition getModelDefinition(String modelId) {
+        return resolveModelDefinition(modelId);
+    }
+    
+    @Override
+    public ModelTimeouts getTimeouts(String modelId) {
+        return ModelTimeouts.of(resolveModelDefinition(modelId), configuration);
     }
     
     @Override
@@ -76,43 +181,139 @@ public class DefaultModelClient implements ModelClient {
         return configuration;
     }
     
-    private ChatModel getChatModel(String modelId) {
-        return (ChatModel) modelCache.computeIfAbsent(modelId + ":chat", k -> {
-            ModelDefinition definition = resolveModelDefinition(modelId);
-            
-            // 设置ModelConfiguration到ModelDefinition，让Factory内部处理
-            definition.setModelConfiguration(configuration);
-            
-            // 使用命名空间工厂
-            ModelFactory factory = getModelFactory(definition.getNamespace());
-            return factory.createChatModel(definition);
-        });
+    /**
+     * 获取模型并占用创建它的那一代工厂，调用结束后必须释放 {@code lease.generation().release()}
+     * 
+     * 插件升级替换工厂后旧的一代退役、拒绝新的占用，此时丢弃缓存项并按当前一代重新创建
+     */
+    private CachedModel acquireModel(String modelId, String type,
+                                     BiFunction<ModelFactory, ModelDefinition, Model<?, ?>> creator) {
+        for (; ; ) {
+            CachedModel cached = getCachedModel(modelId, type, creator);
+            if (cached.generation().acquire()) {
+                return cached;
+            }
+            modelCache.remove(modelId + ":" + type, cached);
+        }
     }
     
-    private ImageModel getImageModel(String modelId) {
-        return (ImageModel) modelCache.computeIfAbsent(modelId + ":image", k -> {
+    /**
+     * 从模型实例缓存获取模型，未命中时创建
+     * 
+     * 缓存项记录创建它的那一代工厂，命名空间的工厂被移除或替换（插件禁用、重新启用、升级）后旧实例失效并重新创建
+     */
+    private CachedModel getCachedModel(String modelId, String type,
+                                       BiFunction<ModelFactory, ModelDefinition, Model<?, ?>> creator) {
+        evictStaleModels();
+        String key = modelId + ":" + type;
+        CachedModel cached = modelCache.get(key);
+        if (cached != null && cached.isCurrent(configuration)) {
+            modelCacheHits.increment();
+            return cached;
+        }
+        modelCacheMisses.increment();
+        return modelCache.compute(key, (k, existing) -> {
+            if (existing != null && existing.isCurrent(configuration)) {
+                return existing;
+            }
             ModelDefinition definition = resolveModelDefinition(modelId);
             
             // 设置ModelConfiguration到ModelDefinition，让Factory内部处理
             definition.setModelConfiguration(configuration);
             
-            // 使用命名空间工厂
-            ModelFactory factory = getModelFactory(definition.getNamespace());
-            return factory.createImageModel(definition);
+            // 使用命名空间当前一代的工厂
+            ModelFactoryGeneration generation = getFactoryGeneration(definition.getNamespace());
+            return new CachedModel(definition.getNamespace(), generation,
+                    creator.apply(generation.getFactory(), definition));
         });
     }
     
-    private EmbeddingModel getEmbeddingModel(String modelId) {
-        return (EmbeddingModel) modelCache.computeIfAbsent(modelId + ":embedding", k -> {
-            ModelDefinition definition = resolveModelDefinition(modelId);
-            
-            // 设置ModelConfiguration到ModelDefinition，让Factory内部处理
-            definition.setModelConfiguration(configuration);
-            
-            // 使用命名空间工厂
-            ModelFactory factory = getModelFactory(definition.getNamespace());
-            return factory.createEmbeddingModel(definition);
-        });
+    /**
+     * 工厂注册表变化后清理已失效的缓存项，避免已禁用插件的模型实例（及其类加载器）一直被缓存引用
+     */
+    private void evictStaleModels() {
+        long version = configuration.getFactoryVersion();
+        if (version == modelCacheFactoryVersion) {
+            return;
+        }
+        modelCacheFactoryVersion = version;
+        modelCache.values().removeIf(cached -> !cached.isCurrent(configuration));
+    }
+    
+    /**
+     * 模型实例缓存大小
+     */
+    public int getModelCacheSize() {
+        return modelCache.size();
+    }
+    
+    /**
+     * 模型实例缓存命中次数
+     */
+    public long getModelCacheHitCount() {
+        return modelCacheHits.sum();
+    }
+    
+    /**
+     * 模型实例缓存未命中次数
+     */
+    public long getModelCacheMissCount() {
+        return modelCacheMisses.sum();
+    }
+    
+    /**
+     * 计算同步请求的有效截止时间：客户端截止时间与模型总超时中较早的一个
+     */
+    private Deadline resolveDeadline(String modelId, Deadline requested) {
+        Deadline deadline = Deadline.earliest(requested, Deadline.after(getTimeouts(modelId).getTotalTimeout()));
+        deadline.checkNotExpired("call to " + modelId);
+        return deadline;
+    }
+    
+    /**
+     * 在截止时间内执行同步上游调用，超时后中断调用线程并抛出DeadlineExceededException
+     * 
+     * 上游Span在调用线程中打开作用域，Spring AI和HTTP客户端的Span作为其子Span；截止时间绑定到调用线程，
+     * 插件的HTTP客户端和重试模板据此收紧读超时和重试退避；结束时提交JFR调用事件
+     */
+    private <R> R callWithDeadline(String modelId, String operation, Deadline deadline, ModelInvocationEvent event,
+                                   Callable<R> call) {
+        Observation observation = upstreamObservation(modelId, operation).start();
+        Throwable failure = null;
+        try {
+            deadline.checkNotExpired("upstream call to " + modelId);
+            return Mono.fromCallable(() -> {
+                        try (Observation.Scope scope = observation.openScope();
+                             Deadline.Scope deadlineScope = deadline.bind()) {
+                            return call.call();
+                        }
+                    })
+                    .subscribeOn(UPSTREAM_SCHEDULER)
+                    .timeout(deadline.remaining())
+                    .block();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof TimeoutException) {
+                DeadlineExceededException exceeded =
+                        new DeadlineExceededException("Deadline exceeded for model: " + modelId, e);
+                failure = exceeded;
+                observation.error(exceeded);
+                throw exceeded;
+            }
+            failure = e;
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+            event.finish(failure);
+        }
+    }
+    
+    private Observation upstreamObservation(String modelId, String operation) {
+        ModelIdParser.ParsedModelId parsed = ModelIdParser.parse(modelId);
+        return ModelObservations.create(configuration, ModelObservations.UPSTREAM, operation + " " + modelId)
+                .lowCardinalityKeyValue("namespace", parsed.getNamespace())
+                .lowCardinalityKeyValue("model", parsed.getModelName())
+                .lowCardinalityKeyValue("operation", operation);
     }
     
     private ModelDefinition resolveModelDefinition(String modelId) {
@@ -124,8 +325,8 @@ public class DefaultModelClient implements ModelClient {
             new IllegalArgumentException("Model not found: " + modelId));
     }
     
-    private ModelFactory getModelFactory(String namespace) {
-        return configuration.getFactory(namespace)
+    private ModelFactoryGeneration getFactoryGeneration(String namespace) {
+        return configuration.getFactoryGeneration(namespace)
             .orElseThrow(() -> 
                 new IllegalArgumentException("No factory found for namespace: " + namespace));
     }
@@ -133,7 +334,8 @@ public class DefaultModelClient implements ModelClient {
     /**
      * 构建运行时模型选项
      * 
-     * 根据请求中的原始参数和模型配置，动态构建适合当前模型的选项
+     * 根据请求中的原始参数和模型配置，动态构建适合当前模型的选项；
+     * 请求已带有选项（过滤器按参数规则校验时已构建）时直接使用，不重复构建
      * 
      * @param modelId 模型ID
      * @param request 请求对象
@@ -141,11 +343,16 @@ public class DefaultModelClient implements ModelClient {
      */
     @SuppressWarnings("unchecked")
     private <T extends ChatOptions> T buildRuntimeOptions(String modelId, ChatRequest request) {
+        if (request.getOptions() != null) {
+            return (T) request.getOptions();
+        }
         // 如果没有原始参数，直接返回null
         if (request.getRawParameters() == null || request.getRawParameters().isEmpty()) {
             return null;
         }
         
+        Observation observation = ModelObservations.phase(configuration, ModelObservations.OPTIONS,
+                "build options " + modelId).start();
         try {
             // 解析模型定义
             ModelDefinition definition = resolveModelDefinition(modelId);
@@ -170,8 +377,21 @@ public class DefaultModelClient implements ModelClient {
             }
             
         } catch (Exception e) {
+            observation.error(e);
             System.err.println("ERROR: Failed to build runtime options for " + modelId + ": " + e.getMessage());
            throw new YonchainException("ERROR: Failed to build runtime options for " + modelId + ": " + e.getMessage(),e);
+        } finally {
+            observation.stop();
+        }
+    }
+    
+    /**
+     * 模型实例缓存项
+     */
+    private record CachedModel(String namespace, ModelFactoryGeneration generation, Model<?, ?> model) {
+        
+        boolean isCurrent(ModelConfiguration configuration) {
+            return configuration.getFactoryGeneration(namespace).orElse(null) == generation;
         }
     }
 }
@@ -0,0 +1,35 @@
+package com.yonchain.ai.model;
+
+import com.yonchain.ai.api.exception.YonchainException;
+
+/**
+ * 模型请求参数错误异常
+ * <p>
+ * 在调用上游之前发现的请求错误，由过滤器转换为OpenAI格式的400错误响应：
+ * {"error": {"message", "type": "invalid_request_error", "param", "code"}}
+ */
+public class InvalidModelRequestException extends YonchainException {
+
+    private final String param;
+    private final String code;
+
+    public InvalidModelRequestException(String message, String param, String code) {
+        super(message);
+        this.param = param;
+        this.code = code;
+    }
+
+    /**
+     * 出错的参数名，可为null
+     */
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * 错误码，如 context_length_exceeded、invalid_value
+     */
+    public String getCode() {
+        return code;
+    }
+}
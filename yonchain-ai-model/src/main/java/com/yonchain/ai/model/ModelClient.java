@@ -1,5 +1,7 @@
 package com.yonchain.ai.model;
 
+import com.yonchain.ai.model.definition.ModelDefinition;
+import com.yonchain.ai.model.definition.ModelTimeouts;
 import com.yonchain.ai.model.request.ChatRequest;
 import com.yonchain.ai.model.request.EmbeddingRequest;
 import com.yonchain.ai.model.request.ImageRequest;
@@ -32,6 +34,12 @@ public interface ModelClient {
     // Get model configuration
     ModelConfiguration getConfiguration();
 
+    // Resolve model definition by modelId (namespace:id)
+    ModelDefinition getModelDefinition(String modelId);
+
+    // Resolve connect/first-token/idle/total timeouts for a model
+    ModelTimeouts getTimeouts(String modelId);
+
 }
 
 
@@ -1,5 +1,8 @@
 package com.yonchain.ai.model;
 
+import com.yonchain.ai.tracing.ModelObservations;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,13 +27,23 @@ public class ModelClientAutoConfiguration {
     
     /**
      * 创建ModelClient
+     * 
+     * tracing.enabled 开启时把应用的ObservationRegistry设置到模型配置，用于链路追踪；
+     * 启动时预加载分词词表
      */
     @Bean
     //@Primary
     @ConditionalOnMissingBean
-    public ModelClient modelClient(ModelClientFactory factory) {
+    public ModelClient modelClient(ModelClientFactory factory,
+                                   ObjectProvider<ObservationRegistry> observationRegistry) {
         // 工厂注册现在通过XML配置文件的factory属性自动完成
-        return factory.createClient();
+        ModelClient client = factory.createClient();
+        ModelConfiguration configuration = client.getConfiguration();
+        configuration.initTokenizers();
+        if (configuration.getBooleanProperty(ModelObservations.ENABLED, true)) {
+            configuration.setObservationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP));
+        }
+        return client;
     }
     
     // 工厂实例现在通过XML配置文件的factory属性自动创建和注册
@@ -4,8 +4,15 @@ import com.yonchain.ai.model.definition.ModelDefinition;
 import com.yonchain.ai.model.enums.ModelType;
 import com.yonchain.ai.model.options.ModelOptionsHandler;
 import com.yonchain.ai.model.options.ModelOptionsHandlerRegistry;
+import com.yonchain.ai.tokenizer.TokenCounter;
+import com.yonchain.ai.tokenizer.TokenizerRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.ai.model.ModelOptions;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
@@ -19,19 +26,24 @@ import java.util.Set;
  * - 模型注册中心
  * - 命名空间工厂注册中心
  * - 类型处理器注册中心
+ * - Token计数器注册中心
+ * - 观测注册中心（链路追踪）
  */
 public class ModelConfiguration {
 
     private ModelRegistry modelRegistry;
     private ModelFactoryRegistry modelFactoryRegistry;
     private ModelOptionsHandlerRegistry optionsHandlerRegistry;
+    private TokenizerRegistry tokenizerRegistry;
     private ModelEnvironment environment;
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
 
     public ModelConfiguration() {
         this.environment = new ModelEnvironment("model");
         this.modelRegistry = new ModelRegistry();
         this.modelFactoryRegistry = new ModelFactoryRegistry();
         this.optionsHandlerRegistry = new ModelOptionsHandlerRegistry();
+        this.tokenizerRegistry = new TokenizerRegistry();
     }
 
     public ModelConfiguration(ModelEnvironment environment) {
@@ -39,6 +51,7 @@ public class ModelConfiguration {
         this.modelRegistry = new ModelRegistry();
         this.modelFactoryRegistry = new ModelFactoryRegistry();
         this.optionsHandlerRegistry = new ModelOptionsHandlerRegistry();
+        this.tokenizerRegistry = new TokenizerRegistry();
     }
 
     // ================== 环境配置管理 ==================
@@ -85,6 +98,10 @@ public class ModelConfiguration {
         return environment.getLongProperty(key, defaultValue);
     }
 
+    public double getDoubleProperty(String key, double defaultValue) {
+        return environment.getDoubleProperty(key, defaultValue);
+    }
+
     // ================== Model Registry Methods ==================
 
     /**
@@ -141,6 +158,13 @@ public class ModelConfiguration {
         modelFactoryRegistry.registerFactory(namespace, factory);
     }
 
+    /**
+     * 以新的一代原子替换模型工厂，返回已退役的旧一代（用于等待进行中的调用结束）
+     */
+    public Optional<ModelFactoryGeneration> swapFactory(String namespace, ModelFactory factory) {
+        return modelFactoryRegistry.swapFactory(namespace, factory);
+    }
+
     /**
      * 获取模型工厂
      */
@@ -148,6 +172,13 @@ public class ModelConfiguration {
         return modelFactoryRegistry.getFactory(namespace);
     }
 
+    /**
+     * 获取命名空间当前一代的模型工厂
+     */
+    public Optional<ModelFactoryGeneration> getFactoryGeneration(String namespace) {
+        return modelFactoryRegistry.getGeneration(namespace);
+    }
+
     /**
      * 检查模型工厂是否存在
      */
@@ -162,6 +193,13 @@ public class ModelConfiguration {
         return modelFactoryRegistry.removeFactory(namespace);
     }
 
+    /**
+     * 获取工厂注册表版本，工厂注册或移除后变化
+     */
+    public long getFactoryVersion() {
+        return modelFactoryRegistry.getVersion();
+    }
+
     /**
      * 获取所有注册的命名空间
      */
@@ -234,6 +272,67 @@ public class ModelConfiguration {
         return optionsHandlerRegistry.getHandler(key);
     }
 
+    // ================== Token计数 ==================
+
+    /**
+     * 获取模型的本地Token计数器
+     * <p>
+     * 编码取自模型元数据（插件模型YAML中的 model_properties.encoding）或options中的encoding，
+     * 未配置时使用 tokenizer.default.encoding（默认cl100k_base）
+     *
+     * @param definition 模型定义，可为null
+     * @return Token计数器
+     */
+    public TokenCounter getTokenCounter(ModelDefinition definition) {
+        Object encoding = null;
+        if (definition != null) {
+            if (definition.getMetadata() != null) {
+                encoding = definition.getMetadata("encoding");
+            }
+            if (encoding == null && definition.getOptions() != null) {
+                encoding = definition.getOption("encoding");
+            }
+        }
+        String name = encoding != null ? encoding.toString() : getProperty("tokenizer.default.encoding", "cl100k_base");
+        return tokenizerRegistry.getTokenCounter(name);
+    }
+
+    /**
+     * 按配置初始化本地分词：设置词表目录（tokenizer.vocabulary.dir）和下载地址
+     * （tokenizer.vocabulary.download.url，默认为空即不下载），并在当前线程预加载
+     * tokenizer.preload.encodings 和默认编码，避免首个请求在请求线程上加载词表
+     */
+    public void initTokenizers() {
+        String directory = getProperty("tokenizer.vocabulary.dir", "");
+        if (!directory.isBlank()) {
+            tokenizerRegistry.setVocabularyDirectory(Paths.get(directory.trim()));
+        }
+        tokenizerRegistry.setDownload(
+                getProperty("tokenizer.vocabulary.download.url", ""),
+                Duration.ofMillis(getLongProperty("tokenizer.vocabulary.download.timeout", 30_000L)));
+        Set<String> encodings = new LinkedHashSet<>();
+        encodings.add(getProperty("tokenizer.default.encoding", "cl100k_base"));
+        encodings.addAll(Arrays.asList(getProperty("tokenizer.preload.encodings", "").split(",")));
+        tokenizerRegistry.preload(encodings);
+    }
+
+    public TokenizerRegistry getTokenizerRegistry() {
+        return tokenizerRegistry;
+    }
+
+    // ================== 链路追踪 ==================
+
+    /**
+     * 获取观测注册中心，未设置时为NOOP
+     */
+    public ObservationRegistry getObservationRegistry() {
+        return observationRegistry;
+    }
+
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry != null ? observationRegistry : ObservationRegistry.NOOP;
+    }
+
     // ================== 工具方法 ==================
 
     // Convenience methods
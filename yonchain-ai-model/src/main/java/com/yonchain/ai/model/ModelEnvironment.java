@@ -145,6 +145,15 @@ public class ModelEnvironment {
         }
     }
     
+    public double getDoubleProperty(String key, double defaultValue) {
+        String value = getProperty(key);
+        try {
+            return value != null ? Double.parseDouble(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+    
     @Override
     public String toString() {
         return "Environment{" +
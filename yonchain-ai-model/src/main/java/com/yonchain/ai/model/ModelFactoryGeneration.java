@@ -0,0 +1,125 @@
+package com.yonchain.ai.model;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 模型工厂的一次注册（代）
+ * <p>
+ * 同一命名空间每次注册工厂都产生新的一代。调用模型前通过 {@link #acquire()} 占用当前代，调用结束后 {@link #release()}；
+ * 工厂被替换或移除时旧的一代退役，不再接受新的占用，进行中的调用全部释放后 {@link #drained()} 完成，
+ * 此时才可以销毁旧工厂、关闭插件类加载器。
+ */
+public final class ModelFactoryGeneration {
+
+    /**
+     * 状态的最高有效位表示已退役，其余位是进行中的调用数
+     */
+    private static final int RETIRED = 1 << 30;
+
+    private final String namespace;
+    private final long generation;
+    private final ModelFactory factory;
+    private final AtomicInteger state = new AtomicInteger();
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+
+    ModelFactoryGeneration(String namespace, long generation, ModelFactory factory) {
+        this.namespace = namespace;
+        this.generation = generation;
+        this.factory = factory;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public ModelFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * 占用这一代工厂，成功后必须调用 {@link #release()}
+     *
+     * @return 已退役时返回false，调用方应重新获取当前代（退役后拒绝新的占用，保证排空不会被持续到达的调用拖住）
+     */
+    public boolean acquire() {
+        for (; ; ) {
+            int current = state.get();
+            if ((current & RETIRED) != 0) {
+                return false;
+            }
+            if (state.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放一次占用
+     */
+    public void release() {
+        if (state.decrementAndGet() == RETIRED) {
+            drained.complete(null);
+        }
+    }
+
+    /**
+     * 退役：不再接受新的占用，没有进行中的调用时立即排空
+     */
+    void retire() {
+        int previous = state.getAndUpdate(current -> current | RETIRED);
+        if (previous == 0) {
+            drained.complete(null);
+        }
+    }
+
+    public boolean isRetired() {
+        return (state.get() & RETIRED) != 0;
+    }
+
+    /**
+     * 进行中的调用数
+     */
+    public int getInFlight() {
+        return state.get() & ~RETIRED;
+    }
+
+    /**
+     * 退役并且进行中的调用全部结束后完成
+     */
+    public CompletableFuture<Void> drained() {
+        return drained.copy();
+    }
+
+    /**
+     * 等待进行中的调用结束
+     *
+     * @param timeout 最长等待时间
+     * @return 是否已排空；超时返回false
+     * @throws InterruptedException 等待被中断
+     */
+    public boolean awaitDrained(Duration timeout) throws InterruptedException {
+        try {
+            drained.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ModelFactoryGeneration{" + namespace + "#" + generation + ", inFlight=" + getInFlight()
+                + (isRetired() ? ", retired" : "") + "}";
+    }
+}
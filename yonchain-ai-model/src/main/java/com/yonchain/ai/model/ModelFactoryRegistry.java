@@ -6,16 +6,23 @@ import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 模型工厂注册中心
  * 
  * 负责管理所有模型工厂的注册和查找
+ * 
+ * 每次注册产生新的一代（{@link ModelFactoryGeneration}），替换或移除时旧的一代退役，
+ * 调用方可以等待旧的一代上进行中的调用结束后再销毁旧工厂
  */
 public class ModelFactoryRegistry {
     
-    // namespace -> ModelFactory
-    private final Map<String, ModelFactory> factories = new ConcurrentHashMap<>();
+    // namespace -> 当前一代的模型工厂
+    private final Map<String, ModelFactoryGeneration> factories = new ConcurrentHashMap<>();
+    
+    // 工厂注册或移除时递增，用于让模型实例缓存感知插件启用/禁用；同时作为新一代的编号
+    private final AtomicLong version = new AtomicLong();
     
     /**
      * 注册模型工厂
@@ -24,7 +31,25 @@ public class ModelFactoryRegistry {
      * @param factory 模型工厂
      */
     public void registerFactory(String namespace, ModelFactory factory) {
-        factories.put(namespace, factory);
+        swapFactory(namespace, factory);
+    }
+    
+    /**
+     * 以新的一代原子替换模型工厂
+     * 
+     * 替换后新的调用立即使用新工厂，旧的一代退役；通过 {@link ModelFactoryGeneration#awaitDrained} 等待旧工厂上进行中的调用结束
+     * 
+     * @param namespace 命名空间名称
+     * @param factory 新的模型工厂
+     * @return 被替换的旧一代（已退役），之前未注册时为空
+     */
+    public Optional<ModelFactoryGeneration> swapFactory(String namespace, ModelFactory factory) {
+        ModelFactoryGeneration generation = new ModelFactoryGeneration(namespace, version.incrementAndGet(), factory);
+        ModelFactoryGeneration previous = factories.put(namespace, generation);
+        if (previous != null) {
+            previous.retire();
+        }
+        return Optional.ofNullable(previous);
     }
     
     /**
@@ -34,6 +59,16 @@ public class ModelFactoryRegistry {
      * @return 模型工厂
      */
     public Optional<ModelFactory> getFactory(String namespace) {
+        return getGeneration(namespace).map(ModelFactoryGeneration::getFactory);
+    }
+    
+    /**
+     * 获取命名空间当前一代的模型工厂
+     * 
+     * @param namespace 命名空间名称
+     * @return 当前一代
+     */
+    public Optional<ModelFactoryGeneration> getGeneration(String namespace) {
         return Optional.ofNullable(factories.get(namespace));
     }
     
@@ -54,7 +89,13 @@ public class ModelFactoryRegistry {
      * @return 被移除的工厂
      */
     public Optional<ModelFactory> removeFactory(String namespace) {
-        return Optional.ofNullable(factories.remove(namespace));
+        ModelFactoryGeneration removed = factories.remove(namespace);
+        version.incrementAndGet();
+        if (removed == null) {
+            return Optional.empty();
+        }
+        removed.retire();
+        return Optional.of(removed.getFactory());
     }
     
     /**
@@ -70,7 +111,22 @@ public class ModelFactoryRegistry {
      * 清空所有工厂
      */
     public void clear() {
-        factories.clear();
+        for (String namespace : factories.keySet()) {
+            ModelFactoryGeneration removed = factories.remove(namespace);
+            if (removed != null) {
+                removed.retire();
+            }
+        }
+        version.incrementAndGet();
+    }
+    
+    /**
+     * 获取注册表版本，每次注册、移除或清空工厂后变化
+     * 
+     * @return 版本号
+     */
+    public long getVersion() {
+        return version.get();
     }
     
     /**
@@ -0,0 +1,136 @@
+package com.yonchain.ai.model.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求截止时间
+ * <p>
+ * 基于单调时钟(System.nanoTime)记录请求必须完成的时间点，
+ * 在过滤器、ModelClient和上游调用之间传递剩余时间预算。
+ * <p>
+ * 同步上游调用期间截止时间通过 {@link #bind()} 绑定到调用线程，模型插件的HTTP客户端和重试模板
+ * 通过 {@link #current()} 读取，按剩余时间收紧读超时和重试退避
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 创建从当前时刻起经过指定时长后到期的截止时间
+     *
+     * @param timeout 超时时长
+     * @return 截止时间
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * 取两个截止时间中较早的一个，任一参数可为null
+     *
+     * @param first  截止时间
+     * @param second 截止时间
+     * @return 较早的截止时间，两者都为null时返回null
+     */
+    public static Deadline earliest(Deadline first, Deadline second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return first.deadlineNanos - second.deadlineNanos <= 0 ? first : second;
+    }
+
+    /**
+     * 获取绑定到当前线程的截止时间
+     *
+     * @return 截止时间，不在同步上游调用中时返回null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 将截止时间绑定到当前线程，关闭返回的作用域时恢复之前的绑定
+     *
+     * @return 绑定作用域
+     */
+    public Scope bind() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * 获取剩余时间，已过期时返回0
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * 获取剩余毫秒数，已过期时返回0
+     */
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 将超时时长限制在剩余时间之内
+     *
+     * @param timeout 原始超时时长
+     * @return 原始超时与剩余时间中较小的一个
+     */
+    public Duration cap(Duration timeout) {
+        Duration remaining = remaining();
+        return timeout == null || timeout.compareTo(remaining) > 0 ? remaining : timeout;
+    }
+
+    /**
+     * 检查是否已过期
+     *
+     * @param stage 当前处理阶段（用于错误信息）
+     * @throws DeadlineExceededException 已过期时抛出
+     */
+    public void checkNotExpired(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded before " + stage);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remainingMillis=" + remainingMillis() + '}';
+    }
+
+    /**
+     * 截止时间的线程绑定作用域
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
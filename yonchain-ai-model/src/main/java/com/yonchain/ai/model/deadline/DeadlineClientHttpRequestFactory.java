@@ -0,0 +1,52 @@
+package com.yonchain.ai.model.deadline;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * 按请求截止时间设置读超时的HTTP请求工厂
+ * <p>
+ * 模型在创建时只知道模型配置的读超时，本工厂在每次创建请求时读取绑定到当前线程的 {@link Deadline}，
+ * 读超时取配置值与剩余时间中较小的一个；截止时间已过时不再发出请求。没有绑定截止时间时（如流式调用）
+ * 使用配置的读超时。
+ */
+public class DeadlineClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final JdkClientHttpRequestFactory defaultFactory;
+
+    /**
+     * @param httpClient  HTTP客户端（连接超时在其上配置）
+     * @param readTimeout 配置的读超时
+     */
+    public DeadlineClientHttpRequestFactory(HttpClient httpClient, Duration readTimeout) {
+        this.httpClient = httpClient;
+        this.readTimeout = readTimeout;
+        this.defaultFactory = createFactory(readTimeout);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return defaultFactory.createRequest(uri, httpMethod);
+        }
+        deadline.checkNotExpired("request to " + uri.getHost());
+        // 工厂只保存HTTP客户端和超时，按请求创建的开销可以忽略
+        return createFactory(deadline.cap(readTimeout)).createRequest(uri, httpMethod);
+    }
+
+    private JdkClientHttpRequestFactory createFactory(Duration timeout) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(timeout);
+        return factory;
+    }
+}
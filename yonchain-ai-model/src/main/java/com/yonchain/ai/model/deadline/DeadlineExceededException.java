@@ -0,0 +1,17 @@
+package com.yonchain.ai.model.deadline;
+
+import com.yonchain.ai.api.exception.YonchainException;
+
+/**
+ * 请求超过截止时间异常
+ */
+public class DeadlineExceededException extends YonchainException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
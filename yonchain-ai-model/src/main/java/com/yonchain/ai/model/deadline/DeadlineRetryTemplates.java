@@ -0,0 +1,57 @@
+package com.yonchain.ai.model.deadline;
+
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * 按请求截止时间停止重试的重试模板
+ * <p>
+ * 重试条件和退避与Spring AI默认的重试模板一致（最多10次，对暂时性错误和网络错误重试，
+ * 从2秒开始按5倍递增、最长3分钟），但退避等待不会越过绑定到当前线程的 {@link Deadline}：
+ * 剩余时间不足一次退避时直接抛出 {@link DeadlineExceededException}，不再等待和重试。
+ */
+public final class DeadlineRetryTemplates {
+
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long INITIAL_INTERVAL_MILLIS = 2000;
+    private static final double MULTIPLIER = 5;
+    private static final long MAX_INTERVAL_MILLIS = 3 * 60 * 1000;
+
+    private DeadlineRetryTemplates() {
+    }
+
+    /**
+     * 创建按截止时间停止重试的重试模板
+     */
+    public static RetryTemplate create() {
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(INITIAL_INTERVAL_MILLIS);
+        backOffPolicy.setMultiplier(MULTIPLIER);
+        backOffPolicy.setMaxInterval(MAX_INTERVAL_MILLIS);
+        backOffPolicy.setSleeper(new DeadlineSleeper());
+        return RetryTemplate.builder()
+                .maxAttempts(MAX_ATTEMPTS)
+                .retryOn(TransientAiException.class)
+                .retryOn(ResourceAccessException.class)
+                .customBackoff(backOffPolicy)
+                .build();
+    }
+
+    /**
+     * 退避等待不越过截止时间
+     */
+    private static final class DeadlineSleeper implements Sleeper {
+
+        @Override
+        public void sleep(long backOffPeriod) throws InterruptedException {
+            Deadline deadline = Deadline.current();
+            if (deadline != null && deadline.remainingMillis() <= backOffPeriod) {
+                throw new DeadlineExceededException("Deadline leaves no time to retry after " + backOffPeriod + " ms");
+            }
+            Thread.sleep(backOffPeriod);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.yonchain.ai.model.definition;
 
 import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.model.options.CompiledParameterRules;
 import com.yonchain.ai.model.options.ModelOptionsHandler;
 import org.springframework.ai.model.ModelOptions;
 
@@ -28,6 +29,9 @@ public class ModelDefinition {
     // 运行时依赖 - 用于Factory内部处理所有配置
     private transient ModelConfiguration modelConfiguration;
 
+    // 编译后的参数规则缓存，元数据变化时失效
+    private transient volatile CompiledParameterRules compiledParameterRules;
+
     public ModelDefinition() {
         this.options = new HashMap<>();
         this.metadata = new HashMap<>();
@@ -144,6 +148,7 @@ public class ModelDefinition {
 
     public void setMetadata(Map<String, Object> metadata) {
         this.metadata = metadata;
+        this.compiledParameterRules = null;
     }
 
     public Object getMetadata(String key) {
@@ -152,6 +157,7 @@ public class ModelDefinition {
 
     public void setMetadata(String key, Object value) {
         metadata.put(key, value);
+        this.compiledParameterRules = null;
     }
 
     /**
@@ -204,6 +210,14 @@ public class ModelDefinition {
         this.modelConfiguration = modelConfiguration;
     }
 
+    public CompiledParameterRules getCompiledParameterRules() {
+        return compiledParameterRules;
+    }
+
+    public void setCompiledParameterRules(CompiledParameterRules compiledParameterRules) {
+        this.compiledParameterRules = compiledParameterRules;
+    }
+
     /**
      * 便捷方法：使用内部的ModelConfiguration解析Handler
      */
@@ -0,0 +1,125 @@
+package com.yonchain.ai.model.definition;
+
+import com.yonchain.ai.model.ModelConfiguration;
+
+import java.time.Duration;
+
+/**
+ * 模型超时配置
+ * <p>
+ * 从模型定义的options中读取，单位为秒（支持小数），未配置时回退到全局设置：
+ * - connect_timeout：建立上游连接超时，默认 default.connect.timeout（10秒）
+ * - first_token_timeout：流式请求首个分块超时，默认与 idle_timeout 相同
+ * - idle_timeout：流式请求相邻分块之间的空闲超时，默认 default.idle.timeout（60秒）
+ * - timeout：同步请求总超时，默认 default.timeout（30秒）
+ * - stream_timeout：流式请求总超时，默认 default.stream.timeout（300秒）
+ */
+public class ModelTimeouts {
+
+    public static final String CONNECT_TIMEOUT = "connect_timeout";
+    public static final String FIRST_TOKEN_TIMEOUT = "first_token_timeout";
+    public static final String IDLE_TIMEOUT = "idle_timeout";
+    public static final String TOTAL_TIMEOUT = "timeout";
+    public static final String STREAM_TIMEOUT = "stream_timeout";
+
+    private final Duration connectTimeout;
+    private final Duration firstTokenTimeout;
+    private final Duration idleTimeout;
+    private final Duration totalTimeout;
+    private final Duration streamTimeout;
+
+    public ModelTimeouts(Duration connectTimeout, Duration firstTokenTimeout, Duration idleTimeout,
+                         Duration totalTimeout, Duration streamTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.firstTokenTimeout = firstTokenTimeout;
+        this.idleTimeout = idleTimeout;
+        this.totalTimeout = totalTimeout;
+        this.streamTimeout = streamTimeout;
+    }
+
+    /**
+     * 根据全局设置创建默认超时配置
+     *
+     * @param configuration 模型配置
+     * @return 默认超时配置
+     */
+    public static ModelTimeouts defaults(ModelConfiguration configuration) {
+        Duration idle = Duration.ofSeconds(configuration.getLongProperty("default.idle.timeout", 60L));
+        return new ModelTimeouts(
+                Duration.ofSeconds(configuration.getLongProperty("default.connect.timeout", 10L)),
+                idle,
+                idle,
+                Duration.ofSeconds(configuration.getDefaultTimeout()),
+                Duration.ofSeconds(configuration.getLongProperty("default.stream.timeout", 300L)));
+    }
+
+    /**
+     * 根据模型定义解析超时配置
+     *
+     * @param definition    模型定义
+     * @param configuration 模型配置（提供默认值）
+     * @return 超时配置
+     */
+    public static ModelTimeouts of(ModelDefinition definition, ModelConfiguration configuration) {
+        ModelTimeouts defaults = defaults(configuration);
+        if (definition == null || definition.getOptions() == null || definition.getOptions().isEmpty()) {
+            return defaults;
+        }
+
+        Duration idle = readSeconds(definition, IDLE_TIMEOUT, defaults.idleTimeout);
+        return new ModelTimeouts(
+                readSeconds(definition, CONNECT_TIMEOUT, defaults.connectTimeout),
+                readSeconds(definition, FIRST_TOKEN_TIMEOUT, idle),
+                idle,
+                readSeconds(definition, TOTAL_TIMEOUT, defaults.totalTimeout),
+                readSeconds(definition, STREAM_TIMEOUT, defaults.streamTimeout));
+    }
+
+    private static Duration readSeconds(ModelDefinition definition, String key, Duration defaultValue) {
+        Object value = definition.getOption(key);
+        double seconds;
+        if (value instanceof Number) {
+            seconds = ((Number) value).doubleValue();
+        } else if (value instanceof String && !((String) value).isEmpty()) {
+            try {
+                seconds = Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        } else {
+            return defaultValue;
+        }
+        return seconds > 0 ? Duration.ofMillis((long) (seconds * 1000)) : defaultValue;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getFirstTokenTimeout() {
+        return firstTokenTimeout;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public Duration getTotalTimeout() {
+        return totalTimeout;
+    }
+
+    public Duration getStreamTimeout() {
+        return streamTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return "ModelTimeouts{" +
+                "connect=" + connectTimeout +
+                ", firstToken=" + firstTokenTimeout +
+                ", idle=" + idleTimeout +
+                ", total=" + totalTimeout +
+                ", stream=" + streamTimeout +
+                '}';
+    }
+}
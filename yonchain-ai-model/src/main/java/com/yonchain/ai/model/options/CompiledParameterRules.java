@@ -0,0 +1,179 @@
+package com.yonchain.ai.model.options;
+
+import com.yonchain.ai.model.InvalidModelRequestException;
+import com.yonchain.ai.model.definition.ModelDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.model.ModelOptions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模型参数规则集合
+ * <p>
+ * 每个模型的parameter_rules只编译一次并缓存在模型定义上。{@link #buildOptions} 在通用选项处理器绑定参数的
+ * 同一次遍历中完成校验、类型转换和绑定，转换后的值同时写回请求参数（预算估算和调用日志使用），
+ * 之后只为请求未提供的参数填充默认值。未在规则中声明的参数不做校验。
+ */
+public final class CompiledParameterRules {
+
+    private static final Logger log = LoggerFactory.getLogger(CompiledParameterRules.class);
+
+    /**
+     * 没有声明参数规则的模型
+     */
+    public static final CompiledParameterRules EMPTY = new CompiledParameterRules(new ParameterRule[0]);
+
+    private final ParameterRule[] rules;
+    private final Map<String, ParameterRule> rulesByName;
+
+    private CompiledParameterRules(ParameterRule[] rules) {
+        this.rules = rules;
+        Map<String, ParameterRule> byName = new HashMap<>();
+        for (ParameterRule rule : rules) {
+            byName.putIfAbsent(rule.getName(), rule);
+        }
+        this.rulesByName = Map.copyOf(byName);
+    }
+
+    /**
+     * 获取模型的参数规则，首次访问时编译
+     *
+     * @param definition 模型定义
+     * @return 参数规则集合
+     */
+    public static CompiledParameterRules of(ModelDefinition definition) {
+        if (definition == null) {
+            return EMPTY;
+        }
+        CompiledParameterRules compiled = definition.getCompiledParameterRules();
+        if (compiled == null) {
+            Object rules = definition.getMetadata() != null ? definition.getMetadata("parameter_rules") : null;
+            compiled = compile(rules, definition.getFullId());
+            definition.setCompiledParameterRules(compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * 编译参数规则，无法编译的条目记录日志后跳过
+     *
+     * @param rules  YAML中的parameter_rules
+     * @param source 规则来源（用于日志）
+     * @return 参数规则集合
+     */
+    @SuppressWarnings("unchecked")
+    public static CompiledParameterRules compile(Object rules, String source) {
+        if (!(rules instanceof List) || ((List<?>) rules).isEmpty()) {
+            return EMPTY;
+        }
+        List<ParameterRule> compiled = new ArrayList<>();
+        for (Object rule : (List<Object>) rules) {
+            if (!(rule instanceof Map)) {
+                continue;
+            }
+            try {
+                ParameterRule parameterRule = ParameterRule.compile((Map<String, Object>) rule);
+                if (parameterRule != null) {
+                    compiled.add(parameterRule);
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipped invalid parameter rule for {}: {}", source, e.getMessage());
+            }
+        }
+        return compiled.isEmpty() ? EMPTY : new CompiledParameterRules(compiled.toArray(new ParameterRule[0]));
+    }
+
+    /**
+     * 校验请求参数并构建Spring AI选项
+     * <p>
+     * 通用选项处理器在一次遍历参数时逐个校验、转换并绑定；其他处理器先由 {@link #apply} 校验，再构建选项
+     *
+     * @param parameters    请求参数，转换后的值和默认值写回该Map
+     * @param applyDefaults 请求未提供参数时是否填充规则默认值（必填参数总是填充）
+     * @param handler       选项处理器
+     * @return 构建的选项
+     * @throws InvalidModelRequestException 参数不符合规则
+     */
+    public <T extends ModelOptions> T buildOptions(Map<String, Object> parameters, boolean applyDefaults,
+                                                   ModelOptionsHandler<T> handler) {
+        if (handler instanceof ReflectiveOptionsHandler) {
+            return ((ReflectiveOptionsHandler<T>) handler).buildOptions(parameters, this, applyDefaults);
+        }
+        apply(parameters, applyDefaults);
+        return handler.buildOptions(parameters);
+    }
+
+    /**
+     * 校验请求参数，并将转换后的值和默认值写回参数Map
+     *
+     * @param parameters    请求参数
+     * @param applyDefaults 请求未提供参数时是否填充规则默认值（必填参数总是填充）
+     * @throws InvalidModelRequestException 参数不符合规则
+     */
+    public void apply(Map<String, Object> parameters, boolean applyDefaults) {
+        for (ParameterRule rule : rules) {
+            Object value = parameters.get(rule.getName());
+            if (value != null) {
+                parameters.put(rule.getName(), rule.bind(value));
+            } else {
+                Object defaultValue = resolveDefault(rule, applyDefaults);
+                if (defaultValue != null) {
+                    parameters.put(rule.getName(), defaultValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按名称获取规则
+     *
+     * @return 规则，参数未声明规则时返回null
+     */
+    ParameterRule getRule(String name) {
+        return rulesByName.get(name);
+    }
+
+    /**
+     * 为请求未提供的参数取默认值（只遍历规则，不遍历请求参数）
+     *
+     * @param parameters    请求参数
+     * @param applyDefaults 是否填充非必填参数的默认值
+     * @return 需要填充的参数，没有时为空Map
+     * @throws InvalidModelRequestException 必填参数缺失且没有默认值
+     */
+    Map<String, Object> missingDefaults(Map<String, Object> parameters, boolean applyDefaults) {
+        Map<String, Object> defaults = Map.of();
+        for (ParameterRule rule : rules) {
+            if (parameters.get(rule.getName()) != null) {
+                continue;
+            }
+            Object defaultValue = resolveDefault(rule, applyDefaults);
+            if (defaultValue != null) {
+                if (defaults.isEmpty()) {
+                    defaults = new HashMap<>();
+                }
+                defaults.put(rule.getName(), defaultValue);
+            }
+        }
+        return defaults;
+    }
+
+    private static Object resolveDefault(ParameterRule rule, boolean applyDefaults) {
+        if (rule.getDefaultValue() != null && (applyDefaults || rule.isRequired())) {
+            return rule.getDefaultValue();
+        }
+        if (rule.isRequired()) {
+            throw new InvalidModelRequestException("Missing required parameter: '" + rule.getName() + "'",
+                    rule.getName(), "missing_required_parameter");
+        }
+        return null;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+}
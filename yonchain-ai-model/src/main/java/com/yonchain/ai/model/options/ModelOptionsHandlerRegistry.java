@@ -15,6 +15,9 @@ import java.util.concurrent.ConcurrentHashMap;
  * - 模型级：namespace:modelId (如 "openai:gpt-4")  
  * - 类名级：完整类名 (如 "com.yonchain.ai.model.optionshandler.openai.OpenAiChatModelOptionsHandler")
  * - 别名级：自定义别名 (如 "openai-chat-v1")
+ * 
+ * Handler类名也可以直接指定Spring AI选项类（如 "org.springframework.ai.openai.OpenAiChatOptions"），
+ * 此时使用通用的 {@link ReflectiveOptionsHandler}，无需为每个提供商手写处理器。
  */
 public class ModelOptionsHandlerRegistry {
     
@@ -218,8 +221,28 @@ public class ModelOptionsHandlerRegistry {
      * 通过类名创建Handler实例
      */
     private ModelOptionsHandler<?> createHandlerByClass(String handlerClass) throws Exception {
-        Class<?> clazz = Class.forName(handlerClass);
-        return (ModelOptionsHandler<?>) clazz.getDeclaredConstructor().newInstance();
+        return createHandler(Class.forName(handlerClass));
+    }
+    
+    /**
+     * 根据类创建选项处理器
+     * 
+     * 支持两种类型：
+     * - ModelOptionsHandler实现类：通过无参构造器实例化
+     * - ModelOptions类型（如 OpenAiChatOptions）：使用按类型缓存的 {@link ReflectiveOptionsHandler}
+     * 
+     * @param clazz Handler类或ModelOptions类
+     * @return ModelOptionsHandler实例
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static ModelOptionsHandler<?> createHandler(Class<?> clazz) throws Exception {
+        if (ModelOptionsHandler.class.isAssignableFrom(clazz)) {
+            return (ModelOptionsHandler<?>) clazz.getDeclaredConstructor().newInstance();
+        }
+        if (ModelOptions.class.isAssignableFrom(clazz)) {
+            return ReflectiveOptionsHandler.forClass((Class) clazz);
+        }
+        throw new YonchainException("Class is neither a ModelOptionsHandler nor a ModelOptions type: " + clazz.getName());
     }
     
     /**
@@ -0,0 +1,268 @@
+package com.yonchain.ai.model.options;
+
+import com.yonchain.ai.model.InvalidModelRequestException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的单个参数规则
+ * <p>
+ * 由模型YAML中的parameter_rules条目编译而来。use_template引用内置模板（类型和取值范围），
+ * 条目中显式声明的type/min/max/default/options/required覆盖模板。
+ * 默认值在编译时就转换为目标类型，运行时只做一次类型转换和区间比较。
+ */
+public final class ParameterRule {
+
+    private final String name;
+    private final ParameterType type;
+    private final double min;
+    private final double max;
+    private final Object defaultValue;
+    private final String[] options;
+    private final boolean required;
+
+    private ParameterRule(String name, ParameterType type, double min, double max, Object defaultValue,
+                          String[] options, boolean required) {
+        this.name = name;
+        this.type = type;
+        this.min = min;
+        this.max = max;
+        this.options = options;
+        this.required = required;
+        this.defaultValue = defaultValue != null ? coerceDefault(defaultValue) : null;
+    }
+
+    /**
+     * 编译参数规则
+     *
+     * @param rule YAML中的规则条目
+     * @return 编译后的规则，缺少name时返回null
+     */
+    public static ParameterRule compile(Map<String, Object> rule) {
+        Object name = rule.get("name");
+        if (name == null) {
+            return null;
+        }
+        Object template = rule.get("use_template");
+
+        ParameterType type = rule.containsKey("type")
+                ? ParameterType.fromName(rule.get("type"))
+                : templateType(template);
+        double min = readBound(rule.get("min"), templateMin(template));
+        double max = readBound(rule.get("max"), templateMax(template));
+
+        String[] options = null;
+        Object optionValues = rule.get("options");
+        if (optionValues instanceof List && !((List<?>) optionValues).isEmpty()) {
+            List<?> list = (List<?>) optionValues;
+            options = new String[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                options[i] = String.valueOf(list.get(i));
+            }
+        }
+
+        boolean required = Boolean.TRUE.equals(rule.get("required"));
+        return new ParameterRule(name.toString(), type, min, max, rule.get("default"), options, required);
+    }
+
+    /**
+     * 校验请求中的参数值并转换为目标类型
+     *
+     * @param value 请求中的原始值
+     * @return 转换后的值
+     * @throws InvalidModelRequestException 类型不匹配、超出范围或不在可选值中
+     */
+    public Object bind(Object value) {
+        Object converted = convert(value);
+        if (converted instanceof Number) {
+            double number = ((Number) converted).doubleValue();
+            if (number < min || number > max) {
+                throw invalid(describeRange(), "invalid_value");
+            }
+        }
+        if (options != null) {
+            String text = String.valueOf(converted instanceof Map ? ((Map<?, ?>) converted).get("type") : converted);
+            boolean matched = false;
+            for (String option : options) {
+                if (option.equals(text)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                throw invalid("must be one of " + String.join(", ", options), "invalid_value");
+            }
+        }
+        return converted;
+    }
+
+    private Object convert(Object value) {
+        switch (type) {
+            case INT:
+                if (!(value instanceof Number)) {
+                    throw invalid("must be an integer", "invalid_type");
+                }
+                double integral = ((Number) value).doubleValue();
+                if (integral != Math.rint(integral)) {
+                    throw invalid("must be an integer", "invalid_type");
+                }
+                // 转换前检查范围，intValue()会把超出int范围的值截断成看似合法的数
+                if (integral < Integer.MIN_VALUE || integral > Integer.MAX_VALUE) {
+                    throw invalid(integral < min || integral > max ? describeRange()
+                            : integral > 0 ? "must be less than or equal to " + Integer.MAX_VALUE
+                            : "must be greater than or equal to " + Integer.MIN_VALUE, "invalid_value");
+                }
+                return ((Number) value).intValue();
+            case FLOAT:
+                if (value instanceof Number && !Double.isNaN(((Number) value).doubleValue())) {
+                    return ((Number) value).doubleValue();
+                }
+                throw invalid("must be a number", "invalid_type");
+            case BOOLEAN:
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                throw invalid("must be a boolean", "invalid_type");
+            case STRING:
+            case TEXT:
+                // response_format 这类参数允许 {"type": "..."} 对象形式
+                if (value instanceof String || value instanceof Map) {
+                    return value;
+                }
+                throw invalid("must be a string", "invalid_type");
+            default:
+                return value;
+        }
+    }
+
+    private Object coerceDefault(Object value) {
+        try {
+            if (value instanceof String && (type == ParameterType.INT || type == ParameterType.FLOAT)) {
+                return convert(Double.parseDouble((String) value));
+            }
+            return convert(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid default value for parameter rule " + name + ": " + value, e);
+        }
+    }
+
+    private InvalidModelRequestException invalid(String reason, String code) {
+        return new InvalidModelRequestException("Invalid value for '" + name + "': " + reason, name, code);
+    }
+
+    private String describeRange() {
+        if (min == Double.NEGATIVE_INFINITY) {
+            return "must be less than or equal to " + format(max);
+        }
+        if (max == Double.POSITIVE_INFINITY) {
+            return "must be greater than or equal to " + format(min);
+        }
+        return "must be between " + format(min) + " and " + format(max);
+    }
+
+    private String format(double bound) {
+        return type == ParameterType.INT ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+
+    private static double readBound(Object value, double defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    // ================== 内置模板 ==================
+
+    private static ParameterType templateType(Object template) {
+        if (template == null) {
+            return ParameterType.ANY;
+        }
+        switch (template.toString()) {
+            case "temperature":
+            case "top_p":
+            case "presence_penalty":
+            case "frequency_penalty":
+                return ParameterType.FLOAT;
+            case "max_tokens":
+            case "top_k":
+                return ParameterType.INT;
+            case "response_format":
+                return ParameterType.STRING;
+            case "json_schema":
+                return ParameterType.JSON;
+            default:
+                return ParameterType.ANY;
+        }
+    }
+
+    private static double templateMin(Object template) {
+        if (template == null) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        switch (template.toString()) {
+            case "temperature":
+            case "top_p":
+                return 0;
+            case "presence_penalty":
+            case "frequency_penalty":
+                return -2;
+            case "max_tokens":
+            case "top_k":
+                return 1;
+            default:
+                return Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    private static double templateMax(Object template) {
+        if (template == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        switch (template.toString()) {
+            case "temperature":
+            case "presence_penalty":
+            case "frequency_penalty":
+                return 2;
+            case "top_p":
+                return 1;
+            default:
+                return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ParameterType getType() {
+        return type;
+    }
+
+    public Object getDefaultValue() {
+        return defaultValue;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+
+    @Override
+    public String toString() {
+        return "ParameterRule{" +
+                "name='" + name + '\'' +
+                ", type=" + type +
+                ", min=" + min +
+                ", max=" + max +
+                ", default=" + defaultValue +
+                ", required=" + required +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package com.yonchain.ai.model.options;
+
+/**
+ * 参数规则中的参数类型（对应模型YAML parameter_rules中的type）
+ */
+public enum ParameterType {
+
+    INT,
+    FLOAT,
+    BOOLEAN,
+    STRING,
+    TEXT,
+    JSON,
+    ANY;
+
+    /**
+     * 根据YAML中的类型名称解析
+     *
+     * @param name 类型名称，如 int、float、boolean、string、text
+     * @return 参数类型，未知类型返回ANY（不做类型校验）
+     */
+    public static ParameterType fromName(Object name) {
+        if (name == null) {
+            return ANY;
+        }
+        switch (name.toString().toLowerCase()) {
+            case "int":
+            case "integer":
+                return INT;
+            case "float":
+            case "double":
+            case "number":
+                return FLOAT;
+            case "boolean":
+            case "bool":
+                return BOOLEAN;
+            case "string":
+                return STRING;
+            case "text":
+                return TEXT;
+            case "json":
+            case "json_schema":
+            case "object":
+                return JSON;
+            default:
+                return ANY;
+        }
+    }
+}
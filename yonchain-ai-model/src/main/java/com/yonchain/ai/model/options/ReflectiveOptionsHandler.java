@@ -0,0 +1,346 @@
+package com.yonchain.ai.model.options;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.api.exception.YonchainException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.model.ModelOptions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 通用选项处理器
+ * <p>
+ * 按目标选项类型（如 OpenAiChatOptions、DeepSeekChatOptions）自省一次，编译出按参数名索引的
+ * setter表（MethodHandle + 预选的值转换器），之后每次请求只需遍历参数Map、查表并调用：
+ * - 优先使用静态builder()返回的构建器及其单参数方法，其次使用无参构造器和setXxx方法
+ * - 只绑定白名单内的采样和生成参数（温度、最大令牌数、停止词、响应格式等），工具、请求头、
+ *   工具上下文等其他构建器方法不接受客户端传入
+ * - 参数名同时支持camelCase和snake_case（maxTokens / max_tokens）
+ * - 嵌套对象参数按 "外层.内层" 查找别名，如 stream_options.include_usage -> streamUsage
+ * - 基本类型、字符串直接转换，其余类型（枚举、列表、响应格式等）使用Jackson转换
+ * - 类型不匹配或无法识别的参数忽略并记录debug日志
+ * <p>
+ * 每个选项类型只编译一次（{@link #forClass(Class)} 通过ClassValue缓存，不会阻止插件类加载器回收），
+ * 编译结果只读，可被并发请求共享。
+ *
+ * @param <T> Spring AI ModelOptions类型
+ */
+public final class ReflectiveOptionsHandler<T extends ModelOptions> implements ModelOptionsHandler<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReflectiveOptionsHandler.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 允许绑定的参数（snake_case）
+     * <p>
+     * 参数Map来自客户端请求，构建器上的其他方法（如 httpHeaders、toolNames、toolContext、
+     * internalToolExecutionEnabled）会覆盖网关的鉴权和工具执行设置，不能由客户端指定
+     */
+    private static final Set<String> ALLOWED_KEYS = Set.of(
+            // 对话采样和生成
+            "temperature", "top_p", "top_k", "max_tokens", "max_completion_tokens",
+            "frequency_penalty", "presence_penalty", "stop", "stop_sequences", "n", "seed",
+            "logprobs", "top_logprobs", "logit_bias", "response_format", "reasoning_effort",
+            "stream_usage", "user",
+            // 嵌入
+            "dimensions", "encoding_format",
+            // 图像
+            "size", "quality", "style", "width", "height");
+
+    /**
+     * 嵌套参数别名
+     */
+    private static final Map<String, String> NESTED_ALIASES = Map.of("stream_options.include_usage", "streamUsage");
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final Object NO_MATCH = new Object();
+
+    private static final ClassValue<ReflectiveOptionsHandler<?>> HANDLERS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected ReflectiveOptionsHandler<?> computeValue(Class<?> type) {
+            return new ReflectiveOptionsHandler(type);
+        }
+    };
+
+    private final Class<T> optionsClass;
+    private final MethodHandle factory;
+    private final MethodHandle finisher;
+    private final Map<String, Setter[]> setters;
+
+    private ReflectiveOptionsHandler(Class<T> optionsClass) {
+        if (!ModelOptions.class.isAssignableFrom(optionsClass)) {
+            throw new IllegalArgumentException(optionsClass.getName() + " is not a ModelOptions type");
+        }
+        this.optionsClass = optionsClass;
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            Method builderMethod = findBuilderMethod(optionsClass);
+            Class<?> targetClass;
+            if (builderMethod != null) {
+                // 构建器模式：builder() -> 单参数方法 -> build()
+                targetClass = builderMethod.getReturnType();
+                this.factory = lookup.unreflect(builderMethod).asType(MethodType.methodType(Object.class));
+                this.finisher = lookup.unreflect(targetClass.getMethod("build"))
+                        .asType(MethodType.methodType(Object.class, Object.class));
+            } else {
+                // JavaBean模式：无参构造器 -> setXxx
+                targetClass = optionsClass;
+                this.factory = lookup.findConstructor(optionsClass, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+                this.finisher = MethodHandles.identity(Object.class);
+            }
+            this.setters = compileSetters(lookup, targetClass, builderMethod == null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot introspect options type " + optionsClass.getName(), e);
+        }
+        log.debug("Compiled {} option setters for {}", setters.size(), optionsClass.getName());
+    }
+
+    /**
+     * 获取指定选项类型的通用处理器（每个类型只编译一次）
+     *
+     * @param optionsClass 选项类型
+     * @return 通用处理器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ModelOptions> ReflectiveOptionsHandler<T> forClass(Class<T> optionsClass) {
+        return (ReflectiveOptionsHandler<T>) HANDLERS.get(optionsClass);
+    }
+
+    @Override
+    public T buildOptions(Map<String, Object> config) {
+        return buildOptions(config, CompiledParameterRules.EMPTY, false);
+    }
+
+    /**
+     * 构建选项，遍历参数时同时按参数规则校验和转换
+     * <p>
+     * 声明了规则的参数先校验转换再绑定，转换后的值写回参数Map；请求未提供的参数按规则填充默认值
+     *
+     * @param config        请求参数
+     * @param rules         参数规则
+     * @param applyDefaults 是否填充非必填参数的默认值
+     * @return 构建的选项
+     * @throws com.yonchain.ai.model.InvalidModelRequestException 参数不符合规则
+     */
+    @SuppressWarnings("unchecked")
+    T buildOptions(Map<String, Object> config, CompiledParameterRules rules, boolean applyDefaults) {
+        try {
+            Object target = factory.invokeExact();
+            if (config != null) {
+                for (Map.Entry<String, Object> entry : config.entrySet()) {
+                    Object value = entry.getValue();
+                    if (value == null) {
+                        continue;
+                    }
+                    ParameterRule rule = rules.getRule(entry.getKey());
+                    if (rule != null) {
+                        value = rule.bind(value);
+                        entry.setValue(value);
+                    }
+                    bind(target, entry.getKey(), value);
+                }
+                if (rules.size() > 0) {
+                    Map<String, Object> defaults = rules.missingDefaults(config, applyDefaults);
+                    for (Map.Entry<String, Object> entry : defaults.entrySet()) {
+                        config.put(entry.getKey(), entry.getValue());
+                        bind(target, entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            Object options = finisher.invokeExact(target);
+            return (T) options;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new YonchainException("Failed to build " + optionsClass.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void bind(Object target, String key, Object value) throws Throwable {
+        Setter[] candidates = setters.get(key);
+        if (candidates != null) {
+            apply(target, key, candidates, value);
+        } else if (value instanceof Map) {
+            applyNested(target, key, (Map<?, ?>) value);
+        }
+    }
+
+    private void applyNested(Object target, String key, Map<?, ?> nested) throws Throwable {
+        for (Map.Entry<?, ?> entry : nested.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            Setter[] candidates = setters.get(key + "." + entry.getKey());
+            if (candidates != null) {
+                apply(target, key + "." + entry.getKey(), candidates, entry.getValue());
+            }
+        }
+    }
+
+    private static void apply(Object target, String key, Setter[] candidates, Object value) throws Throwable {
+        for (Setter setter : candidates) {
+            Object converted = setter.convert(value);
+            if (converted != NO_MATCH) {
+                setter.handle.invokeExact(target, converted);
+                return;
+            }
+        }
+        log.debug("Ignored option {} with unsupported value type {}", key, value.getClass().getSimpleName());
+    }
+
+    public Class<T> getOptionsClass() {
+        return optionsClass;
+    }
+
+    /**
+     * 可设置的参数名（含别名）
+     */
+    public Set<String> getOptionKeys() {
+        return setters.keySet();
+    }
+
+    // ================== 编译 ==================
+
+    private static Method findBuilderMethod(Class<?> optionsClass) {
+        try {
+            Method method = optionsClass.getMethod("builder");
+            return Modifier.isStatic(method.getModifiers()) ? method : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Setter[]> compileSetters(MethodHandles.Lookup lookup, Class<?> targetClass,
+                                                        boolean beanSetters) throws IllegalAccessException {
+        Map<String, List<Setter>> byName = new HashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1
+                    || method.getDeclaringClass() == Object.class || method.isBridge()) {
+                continue;
+            }
+            String name = method.getName();
+            if (beanSetters) {
+                if (!name.startsWith("set") || name.length() == 3) {
+                    continue;
+                }
+                name = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+            }
+            if (!ALLOWED_KEYS.contains(toSnakeCase(name))) {
+                continue;
+            }
+            MethodHandle handle = lookup.unreflect(method).asType(SETTER_TYPE);
+            Setter setter = new Setter(handle, method.getParameterTypes()[0], method.getGenericParameterTypes()[0]);
+            byName.computeIfAbsent(name, k -> new ArrayList<>()).add(setter);
+        }
+
+        Map<String, Setter[]> table = new HashMap<>();
+        for (Map.Entry<String, List<Setter>> entry : byName.entrySet()) {
+            List<Setter> overloads = entry.getValue();
+            // 重载方法中优先尝试参数类型更具体的（基本类型和字符串优先于Object）
+            overloads.sort((a, b) -> Integer.compare(a.specificity(), b.specificity()));
+            Setter[] candidates = overloads.toArray(new Setter[0]);
+            table.put(entry.getKey(), candidates);
+            String snakeName = toSnakeCase(entry.getKey());
+            table.putIfAbsent(snakeName, candidates);
+        }
+        for (Map.Entry<String, String> alias : NESTED_ALIASES.entrySet()) {
+            Setter[] candidates = table.get(alias.getValue());
+            if (candidates != null) {
+                table.put(alias.getKey(), candidates);
+            }
+        }
+        return Map.copyOf(table);
+    }
+
+    private static String toSnakeCase(String name) {
+        StringBuilder builder = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    builder.append('_');
+                }
+                builder.append(Character.toLowerCase(c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 单个setter：MethodHandle和按参数类型预选的转换方式
+     */
+    private static final class Setter {
+
+        private final MethodHandle handle;
+        private final Class<?> type;
+        private final JavaType javaType;
+
+        Setter(MethodHandle handle, Class<?> type, Type genericType) {
+            this.handle = handle;
+            this.type = type;
+            this.javaType = OBJECT_MAPPER.getTypeFactory().constructType(genericType);
+        }
+
+        int specificity() {
+            if (type.isPrimitive() || Number.class.isAssignableFrom(type) || type == Boolean.class) {
+                return 0;
+            }
+            if (type == String.class) {
+                return 1;
+            }
+            return type == Object.class ? 3 : 2;
+        }
+
+        Object convert(Object value) {
+            if (type == Integer.class || type == int.class) {
+                return value instanceof Number ? (Object) ((Number) value).intValue() : NO_MATCH;
+            }
+            if (type == Double.class || type == double.class) {
+                return value instanceof Number ? (Object) ((Number) value).doubleValue() : NO_MATCH;
+            }
+            if (type == Float.class || type == float.class) {
+                return value instanceof Number ? (Object) ((Number) value).floatValue() : NO_MATCH;
+            }
+            if (type == Long.class || type == long.class) {
+                return value instanceof Number ? (Object) ((Number) value).longValue() : NO_MATCH;
+            }
+            if (type == Boolean.class || type == boolean.class) {
+                return value instanceof Boolean ? value : NO_MATCH;
+            }
+            if (type == String.class) {
+                return value instanceof String ? value : NO_MATCH;
+            }
+            if (type.isInstance(value) && !(value instanceof Collection) && !(value instanceof Map)) {
+                return value;
+            }
+            if (Collection.class.isAssignableFrom(type) && !(value instanceof Collection)) {
+                // 单个值按单元素列表处理，如 stop: "END"
+                value = List.of(value);
+            }
+            try {
+                return OBJECT_MAPPER.convertValue(value, javaType);
+            } catch (IllegalArgumentException e) {
+                return NO_MATCH;
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.yonchain.ai.model.request;
 
+import com.yonchain.ai.model.deadline.Deadline;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
@@ -21,6 +22,13 @@ public class ChatRequest {
     // 原始参数，用于延迟处理
     private Map<String, Object> rawParameters;
     
+    // 请求截止时间，为null时由ModelClient按模型超时配置计算
+    private Deadline deadline;
+    
+    // 调用方租户和请求体大小，用于JFR调用事件
+    private String tenantId;
+    private long requestBytes;
+    
     public ChatRequest() {
         this.messages = new ArrayList<>();
     }
@@ -58,6 +66,30 @@ public class ChatRequest {
         this.rawParameters = rawParameters;
     }
     
+    public Deadline getDeadline() {
+        return deadline;
+    }
+    
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+    
+    public String getTenantId() {
+        return tenantId;
+    }
+    
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+    
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+    
+    public void setRequestBytes(long requestBytes) {
+        this.requestBytes = requestBytes;
+    }
+    
     /**
      * 添加消息
      * 
@@ -144,6 +176,11 @@ public class ChatRequest {
             return this;
         }
         
+        public Builder deadline(Deadline deadline) {
+            request.setDeadline(deadline);
+            return this;
+        }
+        
         public ChatRequest build() {
             return request;
         }
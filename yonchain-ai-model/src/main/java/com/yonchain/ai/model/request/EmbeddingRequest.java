@@ -1,5 +1,6 @@
 package com.yonchain.ai.model.request;
 
+import com.yonchain.ai.model.deadline.Deadline;
 import org.springframework.ai.embedding.EmbeddingOptions;
 
 import java.util.List;
@@ -13,6 +14,13 @@ public class EmbeddingRequest {
     private List<String> texts;
     private EmbeddingOptions options;
     
+    // 请求截止时间，为null时由ModelClient按模型超时配置计算
+    private Deadline deadline;
+    
+    // 调用方租户和请求体大小，用于JFR调用事件
+    private String tenantId;
+    private long requestBytes;
+    
     public EmbeddingRequest() {
     }
     
@@ -48,6 +56,30 @@ public class EmbeddingRequest {
         this.options = options;
     }
     
+    public Deadline getDeadline() {
+        return deadline;
+    }
+    
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+    
+    public String getTenantId() {
+        return tenantId;
+    }
+    
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+    
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+    
+    public void setRequestBytes(long requestBytes) {
+        this.requestBytes = requestBytes;
+    }
+    
     /**
      * 转换为Spring AI的EmbeddingRequest
      * 
@@ -88,6 +120,11 @@ public class EmbeddingRequest {
             return this;
         }
         
+        public Builder deadline(Deadline deadline) {
+            request.setDeadline(deadline);
+            return this;
+        }
+        
         public EmbeddingRequest build() {
             return request;
         }
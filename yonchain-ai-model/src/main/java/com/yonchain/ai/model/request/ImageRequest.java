@@ -1,5 +1,6 @@
 package com.yonchain.ai.model.request;
 
+import com.yonchain.ai.model.deadline.Deadline;
 import org.springframework.ai.image.ImagePrompt;
 import org.springframework.ai.image.ImageOptions;
 
@@ -11,6 +12,13 @@ public class ImageRequest {
     private String prompt;
     private ImageOptions options;
     
+    // 请求截止时间，为null时由ModelClient按模型超时配置计算
+    private Deadline deadline;
+    
+    // 调用方租户和请求体大小，用于JFR调用事件
+    private String tenantId;
+    private long requestBytes;
+    
     public ImageRequest() {
     }
     
@@ -34,6 +42,30 @@ public class ImageRequest {
         this.options = options;
     }
     
+    public Deadline getDeadline() {
+        return deadline;
+    }
+    
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+    
+    public String getTenantId() {
+        return tenantId;
+    }
+    
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+    
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+    
+    public void setRequestBytes(long requestBytes) {
+        this.requestBytes = requestBytes;
+    }
+    
     /**
      * 转换为Spring AI的ImagePrompt
      * 
@@ -80,6 +112,11 @@ public class ImageRequest {
             return this;
         }
         
+        public Builder deadline(Deadline deadline) {
+            request.setDeadline(deadline);
+            return this;
+        }
+        
         public ImageRequest build() {
             return request;
         }
@@ -0,0 +1,166 @@
+package com.yonchain.ai.quota;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个主体在单个窗口周期内的花费计数器（单位：百万分之一基准币种）
+ * <p>
+ * 请求线程只操作LongAdder（按CPU分片，高并发下不争用同一缓存行）：
+ * - pending：本地已结算、尚未同步到存储的花费
+ * - reserved：已预留、尚未结算的花费
+ * <p>
+ * globalMicros是最近一次同步得到的全局花费（包含其他节点），unsyncedMicros是已从pending取出
+ * 但尚未确认写入存储的花费，两者由同步线程写入（globalMicros在首次使用时由请求线程初始化）。
+ * 已用花费 = globalMicros + unsyncedMicros + pending，预留判断基于已用花费 + reserved，
+ * 检查与预留之间不加锁，并发请求最多超出各自的预留额。
+ * 新建的计数器由同步线程异步从存储读取一次全局花费（请求线程不等待存储），避免节点重启或
+ * 首次处理某个主体时长期放过已超限的请求。
+ */
+final class QuotaCounter {
+
+    private final String key;
+    private final QuotaScope scope;
+    private final QuotaWindow window;
+    private final long limitMicros;
+    private final long periodEndMillis;
+
+    private final LongAdder pending = new LongAdder();
+    private final LongAdder reserved = new LongAdder();
+    private volatile long globalMicros;
+    private volatile long unsyncedMicros;
+    private volatile long lastUsedMillis = System.currentTimeMillis();
+
+    // 以下字段只由同步线程访问
+    private final long[] backlog;
+    private boolean seeded;
+
+    QuotaCounter(String key, QuotaScope scope, QuotaWindow window, long limitMicros, long periodEndMillis,
+                 int storeCount) {
+        this.key = key;
+        this.scope = scope;
+        this.window = window;
+        this.limitMicros = limitMicros;
+        this.periodEndMillis = periodEndMillis;
+        this.backlog = new long[storeCount];
+    }
+
+    /**
+     * 记录最近使用时间（精确到秒，减少请求线程对同一字段的写入）
+     */
+    void touch(long nowMillis) {
+        if (nowMillis - lastUsedMillis > 1000) {
+            lastUsedMillis = nowMillis;
+        }
+    }
+
+    long getLastUsedMillis() {
+        return lastUsedMillis;
+    }
+
+    /**
+     * 尝试预留花费
+     *
+     * @return 预留后不超过限额时返回true
+     */
+    boolean tryReserve(long amountMicros) {
+        if (usedMicros() + reserved.sum() + amountMicros > limitMicros) {
+            return false;
+        }
+        reserved.add(amountMicros);
+        return true;
+    }
+
+    void release(long amountMicros) {
+        reserved.add(-amountMicros);
+    }
+
+    void record(long amountMicros) {
+        if (amountMicros != 0) {
+            pending.add(amountMicros);
+        }
+    }
+
+    long usedMicros() {
+        return globalMicros + unsyncedMicros + pending.sum();
+    }
+
+    /**
+     * 已用和已预留花费占限额的比例
+     */
+    double usageRatio() {
+        return (usedMicros() + reserved.sum()) / (double) limitMicros;
+    }
+
+    /**
+     * 取出待同步的花费，同步完成前计入unsyncedMicros，保证已用花费不会短暂变小
+     */
+    long drainPending() {
+        long delta = pending.sumThenReset();
+        if (delta != 0) {
+            unsyncedMicros += delta;
+        }
+        return delta;
+    }
+
+    /**
+     * 读取到全局花费，只在大于当前值时更新（同步可能已写入更新的值）
+     */
+    synchronized void seed(long totalMicros) {
+        if (totalMicros > globalMicros) {
+            globalMicros = totalMicros;
+        }
+    }
+
+    /**
+     * 同步成功后更新全局花费
+     */
+    synchronized void synced(long totalMicros) {
+        globalMicros = totalMicros;
+        unsyncedMicros = 0;
+        seeded = true;
+    }
+
+    boolean isIdle() {
+        return pending.sum() == 0 && reserved.sum() == 0 && unsyncedMicros == 0;
+    }
+
+    long[] getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * 是否还有写入失败、等待重试的增量
+     */
+    boolean hasBacklog() {
+        for (long amount : backlog) {
+            if (amount != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isSeeded() {
+        return seeded;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    QuotaScope getScope() {
+        return scope;
+    }
+
+    QuotaWindow getWindow() {
+        return window;
+    }
+
+    long getLimitMicros() {
+        return limitMicros;
+    }
+
+    long getPeriodEndMillis() {
+        return periodEndMillis;
+    }
+}
@@ -0,0 +1,461 @@
+package com.yonchain.ai.quota;
+
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.quota.store.QuotaStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 租户预算引擎
+ * <p>
+ * 按租户、API Key、智能体三个维度和日、月两个窗口限制模型花费：
+ * - 调用上游前按估算费用（输入Token数 + max_tokens，按模型价格）预留，任一维度超出限额时拒绝（429）
+ * - 请求结束后按实际用量结算，释放预留
+ * - 计数在本地按CPU分片累加，由后台线程每 quota.sync.interval 毫秒同步到存储（Redis、数据库），
+ *   并取回包含其他节点花费的全局值；新计数器由后台线程异步从存储读取一次历史花费，请求线程不访问存储
+ * - 花费达到限额的 quota.downgrade.threshold 比例时，将请求降级到 quota.downgrade.alias（如成本路由别名）
+ * <p>
+ * 只为有限额的主体创建计数器。计数器数量不超过 quota.max.counters，超过时拒绝新主体；
+ * 超过 quota.counter.idle.ttl 毫秒未使用或窗口已结束、且增量已全部写入存储的计数器会被移除。
+ * <p>
+ * 预算主体默认取自已认证的身份（见 {@link QuotaSubject}），只有在前置网关已认证并覆盖请求头时才应开启
+ * quota.subject.trusted.headers 改用X-Tenant-Id等请求头。quota.subject.required 开启（默认）时，
+ * 配置了默认限额的维度缺少主体的请求直接拒绝，不能通过省略身份绕过限额。
+ * <p>
+ * 限额配置（基准币种，与成本路由相同，0表示不限）：
+ * - quota.{tenant|key|agent}.{daily|monthly}.limit：默认限额
+ * - quota.{tenant|key|agent}.{主体ID}.{daily|monthly}.limit：指定主体的限额
+ * 没有限额的主体不计量。
+ */
+public class QuotaEngine implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuotaEngine.class);
+
+    public static final String ENABLED = "quota.enabled";
+    public static final String SYNC_INTERVAL_MS = "quota.sync.interval";
+    public static final String TIMEZONE = "quota.timezone";
+    public static final String DOWNGRADE_THRESHOLD = "quota.downgrade.threshold";
+    public static final String DOWNGRADE_ALIAS = "quota.downgrade.alias";
+    public static final String DEFAULT_COMPLETION_TOKENS = "quota.default.completion.tokens";
+    public static final String MAX_COUNTERS = "quota.max.counters";
+    public static final String COUNTER_IDLE_TTL_MS = "quota.counter.idle.ttl";
+    public static final String SUBJECT_REQUIRED = "quota.subject.required";
+    public static final String SUBJECT_TRUSTED_HEADERS = "quota.subject.trusted.headers";
+
+    private static final double MICROS = 1_000_000d;
+
+    private final ModelConfiguration configuration;
+    private final List<QuotaStore> stores;
+    private final boolean[] storeHealthy;
+    private final boolean enabled;
+    private final ZoneId zone;
+    private final double downgradeThreshold;
+    private final String downgradeAlias;
+    private final int defaultCompletionTokens;
+    private final int maxCounters;
+    private final long counterIdleTtlMillis;
+    private final boolean subjectRequired;
+    private final boolean trustedHeaders;
+    private final long[][] defaultLimitMicros;
+    private final Map<String, QuotaCounter> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reconciler;
+
+    // 已移除但可能仍被请求使用的计数器，只由同步线程访问
+    private final List<QuotaCounter> retired = new ArrayList<>();
+
+    private volatile Periods periods;
+
+    public QuotaEngine(ModelConfiguration configuration, List<QuotaStore> stores) {
+        this.configuration = configuration;
+        this.stores = List.copyOf(stores);
+        this.storeHealthy = new boolean[this.stores.size()];
+        Arrays.fill(storeHealthy, true);
+        this.enabled = configuration.getBooleanProperty(ENABLED, false);
+        String timezone = configuration.getProperty(TIMEZONE, "");
+        this.zone = timezone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(timezone);
+        this.downgradeThreshold = configuration.getDoubleProperty(DOWNGRADE_THRESHOLD, 0.9);
+        this.downgradeAlias = configuration.getProperty(DOWNGRADE_ALIAS, "auto");
+        this.defaultCompletionTokens = configuration.getIntProperty(DEFAULT_COMPLETION_TOKENS, 1024);
+        this.maxCounters = Math.max(configuration.getIntProperty(MAX_COUNTERS, 100_000), 1);
+        this.counterIdleTtlMillis = configuration.getLongProperty(COUNTER_IDLE_TTL_MS, 600_000L);
+        this.subjectRequired = configuration.getBooleanProperty(SUBJECT_REQUIRED, true);
+        this.trustedHeaders = configuration.getBooleanProperty(SUBJECT_TRUSTED_HEADERS, false);
+        this.defaultLimitMicros = new long[QuotaScope.values().length][QuotaWindow.values().length];
+        for (QuotaScope scope : QuotaScope.values()) {
+            for (QuotaWindow window : QuotaWindow.values()) {
+                double limit = configuration.getDoubleProperty(
+                        "quota." + scope.getCode() + "." + window.getCode() + ".limit", 0);
+                defaultLimitMicros[scope.ordinal()][window.ordinal()] = limit > 0 ? toMicros(limit) : 0;
+            }
+        }
+
+        if (enabled) {
+            long interval = Math.max(configuration.getLongProperty(SYNC_INTERVAL_MS, 1000L), 100L);
+            this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "quota-reconciler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reconciler.scheduleWithFixedDelay(this::reconcileSafely, interval, interval, TimeUnit.MILLISECONDS);
+            logger.info("Quota engine enabled with stores {}, sync interval {} ms", storeNames(), interval);
+        } else {
+            this.reconciler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 是否使用请求头（X-Tenant-Id、Authorization、X-Agent-Id）作为预算主体
+     */
+    public boolean isTrustedHeaders() {
+        return trustedHeaders;
+    }
+
+    /**
+     * 请求未声明max_tokens时用于估算的输出Token数
+     */
+    public int getDefaultCompletionTokens() {
+        return defaultCompletionTokens;
+    }
+
+    /**
+     * 按估算费用预留预算
+     *
+     * @param subject       预算主体
+     * @param estimatedCost 估算费用（基准币种），只在主体有限额时计算；无法估算时返回NaN（只检查是否已超限）
+     * @return 预留，需在请求结束后结算
+     * @throws QuotaExceededException 任一维度超出限额，或有默认限额的维度缺少主体
+     */
+    public QuotaReservation reserve(QuotaSubject subject, DoubleSupplier estimatedCost) {
+        if (!enabled) {
+            return QuotaReservation.NONE;
+        }
+        requireSubject(subject);
+        if (subject.isEmpty()) {
+            return QuotaReservation.NONE;
+        }
+        List<QuotaCounter> limited = resolveCounters(subject);
+        if (limited.isEmpty()) {
+            return QuotaReservation.NONE;
+        }
+
+        long amount = toMicros(estimatedCost.getAsDouble());
+        for (int i = 0; i < limited.size(); i++) {
+            QuotaCounter counter = limited.get(i);
+            if (!counter.tryReserve(amount)) {
+                for (int j = 0; j < i; j++) {
+                    limited.get(j).release(amount);
+                }
+                throw new QuotaExceededException(String.format(
+                        "You exceeded your %s %s quota of %.4f. Used %.4f, this request needs about %.4f.",
+                        counter.getWindow().getCode(), counter.getScope().getCode(),
+                        counter.getLimitMicros() / MICROS, counter.usedMicros() / MICROS, amount / MICROS),
+                        counter.getScope(), counter.getWindow());
+            }
+        }
+        return new QuotaReservation(limited, amount);
+    }
+
+    /**
+     * 按实际费用结算预留（重复结算会被忽略）
+     *
+     * @param reservation 预留
+     * @param actualCost  实际费用（基准币种），无法计算时传NaN按0结算
+     */
+    public void settle(QuotaReservation reservation, double actualCost) {
+        if (reservation == null || reservation.getCounters().isEmpty() || !reservation.markSettled()) {
+            return;
+        }
+        long actual = toMicros(actualCost);
+        for (QuotaCounter counter : reservation.getCounters()) {
+            counter.release(reservation.getAmountMicros());
+            counter.record(actual);
+        }
+    }
+
+    /**
+     * 获取降级目标
+     *
+     * @param subject 预算主体
+     * @return 花费达到降级阈值时返回降级别名，否则返回null
+     */
+    public String resolveDowngrade(QuotaSubject subject) {
+        if (!enabled || downgradeAlias.isBlank() || subject.isEmpty()) {
+            return null;
+        }
+        for (QuotaCounter counter : resolveCounters(subject)) {
+            if (counter.usageRatio() >= downgradeThreshold) {
+                return downgradeAlias;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 同步本地计数到存储，并移除窗口已结束或长时间未使用的计数器
+     * <p>
+     * 只移除没有待同步花费、没有预留、且各存储积压已清空的计数器。移除前已取得该计数器的请求
+     * 仍可能在其上预留和结算，因此移除后继续同步，直到它再次空闲。
+     */
+    public void reconcile() {
+        retired.removeIf(counter -> counter.isIdle() && !counter.hasBacklog());
+
+        List<QuotaCounter> batch = new ArrayList<>(counters.size() + retired.size());
+        batch.addAll(counters.values());
+        batch.addAll(retired);
+        sync(batch);
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, QuotaCounter> entry : counters.entrySet()) {
+            QuotaCounter counter = entry.getValue();
+            boolean unused = now >= counter.getPeriodEndMillis()
+                    || now - counter.getLastUsedMillis() >= counterIdleTtlMillis;
+            if (unused && counter.isIdle() && !counter.hasBacklog() && counters.remove(entry.getKey(), counter)) {
+                retired.add(counter);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (reconciler != null) {
+            reconciler.shutdown();
+            try {
+                reconciler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // 关闭前同步剩余的本地花费
+            reconcileSafely();
+        }
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.error("Quota reconciliation failed", e);
+        }
+    }
+
+    /**
+     * 将计数器的增量批量写入各存储（每个存储一次调用），以返回值中的最大值作为全局花费。
+     * 写入失败的增量保留在该存储的积压中，下个周期重试。
+     */
+    private void sync(List<QuotaCounter> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long[] deltas = new long[batch.size()];
+        long[] best = new long[batch.size()];
+        for (int c = 0; c < batch.size(); c++) {
+            deltas[c] = batch.get(c).drainPending();
+            best[c] = -1;
+        }
+
+        for (int i = 0; i < stores.size(); i++) {
+            List<QuotaStore.Increment> increments = new ArrayList<>(batch.size());
+            List<Integer> indexes = new ArrayList<>(batch.size());
+            for (int c = 0; c < batch.size(); c++) {
+                QuotaCounter counter = batch.get(c);
+                long amount = counter.getBacklog()[i] + deltas[c];
+                // 只有首个存储在没有增量时也读取，用于获取其他节点的花费
+                if (amount == 0 && i > 0 && counter.isSeeded()) {
+                    continue;
+                }
+                increments.add(new QuotaStore.Increment(counter.getKey(), amount, counter.getPeriodEndMillis()));
+                indexes.add(c);
+            }
+            if (increments.isEmpty()) {
+                continue;
+            }
+
+            QuotaStore store = stores.get(i);
+            try {
+                long[] totals = store.incrementAll(increments);
+                for (int j = 0; j < totals.length; j++) {
+                    int c = indexes.get(j);
+                    batch.get(c).getBacklog()[i] = 0;
+                    best[c] = Math.max(best[c], totals[j]);
+                }
+                if (!storeHealthy[i]) {
+                    storeHealthy[i] = true;
+                    logger.info("Quota store {} recovered", store.getName());
+                }
+            } catch (RuntimeException e) {
+                for (int j = 0; j < increments.size(); j++) {
+                    batch.get(indexes.get(j)).getBacklog()[i] = increments.get(j).deltaMicros();
+                }
+                if (storeHealthy[i]) {
+                    storeHealthy[i] = false;
+                    logger.warn("Quota store {} unavailable, keeping deltas locally: {}", store.getName(), e.getMessage());
+                }
+            }
+        }
+
+        for (int c = 0; c < batch.size(); c++) {
+            if (best[c] >= 0) {
+                batch.get(c).synced(best[c]);
+            }
+        }
+    }
+
+    /**
+     * 从首个可用的存储读取新计数器的全局花费（在同步线程执行），失败时在下个同步周期补齐
+     */
+    private void seed(QuotaCounter counter) {
+        for (int i = 0; i < stores.size(); i++) {
+            if (!storeHealthy[i]) {
+                continue;
+            }
+            try {
+                counter.seed(stores.get(i).increment(counter.getKey(), 0, counter.getPeriodEndMillis()));
+                return;
+            } catch (RuntimeException e) {
+                logger.debug("Failed to seed quota counter {} from {}: {}",
+                        counter.getKey(), stores.get(i).getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 有默认限额的维度必须带有主体，否则省略请求头或身份即可绕过限额
+     */
+    private void requireSubject(QuotaSubject subject) {
+        if (!subjectRequired) {
+            return;
+        }
+        for (QuotaScope scope : QuotaScope.values()) {
+            if (subject.getId(scope) != null) {
+                continue;
+            }
+            for (QuotaWindow window : QuotaWindow.values()) {
+                if (defaultLimitMicros[scope.ordinal()][window.ordinal()] > 0) {
+                    throw new QuotaExceededException(String.format(
+                            "An authenticated %s identity is required because a %s %s quota is enforced.",
+                            scope.getCode(), window.getCode(), scope.getCode()), scope, window);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取主体当前周期内有限额的计数器，没有限额的主体不创建计数器
+     */
+    private List<QuotaCounter> resolveCounters(QuotaSubject subject) {
+        Periods current = currentPeriods();
+        long now = System.currentTimeMillis();
+        List<QuotaCounter> limited = new ArrayList<>(QuotaScope.values().length * QuotaWindow.values().length);
+        for (QuotaScope scope : QuotaScope.values()) {
+            String id = subject.getId(scope);
+            if (id == null) {
+                continue;
+            }
+            for (QuotaWindow window : QuotaWindow.values()) {
+                String key = scope.getCode() + ":" + id + ":" + window.getCode() + ":" + current.keys[window.ordinal()];
+                QuotaCounter counter = counters.get(key);
+                if (counter == null) {
+                    long limit = resolveLimitMicros(scope, id, window);
+                    if (limit == 0) {
+                        continue;
+                    }
+                    counter = createCounter(key, scope, window, limit, current.endMillis[window.ordinal()]);
+                }
+                counter.touch(now);
+                limited.add(counter);
+            }
+        }
+        return limited;
+    }
+
+    private QuotaCounter createCounter(String key, QuotaScope scope, QuotaWindow window, long limitMicros,
+                                       long periodEndMillis) {
+        if (counters.size() >= maxCounters) {
+            logger.warn("Quota counters reached {} ({}), rejecting new subject {}", maxCounters, MAX_COUNTERS, key);
+            throw new QuotaExceededException("Too many active quota subjects, please retry later.", scope, window);
+        }
+        QuotaCounter created = new QuotaCounter(key, scope, window, limitMicros, periodEndMillis, stores.size());
+        QuotaCounter existing = counters.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            reconciler.execute(() -> {
+                try {
+                    seed(created);
+                } catch (RuntimeException e) {
+                    logger.debug("Failed to seed quota counter {}: {}", key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 正在关闭
+        }
+        return created;
+    }
+
+    private long resolveLimitMicros(QuotaScope scope, String id, QuotaWindow window) {
+        double limit = configuration.getDoubleProperty(
+                "quota." + scope.getCode() + "." + id + "." + window.getCode() + ".limit", -1);
+        if (limit < 0) {
+            return defaultLimitMicros[scope.ordinal()][window.ordinal()];
+        }
+        return limit > 0 ? toMicros(limit) : 0;
+    }
+
+    private Periods currentPeriods() {
+        Periods current = periods;
+        long now = System.currentTimeMillis();
+        if (current == null || now >= current.validUntilMillis) {
+            current = new Periods(LocalDate.now(zone), zone);
+            periods = current;
+        }
+        return current;
+    }
+
+    private List<String> storeNames() {
+        List<String> names = new ArrayList<>(stores.size());
+        for (QuotaStore store : stores) {
+            names.add(store.getName());
+        }
+        return names;
+    }
+
+    private static long toMicros(double cost) {
+        return Double.isNaN(cost) || cost <= 0 ? 0 : Math.round(cost * MICROS);
+    }
+
+    /**
+     * 当前日、月窗口的周期标识和结束时间
+     */
+    private static final class Periods {
+        private final String[] keys = new String[QuotaWindow.values().length];
+        private final long[] endMillis = new long[QuotaWindow.values().length];
+        private final long validUntilMillis;
+
+        private Periods(LocalDate date, ZoneId zone) {
+            long validUntil = Long.MAX_VALUE;
+            for (QuotaWindow window : QuotaWindow.values()) {
+                keys[window.ordinal()] = window.periodKey(date);
+                endMillis[window.ordinal()] = window.periodEndMillis(date, zone);
+                validUntil = Math.min(validUntil, endMillis[window.ordinal()]);
+            }
+            this.validUntilMillis = validUntil;
+        }
+    }
+}
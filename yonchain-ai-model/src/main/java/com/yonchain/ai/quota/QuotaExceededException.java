@@ -0,0 +1,29 @@
+package com.yonchain.ai.quota;
+
+import com.yonchain.ai.api.exception.YonchainException;
+
+/**
+ * 预算超限异常
+ * <p>
+ * 由过滤器转换为OpenAI格式的429错误响应：
+ * {"error": {"message", "type": "insufficient_quota", "code": "quota_exceeded"}}
+ */
+public class QuotaExceededException extends YonchainException {
+
+    private final QuotaScope scope;
+    private final QuotaWindow window;
+
+    public QuotaExceededException(String message, QuotaScope scope, QuotaWindow window) {
+        super(message);
+        this.scope = scope;
+        this.window = window;
+    }
+
+    public QuotaScope getScope() {
+        return scope;
+    }
+
+    public QuotaWindow getWindow() {
+        return window;
+    }
+}
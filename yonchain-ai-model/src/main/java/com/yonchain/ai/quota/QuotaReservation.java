@@ -0,0 +1,46 @@
+package com.yonchain.ai.quota;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 预算预留
+ * <p>
+ * 调用上游之前按估算费用预留，请求结束后通过 {@link QuotaEngine#settle(QuotaReservation, double)}
+ * 按实际费用结算（只结算一次，失败的请求按已产生的费用或0结算）。
+ */
+public final class QuotaReservation {
+
+    /**
+     * 未启用预算或请求没有需要计量的主体
+     */
+    public static final QuotaReservation NONE = new QuotaReservation(List.of(), 0);
+
+    private final List<QuotaCounter> counters;
+    private final long amountMicros;
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    QuotaReservation(List<QuotaCounter> counters, long amountMicros) {
+        this.counters = counters;
+        this.amountMicros = amountMicros;
+    }
+
+    List<QuotaCounter> getCounters() {
+        return counters;
+    }
+
+    /**
+     * 预留金额（百万分之一基准币种）
+     */
+    public long getAmountMicros() {
+        return amountMicros;
+    }
+
+    boolean markSettled() {
+        return settled.compareAndSet(false, true);
+    }
+
+    public boolean isSettled() {
+        return settled.get();
+    }
+}
@@ -0,0 +1,35 @@
+package com.yonchain.ai.quota;
+
+/**
+ * 预算维度
+ */
+public enum QuotaScope {
+
+    /**
+     * 租户
+     */
+    TENANT("tenant"),
+
+    /**
+     * 调用方（已认证主体，或可信请求头模式下的Authorization Bearer，按摘要区分）
+     */
+    API_KEY("key"),
+
+    /**
+     * 智能体
+     */
+    AGENT("agent");
+
+    private final String code;
+
+    QuotaScope(String code) {
+        this.code = code;
+    }
+
+    /**
+     * 配置和计数器键中使用的编码，如 quota.tenant.daily.limit
+     */
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,94 @@
+package com.yonchain.ai.quota;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 预算主体：一次请求所属的租户、调用方凭证和智能体
+ * <p>
+ * 默认只使用已认证的身份：租户、调用方和智能体取自 {@link com.yonchain.ai.filter.GatewayIdentityFilter}
+ * 校验令牌后设置的请求属性 {@link #TENANT_ATTRIBUTE}、{@link #CALLER_ATTRIBUTE}、{@link #AGENT_ATTRIBUTE}，
+ * 调用方属性缺失时使用Servlet认证主体。
+ * 开启 quota.subject.trusted.headers 时改用X-Tenant-Id、Authorization Bearer和X-Agent-Id请求头。
+ * <p>
+ * 调用方凭证只保存SHA-256摘要的前16位，不在计数器键、日志和存储中出现原文。
+ */
+public final class QuotaSubject {
+
+    /**
+     * 已认证租户ID的请求属性名
+     */
+    public static final String TENANT_ATTRIBUTE = "yonchain.quota.tenant";
+
+    /**
+     * 已认证智能体ID的请求属性名
+     */
+    public static final String AGENT_ATTRIBUTE = "yonchain.quota.agent";
+
+    /**
+     * 已认证调用方（令牌用户ID）的请求属性名
+     */
+    public static final String CALLER_ATTRIBUTE = "yonchain.quota.caller";
+
+    private final Map<QuotaScope, String> ids = new EnumMap<>(QuotaScope.class);
+
+    private QuotaSubject() {
+    }
+
+    /**
+     * 创建预算主体
+     *
+     * @param tenantId 租户ID，可为null
+     * @param apiKey   调用方凭证（API Key原文或认证主体名），可为null
+     * @param agentId  智能体ID，可为null
+     * @return 预算主体
+     */
+    public static QuotaSubject of(String tenantId, String apiKey, String agentId) {
+        QuotaSubject subject = new QuotaSubject();
+        subject.put(QuotaScope.TENANT, tenantId);
+        subject.put(QuotaScope.API_KEY, apiKey != null && !apiKey.isBlank() ? digest(apiKey.trim()) : null);
+        subject.put(QuotaScope.AGENT, agentId);
+        return subject;
+    }
+
+    /**
+     * 获取指定维度的主体ID
+     *
+     * @return 主体ID，请求未携带时返回null
+     */
+    public String getId(QuotaScope scope) {
+        return ids.get(scope);
+    }
+
+    public boolean isEmpty() {
+        return ids.isEmpty();
+    }
+
+    private void put(QuotaScope scope, String id) {
+        if (id != null && !id.isBlank()) {
+            ids.put(scope, id.trim());
+        }
+    }
+
+    private static String digest(String apiKey) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                builder.append(Character.forDigit((hash[i] >> 4) & 0xF, 16))
+                        .append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QuotaSubject" + ids;
+    }
+}
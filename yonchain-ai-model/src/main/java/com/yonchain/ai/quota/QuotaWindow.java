@@ -0,0 +1,48 @@
+package com.yonchain.ai.quota;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 预算统计窗口
+ */
+public enum QuotaWindow {
+
+    /**
+     * 自然日
+     */
+    DAILY("daily", DateTimeFormatter.ofPattern("yyyyMMdd")),
+
+    /**
+     * 自然月
+     */
+    MONTHLY("monthly", DateTimeFormatter.ofPattern("yyyyMM"));
+
+    private final String code;
+    private final DateTimeFormatter formatter;
+
+    QuotaWindow(String code, DateTimeFormatter formatter) {
+        this.code = code;
+        this.formatter = formatter;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 窗口周期标识，如 20261019、202610
+     */
+    public String periodKey(LocalDate date) {
+        return formatter.format(date);
+    }
+
+    /**
+     * 窗口结束时间（下一个周期开始的时刻，毫秒）
+     */
+    public long periodEndMillis(LocalDate date, ZoneId zone) {
+        LocalDate next = this == DAILY ? date.plusDays(1) : date.withDayOfMonth(1).plusMonths(1);
+        return next.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
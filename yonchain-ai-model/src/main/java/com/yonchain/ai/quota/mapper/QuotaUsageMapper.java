@@ -0,0 +1,40 @@
+package com.yonchain.ai.quota.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * 预算用量Mapper接口
+ */
+@Mapper
+public interface QuotaUsageMapper {
+
+    /**
+     * 累加计数器，不存在时创建
+     *
+     * @param counterKey  计数器键
+     * @param deltaMicros 增量（百万分之一基准币种）
+     * @param expireTime  窗口结束时间
+     * @return 累加后的值
+     */
+    Long increment(@Param("counterKey") String counterKey, @Param("deltaMicros") long deltaMicros,
+                   @Param("expireTime") LocalDateTime expireTime);
+
+    /**
+     * 查询计数器当前值
+     *
+     * @param counterKey 计数器键
+     * @return 当前值，不存在时返回null
+     */
+    Long selectSpent(@Param("counterKey") String counterKey);
+
+    /**
+     * 删除已过期的计数器
+     *
+     * @param before 过期时间早于该时间的计数器
+     * @return 影响行数
+     */
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
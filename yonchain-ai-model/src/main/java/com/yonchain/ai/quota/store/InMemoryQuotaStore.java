@@ -0,0 +1,43 @@
+package com.yonchain.ai.quota.store;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存预算存储
+ * <p>
+ * 没有可用的Redis和数据库存储时使用，仅在单节点内生效，重启后清零。过期的计数器每分钟清理一次。
+ */
+public class InMemoryQuotaStore implements QuotaStore {
+
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Map<String, Entry> values = new ConcurrentHashMap<>();
+    private volatile long nextPurgeMillis;
+
+    @Override
+    public long increment(String key, long deltaMicros, long expireAtMillis) {
+        long now = System.currentTimeMillis();
+        if (now >= nextPurgeMillis) {
+            nextPurgeMillis = now + PURGE_INTERVAL_MILLIS;
+            values.values().removeIf(entry -> entry.expireAtMillis <= now);
+        }
+        return values.computeIfAbsent(key, k -> new Entry(expireAtMillis)).value.addAndGet(deltaMicros);
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    private static final class Entry {
+        private final AtomicLong value = new AtomicLong();
+        private final long expireAtMillis;
+
+        private Entry(long expireAtMillis) {
+            this.expireAtMillis = expireAtMillis;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.yonchain.ai.quota.store;
+
+import com.yonchain.ai.quota.mapper.QuotaUsageMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据库预算存储
+ * <p>
+ * 写入model_quota_usage表（INSERT ... ON CONFLICT DO UPDATE ... RETURNING），作为持久化的花费记录，
+ * 节点重启或Redis数据丢失后仍能恢复当前窗口的花费。增量为0时只查询当前值。
+ * 窗口结束一天后的记录每小时清理一次。
+ */
+public class JdbcQuotaStore implements QuotaStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcQuotaStore.class);
+
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final QuotaUsageMapper quotaUsageMapper;
+    private volatile long nextPurgeMillis;
+
+    public JdbcQuotaStore(QuotaUsageMapper quotaUsageMapper) {
+        this.quotaUsageMapper = quotaUsageMapper;
+    }
+
+    @Override
+    public long increment(String key, long deltaMicros, long expireAtMillis) {
+        long now = System.currentTimeMillis();
+        if (now >= nextPurgeMillis) {
+            nextPurgeMillis = now + PURGE_INTERVAL_MILLIS;
+            try {
+                purgeExpired();
+            } catch (RuntimeException e) {
+                logger.debug("Failed to purge expired quota counters: {}", e.getMessage());
+            }
+        }
+        Long total = deltaMicros == 0
+                ? quotaUsageMapper.selectSpent(key)
+                : quotaUsageMapper.increment(key, deltaMicros,
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(expireAtMillis), ZoneId.systemDefault()));
+        return total != null ? total : 0;
+    }
+
+    /**
+     * 清理已过期的计数器
+     */
+    public int purgeExpired() {
+        return quotaUsageMapper.deleteExpired(LocalDateTime.now().minusDays(1));
+    }
+
+    @Override
+    public String getName() {
+        return "jdbc";
+    }
+}
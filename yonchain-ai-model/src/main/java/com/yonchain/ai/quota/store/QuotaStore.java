@@ -0,0 +1,63 @@
+package com.yonchain.ai.quota.store;
+
+import java.util.List;
+
+/**
+ * 预算计数存储
+ * <p>
+ * 由预算引擎的同步线程周期性调用，把各节点本地累计的花费合并为全局花费。
+ * 引擎可以同时使用多个存储（如Redis用于跨节点快速汇总，数据库用于持久化），
+ * 以各存储返回值中的最大值作为全局花费，某个存储被清空或暂时不可用时不会放松限额。
+ */
+public interface QuotaStore {
+
+    /**
+     * 累加计数器并返回累加后的全局值
+     *
+     * @param key            计数器键，如 tenant:t1:daily:20261019
+     * @param deltaMicros    增量（百万分之一基准币种），为0时只读取当前值
+     * @param expireAtMillis 计数器所在窗口的结束时间，存储可以据此清理过期数据
+     * @return 累加后的全局值
+     */
+    long increment(String key, long deltaMicros, long expireAtMillis);
+
+    /**
+     * 批量累加计数器，同步线程每个周期对每个存储只调用一次
+     * <p>
+     * 默认逐个调用 {@link #increment}，存储可以合并为一次往返（如Redis管道）。任一计数器失败时抛出异常，
+     * 整批增量由预算引擎保留在下个周期重试。
+     *
+     * @param increments 增量列表
+     * @return 累加后的全局值，与 increments 一一对应
+     */
+    default long[] incrementAll(List<Increment> increments) {
+        long[] totals = new long[increments.size()];
+        for (int i = 0; i < totals.length; i++) {
+            Increment increment = increments.get(i);
+            totals[i] = increment(increment.key(), increment.deltaMicros(), increment.expireAtMillis());
+        }
+        return totals;
+    }
+
+    /**
+     * 存储名称（用于日志和 quota.store.{name}.enabled 配置）
+     */
+    String getName();
+
+    /**
+     * 存储是否可用（如是否配置了Redis），不可用的存储不会被预算引擎使用
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * 计数器增量
+     *
+     * @param key            计数器键
+     * @param deltaMicros    增量，为0时只读取当前值
+     * @param expireAtMillis 计数器所在窗口的结束时间
+     */
+    record Increment(String key, long deltaMicros, long expireAtMillis) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.yonchain.ai.quota.store;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis预算存储
+ * <p>
+ * 使用INCRBY合并各节点的花费，键在窗口结束后再保留一天自动过期。
+ * 增量为0时只读取当前值。批量同步通过管道一次往返完成（新建的键再用一次管道设置过期时间）。
+ * Redis不可用时抛出异常，由预算引擎保留增量在下个周期重试。
+ */
+public class RedisQuotaStore implements QuotaStore {
+
+    private static final long EXPIRE_GRACE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final String keyPrefix;
+
+    /**
+     * @param redisTemplate Redis模板（未配置Redis时为空）
+     * @param keyPrefix     键前缀，如 yonchain:quota:
+     */
+    public RedisQuotaStore(ObjectProvider<StringRedisTemplate> redisTemplate, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * 是否配置了Redis
+     */
+    @Override
+    public boolean isAvailable() {
+        return redisTemplate.getIfAvailable() != null;
+    }
+
+    @Override
+    public long increment(String key, long deltaMicros, long expireAtMillis) {
+        StringRedisTemplate template = requireTemplate();
+        String redisKey = keyPrefix + key;
+        if (deltaMicros == 0) {
+            String value = template.opsForValue().get(redisKey);
+            return value != null ? Long.parseLong(value) : 0;
+        }
+        Long total = template.opsForValue().increment(redisKey, deltaMicros);
+        if (total != null && total == deltaMicros) {
+            // 新建的键设置过期时间
+            template.expireAt(redisKey, new Date(expireAtMillis + EXPIRE_GRACE_MILLIS));
+        }
+        return total != null ? total : 0;
+    }
+
+    @Override
+    public long[] incrementAll(List<Increment> increments) {
+        if (increments.isEmpty()) {
+            return new long[0];
+        }
+        StringRedisTemplate template = requireTemplate();
+        List<Object> results = template.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (Increment increment : increments) {
+                String redisKey = keyPrefix + increment.key();
+                if (increment.deltaMicros() == 0) {
+                    redis.get(redisKey);
+                } else {
+                    redis.incrBy(redisKey, increment.deltaMicros());
+                }
+            }
+            return null;
+        });
+
+        long[] totals = new long[increments.size()];
+        List<Increment> created = new ArrayList<>();
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = toLong(results.get(i));
+            Increment increment = increments.get(i);
+            if (increment.deltaMicros() != 0 && totals[i] == increment.deltaMicros()) {
+                created.add(increment);
+            }
+        }
+        if (!created.isEmpty()) {
+            // 新建的键设置过期时间
+            template.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (Increment increment : created) {
+                    redis.pExpireAt(keyPrefix + increment.key(), increment.expireAtMillis() + EXPIRE_GRACE_MILLIS);
+                }
+                return null;
+            });
+        }
+        return totals;
+    }
+
+    private StringRedisTemplate requireTemplate() {
+        StringRedisTemplate template = redisTemplate.getIfAvailable();
+        if (template == null) {
+            throw new IllegalStateException("Redis is not configured");
+        }
+        return template;
+    }
+
+    /**
+     * 管道返回值：INCRBY为Long，GET为String（键不存在时为null）
+     */
+    private static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof byte[] bytes) {
+            return Long.parseLong(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return value != null ? Long.parseLong(value.toString()) : 0;
+    }
+
+    @Override
+    public String getName() {
+        return "redis";
+    }
+}
@@ -0,0 +1,253 @@
+package com.yonchain.ai.routing;
+
+import com.yonchain.ai.model.InvalidModelRequestException;
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.model.definition.ModelDefinition;
+import com.yonchain.ai.model.request.ChatRequest;
+import com.yonchain.ai.tokenizer.TokenCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 成本优先路由
+ * <p>
+ * 请求的model为路由别名（routing.alias，默认auto）时，在候选模型中选择估算费用最低、
+ * 且满足能力和延迟要求的模型：
+ * 1. 候选：请求routing.candidates > 配置routing.candidates > 所有配置了价格的聊天模型
+ * 2. 过滤：功能（features）不满足、输入超出上下文窗口的模型
+ * 3. 估算费用：本地分词统计输入Token数，输出Token数取max_tokens或routing.expected.completion.tokens，
+ *    按模型价格计算并按routing.exchange.rates换算到routing.currency
+ * 4. 按费用从低到高选择第一个未饱和（在途请求数 < routing.max.inflight）且观测延迟满足SLO的模型；
+ *    所有模型都不满足延迟SLO时选择延迟最低的，都已饱和时选择负载最低的。观测延迟按
+ *    routing.latency.half.life 衰减，超出SLO的模型一段时间后会重新被选中探测
+ * <p>
+ * 没有满足能力要求的模型时返回400（no_eligible_model）。
+ */
+public class CostAwareRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CostAwareRouter.class);
+
+    public static final String ENABLED = "routing.enabled";
+    public static final String ALIAS = "routing.alias";
+    public static final String CANDIDATES = "routing.candidates";
+    public static final String EXPECTED_COMPLETION_TOKENS = "routing.expected.completion.tokens";
+    public static final String MAX_IN_FLIGHT = "routing.max.inflight";
+    public static final String LATENCY_ALPHA = "routing.latency.ewma.alpha";
+    public static final String LATENCY_HALF_LIFE_MS = "routing.latency.half.life";
+
+    private static final String[] MAX_TOKENS_KEYS = {"max_tokens", "max_completion_tokens", "maxTokens"};
+
+    private final ModelConfiguration configuration;
+    private final ModelLoadTracker loadTracker;
+    private final boolean enabled;
+    private final String alias;
+    private final Set<String> configuredCandidates;
+    private final int expectedCompletionTokens;
+    private final int maxInFlight;
+    private final CostEstimator costEstimator;
+
+    public CostAwareRouter(ModelConfiguration configuration) {
+        this.configuration = configuration;
+        this.enabled = configuration.getBooleanProperty(ENABLED, true);
+        this.alias = configuration.getProperty(ALIAS, "auto");
+        this.configuredCandidates = CostEstimator.splitList(configuration.getProperty(CANDIDATES, ""));
+        this.expectedCompletionTokens = configuration.getIntProperty(EXPECTED_COMPLETION_TOKENS, 256);
+        this.maxInFlight = configuration.getIntProperty(MAX_IN_FLIGHT, 32);
+        this.costEstimator = new CostEstimator(configuration);
+        this.loadTracker = new ModelLoadTracker(configuration.getDoubleProperty(LATENCY_ALPHA, 0.2),
+                configuration.getLongProperty(LATENCY_HALF_LIFE_MS, 60_000L));
+    }
+
+    /**
+     * 判断请求的模型是否为路由别名
+     */
+    public boolean isRouted(String requestedModel) {
+        return enabled && alias.equals(requestedModel);
+    }
+
+    /**
+     * 为路由请求选择模型
+     *
+     * @param request      聊天请求
+     * @param requirements 路由要求
+     * @return 路由结果
+     * @throws InvalidModelRequestException 没有满足要求的模型
+     */
+    public RouteDecision route(ChatRequest request, RouteRequirements requirements) {
+        int completionTokens = resolveCompletionTokens(request.getRawParameters());
+        Map<TokenCounter, Integer> promptTokensByCounter = new IdentityHashMap<>();
+
+        List<RouteCandidate> eligible = new ArrayList<>();
+        for (ModelDefinition definition : resolveCandidates(requirements)) {
+            ModelPricing pricing = ModelPricing.of(definition);
+            if (pricing == null || !requirements.isSatisfiedBy(readFeatures(definition))) {
+                continue;
+            }
+            if (costEstimator.exchangeRate(pricing.getCurrency()) == null) {
+                logger.debug("Skipped {}: no exchange rate for {}", definition.getFullId(), pricing.getCurrency());
+                continue;
+            }
+
+            TokenCounter counter = configuration.getTokenCounter(definition);
+            int promptTokens = promptTokensByCounter.computeIfAbsent(counter,
+                    c -> c.countMessages(request.getMessages()));
+            int contextSize = definition.getMetadata() != null
+                    ? readInt(definition.getMetadata().get("context_size")) : 0;
+            if (contextSize > 0 && promptTokens + 1 > contextSize) {
+                continue;
+            }
+            int expectedCompletion = contextSize > 0
+                    ? Math.min(completionTokens, contextSize - promptTokens) : completionTokens;
+
+            String modelId = definition.getFullId();
+            eligible.add(new RouteCandidate(modelId,
+                    costEstimator.estimate(pricing, promptTokens, expectedCompletion),
+                    loadTracker.getLatencyMillis(modelId, requirements.isStream()),
+                    loadTracker.getInFlight(modelId)));
+        }
+
+        if (eligible.isEmpty()) {
+            throw new InvalidModelRequestException("No model satisfies the routing requirements: features="
+                    + requirements.getFeatures(), "model", "no_eligible_model");
+        }
+
+        eligible.sort(Comparator.comparingDouble((RouteCandidate c) -> c.cost).thenComparingDouble(c -> c.latencyMs));
+        RouteCandidate selected = select(eligible, requirements.getMaxLatencyMillis());
+        logger.debug("Routed request to {} (estimated cost {} {}, {} eligible candidates, requirements {})",
+                selected.modelId, selected.cost, costEstimator.getCurrency(), eligible.size(), requirements);
+        return new RouteDecision(selected.modelId, selected.cost, costEstimator.getCurrency(), eligible.size());
+    }
+
+    private RouteCandidate select(List<RouteCandidate> eligible, long maxLatencyMillis) {
+        RouteCandidate fastest = null;
+        RouteCandidate leastLoaded = null;
+        for (RouteCandidate candidate : eligible) {
+            boolean withinSlo = maxLatencyMillis <= 0 || candidate.latencyMs <= maxLatencyMillis;
+            boolean saturated = maxInFlight > 0 && candidate.inFlight >= maxInFlight;
+            if (withinSlo && !saturated) {
+                return candidate;
+            }
+            if (!saturated && (fastest == null || candidate.latencyMs < fastest.latencyMs)) {
+                fastest = candidate;
+            }
+            if (leastLoaded == null || candidate.inFlight < leastLoaded.inFlight) {
+                leastLoaded = candidate;
+            }
+        }
+        return fastest != null ? fastest : leastLoaded;
+    }
+
+    private Collection<ModelDefinition> resolveCandidates(RouteRequirements requirements) {
+        Set<String> candidateIds = !requirements.getCandidates().isEmpty()
+                ? requirements.getCandidates() : configuredCandidates;
+        List<ModelDefinition> chatModels = configuration.getModelsByType("chat");
+        if (candidateIds.isEmpty()) {
+            return chatModels;
+        }
+        List<ModelDefinition> candidates = new ArrayList<>(candidateIds.size());
+        for (ModelDefinition definition : chatModels) {
+            if (candidateIds.contains(definition.getFullId())) {
+                candidates.add(definition);
+            }
+        }
+        return candidates;
+    }
+
+    private int resolveCompletionTokens(Map<String, Object> rawParameters) {
+        if (rawParameters != null) {
+            for (String key : MAX_TOKENS_KEYS) {
+                Object value = rawParameters.get(key);
+                if (value instanceof Number && ((Number) value).intValue() > 0) {
+                    return ((Number) value).intValue();
+                }
+            }
+        }
+        return expectedCompletionTokens;
+    }
+
+    private static Collection<?> readFeatures(ModelDefinition definition) {
+        Object features = definition.getMetadata() != null ? definition.getMetadata().get("features") : null;
+        if (features == null && definition.getOptions() != null) {
+            features = definition.getOption("features");
+        }
+        if (features instanceof Collection) {
+            return (Collection<?>) features;
+        }
+        return features instanceof String ? CostEstimator.splitList((String) features) : Collections.emptySet();
+    }
+
+    private static int readInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            try {
+                return Integer.parseInt((String) value);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    public ModelLoadTracker getLoadTracker() {
+        return loadTracker;
+    }
+
+    private static final class RouteCandidate {
+        private final String modelId;
+        private final double cost;
+        private final double latencyMs;
+        private final int inFlight;
+
+        private RouteCandidate(String modelId, double cost, double latencyMs, int inFlight) {
+            this.modelId = modelId;
+            this.cost = cost;
+            this.latencyMs = latencyMs;
+            this.inFlight = inFlight;
+        }
+    }
+
+    /**
+     * 路由结果
+     */
+    public static final class RouteDecision {
+
+        private final String modelId;
+        private final double estimatedCost;
+        private final String currency;
+        private final int eligibleCount;
+
+        public RouteDecision(String modelId, double estimatedCost, String currency, int eligibleCount) {
+            this.modelId = modelId;
+            this.estimatedCost = estimatedCost;
+            this.currency = currency;
+            this.eligibleCount = eligibleCount;
+        }
+
+        public String getModelId() {
+            return modelId;
+        }
+
+        public double getEstimatedCost() {
+            return estimatedCost;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public int getEligibleCount() {
+            return eligibleCount;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.yonchain.ai.routing;
+
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.model.definition.ModelDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 请求费用估算
+ * <p>
+ * 按模型价格计算费用，并按 routing.exchange.rates 换算到 routing.currency，
+ * 供成本路由和租户预算使用同一口径。
+ */
+public class CostEstimator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CostEstimator.class);
+
+    public static final String CURRENCY = "routing.currency";
+    public static final String EXCHANGE_RATES = "routing.exchange.rates";
+
+    private final String currency;
+    private final Map<String, Double> exchangeRates;
+
+    public CostEstimator(ModelConfiguration configuration) {
+        this.currency = configuration.getProperty(CURRENCY, "USD").toUpperCase();
+        this.exchangeRates = parseRates(configuration.getProperty(EXCHANGE_RATES, "RMB=0.14,CNY=0.14"));
+    }
+
+    /**
+     * 估算请求费用（基准币种）
+     *
+     * @param definition       模型定义
+     * @param promptTokens     输入Token数
+     * @param completionTokens 输出Token数
+     * @return 费用，模型未配置价格或币种无法换算时返回 {@link Double#NaN}
+     */
+    public double estimate(ModelDefinition definition, int promptTokens, int completionTokens) {
+        ModelPricing pricing = definition != null ? ModelPricing.of(definition) : null;
+        return pricing != null ? estimate(pricing, promptTokens, completionTokens) : Double.NaN;
+    }
+
+    /**
+     * 估算请求费用（基准币种）
+     *
+     * @return 费用，币种无法换算时返回 {@link Double#NaN}
+     */
+    public double estimate(ModelPricing pricing, int promptTokens, int completionTokens) {
+        Double rate = exchangeRate(pricing.getCurrency());
+        return rate != null ? pricing.estimateCost(promptTokens, completionTokens) * rate : Double.NaN;
+    }
+
+    /**
+     * 获取换算到基准币种的汇率
+     *
+     * @param modelCurrency 模型币种，null视为基准币种
+     * @return 汇率，未配置时返回null
+     */
+    public Double exchangeRate(String modelCurrency) {
+        if (modelCurrency == null || modelCurrency.equals(currency)) {
+            return 1.0;
+        }
+        return exchangeRates.get(modelCurrency);
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    static Set<String> splitList(String value) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                result.add(item.trim());
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Double> parseRates(String value) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String item : splitList(value)) {
+            int separator = item.indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                rates.put(item.substring(0, separator).trim().toUpperCase(),
+                        Double.parseDouble(item.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignored invalid exchange rate: {}", item);
+            }
+        }
+        return rates;
+    }
+}
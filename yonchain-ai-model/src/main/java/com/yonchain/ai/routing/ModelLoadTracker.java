@@ -0,0 +1,136 @@
+package com.yonchain.ai.routing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 模型负载跟踪
+ * <p>
+ * 按模型记录在途请求数和延迟的指数加权移动平均（EWMA），供路由判断模型是否饱和、
+ * 是否满足延迟SLO：
+ * - 同步请求记录总延迟
+ * - 流式请求记录首个分块延迟（总时长取决于输出长度，不计入）
+ * <p>
+ * 延迟估计按样本时间衰减，半衰期为 halfLife：
+ * - 读取时估计值按距最近样本的时间衰减，因延迟超出SLO而不再被选中的模型在一段时间后重新获得请求，
+ *   这些请求作为探测更新估计值，避免一次慢响应让模型长期被排除
+ * - 更新时旧估计值的权重同样按时间衰减，间隔很久的新样本几乎完全替换旧值
+ * <p>
+ * EWMA更新不加锁，并发更新时可能丢失个别样本，对路由估算没有影响。
+ */
+public class ModelLoadTracker {
+
+    private final double alpha;
+    private final long halfLifeNanos;
+    private final Map<String, ModelLoad> loads = new ConcurrentHashMap<>();
+
+    /**
+     * @param alpha          EWMA平滑系数（0-1），越大越偏向最近的样本
+     * @param halfLifeMillis 估计值的衰减半衰期（毫秒），不大于0时不衰减
+     */
+    public ModelLoadTracker(double alpha, long halfLifeMillis) {
+        this.alpha = alpha > 0 && alpha <= 1 ? alpha : 0.2;
+        this.halfLifeNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(halfLifeMillis, 0));
+    }
+
+    /**
+     * 请求开始
+     *
+     * @param modelId 模型ID
+     * @return 开始时间（System.nanoTime），结束时传给 {@link #end(String, long, boolean)}
+     */
+    public long begin(String modelId) {
+        load(modelId).inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * 流式请求收到首个分块
+     */
+    public void firstToken(String modelId, long startNanos) {
+        load(modelId).firstTokenLatency.update(elapsedMillis(startNanos));
+    }
+
+    /**
+     * 请求结束
+     *
+     * @param modelId       模型ID
+     * @param startNanos    开始时间
+     * @param recordLatency 是否计入同步延迟
+     */
+    public void end(String modelId, long startNanos, boolean recordLatency) {
+        ModelLoad load = load(modelId);
+        load.inFlight.decrementAndGet();
+        if (recordLatency) {
+            load.latency.update(elapsedMillis(startNanos));
+        }
+    }
+
+    public int getInFlight(String modelId) {
+        ModelLoad load = loads.get(modelId);
+        return load != null ? load.inFlight.get() : 0;
+    }
+
+    /**
+     * 获取延迟估计
+     *
+     * @param modelId 模型ID
+     * @param stream  是否流式请求（使用首个分块延迟）
+     * @return 按样本时间衰减后的延迟（毫秒），没有样本时返回0
+     */
+    public double getLatencyMillis(String modelId, boolean stream) {
+        ModelLoad load = loads.get(modelId);
+        if (load == null) {
+            return 0;
+        }
+        return (stream ? load.firstTokenLatency : load.latency).get();
+    }
+
+    private ModelLoad load(String modelId) {
+        return loads.computeIfAbsent(modelId, k -> new ModelLoad());
+    }
+
+    /**
+     * 距上次样本经过的时间对应的保留比例：0.5^(经过时间/半衰期)
+     */
+    private double retention(long sampledAtNanos) {
+        if (halfLifeNanos <= 0) {
+            return 1.0;
+        }
+        long age = Math.max(System.nanoTime() - sampledAtNanos, 0);
+        return Math.pow(0.5, age / (double) halfLifeNanos);
+    }
+
+    private static double elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private final class ModelLoad {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final DecayingAverage latency = new DecayingAverage();
+        private final DecayingAverage firstTokenLatency = new DecayingAverage();
+    }
+
+    /**
+     * 按时间衰减的EWMA
+     */
+    private final class DecayingAverage {
+        private volatile double value;
+        private volatile long sampledAtNanos;
+
+        void update(double sample) {
+            double current = value;
+            // 旧值权重 (1 - alpha) 按距上次样本的时间衰减
+            double weight = current == 0 ? 1.0 : 1.0 - (1.0 - alpha) * retention(sampledAtNanos);
+            value = current + weight * (sample - current);
+            sampledAtNanos = System.nanoTime();
+        }
+
+        double get() {
+            double current = value;
+            return current == 0 ? 0 : current * retention(sampledAtNanos);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.yonchain.ai.routing;
+
+import com.yonchain.ai.model.definition.ModelDefinition;
+
+import java.util.Map;
+
+/**
+ * 模型价格
+ * <p>
+ * 对应插件模型YAML中的pricing：
+ * <pre>
+ * pricing:
+ *   input: '5.00'
+ *   output: '15.00'
+ *   unit: '0.000001'
+ *   currency: USD
+ * </pre>
+ * 单个Token的价格为 input(output) * unit。
+ */
+public final class ModelPricing {
+
+    private final double inputPrice;
+    private final double outputPrice;
+    private final double unit;
+    private final String currency;
+
+    private ModelPricing(double inputPrice, double outputPrice, double unit, String currency) {
+        this.inputPrice = inputPrice;
+        this.outputPrice = outputPrice;
+        this.unit = unit;
+        this.currency = currency;
+    }
+
+    /**
+     * 读取模型定义中的价格（metadata优先，其次options）
+     *
+     * @param definition 模型定义
+     * @return 模型价格，未配置或格式错误时返回null
+     */
+    public static ModelPricing of(ModelDefinition definition) {
+        Object pricing = definition.getMetadata().get("pricing");
+        if (pricing == null && definition.getOptions() != null) {
+            pricing = definition.getOption("pricing");
+        }
+        return pricing instanceof Map ? parse((Map<?, ?>) pricing) : null;
+    }
+
+    /**
+     * 解析价格配置
+     *
+     * @param pricing YAML中的pricing
+     * @return 模型价格，缺少input/output或格式错误时返回null
+     */
+    public static ModelPricing parse(Map<?, ?> pricing) {
+        double input = readDouble(pricing.get("input"));
+        double output = readDouble(pricing.get("output"));
+        if (Double.isNaN(input) || Double.isNaN(output)) {
+            return null;
+        }
+        double unit = readDouble(pricing.get("unit"));
+        Object currency = pricing.get("currency");
+        return new ModelPricing(input, output, Double.isNaN(unit) ? 1.0 : unit,
+                currency != null ? currency.toString().toUpperCase() : null);
+    }
+
+    /**
+     * 估算请求费用（按模型自身币种）
+     *
+     * @param promptTokens     输入Token数
+     * @param completionTokens 输出Token数
+     * @return 费用
+     */
+    public double estimateCost(int promptTokens, int completionTokens) {
+        return (promptTokens * inputPrice + completionTokens * outputPrice) * unit;
+    }
+
+    public double getInputPrice() {
+        return inputPrice;
+    }
+
+    public double getOutputPrice() {
+        return outputPrice;
+    }
+
+    public double getUnit() {
+        return unit;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    private static double readDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return "ModelPricing{" +
+                "input=" + inputPrice +
+                ", output=" + outputPrice +
+                ", unit=" + unit +
+                ", currency='" + currency + '\'' +
+                '}';
+    }
+}
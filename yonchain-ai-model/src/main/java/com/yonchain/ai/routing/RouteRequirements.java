@@ -0,0 +1,167 @@
+package com.yonchain.ai.routing;
+
+import com.yonchain.ai.model.deadline.Deadline;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 路由要求
+ * <p>
+ * 由请求中的routing扩展字段和请求内容推断：
+ * <pre>
+ * "routing": {
+ *   "features": ["vision"],
+ *   "max_latency_ms": 2000,
+ *   "candidates": ["openai:gpt-4o-mini", "deepseek:deepseek-chat"]
+ * }
+ * </pre>
+ * - tools不为空时要求tool-call，多个工具或parallel_tool_calls时要求multi-tool-call，流式时要求stream-tool-call
+ * - 消息内容包含image_url时要求vision
+ * - 未声明max_latency_ms时使用客户端截止时间的剩余时长
+ */
+public final class RouteRequirements {
+
+    public static final String ROUTING_KEY = "routing";
+
+    public static final String FEATURE_TOOL_CALL = "tool-call";
+    public static final String FEATURE_MULTI_TOOL_CALL = "multi-tool-call";
+    public static final String FEATURE_STREAM_TOOL_CALL = "stream-tool-call";
+    public static final String FEATURE_VISION = "vision";
+
+    private final Set<String> features;
+    private final long maxLatencyMillis;
+    private final Set<String> candidates;
+    private final boolean stream;
+
+    private RouteRequirements(Set<String> features, long maxLatencyMillis, Set<String> candidates, boolean stream) {
+        this.features = features;
+        this.maxLatencyMillis = maxLatencyMillis;
+        this.candidates = candidates;
+        this.stream = stream;
+    }
+
+    /**
+     * 从请求参数解析路由要求
+     *
+     * @param parameters 请求参数
+     * @param deadline   客户端截止时间，可为null
+     * @return 路由要求
+     */
+    public static RouteRequirements from(Map<String, Object> parameters, Deadline deadline) {
+        boolean stream = Boolean.TRUE.equals(parameters.get("stream"));
+        Set<String> features = new LinkedHashSet<>();
+        Set<String> candidates = Collections.emptySet();
+        long maxLatencyMillis = 0;
+
+        Object routing = parameters.get(ROUTING_KEY);
+        if (routing instanceof Map) {
+            Map<?, ?> routingMap = (Map<?, ?>) routing;
+            addAll(features, routingMap.get("features"));
+            Object declaredCandidates = routingMap.get("candidates");
+            if (declaredCandidates instanceof Collection && !((Collection<?>) declaredCandidates).isEmpty()) {
+                candidates = new LinkedHashSet<>();
+                addAll(candidates, declaredCandidates);
+            }
+            Object maxLatency = routingMap.get("max_latency_ms");
+            if (maxLatency instanceof Number) {
+                maxLatencyMillis = ((Number) maxLatency).longValue();
+            }
+        }
+
+        Object tools = parameters.get("tools");
+        if (tools instanceof Collection && !((Collection<?>) tools).isEmpty()) {
+            features.add(FEATURE_TOOL_CALL);
+            if (((Collection<?>) tools).size() > 1 || Boolean.TRUE.equals(parameters.get("parallel_tool_calls"))) {
+                features.add(FEATURE_MULTI_TOOL_CALL);
+            }
+            if (stream) {
+                features.add(FEATURE_STREAM_TOOL_CALL);
+            }
+        }
+        if (containsImage(parameters.get("messages"))) {
+            features.add(FEATURE_VISION);
+        }
+
+        if (maxLatencyMillis <= 0 && deadline != null) {
+            maxLatencyMillis = deadline.remainingMillis();
+        }
+        return new RouteRequirements(features, maxLatencyMillis, candidates, stream);
+    }
+
+    /**
+     * 判断模型功能是否满足要求（multi-tool-call 同时满足 tool-call）
+     *
+     * @param modelFeatures 模型声明的功能
+     */
+    public boolean isSatisfiedBy(Collection<?> modelFeatures) {
+        for (String feature : features) {
+            if (modelFeatures.contains(feature)) {
+                continue;
+            }
+            if (FEATURE_TOOL_CALL.equals(feature) && modelFeatures.contains(FEATURE_MULTI_TOOL_CALL)) {
+                continue;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static void addAll(Set<String> target, Object values) {
+        if (values instanceof Collection) {
+            for (Object value : (Collection<?>) values) {
+                if (value != null) {
+                    target.add(value.toString());
+                }
+            }
+        } else if (values instanceof String && !((String) values).isEmpty()) {
+            target.add((String) values);
+        }
+    }
+
+    private static boolean containsImage(Object messages) {
+        if (!(messages instanceof List)) {
+            return false;
+        }
+        for (Object message : (List<?>) messages) {
+            if (message instanceof Map && ((Map<?, ?>) message).get("content") instanceof List) {
+                for (Object part : (List<?>) ((Map<?, ?>) message).get("content")) {
+                    if (part instanceof Map && "image_url".equals(((Map<?, ?>) part).get("type"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    public Set<String> getFeatures() {
+        return features;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    public Set<String> getCandidates() {
+        return candidates;
+    }
+
+    public boolean isStream() {
+        return stream;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteRequirements{" +
+                "features=" + features +
+                ", maxLatencyMillis=" + maxLatencyMillis +
+                ", candidates=" + candidates +
+                ", stream=" + stream +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package com.yonchain.ai.tokenizer;
+
+/**
+ * 近似Token计数器
+ * <p>
+ * 不依赖词表的估算：CJK等表意字符按每字1个Token计，其余字符按每4个字符1个Token计
+ */
+public class ApproximateTokenCounter implements TokenCounter {
+
+    public static final ApproximateTokenCounter INSTANCE = new ApproximateTokenCounter();
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    @Override
+    public int countTokens(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int ideographs = 0;
+        int others = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (text.charAt(i) >= '⺀') {
+                ideographs++;
+            } else {
+                others++;
+            }
+        }
+        return ideographs + (others + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
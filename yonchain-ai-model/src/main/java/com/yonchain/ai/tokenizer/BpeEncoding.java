@@ -0,0 +1,299 @@
+package com.yonchain.ai.tokenizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+
+/**
+ * 字节级BPE编码器（tiktoken兼容）
+ * <p>
+ * 编码流程：按预分词正则切分文本，每个片段转为UTF-8字节后按rank从小到大合并相邻字节对。
+ * 正则匹配器、字节缓冲区和合并用的边界数组放在编码状态中，编码状态从有界池中借用、用完归还，
+ * 编码和计数过程通常不创建对象。池按状态而不是按线程复用，虚拟线程不会各自分配一份状态；
+ * 并发超过池容量时临时创建的状态用完后丢弃。
+ * 仅计数时不查找最终Token的rank，片段整体命中词表时直接计为1个Token。
+ * <p>
+ * 特殊Token（如 &lt;|endoftext|&gt;）按普通文本处理，与tiktoken的encode_ordinary一致。
+ */
+public class BpeEncoding implements TokenCounter {
+
+    private static final int NO_RANK = Integer.MAX_VALUE;
+
+    // 空闲编码状态的最大数量
+    private static final int MAX_POOLED_STATES = Math.max(Runtime.getRuntime().availableProcessors() * 2, 4);
+
+    private final BpeEncodingType type;
+    private final BytePairRankMap ranks;
+    private final ArrayBlockingQueue<EncoderState> states = new ArrayBlockingQueue<>(MAX_POOLED_STATES);
+
+    public BpeEncoding(BpeEncodingType type, BytePairRankMap ranks) {
+        this.type = type;
+        this.ranks = ranks;
+    }
+
+    /**
+     * 从tiktoken格式的词表加载编码
+     *
+     * @param type        编码类型
+     * @param inputStream 词表输入流，由调用方关闭
+     * @return 编码器
+     * @throws IOException 读取失败或格式错误
+     */
+    public static BpeEncoding load(BpeEncodingType type, InputStream inputStream) throws IOException {
+        BytePairRankMap ranks = new BytePairRankMap(type.getVocabularySize());
+        Base64.Decoder decoder = Base64.getDecoder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.US_ASCII));
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty()) {
+                continue;
+            }
+            int separator = line.indexOf(' ');
+            if (separator <= 0) {
+                throw new IOException("Invalid vocabulary line " + lineNumber + " in " + type.getName());
+            }
+            try {
+                byte[] token = decoder.decode(line.substring(0, separator));
+                ranks.put(token, Integer.parseInt(line.substring(separator + 1).trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid vocabulary line " + lineNumber + " in " + type.getName(), e);
+            }
+        }
+
+        if (ranks.size() < 256) {
+            throw new IOException("Vocabulary " + type.getName() + " does not cover all single bytes");
+        }
+        return new BpeEncoding(type, ranks);
+    }
+
+    public BpeEncodingType getType() {
+        return type;
+    }
+
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
+    @Override
+    public int countTokens(CharSequence text) {
+        return process(text, null);
+    }
+
+    /**
+     * 编码文本，每个Token的rank依次传给sink
+     *
+     * @param text 文本
+     * @param sink Token接收器
+     * @return Token数
+     */
+    public int encode(CharSequence text, IntConsumer sink) {
+        return process(text, sink);
+    }
+
+    /**
+     * 编码文本为Token数组
+     *
+     * @param text 文本
+     * @return Token数组
+     */
+    public int[] encode(CharSequence text) {
+        TokenBuffer buffer = new TokenBuffer();
+        process(text, buffer);
+        return buffer.toArray();
+    }
+
+    private int process(CharSequence text, IntConsumer sink) {
+        if (text == null || text.length() == 0) {
+            return 0;
+        }
+        EncoderState state = states.poll();
+        if (state == null) {
+            state = new EncoderState(type);
+        }
+        Matcher matcher = state.matcher.reset(text);
+        int count = 0;
+        try {
+            while (matcher.find()) {
+                int length = state.encodeUtf8(text, matcher.start(), matcher.end());
+                int rank = ranks.get(state.bytes, 0, length);
+                if (rank >= 0) {
+                    // 片段整体命中词表（常见单词），无需合并
+                    if (sink != null) {
+                        sink.accept(rank);
+                    }
+                    count++;
+                } else {
+                    count += mergePiece(state, length, sink);
+                }
+            }
+        } finally {
+            // 释放对调用方文本的引用，池已满时丢弃
+            matcher.reset("");
+            states.offer(state);
+        }
+        return count;
+    }
+
+    /**
+     * 对一个片段执行字节对合并
+     * <p>
+     * boundaries保存各部分的起始位置（最后一个元素为片段长度），
+     * pairRanks[i]为第i部分与第i+1部分合并后的rank
+     */
+    private int mergePiece(EncoderState state, int length, IntConsumer sink) {
+        byte[] bytes = state.bytes;
+        int[] boundaries = state.boundaries(length + 1);
+        int[] pairRanks = state.pairRanks(length + 1);
+
+        int count = length + 1;
+        for (int i = 0; i < count; i++) {
+            boundaries[i] = i;
+        }
+        for (int i = 0; i < count; i++) {
+            pairRanks[i] = pairRank(bytes, boundaries, count, i);
+        }
+
+        while (count > 2) {
+            int minRank = NO_RANK;
+            int minIndex = -1;
+            for (int i = 0; i < count - 2; i++) {
+                if (pairRanks[i] < minRank) {
+                    minRank = pairRanks[i];
+                    minIndex = i;
+                }
+            }
+            if (minIndex < 0) {
+                break;
+            }
+
+            // 删除边界minIndex+1，即合并第minIndex和第minIndex+1部分
+            System.arraycopy(boundaries, minIndex + 2, boundaries, minIndex + 1, count - minIndex - 2);
+            System.arraycopy(pairRanks, minIndex + 2, pairRanks, minIndex + 1, count - minIndex - 2);
+            count--;
+
+            pairRanks[minIndex] = pairRank(bytes, boundaries, count, minIndex);
+            if (minIndex > 0) {
+                pairRanks[minIndex - 1] = pairRank(bytes, boundaries, count, minIndex - 1);
+            }
+        }
+
+        int tokens = count - 1;
+        if (sink != null) {
+            for (int i = 0; i < tokens; i++) {
+                sink.accept(ranks.get(bytes, boundaries[i], boundaries[i + 1] - boundaries[i]));
+            }
+        }
+        return tokens;
+    }
+
+    private int pairRank(byte[] bytes, int[] boundaries, int count, int index) {
+        if (index + 2 >= count) {
+            return NO_RANK;
+        }
+        int rank = ranks.get(bytes, boundaries[index], boundaries[index + 2] - boundaries[index]);
+        return rank >= 0 ? rank : NO_RANK;
+    }
+
+    @Override
+    public String toString() {
+        return "BpeEncoding{" + type.getName() + ", vocabulary=" + ranks.size() + '}';
+    }
+
+    /**
+     * 可复用的编码状态，同一时间只被一个调用使用
+     */
+    private static final class EncoderState {
+
+        private final Matcher matcher;
+        private byte[] bytes = new byte[256];
+        private int[] boundaries = new int[256];
+        private int[] pairRanks = new int[256];
+
+        EncoderState(BpeEncodingType type) {
+            this.matcher = type.getPattern().matcher("");
+        }
+
+        /**
+         * 将字符区间编码为UTF-8写入bytes，返回字节数
+         */
+        int encodeUtf8(CharSequence text, int start, int end) {
+            int required = (end - start) * 3;
+            if (bytes.length < required) {
+                bytes = new byte[Math.max(required, bytes.length * 2)];
+            }
+            byte[] out = bytes;
+            int length = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    out[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    out[length++] = (byte) (0xC0 | (c >> 6));
+                    out[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    out[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    out[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    out[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    out[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // 不成对的代理字符按U+FFFD替换，与String.getBytes(UTF_8)一致
+                    out[length++] = (byte) 0xEF;
+                    out[length++] = (byte) 0xBF;
+                    out[length++] = (byte) 0xBD;
+                } else {
+                    out[length++] = (byte) (0xE0 | (c >> 12));
+                    out[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    out[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return length;
+        }
+
+        int[] boundaries(int required) {
+            if (boundaries.length < required) {
+                boundaries = new int[Math.max(required, boundaries.length * 2)];
+            }
+            return boundaries;
+        }
+
+        int[] pairRanks(int required) {
+            if (pairRanks.length < required) {
+                pairRanks = new int[Math.max(required, pairRanks.length * 2)];
+            }
+            return pairRanks;
+        }
+    }
+
+    /**
+     * 可增长的Token缓冲区
+     */
+    private static final class TokenBuffer implements IntConsumer {
+
+        private int[] tokens = new int[64];
+        private int size;
+
+        @Override
+        public void accept(int token) {
+            if (size == tokens.length) {
+                tokens = Arrays.copyOf(tokens, size * 2);
+            }
+            tokens[size++] = token;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(tokens, size);
+        }
+    }
+}
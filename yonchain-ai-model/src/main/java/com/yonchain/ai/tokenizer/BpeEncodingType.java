@@ -0,0 +1,100 @@
+package com.yonchain.ai.tokenizer;
+
+import java.util.regex.Pattern;
+
+/**
+ * 支持的BPE编码
+ * <p>
+ * 词表文件为tiktoken格式（每行 "base64编码的字节序列 rank"），从词表目录中的 {name}.tiktoken
+ * 或类路径 tokenizer/{name}.tiktoken 加载，类路径中的词表通常由模型插件随资源一起提供。
+ * 都没有时可从tiktoken的发布地址下载，下载内容按tiktoken公布的SHA-256校验
+ */
+public enum BpeEncodingType {
+
+    /**
+     * GPT-3.5 / GPT-4 系列
+     */
+    CL100K_BASE("cl100k_base", 100256, "223921b76ee99bde995b7ff738513eef100fb51d18c93597a113bcffe865b2a7",
+            "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}"
+                    + "| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+"),
+
+    /**
+     * GPT-4o / GPT-4.1 / o系列 / GPT-5
+     */
+    O200K_BASE("o200k_base", 199998, "446a9538cb6c348e3516120d7c08b09f57c36495e2acfffe59a5bf8b0cfb1a2d",
+            "[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]*[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]+(?i:'s|'t|'re|'ve|'m|'ll|'d)?"
+                    + "|[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]+[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]*(?i:'s|'t|'re|'ve|'m|'ll|'d)?"
+                    + "|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n/]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+");
+
+    private static final String RESOURCE_PREFIX = "tokenizer/";
+    private static final String RESOURCE_SUFFIX = ".tiktoken";
+
+    private final String name;
+    private final int vocabularySize;
+    private final String sha256;
+    private final Pattern pattern;
+
+    BpeEncodingType(String name, int vocabularySize, String sha256, String regex) {
+        this.name = name;
+        this.vocabularySize = vocabularySize;
+        this.sha256 = sha256;
+        this.pattern = Pattern.compile(regex, Pattern.UNICODE_CHARACTER_CLASS);
+    }
+
+    /**
+     * 根据名称查找编码
+     *
+     * @param name 编码名称，如 cl100k_base
+     * @return 编码类型，不支持时返回null
+     */
+    public static BpeEncodingType fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (BpeEncodingType type : values()) {
+            if (type.name.equalsIgnoreCase(name.trim())) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 词表条目数（不含特殊Token），用于预分配合并表
+     */
+    public int getVocabularySize() {
+        return vocabularySize;
+    }
+
+    /**
+     * 发布的词表文件的SHA-256（十六进制小写），用于校验下载的词表
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * 预分词正则
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 词表文件名
+     */
+    public String getFileName() {
+        return name + RESOURCE_SUFFIX;
+    }
+
+    /**
+     * 词表资源路径
+     */
+    public String getResourcePath() {
+        return RESOURCE_PREFIX + getFileName();
+    }
+}
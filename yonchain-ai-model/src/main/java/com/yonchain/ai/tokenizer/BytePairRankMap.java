@@ -0,0 +1,146 @@
+package com.yonchain.ai.tokenizer;
+
+import java.util.Arrays;
+
+/**
+ * 字节序列到合并优先级（rank）的映射表
+ * <p>
+ * 针对BPE合并表专门实现的开放寻址哈希表：所有键连续存放在一个字节池中，
+ * 查找直接对调用方缓冲区中的字节区间计算哈希，不创建键对象，也不装箱rank。
+ * 构建完成后只读，可被多个线程并发查找。
+ */
+public class BytePairRankMap {
+
+    private static final int NOT_FOUND = -1;
+
+    private byte[] pool;
+    private int poolSize;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] ranks;
+    private int size;
+
+    // 槽位存放 条目下标+1，0表示空槽
+    private int[] slots;
+    private int mask;
+
+    public BytePairRankMap(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.pool = new byte[capacity * 4];
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        this.ranks = new int[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(capacity * 2, 16) - 1) << 1;
+        this.slots = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    /**
+     * 添加一个条目，重复的键以后添加的为准
+     *
+     * @param bytes 字节序列
+     * @param rank  合并优先级，越小越先合并
+     */
+    public void put(byte[] bytes, int rank) {
+        if (rank < 0) {
+            throw new IllegalArgumentException("Rank must not be negative: " + rank);
+        }
+        int slot = findSlot(bytes, 0, bytes.length);
+        if (slots[slot] != 0) {
+            ranks[slots[slot] - 1] = rank;
+            return;
+        }
+
+        if (size == offsets.length) {
+            growEntries();
+        }
+        if (poolSize + bytes.length > pool.length) {
+            growPool(poolSize + bytes.length);
+        }
+        System.arraycopy(bytes, 0, pool, poolSize, bytes.length);
+        offsets[size] = poolSize;
+        lengths[size] = bytes.length;
+        ranks[size] = rank;
+        poolSize += bytes.length;
+        size++;
+        slots[slot] = size;
+
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+    }
+
+    /**
+     * 查找字节区间的rank
+     *
+     * @param bytes  缓冲区
+     * @param offset 起始位置
+     * @param length 长度
+     * @return rank，不存在时返回-1
+     */
+    public int get(byte[] bytes, int offset, int length) {
+        int entry = slots[findSlot(bytes, offset, length)];
+        return entry == 0 ? NOT_FOUND : ranks[entry - 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int findSlot(byte[] bytes, int offset, int length) {
+        int slot = hash(bytes, offset, length) & mask;
+        while (true) {
+            int entry = slots[slot];
+            if (entry == 0 || equalsEntry(entry - 1, bytes, offset, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean equalsEntry(int entry, byte[] bytes, int offset, int length) {
+        if (lengths[entry] != length) {
+            return false;
+        }
+        int start = offsets[entry];
+        for (int i = 0; i < length; i++) {
+            if (pool[start + i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        // FNV-1a，末尾再做一次扰动以改善低位分布
+        int h = 0x811c9dc5;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h ^= bytes[i];
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private void growEntries() {
+        int capacity = offsets.length * 2;
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        ranks = Arrays.copyOf(ranks, capacity);
+    }
+
+    private void growPool(int required) {
+        pool = Arrays.copyOf(pool, Math.max(pool.length * 2, required));
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hash(pool, offsets[entry], lengths[entry]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.yonchain.ai.tokenizer;
+
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * 本地Token计数器
+ * <p>
+ * 用于上游未返回用量时的兜底计数，以及调用上游之前的预算估算
+ */
+public interface TokenCounter {
+
+    /**
+     * 每条消息的格式开销（角色、分隔符等）
+     */
+    int TOKENS_PER_MESSAGE = 3;
+
+    /**
+     * 回复引导的固定开销
+     */
+    int TOKENS_PER_REPLY = 3;
+
+    /**
+     * 统计文本的Token数
+     *
+     * @param text 文本
+     * @return Token数
+     */
+    int countTokens(CharSequence text);
+
+    /**
+     * 计数结果是否与模型的分词器一致（加载了词表的BPE编码），近似计数返回false
+     */
+    default boolean isExact() {
+        return false;
+    }
+
+    /**
+     * 统计对话消息的Token数，包含每条消息的格式开销
+     *
+     * @param messages 消息列表
+     * @return Token数
+     */
+    default int countMessages(List<? extends Message> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return 0;
+        }
+        int tokens = TOKENS_PER_REPLY;
+        for (Message message : messages) {
+            tokens += TOKENS_PER_MESSAGE;
+            String text = message.getText();
+            if (text != null) {
+                tokens += countTokens(text);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,293 @@
+package com.yonchain.ai.tokenizer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Token计数器注册中心
+ * <p>
+ * 负责按编码名称加载并缓存BPE编码。词表依次从词表目录（tokenizer.vocabulary.dir，文件名为 {name}.tiktoken）、
+ * 已注册的资源类加载器（通常是模型插件的类加载器）和本模块的类加载器中查找。都找不到且配置了下载地址时
+ * （默认不下载，需显式配置，如 https://openaipublic.blob.core.windows.net/encodings/），
+ * 从 {下载地址}{name}.tiktoken 下载，按 {@link BpeEncodingType#getSha256()} 校验后保存到词表目录
+ * （未设置时为 ~/.yonchain/tokenizer），之后直接从该目录加载。
+ * 找不到词表、下载失败或编码不受支持时回退到 {@link ApproximateTokenCounter}，每个编码只记录一次警告。
+ * <p>
+ * 常用编码在启动时通过 {@link #preload(Collection)} 加载；请求中首次用到未预加载的编码时在后台线程加载，
+ * 加载完成前按近似计数，不阻塞请求线程。注册新的类加载器后会重新加载回退为近似计数的编码。
+ */
+public class TokenizerRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenizerRegistry.class);
+
+    private final Map<String, ClassLoader> resourceLoaders = new ConcurrentHashMap<>();
+    private final Map<String, TokenCounter> counters = new ConcurrentHashMap<>();
+    private final Set<String> loading = ConcurrentHashMap.newKeySet();
+    private final Set<String> reportedFallbacks = ConcurrentHashMap.newKeySet();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tokenizer-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Path DEFAULT_CACHE_DIRECTORY = Path.of(System.getProperty("user.home"), ".yonchain", "tokenizer");
+
+    private volatile Path vocabularyDirectory;
+    private volatile String downloadUrl;
+    private volatile Duration downloadTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 设置词表目录，目录中的 {name}.tiktoken 优先于类路径中的词表
+     *
+     * @param vocabularyDirectory 词表目录，null表示只从类路径加载
+     */
+    public void setVocabularyDirectory(Path vocabularyDirectory) {
+        this.vocabularyDirectory = vocabularyDirectory;
+    }
+
+    /**
+     * 设置词表下载地址，本地和类路径中都没有词表时从该地址下载
+     *
+     * @param downloadUrl 下载地址（以/结尾的目录），null或空表示不下载
+     * @param timeout     单个词表的下载超时
+     */
+    public void setDownload(String downloadUrl, Duration timeout) {
+        this.downloadUrl = downloadUrl == null || downloadUrl.isBlank() ? null
+                : downloadUrl.endsWith("/") ? downloadUrl : downloadUrl + "/";
+        if (timeout != null && !timeout.isNegative() && !timeout.isZero()) {
+            this.downloadTimeout = timeout;
+        }
+    }
+
+    /**
+     * 在当前线程加载编码（启动时调用），已加载的编码不重复加载
+     *
+     * @param encodings 编码名称
+     */
+    public void preload(Collection<String> encodings) {
+        for (String encoding : encodings) {
+            if (encoding == null || encoding.isBlank()) {
+                continue;
+            }
+            String name = encoding.trim();
+            TokenCounter counter = counters.get(name);
+            if (counter == null || counter instanceof ApproximateTokenCounter) {
+                counters.put(name, loadCounter(name));
+            }
+        }
+    }
+
+    /**
+     * 注册词表资源类加载器
+     *
+     * @param namespace   命名空间（模型提供商）
+     * @param classLoader 类加载器
+     */
+    public void registerResourceLoader(String namespace, ClassLoader classLoader) {
+        resourceLoaders.put(namespace, classLoader);
+        log.debug("Registered tokenizer resource loader for namespace: {}", namespace);
+        List<String> fallbacks = new ArrayList<>();
+        counters.forEach((encoding, counter) -> {
+            if (counter instanceof ApproximateTokenCounter) {
+                fallbacks.add(encoding);
+            }
+        });
+        preload(fallbacks);
+    }
+
+    /**
+     * 注销词表资源类加载器
+     *
+     * @param namespace 命名空间（模型提供商）
+     */
+    public void unregisterResourceLoader(String namespace) {
+        if (resourceLoaders.remove(namespace) != null) {
+            log.debug("Unregistered tokenizer resource loader for namespace: {}", namespace);
+        }
+    }
+
+    /**
+     * 获取指定编码的Token计数器
+     * <p>
+     * 编码尚未加载时提交后台加载并返回近似计数器
+     *
+     * @param encoding 编码名称，如 cl100k_base、o200k_base
+     * @return Token计数器，编码不可用或加载中时返回近似计数器
+     */
+    public TokenCounter getTokenCounter(String encoding) {
+        if (encoding == null || encoding.isEmpty()) {
+            return ApproximateTokenCounter.INSTANCE;
+        }
+        TokenCounter counter = counters.get(encoding);
+        if (counter != null) {
+            return counter;
+        }
+        if (loading.add(encoding)) {
+            loader.execute(() -> {
+                try {
+                    counters.putIfAbsent(encoding, loadCounter(encoding));
+                } finally {
+                    loading.remove(encoding);
+                }
+            });
+        }
+        return ApproximateTokenCounter.INSTANCE;
+    }
+
+    /**
+     * 获取已加载的BPE编码
+     *
+     * @param encoding 编码名称
+     * @return BPE编码，不可用时返回null
+     */
+    public BpeEncoding getEncoding(String encoding) {
+        TokenCounter counter = getTokenCounter(encoding);
+        return counter instanceof BpeEncoding ? (BpeEncoding) counter : null;
+    }
+
+    private TokenCounter loadCounter(String encoding) {
+        BpeEncodingType type = BpeEncodingType.fromName(encoding);
+        if (type == null) {
+            reportFallback(encoding, "Unsupported tokenizer encoding: {}, falling back to approximate counting");
+            return ApproximateTokenCounter.INSTANCE;
+        }
+
+        Path directory = vocabularyDirectory;
+        if (directory != null) {
+            Path file = directory.resolve(type.getFileName());
+            if (Files.isRegularFile(file)) {
+                try (InputStream inputStream = Files.newInputStream(file)) {
+                    return load(type, inputStream);
+                } catch (IOException e) {
+                    log.error("Failed to load tokenizer vocabulary: {}", file, e);
+                }
+            }
+        }
+
+        for (ClassLoader classLoader : candidateLoaders()) {
+            try (InputStream inputStream = classLoader.getResourceAsStream(type.getResourcePath())) {
+                if (inputStream == null) {
+                    continue;
+                }
+                return load(type, inputStream);
+            } catch (IOException e) {
+                log.error("Failed to load tokenizer vocabulary: {}", type.getResourcePath(), e);
+            }
+        }
+
+        Path downloaded = download(type);
+        if (downloaded != null) {
+            try (InputStream inputStream = Files.newInputStream(downloaded)) {
+                return load(type, inputStream);
+            } catch (IOException e) {
+                log.error("Failed to load tokenizer vocabulary: {}", downloaded, e);
+            }
+        }
+
+        reportFallback(type.getName(), "Tokenizer vocabulary not found for {}, falling back to approximate counting"
+                + " (set tokenizer.vocabulary.dir, tokenizer.vocabulary.download.url or bundle tokenizer/{name}.tiktoken)");
+        return ApproximateTokenCounter.INSTANCE;
+    }
+
+    /**
+     * 下载词表并按SHA-256校验，校验通过后保存到词表目录
+     *
+     * @return 保存的词表文件，未配置下载地址或下载失败时返回null
+     */
+    private Path download(BpeEncodingType type) {
+        String baseUrl = downloadUrl;
+        if (baseUrl == null) {
+            return null;
+        }
+        Path directory = vocabularyDirectory != null ? vocabularyDirectory : DEFAULT_CACHE_DIRECTORY;
+        Path target = directory.resolve(type.getFileName());
+        if (Files.isRegularFile(target)) {
+            // 之前下载到默认缓存目录的词表
+            return target;
+        }
+
+        URI uri = URI.create(baseUrl + type.getFileName());
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, type.getName(), ".download");
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(downloadTimeout)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(downloadTimeout).GET().build();
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream body = new DigestInputStream(response.body(), digest)) {
+                if (response.statusCode() != 200) {
+                    throw new IOException("HTTP " + response.statusCode());
+                }
+                Files.copy(body, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String actual = HexFormat.of().formatHex(digest.digest());
+            if (!actual.equals(type.getSha256())) {
+                throw new IOException("SHA-256 mismatch, expected " + type.getSha256() + " but was " + actual);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Downloaded tokenizer vocabulary {} to {}", uri, target);
+            return target;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("Failed to download tokenizer vocabulary {}: {}", uri, e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.debug("Failed to delete temporary vocabulary file {}", temp, e);
+                }
+            }
+        }
+    }
+
+    private BpeEncoding load(BpeEncodingType type, InputStream inputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        BpeEncoding bpeEncoding = BpeEncoding.load(type, inputStream);
+        reportedFallbacks.remove(type.getName());
+        log.info("Loaded tokenizer encoding {} in {} ms", bpeEncoding, System.currentTimeMillis() - start);
+        return bpeEncoding;
+    }
+
+    private void reportFallback(String encoding, String message) {
+        if (reportedFallbacks.add(encoding)) {
+            log.warn(message, encoding);
+        }
+    }
+
+    private List<ClassLoader> candidateLoaders() {
+        List<ClassLoader> loaders = new ArrayList<>(resourceLoaders.values());
+        loaders.add(TokenizerRegistry.class.getClassLoader());
+        return loaders;
+    }
+}
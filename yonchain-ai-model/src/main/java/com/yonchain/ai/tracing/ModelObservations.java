@@ -0,0 +1,84 @@
+package com.yonchain.ai.tracing;
+
+import com.yonchain.ai.model.ModelConfiguration;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模型网关的观测（Span）名称和创建方法
+ * <p>
+ * 通过Micrometer Observation记录，接入micrometer-tracing-bridge-otel后输出为OpenTelemetry Span，
+ * 上游HTTP客户端注册同一个ObservationRegistry后按W3C traceparent向上游传播链路上下文。
+ * 一次聊天请求的Span结构：
+ * <pre>
+ * yonchain.model.request            过滤器处理请求（解析到响应写出）
+ *  ├─ yonchain.model.parse          JSON解析（阶段Span）
+ *  ├─ yonchain.model.create         模型实例首次创建（PluginModelFactory）
+ *  ├─ yonchain.model.options        运行时选项构建（阶段Span）
+ *  ├─ yonchain.model.upstream       上游调用，其下为Spring AI和HTTP客户端的Span
+ *  ├─ yonchain.model.stream         流式输出，first_token/last_token为Span事件
+ *  └─ yonchain.model.write          同步响应写出（阶段Span）
+ * </pre>
+ * tracing.enabled 为false时不注册ObservationRegistry，所有观测为NOOP；
+ * tracing.phases.enabled 为false时只保留请求、模型创建、上游调用和流式输出Span，省去耗时很短的阶段Span。
+ * 采样率由 management.tracing.sampling.probability 控制，未采样的请求不导出Span。
+ */
+public final class ModelObservations {
+
+    public static final String ENABLED = "tracing.enabled";
+    public static final String PHASES_ENABLED = "tracing.phases.enabled";
+
+    public static final String REQUEST = "yonchain.model.request";
+    public static final String PARSE = "yonchain.model.parse";
+    public static final String CREATE = "yonchain.model.create";
+    public static final String OPTIONS = "yonchain.model.options";
+    public static final String UPSTREAM = "yonchain.model.upstream";
+    public static final String STREAM = "yonchain.model.stream";
+    public static final String WRITE = "yonchain.model.write";
+
+    public static final Observation.Event FIRST_TOKEN = Observation.Event.of("first_token", "First chunk received");
+    public static final Observation.Event LAST_TOKEN = Observation.Event.of("last_token", "Last chunk received");
+
+    private ModelObservations() {
+    }
+
+    /**
+     * 创建观测（未启动），父观测为当前线程的观测
+     */
+    public static Observation create(ModelConfiguration configuration, String name, String contextualName) {
+        return Observation.createNotStarted(name, registry(configuration)).contextualName(contextualName);
+    }
+
+    /**
+     * 创建阶段观测（未启动），tracing.phases.enabled 为false时返回NOOP
+     */
+    public static Observation phase(ModelConfiguration configuration, String name, String contextualName) {
+        if (configuration == null || !configuration.getBooleanProperty(PHASES_ENABLED, true)) {
+            return Observation.NOOP;
+        }
+        return create(configuration, name, contextualName);
+    }
+
+    /**
+     * 获取当前线程的观测（用于跨线程传递父观测）
+     *
+     * @return 当前观测，没有时返回null
+     */
+    public static Observation current(ModelConfiguration configuration) {
+        return registry(configuration).getCurrentObservation();
+    }
+
+    /**
+     * 以指定的System.nanoTime时刻生成事件（用于在流结束时补记最后一个分块的时间）
+     */
+    public static Observation.Event eventAt(Observation.Event event, long nanoTime) {
+        long wallTime = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
+        return Observation.Event.of(event.getName(), event.getContextualName(), wallTime);
+    }
+
+    private static ObservationRegistry registry(ModelConfiguration configuration) {
+        return configuration != null ? configuration.getObservationRegistry() : ObservationRegistry.NOOP;
+    }
+}
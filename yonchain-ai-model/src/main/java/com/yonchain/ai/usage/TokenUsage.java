@@ -0,0 +1,122 @@
+package com.yonchain.ai.usage;
+
+import org.springframework.ai.chat.metadata.EmptyUsage;
+import org.springframework.ai.chat.metadata.Usage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * 单次调用的Token用量
+ * <p>
+ * 优先采用上游返回的用量，上游未返回的部分使用本地计数兜底，并标记为估算值。
+ * 上游返回了用量时，其中为0的字段是真实的0（如空输出、向量调用的输出Token），只有为null的字段才兜底；
+ * 没有返回用量（null、EmptyUsage或各字段都为空或0）时全部使用本地计数。
+ */
+public final class TokenUsage {
+
+    private final int promptTokens;
+    private final int completionTokens;
+    private final int totalTokens;
+    private final boolean estimated;
+
+    public TokenUsage(int promptTokens, int completionTokens, int totalTokens, boolean estimated) {
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+        this.totalTokens = totalTokens;
+        this.estimated = estimated;
+    }
+
+    /**
+     * 合并上游用量与本地计数
+     *
+     * @param reported           上游返回的用量，可为null
+     * @param promptFallback     本地统计的输入Token数（只在需要时调用）
+     * @param completionFallback 本地统计的输出Token数（只在需要时调用）
+     * @return Token用量
+     */
+    public static TokenUsage of(Usage reported, IntSupplier promptFallback, IntSupplier completionFallback) {
+        boolean present = isReported(reported);
+        Integer reportedPrompt = present ? reported.getPromptTokens() : null;
+        Integer reportedCompletion = present ? reported.getCompletionTokens() : null;
+
+        boolean estimated = false;
+        int prompt;
+        if (reportedPrompt != null) {
+            prompt = reportedPrompt;
+        } else {
+            prompt = promptFallback.getAsInt();
+            estimated = true;
+        }
+
+        int completion;
+        if (reportedCompletion != null) {
+            completion = reportedCompletion;
+        } else {
+            completion = completionFallback.getAsInt();
+            estimated = true;
+        }
+
+        // 上游的总数可能包含推理等额外Token，不小于输入与输出之和
+        Integer reportedTotal = present ? reported.getTotalTokens() : null;
+        int total = !estimated && reportedTotal != null ? Math.max(reportedTotal, prompt + completion)
+                : prompt + completion;
+        return new TokenUsage(prompt, completion, total, estimated);
+    }
+
+    /**
+     * 判断上游是否返回了用量
+     * <p>
+     * Spring AI在上游没有用量时使用EmptyUsage，部分实现把缺失字段归为0，
+     * 因此各字段都为空或0的用量视为未返回；只要有一个字段大于0，其余为0的字段就是真实的0。
+     */
+    public static boolean isReported(Usage usage) {
+        if (usage == null || usage instanceof EmptyUsage) {
+            return false;
+        }
+        return isPositive(usage.getPromptTokens()) || isPositive(usage.getCompletionTokens())
+                || isPositive(usage.getTotalTokens());
+    }
+
+    private static boolean isPositive(Integer tokens) {
+        return tokens != null && tokens > 0;
+    }
+
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+
+    public int getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public int getTotalTokens() {
+        return totalTokens;
+    }
+
+    public boolean isEstimated() {
+        return estimated;
+    }
+
+    /**
+     * 转换为OpenAI格式的usage对象
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> usage = new HashMap<>();
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", totalTokens);
+        return usage;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenUsage{" +
+                "promptTokens=" + promptTokens +
+                ", completionTokens=" + completionTokens +
+                ", totalTokens=" + totalTokens +
+                ", estimated=" + estimated +
+                '}';
+    }
+}
@@ -0,0 +1,158 @@
+package com.yonchain.ai.usage.rollup;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog基数估计（精度参数p=11，2048个寄存器，标准误差约2.3%）
+ * <p>
+ * 寄存器更新为CAS取最大值，可由多个请求线程并发写入；两个草图按寄存器取最大值合并，
+ * 用于跨分钟、跨节点合并去重用户数。序列化时寄存器较少时使用稀疏格式，避免每分钟写入2KB。
+ */
+public final class HyperLogLog {
+
+    private static final int P = 11;
+    private static final int M = 1 << P;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+    private static final byte FORMAT_SPARSE = 0;
+    private static final byte FORMAT_DENSE = 1;
+
+    private static final VarHandle REGISTER = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final byte[] registers = new byte[M];
+
+    /**
+     * 记录一个值
+     */
+    public void add(String value) {
+        long hash = hash64(value);
+        int index = (int) (hash >>> (64 - P));
+        // 剩余位中首个1的位置（1开始），全0时取最大值
+        byte rank = (byte) Math.min(Long.numberOfLeadingZeros(hash << P) + 1, 64 - P + 1);
+        while (true) {
+            byte current = (byte) REGISTER.getVolatile(registers, index);
+            if (current >= rank || REGISTER.compareAndSet(registers, index, current, rank)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 合并另一个草图（合并结果只由调用线程使用，不需要CAS）
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < M; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * 估计基数
+     */
+    public long cardinality() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < M; i++) {
+            byte register = (byte) REGISTER.getVolatile(registers, i);
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * M * M / sum;
+        if (estimate <= 2.5 * M && zeros > 0) {
+            // 小基数使用线性计数
+            estimate = M * Math.log((double) M / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (int i = 0; i < M; i++) {
+            if (registers[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 序列化：稀疏格式为 [0, 非零寄存器数(varint), (索引增量(varint), 值)...]，
+     * 稠密格式为 [1, 2048个寄存器]
+     */
+    public byte[] toBytes() {
+        int count = 0;
+        for (int i = 0; i < M; i++) {
+            if (registers[i] != 0) {
+                count++;
+            }
+        }
+        if (count * 3 + 3 >= M) {
+            byte[] dense = new byte[M + 1];
+            dense[0] = FORMAT_DENSE;
+            for (int i = 0; i < M; i++) {
+                dense[i + 1] = (byte) REGISTER.getVolatile(registers, i);
+            }
+            return dense;
+        }
+        ByteArrayOutputStream sparse = new ByteArrayOutputStream(count * 2 + 3);
+        sparse.write(FORMAT_SPARSE);
+        VarInts.write(sparse, count);
+        int previous = 0;
+        for (int i = 0; i < M; i++) {
+            byte register = (byte) REGISTER.getVolatile(registers, i);
+            if (register != 0) {
+                VarInts.write(sparse, i - previous);
+                sparse.write(register);
+                previous = i;
+            }
+        }
+        return sparse.toByteArray();
+    }
+
+    /**
+     * 反序列化
+     *
+     * @param bytes 序列化数据，为null或空时返回空草图
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog hll = new HyperLogLog();
+        if (bytes == null || bytes.length == 0) {
+            return hll;
+        }
+        if (bytes[0] == FORMAT_DENSE) {
+            System.arraycopy(bytes, 1, hll.registers, 0, Math.min(M, bytes.length - 1));
+            return hll;
+        }
+        int[] position = {1};
+        int count = VarInts.read(bytes, position);
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            index += VarInts.read(bytes, position);
+            hll.registers[index] = bytes[position[0]++];
+        }
+        return hll;
+    }
+
+    /**
+     * 64位哈希（FNV-1a后做一次混合，保证高位分布均匀）
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
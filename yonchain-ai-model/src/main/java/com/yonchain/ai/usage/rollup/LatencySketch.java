@@ -0,0 +1,132 @@
+package com.yonchain.ai.usage.rollup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟分位数草图（对数分桶，相对误差2%，与DDSketch相同的分桶方式）
+ * <p>
+ * 第k个桶覆盖 (γ^(k-1), γ^k] 毫秒，γ = (1+2%)/(1-2%)，桶内取中点作为估计值，
+ * 任意分位数的相对误差不超过2%。0毫秒单独计数，超过约21分钟的延迟计入最后一个桶。
+ * 桶计数可并发累加，两个草图按桶相加即可合并，用于跨分钟、跨节点计算分位数。
+ */
+public final class LatencySketch {
+
+    private static final double RELATIVE_ACCURACY = 0.02;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int BUCKETS = 352;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS + 1);
+
+    /**
+     * 记录一个延迟值
+     *
+     * @param millis 延迟（毫秒）
+     */
+    public void record(long millis) {
+        counts.incrementAndGet(indexOf(millis));
+    }
+
+    /**
+     * 合并另一个草图
+     */
+    public void merge(LatencySketch other) {
+        for (int i = 0; i <= BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i <= BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * 估计分位数
+     *
+     * @param quantile 分位（0-1），如0.99
+     * @return 延迟估计（毫秒），没有样本时返回0
+     */
+    public double quantile(double quantile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(quantile, 0), 1) * total);
+        long seen = 0;
+        for (int i = 0; i <= BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(rank, 1)) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(BUCKETS);
+    }
+
+    /**
+     * 序列化为 [非零桶数(varint), (桶索引增量(varint), 计数(varint))...]
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int nonZero = 0;
+        for (int i = 0; i <= BUCKETS; i++) {
+            if (counts.get(i) != 0) {
+                nonZero++;
+            }
+        }
+        VarInts.write(out, nonZero);
+        int previous = 0;
+        for (int i = 0; i <= BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                VarInts.write(out, i - previous);
+                VarInts.write(out, count);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 反序列化
+     *
+     * @param bytes 序列化数据，为null或空时返回空草图
+     */
+    public static LatencySketch fromBytes(byte[] bytes) {
+        LatencySketch sketch = new LatencySketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        int[] position = {0};
+        int nonZero = VarInts.read(bytes, position);
+        int index = 0;
+        for (int i = 0; i < nonZero; i++) {
+            index += VarInts.read(bytes, position);
+            sketch.counts.set(Math.min(index, BUCKETS), VarInts.readLong(bytes, position));
+        }
+        return sketch;
+    }
+
+    private static int indexOf(long millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(Math.log(millis) / LOG_GAMMA) + 1;
+        return Math.min(Math.max(index, 1), BUCKETS);
+    }
+
+    private static double valueOf(int index) {
+        if (index == 0) {
+            return 0;
+        }
+        // 桶 (γ^(k-1), γ^k] 的中点，k = index - 1
+        return 2 * Math.pow(GAMMA, index - 1) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,384 @@
+package com.yonchain.ai.usage.rollup;
+
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.invokelog.entity.ModelInvokeLogEntity;
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.usage.rollup.entity.ModelUsageRollupEntity;
+import com.yonchain.ai.usage.rollup.mapper.ModelUsageRollupMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 模型用量分钟汇总器
+ * <p>
+ * 每次调用结束时按（分钟、租户、模型、提供商、状态）累加到内存单元：计数使用LongAdder分段累加，
+ * 延迟记录到可合并的分位数草图（LatencySketch），用户记录到HyperLogLog，请求线程不加锁。
+ * 后台线程每 usage.rollup.flush.interval 毫秒把已结束的分钟写入model_usage_rollup（每节点每分钟一行），
+ * 控制台查询按分钟行合并，不再扫描调用明细。维度值按列宽截断。
+ * <p>
+ * 同一分钟的行已存在时（迟到记录、重启前已写入），先读出已有行的草图与本次草图合并后整体覆盖，
+ * 计数在upsert中累加；每行只由所属节点的单个写入线程写入，读取与覆盖之间不会有并发写入。
+ * <p>
+ * 数据库不可用时保留单元下次重试，超过 usage.rollup.retention.minutes 分钟仍未写入的单元丢弃并告警；
+ * 数据库拒绝的批次（数据异常、约束冲突）逐行重写，仍被拒绝的行丢弃并计数，不影响同批次的其他行。
+ */
+public class UsageRollupAggregator implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageRollupAggregator.class);
+
+    public static final String ENABLED = "usage.rollup.enabled";
+    public static final String FLUSH_INTERVAL_MS = "usage.rollup.flush.interval";
+    public static final String RETENTION_MINUTES = "usage.rollup.retention.minutes";
+    public static final String NODE_ID = "usage.rollup.node.id";
+    public static final String DEFAULT_TENANT = "invoke.log.default.tenant";
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    // 分钟结束后再等待的时间，避免写入仍在累加的单元
+    private static final long CLOSE_GRACE_MILLIS = 2000;
+    // 每行16个绑定参数，单条语句远低于PostgreSQL的65535个参数上限
+    private static final int UPSERT_CHUNK_SIZE = 1000;
+    private static final int NODE_ID_MAX_CHARS = 128;
+    // 与model_usage_rollup的列宽一致
+    private static final int TENANT_ID_MAX_CHARS = 64;
+    private static final int CODE_MAX_CHARS = 100;
+    private static final int STATUS_MAX_CHARS = 20;
+
+    private final ModelUsageRollupMapper rollupMapper;
+    private final boolean enabled;
+    private final long retentionMinutes;
+    private final String nodeId;
+    private final String defaultTenant;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Map<RollupKey, RollupCell> cells = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder droppedRows = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+
+    public UsageRollupAggregator(ModelConfiguration configuration, ModelUsageRollupMapper rollupMapper) {
+        this.rollupMapper = rollupMapper;
+        this.enabled = configuration.getBooleanProperty(ENABLED, true);
+        this.retentionMinutes = Math.max(configuration.getLongProperty(RETENTION_MINUTES, 60L), 1L);
+        this.defaultTenant = configuration.getProperty(DEFAULT_TENANT, "default");
+        String configuredNode = configuration.getProperty(NODE_ID, "");
+        String node = configuredNode.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : configuredNode;
+        this.nodeId = truncate(node, NODE_ID_MAX_CHARS);
+
+        if (enabled) {
+            long interval = Math.max(configuration.getLongProperty(FLUSH_INTERVAL_MS, 10000L), 1000L);
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "usage-rollup-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(() -> flushSafely(false), interval, interval, TimeUnit.MILLISECONDS);
+            logger.info("Usage rollup enabled on node {}, flush interval {} ms", nodeId, interval);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 累加一次调用（按调用结束时间所在的分钟）
+     *
+     * @param log 已填充结果的调用日志，用户ID为空时不计入去重用户数
+     */
+    public void record(ModelInvokeLogEntity log) {
+        if (!enabled) {
+            return;
+        }
+        long epochMinute = System.currentTimeMillis() / MINUTE_MILLIS;
+        RollupKey key = new RollupKey(epochMinute,
+                truncate(log.getTenantId() != null ? log.getTenantId() : defaultTenant, TENANT_ID_MAX_CHARS),
+                truncate(log.getModelCode() != null ? log.getModelCode() : "unknown", CODE_MAX_CHARS),
+                truncate(log.getProviderCode() != null ? log.getProviderCode() : "unknown", CODE_MAX_CHARS),
+                truncate(log.getStatus() != null ? log.getStatus() : "UNKNOWN", STATUS_MAX_CHARS));
+        RollupCell cell = cells.computeIfAbsent(key, k -> new RollupCell());
+
+        cell.requests.increment();
+        if (log.getPromptTokens() != null) {
+            cell.promptTokens.add(log.getPromptTokens());
+        }
+        if (log.getCompletionTokens() != null) {
+            cell.completionTokens.add(log.getCompletionTokens());
+        }
+        if (log.getTotalTokens() != null) {
+            cell.totalTokens.add(log.getTotalTokens());
+        }
+        if (log.getCost() != null) {
+            cell.costMicros.add(log.getCost().movePointRight(6).longValue());
+        }
+        if (log.getDuration() != null) {
+            cell.durationSum.add(log.getDuration());
+            cell.durationMax.accumulate(log.getDuration());
+            cell.latency.record(log.getDuration());
+        }
+        if (log.getUserId() != null && !log.getUserId().isEmpty()) {
+            cell.users.add(log.getUserId());
+        }
+        recorded.increment();
+    }
+
+    /**
+     * 写入已结束的分钟
+     *
+     * @param all 为true时同时写入当前分钟（关闭时使用）
+     */
+    public void flush(boolean all) {
+        long nowMillis = System.currentTimeMillis();
+        long closedBefore = all ? Long.MAX_VALUE : (nowMillis - CLOSE_GRACE_MILLIS) / MINUTE_MILLIS;
+        long expiredBefore = nowMillis / MINUTE_MILLIS - retentionMinutes;
+
+        List<RollupKey> keys = new ArrayList<>();
+        List<ModelUsageRollupEntity> rows = new ArrayList<>();
+        LocalDateTime updateTime = LocalDateTime.now();
+        for (Map.Entry<RollupKey, RollupCell> entry : cells.entrySet()) {
+            RollupKey key = entry.getKey();
+            if (key.epochMinute() < closedBefore) {
+                keys.add(key);
+                rows.add(toEntity(key, entry.getValue(), updateTime));
+            }
+        }
+
+        for (int from = 0; from < rows.size(); from += UPSERT_CHUNK_SIZE) {
+            int to = Math.min(from + UPSERT_CHUNK_SIZE, rows.size());
+            if (!upsert(keys.subList(from, to), rows.subList(from, to))) {
+                failedFlushes.increment();
+                break;
+            }
+        }
+
+        // 长时间无法写入的分钟丢弃，避免内存无限增长
+        int dropped = 0;
+        for (Iterator<RollupKey> iterator = cells.keySet().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().epochMinute() < expiredBefore) {
+                iterator.remove();
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            droppedRows.add(dropped);
+            logger.warn("Dropped {} usage rollups older than {} minutes", dropped, retentionMinutes);
+        }
+    }
+
+    /**
+     * 合并已有行的草图后写入一批汇总，批次被拒绝时逐行重写
+     *
+     * @return 数据库不可用时返回false，未写入的单元保留到下次重试
+     */
+    private boolean upsert(List<RollupKey> keys, List<ModelUsageRollupEntity> rows) {
+        try {
+            mergeExistingSketches(rows);
+            rollupMapper.batchUpsert(rows);
+            flushedRows.add(rows.size());
+            keys.forEach(cells::remove);
+            return true;
+        } catch (RuntimeException e) {
+            if (!InvokeLogWriter.isDataError(e)) {
+                logger.warn("Failed to flush {} usage rollups, retrying later: {}", rows.size(), e.getMessage());
+                return false;
+            }
+            logger.warn("Usage rollup batch of {} rejected by the database, retrying row by row: {}",
+                    rows.size(), e.getMessage());
+        }
+
+        for (int i = 0; i < rows.size(); i++) {
+            ModelUsageRollupEntity row = rows.get(i);
+            try {
+                rollupMapper.batchUpsert(List.of(row));
+                flushedRows.increment();
+            } catch (RuntimeException e) {
+                if (!InvokeLogWriter.isDataError(e)) {
+                    logger.warn("Failed to flush {} usage rollups, retrying later: {}", rows.size() - i,
+                            e.getMessage());
+                    return false;
+                }
+                rejectedRows.increment();
+                logger.warn("Dropped usage rollup rejected by the database (tenant {}, model {}, minute {}): {}",
+                        row.getTenantId(), row.getModelCode(), row.getBucketTime(), e.getMessage());
+            }
+            cells.remove(keys.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * 读取本节点在批次时间范围内已写入的行，把其中的延迟草图和用户草图合并到待写入的行
+     */
+    private void mergeExistingSketches(List<ModelUsageRollupEntity> rows) {
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (ModelUsageRollupEntity row : rows) {
+            if (from == null || row.getBucketTime().isBefore(from)) {
+                from = row.getBucketTime();
+            }
+            if (to == null || row.getBucketTime().isAfter(to)) {
+                to = row.getBucketTime();
+            }
+        }
+        if (from == null) {
+            return;
+        }
+        List<ModelUsageRollupEntity> existingRows = rollupMapper.selectNodeSketches(nodeId, from, to);
+        if (existingRows.isEmpty()) {
+            return;
+        }
+        Map<List<Object>, ModelUsageRollupEntity> existing = new HashMap<>();
+        for (ModelUsageRollupEntity row : existingRows) {
+            existing.put(rowKey(row), row);
+        }
+        for (ModelUsageRollupEntity row : rows) {
+            ModelUsageRollupEntity previous = existing.get(rowKey(row));
+            if (previous == null) {
+                continue;
+            }
+            LatencySketch latency = LatencySketch.fromBytes(row.getLatencySketch());
+            latency.merge(LatencySketch.fromBytes(previous.getLatencySketch()));
+            row.setLatencySketch(latency.toBytes());
+            HyperLogLog users = HyperLogLog.fromBytes(row.getUserSketch());
+            users.merge(HyperLogLog.fromBytes(previous.getUserSketch()));
+            row.setUserSketch(users.isEmpty() ? null : users.toBytes());
+        }
+    }
+
+    private static List<Object> rowKey(ModelUsageRollupEntity row) {
+        return List.of(row.getBucketTime(), row.getTenantId(), row.getModelCode(), row.getProviderCode(),
+                row.getStatus());
+    }
+
+    private static String truncate(String value, int maxChars) {
+        return value.length() > maxChars ? value.substring(0, maxChars) : value;
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // 关闭前写入所有分钟（包括当前分钟），重启后同一分钟的行按计数累加
+            flushSafely(true);
+        }
+    }
+
+    private void flushSafely(boolean all) {
+        try {
+            flush(all);
+        } catch (RuntimeException e) {
+            logger.error("Usage rollup flush failed", e);
+        }
+    }
+
+    private ModelUsageRollupEntity toEntity(RollupKey key, RollupCell cell, LocalDateTime updateTime) {
+        return new ModelUsageRollupEntity()
+                .setBucketTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(key.epochMinute() * MINUTE_MILLIS), zone))
+                .setTenantId(key.tenantId())
+                .setModelCode(key.modelCode())
+                .setProviderCode(key.providerCode())
+                .setStatus(key.status())
+                .setNodeId(nodeId)
+                .setRequestCount(cell.requests.sum())
+                .setPromptTokens(cell.promptTokens.sum())
+                .setCompletionTokens(cell.completionTokens.sum())
+                .setTotalTokens(cell.totalTokens.sum())
+                .setCost(BigDecimal.valueOf(cell.costMicros.sum(), 6))
+                .setDurationSum(cell.durationSum.sum())
+                .setDurationMax((int) Math.min(cell.durationMax.get(), Integer.MAX_VALUE))
+                .setLatencySketch(cell.latency.toBytes())
+                .setUserSketch(cell.users.isEmpty() ? null : cell.users.toBytes())
+                .setUpdateTime(updateTime);
+    }
+
+    /**
+     * 已累加的调用数
+     */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /**
+     * 已写入数据库的汇总行数
+     */
+    public long getFlushedRowCount() {
+        return flushedRows.sum();
+    }
+
+    /**
+     * 超过保留时间仍未写入而丢弃的汇总行数
+     */
+    public long getDroppedRowCount() {
+        return droppedRows.sum();
+    }
+
+    /**
+     * 被数据库拒绝而丢弃的汇总行数
+     */
+    public long getRejectedRowCount() {
+        return rejectedRows.sum();
+    }
+
+    /**
+     * 写入失败的次数
+     */
+    public long getFailedFlushCount() {
+        return failedFlushes.sum();
+    }
+
+    /**
+     * 内存中尚未写入的汇总单元数
+     */
+    public int getPendingCellCount() {
+        return cells.size();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private record RollupKey(long epochMinute, String tenantId, String modelCode, String providerCode,
+                             String status) {
+    }
+
+    /**
+     * 单个分钟的汇总单元，各字段独立并发累加
+     */
+    private static final class RollupCell {
+        final LongAdder requests = new LongAdder();
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder completionTokens = new LongAdder();
+        final LongAdder totalTokens = new LongAdder();
+        final LongAdder costMicros = new LongAdder();
+        final LongAdder durationSum = new LongAdder();
+        final LongAccumulator durationMax = new LongAccumulator(Math::max, 0);
+        final LatencySketch latency = new LatencySketch();
+        final HyperLogLog users = new HyperLogLog();
+    }
+}
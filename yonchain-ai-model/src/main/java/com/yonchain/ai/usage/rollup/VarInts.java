@@ -0,0 +1,42 @@
+package com.yonchain.ai.usage.rollup;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 无符号变长整数编码（每字节7位，最高位表示后续还有字节）
+ */
+final class VarInts {
+
+    private VarInts() {
+    }
+
+    static void write(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * 读取一个变长整数
+     *
+     * @param position 读取位置（读取后前移）
+     */
+    static int read(byte[] bytes, int[] position) {
+        return (int) readLong(bytes, position);
+    }
+
+    static long readLong(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
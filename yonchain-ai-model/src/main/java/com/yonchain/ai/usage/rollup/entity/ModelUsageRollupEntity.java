@@ -0,0 +1,98 @@
+package com.yonchain.ai.usage.rollup.entity;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 模型用量分钟汇总实体类
+ * 对应数据库表：model_usage_rollup
+ * <p>
+ * 每个节点每分钟按（租户、模型、提供商、状态）写入一行，查询时跨节点合并。
+ */
+@Data
+@Accessors(chain = true)
+public class ModelUsageRollupEntity {
+
+    /**
+     * 分钟起始时间
+     */
+    private LocalDateTime bucketTime;
+
+    /**
+     * 租户ID
+     */
+    private String tenantId;
+
+    /**
+     * 模型代码
+     */
+    private String modelCode;
+
+    /**
+     * 提供商代码
+     */
+    private String providerCode;
+
+    /**
+     * 调用状态：SUCCESS、ERROR、TIMEOUT
+     */
+    private String status;
+
+    /**
+     * 写入节点
+     */
+    private String nodeId;
+
+    /**
+     * 调用次数
+     */
+    private Long requestCount;
+
+    /**
+     * 输入Token数
+     */
+    private Long promptTokens;
+
+    /**
+     * 输出Token数
+     */
+    private Long completionTokens;
+
+    /**
+     * 总Token数
+     */
+    private Long totalTokens;
+
+    /**
+     * 费用（基准币种）
+     */
+    private BigDecimal cost;
+
+    /**
+     * 耗时总和（毫秒）
+     */
+    private Long durationSum;
+
+    /**
+     * 最大耗时（毫秒）
+     */
+    private Integer durationMax;
+
+    /**
+     * 延迟分位数草图，见 LatencySketch
+     */
+    private byte[] latencySketch;
+
+    /**
+     * 去重用户草图，见 HyperLogLog
+     */
+    private byte[] userSketch;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
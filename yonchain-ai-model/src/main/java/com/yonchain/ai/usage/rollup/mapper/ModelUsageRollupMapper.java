@@ -0,0 +1,49 @@
+package com.yonchain.ai.usage.rollup.mapper;
+
+import com.yonchain.ai.usage.rollup.entity.ModelUsageRollupEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 模型用量分钟汇总Mapper接口
+ */
+@Mapper
+public interface ModelUsageRollupMapper {
+
+    /**
+     * 批量写入分钟汇总，行已存在时累加计数（同一节点同一分钟的迟到记录），草图以本次写入的值覆盖
+     *
+     * @param rollups 汇总列表，同一批次内主键不重复，草图已合并已有行
+     * @return 影响行数
+     */
+    int batchUpsert(@Param("rollups") List<ModelUsageRollupEntity> rollups);
+
+    /**
+     * 查询节点在时间范围内已写入的行（只含主键和草图），用于写入前合并草图
+     *
+     * @param nodeId 写入节点
+     * @param from   开始时间（含）
+     * @param to     结束时间（含）
+     * @return 汇总列表
+     */
+    List<ModelUsageRollupEntity> selectNodeSketches(@Param("nodeId") String nodeId,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
+
+    /**
+     * 查询时间范围内的分钟汇总
+     *
+     * @param tenantId  租户ID
+     * @param modelCode 模型代码，为空时不过滤
+     * @param from      开始时间（含）
+     * @param to        结束时间（不含）
+     * @return 汇总列表，按分钟排序
+     */
+    List<ModelUsageRollupEntity> selectRollups(@Param("tenantId") String tenantId,
+                                               @Param("modelCode") String modelCode,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+}
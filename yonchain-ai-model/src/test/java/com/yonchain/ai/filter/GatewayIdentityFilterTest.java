@@ -0,0 +1,199 @@
+package com.yonchain.ai.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.api.agent.Agent;
+import com.yonchain.ai.api.agent.AgentService;
+import com.yonchain.ai.api.exception.YonchainException;
+import com.yonchain.ai.api.security.SecurityService;
+import com.yonchain.ai.api.sys.DefaultTenant;
+import com.yonchain.ai.api.sys.IdmCacheService;
+import com.yonchain.ai.api.sys.TenantService;
+import com.yonchain.ai.chat.ChatModelFilter;
+import com.yonchain.ai.invokelog.InvokeLogWriter;
+import com.yonchain.ai.metrics.GatewayMetrics;
+import com.yonchain.ai.model.ModelClient;
+import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.quota.QuotaEngine;
+import com.yonchain.ai.quota.store.InMemoryQuotaStore;
+import com.yonchain.ai.usage.rollup.UsageRollupAggregator;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 网关身份过滤器测试
+ * <p>
+ * 请求依次经过身份、准入控制和聊天模型过滤器，开启预算且要求租户主体时，
+ * 只有携带有效令牌的请求能通过预算检查并调用上游模型
+ */
+class GatewayIdentityFilterTest {
+
+    private static final String GOOD_TOKEN = "eyJhbGciOiJIUzI1NiJ9.good.signature";
+    private static final String BAD_TOKEN = "eyJhbGciOiJIUzI1NiJ9.bad.signature";
+    private static final String BODY = "{\"model\":\"test-model\",\"messages\":[{\"role\":\"user\",\"content\":\"hi\"}]}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SecurityService securityService = mock(SecurityService.class);
+    private final IdmCacheService idmCacheService = mock(IdmCacheService.class);
+    private final TenantService tenantService = mock(TenantService.class);
+    private final AgentService agentService = mock(AgentService.class);
+    private final ModelClient modelClient = mock(ModelClient.class);
+
+    private QuotaEngine quotaEngine;
+    private GatewayIdentityFilter identityFilter;
+    private AdmissionControlFilter admissionFilter;
+    private ChatModelFilter chatFilter;
+
+    @BeforeEach
+    void setUp() {
+        ModelConfiguration configuration = new ModelConfiguration();
+        configuration.setProperty(QuotaEngine.ENABLED, "true");
+        configuration.setProperty(QuotaEngine.SUBJECT_REQUIRED, "true");
+        configuration.setProperty("quota.tenant.daily.limit", "10");
+        configuration.setProperty("parameter.rules.enabled", "false");
+        configuration.setProperty("context.preflight.enabled", "false");
+        when(modelClient.getConfiguration()).thenReturn(configuration);
+        when(modelClient.chat(anyString(), any())).thenThrow(new IllegalStateException("upstream not available"));
+
+        DefaultTenant tenant = new DefaultTenant();
+        tenant.setId("t1");
+        when(securityService.verifyToken(GOOD_TOKEN)).thenReturn(Map.of("user_id", "u1"));
+        when(securityService.verifyToken(BAD_TOKEN)).thenThrow(new YonchainException("Token校验失败"));
+        when(idmCacheService.getTenantByUserId("u1")).thenReturn(tenant);
+
+        createFilters(configuration);
+    }
+
+    private void createFilters(ModelConfiguration configuration) {
+        quotaEngine = new QuotaEngine(configuration, List.of(new InMemoryQuotaStore()));
+        identityFilter = new GatewayIdentityFilter(configuration, securityService, idmCacheService, tenantService,
+                agentService, objectMapper);
+        admissionFilter = new AdmissionControlFilter(new AdmissionController(configuration), objectMapper);
+        chatFilter = new ChatModelFilter(modelClient, objectMapper, quotaEngine, mock(InvokeLogWriter.class),
+                mock(UsageRollupAggregator.class), new GatewayMetrics(configuration, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        quotaEngine.close();
+    }
+
+    @Test
+    void authenticatedTenantPassesQuotaAndReachesUpstream() throws Exception {
+        MockHttpServletResponse response = execute(request(GOOD_TOKEN, null));
+
+        assertNotEquals(429, response.getStatus());
+        verify(modelClient).chat(eq("test-model"), any());
+    }
+
+    @Test
+    void anonymousRequestIsRejectedByRequiredTenantQuota() throws Exception {
+        MockHttpServletResponse response = execute(request(null, null));
+
+        assertEquals(429, response.getStatus());
+        verify(modelClient, never()).chat(anyString(), any());
+    }
+
+    @Test
+    void invalidTokenIsRejected() throws Exception {
+        MockHttpServletResponse response = execute(request(BAD_TOKEN, null));
+
+        assertEquals(401, response.getStatus());
+        verify(modelClient, never()).chat(anyString(), any());
+    }
+
+    @Test
+    void tenantHeaderDoesNotReplaceAuthentication() throws Exception {
+        MockHttpServletRequest request = request(null, null);
+        request.addHeader(BaseModelFilter.TENANT_HEADER, "t1");
+
+        assertEquals(429, execute(request).getStatus());
+    }
+
+    @Test
+    void agentOfAnotherTenantIsRejected() throws Exception {
+        Agent agent = mock(Agent.class);
+        when(agent.getTenantId()).thenReturn("t2");
+        when(agentService.getAppById("a1")).thenReturn(agent);
+
+        MockHttpServletResponse response = execute(request(GOOD_TOKEN, "a1"));
+
+        assertEquals(403, response.getStatus());
+        verify(modelClient, never()).chat(anyString(), any());
+    }
+
+    @Test
+    void agentOfCurrentTenantIsAccepted() throws Exception {
+        Agent agent = mock(Agent.class);
+        when(agent.getTenantId()).thenReturn("t1");
+        when(agentService.getAppById("a1")).thenReturn(agent);
+
+        MockHttpServletResponse response = execute(request(GOOD_TOKEN, "a1"));
+
+        assertNotEquals(403, response.getStatus());
+        verify(modelClient).chat(eq("test-model"), any());
+    }
+
+    @Test
+    void apiKeyBearerIsAnonymousWhenQuotaDisabled() throws Exception {
+        quotaEngine.close();
+        ModelConfiguration configuration = new ModelConfiguration();
+        configuration.setProperty("parameter.rules.enabled", "false");
+        configuration.setProperty("context.preflight.enabled", "false");
+        when(modelClient.getConfiguration()).thenReturn(configuration);
+        createFilters(configuration);
+
+        MockHttpServletResponse response = execute(request("sk-test-api-key", null));
+
+        assertNotEquals(401, response.getStatus());
+        verify(securityService, never()).verifyToken(anyString());
+        verify(modelClient).chat(eq("test-model"), any());
+    }
+
+    @Test
+    void apiKeyBearerIsAnonymousWhenAuthNotRequired() throws Exception {
+        MockHttpServletResponse response = execute(request("sk-test-api-key", null));
+
+        // 按匿名处理：不校验令牌，由要求租户主体的预算拒绝
+        assertEquals(429, response.getStatus());
+        verify(securityService, never()).verifyToken(anyString());
+    }
+
+    private MockHttpServletRequest request(String token, String agentId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/chat/completions");
+        request.setContentType("application/json");
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        if (agentId != null) {
+            request.addHeader(BaseModelFilter.AGENT_HEADER, agentId);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse execute(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(new HttpServlet() {
+        }, identityFilter, admissionFilter, chatFilter).doFilter(request, response);
+        return response;
+    }
+}
@@ -0,0 +1,152 @@
+package com.yonchain.ai.tokenizer;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * BPE编码测试
+ * <p>
+ * 合并顺序用小词表验证；与tiktoken对照的Token序列需要真实词表，从 -Dtokenizer.vocabulary.dir=&lt;目录&gt;
+ * 读取，指定 -Dtokenizer.vocabulary.download.url=&lt;地址&gt; 时没有词表则下载到该目录，没有词表时跳过。
+ */
+class BpeEncodingTest {
+
+    private static final String VOCABULARY_DIR = "tokenizer.vocabulary.dir";
+    private static final String DOWNLOAD_URL = "tokenizer.vocabulary.download.url";
+
+    /**
+     * 256个单字节Token（rank即字节值）加上给定的合并结果，rank从256开始递增
+     */
+    private static String vocabulary(String... merges) {
+        StringBuilder builder = new StringBuilder();
+        Base64.Encoder encoder = Base64.getEncoder();
+        for (int i = 0; i < 256; i++) {
+            builder.append(encoder.encodeToString(new byte[]{(byte) i})).append(' ').append(i).append('\n');
+        }
+        for (int i = 0; i < merges.length; i++) {
+            builder.append(encoder.encodeToString(merges[i].getBytes(StandardCharsets.UTF_8)))
+                    .append(' ').append(256 + i).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static BpeEncoding encoding(String... merges) throws IOException {
+        byte[] bytes = vocabulary(merges).getBytes(StandardCharsets.US_ASCII);
+        return BpeEncoding.load(BpeEncodingType.CL100K_BASE, new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    void mergesLowestRankPairFirst() throws IOException {
+        // bc(256)的rank低于ab(257)，先合并bc
+        BpeEncoding encoding = encoding("bc", "ab");
+        assertArrayEquals(new int[]{'a', 256}, encoding.encode("abc"));
+    }
+
+    @Test
+    void mergesRepeatedlyUntilNoPairInVocabulary() throws IOException {
+        BpeEncoding encoding = encoding("he", "ll", "hell");
+        // he、ll 合并后 hell 命中，hello 不在词表中
+        assertArrayEquals(new int[]{258, 'o'}, encoding.encode("hello"));
+        // 预分词切为 "hello" 和 " hello"
+        assertArrayEquals(new int[]{258, 'o', ' ', 258, 'o'}, encoding.encode("hello hello"));
+        assertEquals(5, encoding.countTokens("hello hello"));
+    }
+
+    @Test
+    void usesWholePieceWhenInVocabulary() throws IOException {
+        BpeEncoding encoding = encoding("he", "ll", "hell", "hello");
+        assertArrayEquals(new int[]{259}, encoding.encode("hello"));
+    }
+
+    @Test
+    void encodesUnmergedMultiByteCharactersAsSingleBytes() throws IOException {
+        BpeEncoding encoding = encoding();
+        byte[] utf8 = "你".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(new int[]{utf8[0] & 0xFF, utf8[1] & 0xFF, utf8[2] & 0xFF}, encoding.encode("你"));
+        assertEquals(0, encoding.countTokens(""));
+        assertTrue(encoding.isExact());
+    }
+
+    @Test
+    void registryLoadsFromVocabularyDirectory(@TempDir Path directory) throws IOException {
+        Files.writeString(directory.resolve("cl100k_base.tiktoken"), vocabulary("he", "ll", "hell"),
+                StandardCharsets.US_ASCII);
+
+        TokenizerRegistry registry = new TokenizerRegistry();
+        registry.setVocabularyDirectory(directory);
+        registry.preload(List.of("cl100k_base", "o200k_base", "unknown"));
+
+        TokenCounter counter = registry.getTokenCounter("cl100k_base");
+        assertInstanceOf(BpeEncoding.class, counter);
+        assertEquals(2, counter.countTokens("hello"));
+        assertSame(ApproximateTokenCounter.INSTANCE, registry.getTokenCounter("o200k_base"));
+        assertFalse(registry.getTokenCounter("unknown").isExact());
+    }
+
+    @Test
+    void rejectsDownloadedVocabularyWithWrongChecksum(@TempDir Path directory) throws IOException {
+        byte[] body = vocabulary("he", "ll", "hell").getBytes(StandardCharsets.US_ASCII);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/encodings/", exchange -> {
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            TokenizerRegistry registry = new TokenizerRegistry();
+            registry.setVocabularyDirectory(directory);
+            registry.setDownload("http://127.0.0.1:" + server.getAddress().getPort() + "/encodings",
+                    Duration.ofSeconds(5));
+            registry.preload(List.of("cl100k_base"));
+
+            assertSame(ApproximateTokenCounter.INSTANCE, registry.getTokenCounter("cl100k_base"));
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(0, files.count(), "unverified vocabulary must not be kept");
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void matchesTiktokenWithRealVocabulary() {
+        TokenizerRegistry registry = new TokenizerRegistry();
+        String directory = System.getProperty(VOCABULARY_DIR);
+        if (directory != null && !directory.isBlank()) {
+            registry.setVocabularyDirectory(Paths.get(directory));
+        }
+        registry.setDownload(System.getProperty(DOWNLOAD_URL), Duration.ofSeconds(60));
+        registry.preload(List.of(BpeEncodingType.CL100K_BASE.getName()));
+        BpeEncoding encoding = registry.getEncoding(BpeEncodingType.CL100K_BASE.getName());
+        assumeTrue(encoding != null, "cl100k_base vocabulary not available");
+
+        assertArrayEquals(new int[]{15339, 1917}, encoding.encode("hello world"));
+        assertArrayEquals(new int[]{83, 1609, 5963, 374, 2294, 0}, encoding.encode("tiktoken is great!"));
+        assertEquals(6, encoding.countTokens("tiktoken is great!"));
+    }
+}
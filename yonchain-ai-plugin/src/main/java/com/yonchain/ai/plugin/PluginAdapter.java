@@ -1,9 +1,12 @@
 package com.yonchain.ai.plugin;
 
+import com.yonchain.ai.api.plugin.dto.PluginInfo;
 import com.yonchain.ai.plugin.config.PluginConfig;
 import com.yonchain.ai.plugin.enums.PluginType;
 import com.yonchain.ai.plugin.exception.PluginException;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 插件适配器接口
  * 不同类型的插件需要不同的适配器来处理特定的逻辑
@@ -48,5 +51,18 @@ public interface PluginAdapter {
      * @throws PluginException 插件异常
      */
     void onPluginDisable(String pluginId) throws PluginException;
+    
+    /**
+     * 已启用插件升级时的回调：加载新版本并切换，切换过程中不中断正在进行和新到达的调用
+     * 
+     * @param current 当前版本的插件信息
+     * @param upgraded 新版本的插件信息（插件路径指向新版本的JAR）
+     * @return 旧版本销毁、类加载器关闭后完成，此后才可以删除旧版本的JAR
+     * @throws PluginException 插件异常，抛出时当前版本继续提供服务
+     */
+    default CompletableFuture<Void> onPluginUpgrade(PluginInfo current, PluginInfo upgraded)
+            throws PluginException {
+        throw new PluginException(current.getPluginId(),
+                "Zero-downtime upgrade is not supported for plugin type: " + getSupportedType().getCode());
+    }
 }
-
@@ -5,9 +5,20 @@ import com.yonchain.ai.model.ModelClientFactoryBuilder;
 import com.yonchain.ai.model.ModelConfiguration;
 import com.yonchain.ai.model.ModelRegistry;
 import com.yonchain.ai.plugin.initialization.PluginSystemInitializer;
+import com.yonchain.ai.plugin.loader.PluginClassLoader;
+import com.yonchain.ai.plugin.registry.PluginRegistry;
+import com.yonchain.ai.plugin.registry.impl.RedisPluginCatalogBroadcaster;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 /**
  * 插件系统自动配置
@@ -39,8 +50,61 @@ public class PluginAutoConfiguration {
         return new ModelClientFactoryBuilder().build(configuration);
     }
 
+    /**
+     * 插件类加载器指标：当前缓存的类加载器数量、尚未被回收的类加载器数量和卸载后判定为泄漏的数量，用于发现插件启用/禁用后的类加载器泄漏
+     *
+     * @param pluginClassLoader 插件类加载器
+     * @return 指标绑定器（由actuator注册到MeterRegistry）
+     */
+    @Bean
+    public MeterBinder pluginClassLoaderMetrics(PluginClassLoader pluginClassLoader) {
+        return registry -> {
+            Gauge.builder("yonchain.plugin.classloaders", pluginClassLoader,
+                            loader -> loader.getCacheStats().getClassLoaderCount())
+                    .description("Plugin class loaders in use")
+                    .tags("state", "active")
+                    .register(registry);
+            Gauge.builder("yonchain.plugin.classloaders", pluginClassLoader, PluginClassLoader::getLiveClassLoaderCount)
+                    .description("Plugin class loaders not yet garbage collected")
+                    .tags("state", "live")
+                    .register(registry);
+            Gauge.builder("yonchain.plugin.classloaders", pluginClassLoader,
+                            PluginClassLoader::getLeakedClassLoaderCount)
+                    .description("Unloaded plugin class loaders still reachable after major GCs")
+                    .tags("state", "leaked")
+                    .register(registry);
+        };
+    }
+
     @Bean
     public ModelConfiguration modelConfiguration() {
         return new ModelConfiguration();
     }
+
+    /**
+     * 插件目录跨节点失效（引入Redis依赖时注册）：插件变更后通过Redis发布/订阅通知其他节点重新加载插件目录
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.data.redis.listener.RedisMessageListenerContainer")
+    @ConditionalOnProperty(name = "yonchain.plugin.catalog.redis-enabled", havingValue = "true", matchIfMissing = true)
+    static class RedisPluginCatalogConfiguration {
+
+        @Bean
+        public RedisPluginCatalogBroadcaster redisPluginCatalogBroadcaster(
+                StringRedisTemplate redisTemplate,
+                PluginRegistry pluginRegistry,
+                @Value("${yonchain.plugin.catalog.channel:yonchain:plugin:catalog}") String channel) {
+            return new RedisPluginCatalogBroadcaster(redisTemplate, pluginRegistry, channel);
+        }
+
+        @Bean
+        public RedisMessageListenerContainer pluginCatalogListenerContainer(
+                RedisConnectionFactory connectionFactory,
+                RedisPluginCatalogBroadcaster broadcaster) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(broadcaster, new ChannelTopic(broadcaster.getChannel()));
+            return container;
+        }
+    }
 }
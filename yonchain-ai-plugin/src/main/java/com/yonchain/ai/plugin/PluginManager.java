@@ -4,7 +4,9 @@ import com.yonchain.ai.plugin.config.PluginConfig;
 import com.yonchain.ai.api.plugin.dto.PluginInfo;
 import com.yonchain.ai.plugin.util.PluginInfoConverter;
 import com.yonchain.ai.plugin.event.PluginEventPublisher;
+import com.yonchain.ai.plugin.initialization.PluginLoadTiming;
 import com.yonchain.ai.plugin.parser.PluginParser;
+import com.yonchain.ai.plugin.parser.index.PluginDescriptorIndexer;
 import com.yonchain.ai.plugin.exception.PluginParseException;
 import com.yonchain.ai.plugin.registry.PluginRegistry;
 import com.yonchain.ai.plugin.exception.PluginInstallException;
@@ -12,18 +14,39 @@ import com.yonchain.ai.plugin.service.PluginIconService;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.yonchain.ai.plugin.validation.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -42,18 +65,26 @@ public class PluginManager {
     private final Map<String, PluginAdapter> adapters;
     private final PluginEventPublisher eventPublisher;
     private final PluginIconService pluginIconService;
+    private final PluginDescriptorIndexer descriptorIndexer;
+    private final String stagingDirectory;
+
+    private volatile List<PluginLoadTiming> loadTimings = List.of();
 
     public PluginManager(
             PluginRegistry pluginRegistry,
             PluginParser pluginParser,
             List<PluginAdapter> adapters,
             PluginEventPublisher eventPublisher,
-            PluginIconService pluginIconService) {
+            PluginIconService pluginIconService,
+            PluginDescriptorIndexer descriptorIndexer,
+            @Value("${yonchain.plugin.install.staging-dir:${java.io.tmpdir}/yonchain-plugins/staging}") String stagingDirectory) {
 
         this.pluginRegistry = pluginRegistry;
         this.pluginParser = pluginParser;
         this.eventPublisher = eventPublisher;
         this.pluginIconService = pluginIconService;
+        this.descriptorIndexer = descriptorIndexer;
+        this.stagingDirectory = stagingDirectory;
 
         // 构建适配器映射
         this.adapters = adapters.stream()
@@ -67,9 +98,12 @@ public class PluginManager {
 
     /**
      * 通过输入流安装插件
+     * <p>
+     * 输入流先写入暂存目录，解析、验证通过后才移动到插件目录作为插件的安装文件；失败时插件目录不留下文件，
+     * 暂存文件无论成功与否都会删除。
      *
      * @param inputStream    插件输入流
-     * @param pluginFileName 插件文件名（用于日志和临时文件）
+     * @param pluginFileName 插件文件名（用于日志和安装文件名）
      * @throws PluginInstallException 安装异常
      */
     public void installPlugin(InputStream inputStream, String pluginFileName) throws PluginInstallException {
@@ -82,105 +116,233 @@ public class PluginManager {
 
         log.info("Starting plugin installation from input stream: {}", pluginFileName);
 
-        Path tempFilePath = null;
+        Path stagedFile = null;
         try {
-            // 1. 将输入流保存到临时文件
-            String tempDirPath = System.getProperty("java.io.tmpdir") + "yonchain-plugins";
-            Path tempDir = Paths.get(tempDirPath);
-            if (!Files.exists(tempDir)) {
-                Files.createDirectories(tempDir);
-                log.debug("Created temp icon directory: {}", tempDir);
-            }
-            tempFilePath = Paths.get(tempDirPath + "/" + pluginFileName);
+            // 1. 将输入流保存到暂存文件
+            stagedFile = Files.createTempFile(getStagingDirectory(), "upload-", ".jar");
+            Files.copy(inputStream, stagedFile, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Plugin saved to staging file: {}", stagedFile);
 
+            // 2. 解析、验证并安装
+            PluginConfig pluginConfig = parseStagedPlugin(stagedFile);
+            validateStagedPlugin(pluginConfig);
+            installStagedPlugin(pluginConfig, pluginFileName);
 
-            Files.copy(inputStream, tempFilePath, StandardCopyOption.REPLACE_EXISTING);
-            log.debug("Plugin saved to temporary file: {}", tempFilePath);
+        } catch (PluginInstallException e) {
+            throw e; // 重新抛出已包装的异常
+        } catch (Exception e) {
+            log.error("Unexpected error during plugin installation from input stream: {}", pluginFileName, e);
+            throw new PluginInstallException("Unexpected error: " + e.getMessage(), e);
+        } finally {
+            discardStagedFile(stagedFile);
+        }
+    }
 
-            // 2. 解析插件配置
-            PluginConfig pluginConfig = pluginParser.parsePlugin(tempFilePath);
-            String pluginId = pluginConfig.getId();
+    /**
+     * 解析暂存的插件文件
+     *
+     * @param stagedFile 暂存的插件JAR
+     * @return 插件配置（插件路径指向暂存文件）
+     * @throws PluginInstallException 解析失败
+     */
+    public PluginConfig parseStagedPlugin(Path stagedFile) throws PluginInstallException {
+        try {
+            return pluginParser.parsePlugin(stagedFile);
+        } catch (PluginParseException e) {
+            log.error("Plugin parsing failed: {}", stagedFile, e);
+            throw new PluginInstallException("Plugin parsing failed: " + e.getMessage(), e);
+        }
+    }
 
-            // 3. 检查插件是否已安装
-            Optional<PluginInfo> existingPlugin = pluginRegistry.findByPluginId(pluginId);
-            if (existingPlugin.isPresent()) {
-                throw new PluginInstallException("Plugin already installed: " + pluginId);
-            }
+    /**
+     * 验证插件配置，并确认存在对应类型的适配器
+     *
+     * @param pluginConfig 插件配置
+     * @throws PluginInstallException 验证失败
+     */
+    public void validateStagedPlugin(PluginConfig pluginConfig) throws PluginInstallException {
+        ValidationResult validation = pluginParser.validatePlugin(pluginConfig);
+        if (!validation.isValid()) {
+            throw new PluginInstallException("Plugin validation failed: " + validation.getErrorMessage());
+        }
+        if (getAdapterForType(pluginConfig.getType()) == null) {
+            throw new PluginInstallException("No adapter found for plugin type: " + pluginConfig.getType());
+        }
+    }
 
-            // 4. 验证插件
-            ValidationResult validation = pluginParser.validatePlugin(pluginConfig);
-            if (!validation.isValid()) {
-                throw new PluginInstallException("Plugin validation failed: " + validation.getErrorMessage());
-            }
+    /**
+     * 安装已解析、验证的暂存插件，安装前计算暂存文件的SHA-256
+     *
+     * @param pluginConfig   {@link #parseStagedPlugin(Path)} 返回的插件配置
+     * @param pluginFileName 安装文件名
+     * @throws PluginInstallException 安装异常
+     */
+    public void installStagedPlugin(PluginConfig pluginConfig, String pluginFileName) throws PluginInstallException {
+        String checksum;
+        try {
+            checksum = computeChecksum(pluginConfig.getPluginPath());
+        } catch (IOException e) {
+            throw new PluginInstallException("Failed to read plugin file: " + e.getMessage(), e);
+        }
+        installStagedPlugin(pluginConfig, pluginFileName, checksum);
+    }
 
-            // 5. 获取对应的适配器
-            String pluginType = pluginConfig.getType();
-            PluginAdapter adapter = getAdapterForType(pluginType);
-            if (adapter == null) {
-                throw new PluginInstallException("No adapter found for plugin type: " + pluginType);
+    /**
+     * 安装已解析、验证的暂存插件
+     * <p>
+     * 暂存文件移动到插件目录后作为插件的安装文件（已有同名文件时加时间戳前缀，不覆盖其他插件的JAR）；
+     * 安装失败时删除移动后的文件。此前安装失败的插件允许重新安装。
+     *
+     * @param pluginConfig   {@link #parseStagedPlugin(Path)} 返回的插件配置
+     * @param pluginFileName 安装文件名
+     * @param checksum       暂存文件的SHA-256，随安装信息保存，用于判断再次上传的JAR是否与已安装的相同
+     * @throws PluginInstallException 安装异常
+     */
+    public void installStagedPlugin(PluginConfig pluginConfig, String pluginFileName, String checksum)
+            throws PluginInstallException {
+        String pluginId = pluginConfig.getId();
+
+        // 1. 检查插件是否已安装
+        Optional<PluginInfo> existingPlugin = pluginRegistry.findByPluginId(pluginId);
+        if (existingPlugin.isPresent() && !"install_failed".equals(existingPlugin.get().getStatus())) {
+            throw new PluginInstallException("Plugin already installed: " + pluginId);
+        }
+
+        // 2. 获取对应的适配器
+        String pluginType = pluginConfig.getType();
+        PluginAdapter adapter = getAdapterForType(pluginType);
+        if (adapter == null) {
+            throw new PluginInstallException("No adapter found for plugin type: " + pluginType);
+        }
+
+        // 3. 暂存文件移动到插件目录
+        Path pluginFile;
+        try {
+            pluginFile = storePluginFile(pluginConfig, pluginFileName);
+        } catch (IOException e) {
+            throw new PluginInstallException("Failed to store plugin file: " + e.getMessage(), e);
+        }
+
+        // 4. 创建并保存插件信息
+        PluginInfo pluginInfo = PluginInfoConverter.fromPluginConfig(pluginConfig);
+        pluginInfo.setChecksum(checksum);
+        pluginInfo.setStatus("installing");
+        pluginRegistry.save(pluginInfo);
+
+        try {
+            // 5. 保存插件图标（如果有的话）
+            if (pluginConfig.getIconData() != null && pluginConfig.getIcon() != null) {
+                String iconPath = pluginIconService.saveIconData(
+                        pluginConfig.getId(),
+                        pluginConfig.getIcon(),
+                        pluginConfig.getIconData()
+                );
+                if (iconPath != null) {
+                    pluginInfo.setIconPath(iconPath);
+                    log.debug("Icon saved for plugin {}: {}", pluginId, iconPath);
+                }
             }
 
-            // 6. 创建插件信息
-            PluginInfo pluginInfo = PluginInfoConverter.fromPluginConfig(pluginConfig);
-            pluginInfo.setStatus("installing");
+            // 6. 调用适配器安装逻辑
+            adapter.onPluginInstall(pluginConfig);
 
-            // 7. 保存插件信息
+            // 7. 更新状态为已安装但禁用
+            pluginInfo.setStatus("disabled");
             pluginRegistry.save(pluginInfo);
 
-            try {
-                // 8. 保存插件图标（如果有的话）
-                if (pluginConfig.getIconData() != null && pluginConfig.getIcon() != null) {
-                    String iconPath = pluginIconService.saveIconData(
-                            pluginConfig.getId(),
-                            pluginConfig.getIcon(),
-                            pluginConfig.getIconData()
-                    );
-                    if (iconPath != null) {
-                        pluginInfo.setIconPath(iconPath);
-                        log.debug("Icon saved for plugin {}: {}", pluginId, iconPath);
-                    }
-                }
+            // 8. 发布安装事件
+            eventPublisher.publishInstalled(pluginId);
 
-                // 9. 调用适配器安装逻辑
-                adapter.onPluginInstall(pluginConfig);
+            log.info("Plugin installed successfully: {}", pluginId);
 
-                // 10. 更新状态为已安装但禁用
-                pluginInfo.setStatus("disabled");
-                pluginRegistry.save(pluginInfo);
+        } catch (Exception e) {
+            log.error("Plugin installation failed: {}", pluginId, e);
 
-                // 11. 发布安装事件
-                eventPublisher.publishInstalled(pluginId);
+            // 更新状态为安装失败
+            pluginInfo.setStatus("install_failed");
+            pluginRegistry.save(pluginInfo);
+            discardStagedFile(pluginFile);
 
-                log.info("Plugin installed successfully: {}", pluginId);
+            throw new PluginInstallException("Plugin installation failed: " + e.getMessage(), e);
+        }
+    }
 
-            } catch (Exception e) {
-                log.error("Plugin installation failed: {}", pluginId, e);
+    /**
+     * 把暂存的插件文件移动到插件目录（已有同名文件时加时间戳前缀，不覆盖其他插件或其他版本的JAR），
+     * 插件配置的路径随之指向移动后的文件
+     *
+     * @return 移动后的文件
+     */
+    private Path storePluginFile(PluginConfig pluginConfig, String pluginFileName) throws IOException {
+        Path stagedFile = pluginConfig.getPluginPath();
+        Path pluginDir = getPluginDirectory();
+        String fileName = pluginFileName != null && !pluginFileName.isBlank()
+                ? Paths.get(pluginFileName).getFileName().toString()
+                : pluginConfig.getId() + ".jar";
+        Path pluginFile = pluginDir.resolve(fileName);
+        if (Files.exists(pluginFile)) {
+            pluginFile = pluginDir.resolve(System.currentTimeMillis() + "-" + fileName);
+        }
+        Files.move(stagedFile, pluginFile);
+        discardStagedFile(stagedFile);
+        pluginConfig.setPluginPath(pluginFile);
+        log.debug("Plugin file moved to: {}", pluginFile);
+        return pluginFile;
+    }
 
-                // 更新状态为安装失败
-                pluginInfo.setStatus("install_failed");
-                pluginRegistry.save(pluginInfo);
+    private static Path getPluginDirectory() throws IOException {
+        Path pluginDir = Paths.get(System.getProperty("java.io.tmpdir"), "yonchain-plugins");
+        Files.createDirectories(pluginDir);
+        return pluginDir;
+    }
 
-                throw new PluginInstallException("Plugin installation failed: " + e.getMessage(), e);
+    /**
+     * 计算插件文件的SHA-256（十六进制）
+     *
+     * @param pluginFile 插件JAR
+     * @return 校验和
+     * @throws IOException 读取文件失败
+     */
+    public String computeChecksum(Path pluginFile) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (DigestInputStream in = new DigestInputStream(Files.newInputStream(pluginFile), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
             }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 
-        } catch (PluginParseException e) {
-            log.error("Plugin parsing failed from input stream: {}", pluginFileName, e);
-            throw new PluginInstallException("Plugin parsing failed: " + e.getMessage(), e);
-        } catch (PluginInstallException e) {
-            throw e; // 重新抛出已包装的异常
-        } catch (Exception e) {
-            log.error("Unexpected error during plugin installation from input stream: {}", pluginFileName, e);
-            throw new PluginInstallException("Unexpected error: " + e.getMessage(), e);
-        } finally {
-            /*// 清理临时文件
-            if (tempFilePath != null) {
-                try {
-                    Files.deleteIfExists(tempFilePath);
-                    log.debug("Temporary file deleted: {}", tempFilePath);
-                } catch (IOException e) {
-                    log.warn("Failed to delete temporary file: {}", tempFilePath, e);
-                }
-            }*/
+    /**
+     * 插件上传的暂存目录（不存在时创建）
+     *
+     * @return 暂存目录
+     * @throws IOException 创建目录失败
+     */
+    public Path getStagingDirectory() throws IOException {
+        Path directory = Paths.get(stagingDirectory);
+        Files.createDirectories(directory);
+        return directory;
+    }
+
+    /**
+     * 删除暂存文件及解析时在其旁边生成的描述文件索引
+     *
+     * @param stagedFile 暂存文件，为null时忽略
+     */
+    public void discardStagedFile(Path stagedFile) {
+        if (stagedFile == null) {
+            return;
+        }
+        descriptorIndexer.evict(stagedFile);
+        try {
+            if (Files.deleteIfExists(stagedFile)) {
+                log.debug("Staged plugin file deleted: {}", stagedFile);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete staged plugin file: {}", stagedFile, e);
         }
     }
 
@@ -389,6 +551,142 @@ public class PluginManager {
         }
     }
 
+    /**
+     * 升级插件（不中断服务）
+     * <p>
+     * 上传先写入暂存目录，解析、验证通过后移动到插件目录作为新版本独立的JAR，已启用的插件由适配器蓝绿切换：
+     * 新版本加载完成后原子替换模型工厂，旧版本上进行中的调用结束后再销毁旧版本并删除旧版本的JAR。
+     * 未启用的插件只更新安装信息并删除旧版本的JAR，下次启用时使用新版本。
+     * 任何一步失败时当前版本保持不变，暂存文件和新版本的JAR都会删除。
+     *
+     * @param pluginId       插件ID
+     * @param inputStream    新版本插件输入流
+     * @param pluginFileName 插件文件名
+     * @throws PluginInstallException 升级异常
+     */
+    public void upgradePlugin(String pluginId, InputStream inputStream, String pluginFileName)
+            throws PluginInstallException {
+        log.info("Starting plugin upgrade: {} from {}", pluginId, pluginFileName);
+
+        if (pluginId == null || pluginId.trim().isEmpty()) {
+            throw new PluginInstallException("Plugin ID cannot be null or empty");
+        }
+        if (inputStream == null) {
+            throw new PluginInstallException("Plugin input stream cannot be null");
+        }
+
+        Path stagedFile = null;
+        Path pluginFile = null;
+        boolean upgradedSuccessfully = false;
+        try {
+            // 1. 查找当前版本
+            PluginInfo current = pluginRegistry.findByPluginId(pluginId)
+                    .orElseThrow(() -> new PluginInstallException("Plugin not found: " + pluginId));
+            String status = current.getStatus();
+            if (!"enabled".equals(status) && !"disabled".equals(status)) {
+                throw new PluginInstallException("Plugin cannot be upgraded in state: " + status);
+            }
+
+            // 2. 上传写入暂存目录
+            stagedFile = Files.createTempFile(getStagingDirectory(), "upgrade-", ".jar");
+            Files.copy(inputStream, stagedFile, StandardCopyOption.REPLACE_EXISTING);
+
+            // 3. 解析并验证新版本
+            PluginConfig pluginConfig = pluginParser.parsePlugin(stagedFile);
+            if (!pluginId.equals(pluginConfig.getId())) {
+                throw new PluginInstallException("Plugin ID mismatch: expected " + pluginId
+                        + " but got " + pluginConfig.getId());
+            }
+            ValidationResult validation = pluginParser.validatePlugin(pluginConfig);
+            if (!validation.isValid()) {
+                throw new PluginInstallException("Plugin validation failed: " + validation.getErrorMessage());
+            }
+            PluginAdapter adapter = getAdapterForType(pluginConfig.getType());
+            if (adapter == null || !pluginConfig.getType().equals(current.getType())) {
+                throw new PluginInstallException("Plugin type cannot change on upgrade: " + current.getType()
+                        + " -> " + pluginConfig.getType());
+            }
+            String checksum = computeChecksum(stagedFile);
+
+            // 4. 新版本移动到插件目录的独立路径，旧版本的类加载器继续使用原JAR直到切换完成
+            pluginFile = storePluginFile(pluginConfig, pluginFileName);
+            adapter.onPluginInstall(pluginConfig);
+
+            PluginInfo upgraded = PluginInfoConverter.fromPluginConfig(pluginConfig);
+            upgraded.setChecksum(checksum);
+            upgraded.setStatus(status);
+            upgraded.setIconPath(current.getIconPath());
+            if (pluginConfig.getIconData() != null && pluginConfig.getIcon() != null) {
+                String iconPath = pluginIconService.saveIconData(pluginId, pluginConfig.getIcon(),
+                        pluginConfig.getIconData());
+                if (iconPath != null) {
+                    upgraded.setIconPath(iconPath);
+                }
+            }
+
+            // 5. 已启用的插件蓝绿切换，切换期间拒绝启用/禁用；失败时当前版本继续服务
+            CompletableFuture<Void> retired = CompletableFuture.completedFuture(null);
+            if ("enabled".equals(status)) {
+                current.setStatus("upgrading");
+                pluginRegistry.save(current);
+                try {
+                    retired = adapter.onPluginUpgrade(current, upgraded);
+                } catch (Exception e) {
+                    current.setStatus(status);
+                    pluginRegistry.save(current);
+                    throw e;
+                }
+            }
+
+            // 6. 保存新版本的安装信息
+            pluginRegistry.save(upgraded);
+            upgradedSuccessfully = true;
+            eventPublisher.publishUpgraded(pluginId, upgraded.getVersion());
+
+            // 7. 旧版本卸载后删除旧版本的JAR
+            deletePreviousPluginFile(pluginId, current.getPluginPath(), pluginFile, retired);
+
+            log.info("Plugin upgraded successfully: {} {} -> {}", pluginId, current.getVersion(),
+                    upgraded.getVersion());
+
+        } catch (PluginInstallException e) {
+            throw e;
+        } catch (PluginParseException e) {
+            log.error("Plugin parsing failed during upgrade: {}", pluginId, e);
+            throw new PluginInstallException("Plugin parsing failed: " + e.getMessage(), e);
+        } catch (Exception e) {
+            log.error("Plugin upgrade failed: {}", pluginId, e);
+            throw new PluginInstallException("Plugin upgrade failed: " + e.getMessage(), e);
+        } finally {
+            discardStagedFile(stagedFile);
+            if (!upgradedSuccessfully) {
+                discardStagedFile(pluginFile);
+            }
+        }
+    }
+
+    /**
+     * 旧版本卸载（类加载器关闭）后删除旧版本的JAR及其描述文件索引；只删除插件目录中的文件
+     */
+    private void deletePreviousPluginFile(String pluginId, String previousPath, Path pluginFile,
+                                          CompletableFuture<Void> retired) {
+        if (previousPath == null) {
+            return;
+        }
+        Path previousFile = Paths.get(previousPath);
+        if (previousFile.equals(pluginFile) || !pluginFile.getParent().equals(previousFile.getParent())) {
+            return;
+        }
+        retired.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Previous version of plugin {} was not unloaded cleanly, keeping {}: {}", pluginId,
+                        previousFile, error.getMessage());
+                return;
+            }
+            discardStagedFile(previousFile);
+        });
+    }
+
     /**
      * 卸载插件
      *
@@ -481,37 +779,204 @@ public class PluginManager {
     }
 
     /**
-     * 自动加载已安装的插件
+     * 自动加载已安装的插件（单线程，依赖顺序同 {@link #loadInstalledPlugins(int)}）
      */
     public void loadInstalledPlugins() {
-        log.info("Loading installed plugins...");
+        loadInstalledPlugins(1);
+    }
+
+    /**
+     * 并行自动加载已启用的插件
+     * <p>
+     * 插件在固定大小的加载线程池中并行启用，声明了依赖（plugin.yaml 的 dependencies）的插件在其依赖全部加载成功后才开始启用；
+     * 依赖缺失、加载失败或存在循环依赖时跳过该插件。每个插件启用完成即注册其模型工厂，对应命名空间的请求随即可以处理，
+     * 不必等待其他插件。
+     *
+     * @param parallelism 最大并行加载数
+     * @return 各插件的加载耗时，按插件ID排序
+     */
+    public List<PluginLoadTiming> loadInstalledPlugins(int parallelism) {
+        log.info("Loading installed plugins with parallelism {}...", parallelism);
+        long start = System.nanoTime();
 
+        List<PluginInfo> installedPlugins;
         try {
-            List<PluginInfo> installedPlugins = pluginRegistry.findByStatus("enabled");
+            installedPlugins = new ArrayList<>(pluginRegistry.findByStatus("enabled"));
+            // 升级过程中进程退出：安装信息仍指向旧版本，按已启用恢复
+            for (PluginInfo interrupted : pluginRegistry.findByStatus("upgrading")) {
+                log.warn("Plugin {} was interrupted while upgrading, restoring version {}",
+                        interrupted.getPluginId(), interrupted.getVersion());
+                interrupted.setStatus("enabled");
+                pluginRegistry.save(interrupted);
+                installedPlugins.add(interrupted);
+            }
+        } catch (Exception e) {
+            log.error("Failed to load installed plugins", e);
+            return List.of();
+        }
 
-            for (PluginInfo pluginInfo : installedPlugins) {
-                try {
-                    // 重新启用已启用的插件
-                    String pluginType = pluginInfo.getType();
-                    PluginAdapter adapter = getAdapterForType(pluginType);
-
-                    if (adapter != null) {
-                        adapter.onPluginEnable(pluginInfo.getPluginId());
-                        log.info("Auto-loaded plugin: {}", pluginInfo.getPluginId());
-                    } else {
-                        log.warn("No adapter found for plugin type: {}", pluginType);
-                    }
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(parallelism, 1), runnable -> {
+            Thread thread = new Thread(runnable, "plugin-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, PluginLoadTiming> timings = new ConcurrentHashMap<>();
+        try {
+            Map<String, PluginInfo> plugins = new LinkedHashMap<>();
+            installedPlugins.forEach(pluginInfo -> plugins.put(pluginInfo.getPluginId(), pluginInfo));
+            Map<String, List<String>> dependencies = readDependencies(plugins.values(), executor);
 
-                } catch (Exception e) {
-                    log.error("Failed to auto-load plugin: {}", pluginInfo.getPluginId(), e);
-                }
+            Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+            for (String pluginId : plugins.keySet()) {
+                scheduleLoad(pluginId, plugins, dependencies, futures, new LinkedHashSet<>(), executor, start, timings);
             }
+            // 单个插件的失败已记录在加载耗时中，这里只等待全部结束
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .exceptionally(e -> null)
+                    .join();
+        } finally {
+            executor.shutdown();
+        }
 
-            log.info("Completed loading {} installed plugins", installedPlugins.size());
+        List<PluginLoadTiming> result = timings.values().stream()
+                .sorted(Comparator.comparing(PluginLoadTiming::pluginId))
+                .toList();
+        loadTimings = result;
+        long loaded = result.stream().filter(timing -> timing.status() == PluginLoadTiming.Status.LOADED).count();
+        log.info("Completed loading {} of {} installed plugins in {} ms", loaded, installedPlugins.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to load installed plugins", e);
+    /**
+     * 获取最近一次自动加载的各插件耗时
+     */
+    public List<PluginLoadTiming> getLoadTimings() {
+        return loadTimings;
+    }
+
+    /**
+     * 并行读取各插件声明的依赖，优先使用数据库中保存的依赖，未保存依赖的旧记录读取JAR中的plugin.yaml
+     */
+    private Map<String, List<String>> readDependencies(Collection<PluginInfo> plugins, ExecutorService executor) {
+        Map<String, CompletableFuture<List<String>>> futures = new LinkedHashMap<>();
+        for (PluginInfo pluginInfo : plugins) {
+            futures.put(pluginInfo.getPluginId(),
+                    CompletableFuture.supplyAsync(() -> readDependencies(pluginInfo), executor));
+        }
+        Map<String, List<String>> dependencies = new HashMap<>();
+        futures.forEach((pluginId, future) -> dependencies.put(pluginId, future.join()));
+        return dependencies;
+    }
+
+    private List<String> readDependencies(PluginInfo pluginInfo) {
+        String declared = pluginInfo.getDependencies();
+        if (declared == null && pluginInfo.getPluginPath() != null) {
+            try {
+                List<String> fromDescriptor = pluginParser.parsePlugin(Paths.get(pluginInfo.getPluginPath()))
+                        .getDependencies();
+                return fromDescriptor != null ? List.copyOf(fromDescriptor) : List.of();
+            } catch (Exception e) {
+                // 描述文件无法读取时按无依赖处理，启用时会报告具体错误
+                log.warn("Failed to read dependencies of plugin {}: {}", pluginInfo.getPluginId(), e.getMessage());
+                return List.of();
+            }
+        }
+        if (declared == null || declared.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(declared.split(","))
+                .map(String::trim)
+                .filter(dependency -> !dependency.isEmpty())
+                .toList();
+    }
+
+    /**
+     * 安排插件加载：依赖全部加载成功后在加载线程池中启用该插件
+     *
+     * @param resolving 当前依赖链上正在解析的插件，用于发现循环依赖
+     */
+    private CompletableFuture<Void> scheduleLoad(String pluginId, Map<String, PluginInfo> plugins,
+                                                 Map<String, List<String>> dependencies,
+                                                 Map<String, CompletableFuture<Void>> futures,
+                                                 Set<String> resolving, ExecutorService executor, long start,
+                                                 Map<String, PluginLoadTiming> timings) {
+        CompletableFuture<Void> scheduled = futures.get(pluginId);
+        if (scheduled != null) {
+            return scheduled;
+        }
+        List<String> declared = dependencies.getOrDefault(pluginId, List.of());
+        if (!resolving.add(pluginId)) {
+            return CompletableFuture.failedFuture(new PluginInstallException(
+                    "Circular plugin dependency: " + String.join(" -> ", resolving) + " -> " + pluginId));
+        }
+
+        List<CompletableFuture<Void>> prerequisites = new ArrayList<>();
+        for (String dependency : declared) {
+            if (!plugins.containsKey(dependency)) {
+                prerequisites.add(CompletableFuture.failedFuture(
+                        new PluginInstallException("Dependency is not installed or not enabled: " + dependency)));
+            } else {
+                prerequisites.add(scheduleLoad(dependency, plugins, dependencies, futures, resolving, executor,
+                        start, timings));
+            }
+        }
+        resolving.remove(pluginId);
+
+        CompletableFuture<Void> future = CompletableFuture.allOf(prerequisites.toArray(CompletableFuture[]::new))
+                .handle((ignored, dependencyError) -> {
+                    if (dependencyError != null) {
+                        String reason = rootMessage(dependencyError);
+                        timings.put(pluginId, new PluginLoadTiming(pluginId, PluginLoadTiming.Status.SKIPPED,
+                                declared, elapsedMillis(start), 0, reason));
+                        log.warn("Skipped auto-loading plugin {}: {}", pluginId, reason);
+                        throw new CompletionException(dependencyError);
+                    }
+                    return null;
+                })
+                .thenRunAsync(() -> {
+                    long waited = elapsedMillis(start);
+                    long loadStart = System.nanoTime();
+                    try {
+                        loadInstalledPlugin(plugins.get(pluginId));
+                    } catch (Exception e) {
+                        long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStart);
+                        timings.put(pluginId, new PluginLoadTiming(pluginId, PluginLoadTiming.Status.FAILED,
+                                declared, waited, loadMillis, e.getMessage()));
+                        log.error("Failed to auto-load plugin: {}", pluginId, e);
+                        throw new CompletionException(e);
+                    }
+                    long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStart);
+                    timings.put(pluginId, new PluginLoadTiming(pluginId, PluginLoadTiming.Status.LOADED,
+                            declared, waited, loadMillis, null));
+                    log.info("Auto-loaded plugin {} in {} ms (waited {} ms)", pluginId, loadMillis, waited);
+                }, executor);
+        futures.put(pluginId, future);
+        return future;
+    }
+
+    /**
+     * 重新启用一个状态为已启用的插件
+     */
+    private void loadInstalledPlugin(PluginInfo pluginInfo) throws Exception {
+        String pluginType = pluginInfo.getType();
+        PluginAdapter adapter = getAdapterForType(pluginType);
+        if (adapter == null) {
+            throw new PluginInstallException("No adapter found for plugin type: " + pluginType);
+        }
+        adapter.onPluginEnable(pluginInfo.getPluginId());
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static String rootMessage(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
         }
+        return error.getMessage();
     }
 
     /**
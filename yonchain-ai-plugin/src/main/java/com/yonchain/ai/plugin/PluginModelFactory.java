@@ -2,9 +2,13 @@ package com.yonchain.ai.plugin;
 
 import com.yonchain.ai.model.ModelFactory;
 import com.yonchain.ai.model.definition.ModelDefinition;
+import com.yonchain.ai.model.definition.ModelTimeouts;
 import com.yonchain.ai.model.enums.ModelType;
 import com.yonchain.ai.model.options.ModelOptionsHandler;
 import com.yonchain.ai.business.ModelConfig;
+import com.yonchain.ai.jfr.ModelCreationEvent;
+import com.yonchain.ai.tracing.ModelObservations;
+import io.micrometer.observation.Observation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.model.ChatModel;
@@ -18,6 +22,9 @@ import org.springframework.ai.image.ImageModel;
  * - ModelProvider.createChatModel(ModelConfig config)
  * - ModelFactory.createChatModel(ModelDefinition definition)
  * 
+ * 模型创建记录为 yonchain.model.create Span和ModelCreation JFR事件，ObservationRegistry通过ModelConfig的observationRegistry属性传给插件，
+ * 插件用于上游HTTP客户端和Spring AI模型的链路追踪
+ * 
  * @author yonchain
  */
 public class PluginModelFactory implements ModelFactory {
@@ -46,6 +53,9 @@ public class PluginModelFactory implements ModelFactory {
         
         log.debug("Creating chat model: {} using provider: {}", definition.getFullId(), providerName);
         
+        Observation observation = startCreateObservation(definition, "chat");
+        ModelCreationEvent event = ModelCreationEvent.start(providerName, definition.getFullId(), "chat");
+        Exception failure = null;
         try {
             // 将ModelDefinition转换为ModelConfig
             ModelConfig config = convertToModelConfig(definition);
@@ -57,8 +67,13 @@ public class PluginModelFactory implements ModelFactory {
             return chatModel;
             
         } catch (Exception e) {
+            failure = e;
+            observation.error(e);
             log.error("Failed to create chat model: {} with provider: {}", definition.getFullId(), providerName, e);
             throw new RuntimeException("Failed to create chat model: " + e.getMessage(), e);
+        } finally {
+            observation.stop();
+            event.finish(failure);
         }
     }
     
@@ -70,6 +85,9 @@ public class PluginModelFactory implements ModelFactory {
         
         log.debug("Creating image model: {} using provider: {}", definition.getFullId(), providerName);
         
+        Observation observation = startCreateObservation(definition, "image");
+        ModelCreationEvent event = ModelCreationEvent.start(providerName, definition.getFullId(), "image");
+        Exception failure = null;
         try {
             ModelConfig config = convertToModelConfig(definition);
             ImageModel imageModel = modelProvider.createImageModel(config);
@@ -78,8 +96,13 @@ public class PluginModelFactory implements ModelFactory {
             return imageModel;
             
         } catch (Exception e) {
+            failure = e;
+            observation.error(e);
             log.error("Failed to create image model: {} with provider: {}", definition.getFullId(), providerName, e);
             throw new RuntimeException("Failed to create image model: " + e.getMessage(), e);
+        } finally {
+            observation.stop();
+            event.finish(failure);
         }
     }
     
@@ -91,6 +114,9 @@ public class PluginModelFactory implements ModelFactory {
         
         log.debug("Creating embedding model: {} using provider: {}", definition.getFullId(), providerName);
         
+        Observation observation = startCreateObservation(definition, "embedding");
+        ModelCreationEvent event = ModelCreationEvent.start(providerName, definition.getFullId(), "embedding");
+        Exception failure = null;
         try {
             ModelConfig config = convertToModelConfig(definition);
             EmbeddingModel embeddingModel = modelProvider.createEmbeddingModel(config);
@@ -99,11 +125,28 @@ public class PluginModelFactory implements ModelFactory {
             return embeddingModel;
             
         } catch (Exception e) {
+            failure = e;
+            observation.error(e);
             log.error("Failed to create embedding model: {} with provider: {}", definition.getFullId(), providerName, e);
             throw new RuntimeException("Failed to create embedding model: " + e.getMessage(), e);
+        } finally {
+            observation.stop();
+            event.finish(failure);
         }
     }
     
+    /**
+     * 开始模型创建Span（模型实例首次使用时创建，之后由DefaultModelClient缓存）
+     */
+    private Observation startCreateObservation(ModelDefinition definition, String type) {
+        return ModelObservations.create(definition.getModelConfiguration(), ModelObservations.CREATE,
+                        "create " + type + " model " + definition.getFullId())
+                .lowCardinalityKeyValue("provider", providerName)
+                .lowCardinalityKeyValue("model.type", type)
+                .highCardinalityKeyValue("model", definition.getFullId())
+                .start();
+    }
+    
     /**
      * 将ModelDefinition转换为ModelConfig
      * 
@@ -134,10 +177,19 @@ public class PluginModelFactory implements ModelFactory {
             config.setProperty("completionsPath", definition.getCompletionsPath());
         }
         
-        // 默认配置
-        config.setTimeout(30000); // 30秒超时
+        // 超时配置：读超时使用模型的同步总超时，连接超时单独传递
+        if (definition.getModelConfiguration() != null) {
+            ModelTimeouts timeouts = ModelTimeouts.of(definition, definition.getModelConfiguration());
+            config.setTimeout((int) timeouts.getTotalTimeout().toMillis());
+            config.setProperty("connectTimeout", (int) timeouts.getConnectTimeout().toMillis());
+        }
         config.setRetryCount(3);   // 重试3次
         
+        // 链路追踪：插件使用同一个ObservationRegistry，上游请求携带W3C traceparent
+        if (definition.getModelConfiguration() != null) {
+            config.setProperty("observationRegistry", definition.getModelConfiguration().getObservationRegistry());
+        }
+        
         // 选项信息 - 使用OptionsHandler构建SpringAI选项
         buildSpringAiOptions(definition, config);
         
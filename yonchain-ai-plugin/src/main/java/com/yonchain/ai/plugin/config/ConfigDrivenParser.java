@@ -21,10 +21,21 @@ public class ConfigDrivenParser {
      * 解析插件配置
      */
     public PluginConfig parsePluginConfig(InputStream inputStream) {
+        Map<String, Object> data;
+        try {
+            data = new Yaml().load(inputStream);
+        } catch (Exception e) {
+            log.error("Failed to parse plugin config", e);
+            throw new RuntimeException("Failed to parse plugin config", e);
+        }
+        return parsePluginConfig(data);
+    }
+    
+    /**
+     * 从已解析的YAML数据（如描述文件索引）构建插件配置
+     */
+    public PluginConfig parsePluginConfig(Map<String, Object> data) {
         try {
-            Yaml yaml = new Yaml();
-            Map<String, Object> data = yaml.load(inputStream);
-            
             PluginConfig config = new PluginConfig();
             config.setId((String) data.get("id"));
             config.setName((String) data.get("name"));
@@ -54,6 +65,13 @@ public class ConfigDrivenParser {
                 config.setPlugins(plugins);
             }
             
+            // 解析依赖的插件ID
+            @SuppressWarnings("unchecked")
+            List<String> dependencies = (List<String>) data.get("dependencies");
+            if (dependencies != null) {
+                config.setDependencies(dependencies);
+            }
+            
             return config;
             
         } catch (Exception e) {
@@ -66,10 +84,21 @@ public class ConfigDrivenParser {
      * 解析提供商配置
      */
     public ProviderConfig parseProviderConfig(InputStream inputStream) {
+        Map<String, Object> data;
+        try {
+            data = new Yaml().load(inputStream);
+        } catch (Exception e) {
+            log.error("Failed to parse provider config", e);
+            throw new RuntimeException("Failed to parse provider config", e);
+        }
+        return parseProviderConfig(data);
+    }
+    
+    /**
+     * 从已解析的YAML数据（如描述文件索引）构建提供商配置
+     */
+    public ProviderConfig parseProviderConfig(Map<String, Object> data) {
         try {
-            Yaml yaml = new Yaml();
-            Map<String, Object> data = yaml.load(inputStream);
-            
             ProviderConfig config = new ProviderConfig();
             config.setProvider((String) data.get("provider"));
             config.setProviderSource((String) data.get("provider_source"));
@@ -149,10 +178,21 @@ public class ConfigDrivenParser {
      * 解析模型配置
      */
     public ModelConfigData parseModelConfig(InputStream inputStream) {
+        Map<String, Object> data;
+        try {
+            data = new Yaml().load(inputStream);
+        } catch (Exception e) {
+            log.error("Failed to parse model config", e);
+            throw new RuntimeException("Failed to parse model config", e);
+        }
+        return parseModelConfig(data);
+    }
+    
+    /**
+     * 从已解析的YAML数据（如描述文件索引）构建模型配置
+     */
+    public ModelConfigData parseModelConfig(Map<String, Object> data) {
         try {
-            Yaml yaml = new Yaml();
-            Map<String, Object> data = yaml.load(inputStream);
-            
             ModelConfigData config = new ModelConfigData();
             config.setModel((String) data.get("model"));
             config.setModelType((String) data.get("model_type"));
@@ -1,13 +1,14 @@
 package com.yonchain.ai.plugin.config;
 
+import com.yonchain.ai.plugin.parser.index.PluginJar;
+
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 
 /**
  * 插件配置数据类
@@ -23,6 +24,7 @@ public class PluginConfig {
     private Map<String, String> description;
     private Map<String, String> label;
     private List<String> plugins;
+    private List<String> dependencies; // 依赖的其他插件ID，启动时这些插件先于本插件加载
     private Map<String, Object> resource;
     
     // 运行时字段
@@ -59,6 +61,9 @@ public class PluginConfig {
     
     public List<String> getPlugins() { return plugins; }
     public void setPlugins(List<String> plugins) { this.plugins = plugins; }
+
+    public List<String> getDependencies() { return dependencies; }
+    public void setDependencies(List<String> dependencies) { this.dependencies = dependencies; }
     
     public Map<String, Object> getResource() { return resource; }
     public void setResource(Map<String, Object> resource) { this.resource = resource; }
@@ -102,19 +107,17 @@ public class PluginConfig {
     }
     
     /**
-     * 获取配置文件的输入流
+     * 获取配置文件的输入流（内容已完整读入内存，不持有JAR文件句柄）
      */
     public InputStream getConfigInputStream(String configFileName) {
         try {
             if (pluginPath != null) {
-                JarFile jarFile = new JarFile(pluginPath.toFile());
-                JarEntry entry = jarFile.getJarEntry(configFileName);
-                if (entry != null) {
-                    InputStream inputStream = jarFile.getInputStream(entry);
-                    // 注意：调用者需要负责关闭返回的InputStream，JarFile会在InputStream关闭时自动关闭
-                    return inputStream;
-                } else {
-                    jarFile.close();
+                byte[] content;
+                try (PluginJar jar = PluginJar.open(pluginPath)) {
+                    content = jar.read(configFileName);
+                }
+                if (content != null) {
+                    return new ByteArrayInputStream(content);
                 }
             }
         } catch (Exception e) {
@@ -131,13 +134,13 @@ public class PluginConfig {
         
         try {
             if (pluginPath != null) {
-                JarFile jarFile = new JarFile(pluginPath.toFile());
-                jarFile.stream()
-                    .map(JarEntry::getName)
-                    .filter(name -> name.startsWith("models/") && name.endsWith(".yaml"))
-                    .filter(name -> !name.endsWith("_position.yaml")) // 排除位置配置文件
-                    .forEach(modelConfigFiles::add);
-                jarFile.close();
+                try (PluginJar jar = PluginJar.open(pluginPath)) {
+                    jar.getEntries().stream()
+                        .map(PluginJar.Entry::name)
+                        .filter(name -> name.startsWith("models/") && name.endsWith(".yaml"))
+                        .filter(name -> !name.endsWith("_position.yaml")) // 排除位置配置文件
+                        .forEach(modelConfigFiles::add);
+                }
             }
         } catch (Exception e) {
             // 忽略错误，返回空列表
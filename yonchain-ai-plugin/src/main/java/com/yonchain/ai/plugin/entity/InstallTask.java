@@ -6,7 +6,7 @@ import java.util.UUID;
 
 /**
  * 安装任务实体
- * 对应 install_tasks 表
+ * 对应 plugin_install_task 表
  * 
  * @author yonchain
  */
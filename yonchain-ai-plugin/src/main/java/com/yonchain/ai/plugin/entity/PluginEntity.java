@@ -29,6 +29,8 @@ public class PluginEntity {
     private LocalDateTime enabledAt;
     private LocalDateTime disabledAt;
     private String iconPath;
+    private String checksum;
+    private String dependencies;
 
     
     // 默认构造函数
@@ -189,6 +191,22 @@ public class PluginEntity {
         this.iconPath = iconPath;
     }
 
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public String getDependencies() {
+        return dependencies;
+    }
+
+    public void setDependencies(String dependencies) {
+        this.dependencies = dependencies;
+    }
+
     @Override
     public String toString() {
         return "PluginEntity{" +
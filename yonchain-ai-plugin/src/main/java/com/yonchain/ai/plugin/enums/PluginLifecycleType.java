@@ -27,6 +27,11 @@ public enum PluginLifecycleType {
      */
     DISABLED("disabled", "插件已禁用"),
     
+    /**
+     * 插件已升级
+     */
+    UPGRADED("upgraded", "插件已升级"),
+    
     /**
      * 插件已初始化
      */
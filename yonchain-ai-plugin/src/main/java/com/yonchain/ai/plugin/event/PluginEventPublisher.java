@@ -58,6 +58,16 @@ public class PluginEventPublisher {
         publishEvent(pluginId, PluginLifecycleType.DISABLED, "Plugin disabled");
     }
     
+    /**
+     * 发布插件已升级事件
+     * 
+     * @param pluginId 插件ID
+     * @param version 新版本
+     */
+    public void publishUpgraded(String pluginId, String version) {
+        publishEvent(pluginId, PluginLifecycleType.UPGRADED, "Plugin upgraded to " + version);
+    }
+    
     /**
      * 发布插件已初始化事件
      * 
@@ -0,0 +1,33 @@
+package com.yonchain.ai.plugin.initialization;
+
+import java.util.List;
+
+/**
+ * 启动时单个插件的加载耗时
+ *
+ * @param pluginId     插件ID
+ * @param status       加载结果
+ * @param dependencies 声明的依赖插件ID
+ * @param waitMillis   从开始加载到该插件开始启用的时间（等待依赖和空闲加载线程）
+ * @param loadMillis   启用本身的耗时（打开JAR、解析配置、加载类、写入数据库）
+ * @param error        失败或跳过的原因
+ * @author yonchain
+ */
+public record PluginLoadTiming(String pluginId, Status status, List<String> dependencies,
+                               long waitMillis, long loadMillis, String error) {
+
+    public enum Status {
+        /**
+         * 已加载
+         */
+        LOADED,
+        /**
+         * 启用失败
+         */
+        FAILED,
+        /**
+         * 依赖未加载成功（缺失、失败或循环依赖），未尝试启用
+         */
+        SKIPPED
+    }
+}
@@ -13,6 +13,9 @@ import org.springframework.stereotype.Component;
 /**
  * 插件系统初始化器
  * 在应用启动时自动重新加载已启用的插件
+ * <p>
+ * ApplicationRunner 在容器刷新完成、Web服务器启动之后执行，无需额外等待；插件并行加载，
+ * 每个插件加载完成后其命名空间即可处理请求。
  * 
  * @author yonchain
  */
@@ -28,8 +31,8 @@ public class PluginSystemInitializer implements ApplicationRunner {
     @Value("${yonchain.plugin.auto-load-enabled:true}")
     private boolean autoLoadEnabled;
     
-    @Value("${yonchain.plugin.auto-load-delay:5000}")
-    private long autoLoadDelay;
+    @Value("${yonchain.plugin.load-parallelism:0}")
+    private int loadParallelism;
     
     @Override
     public void run(ApplicationArguments args) throws Exception {
@@ -41,14 +44,11 @@ public class PluginSystemInitializer implements ApplicationRunner {
         log.info("Starting plugin system initialization...");
         
         try {
-            // 延迟一段时间以确保Spring容器完全启动
-            if (autoLoadDelay > 0) {
-                log.debug("Waiting {} ms before loading plugins...", autoLoadDelay);
-                Thread.sleep(autoLoadDelay);
-            }
-            
-            // 自动加载已启用的插件
-            pluginManager.loadInstalledPlugins();
+            // 自动加载已启用的插件，未配置并行度时按CPU核数（最多4个）
+            int parallelism = loadParallelism > 0
+                    ? loadParallelism
+                    : Math.min(Runtime.getRuntime().availableProcessors(), 4);
+            pluginManager.loadInstalledPlugins(parallelism);
             
             log.info("Plugin system initialization completed successfully");
             
@@ -0,0 +1,28 @@
+package com.yonchain.ai.plugin.installation;
+
+/**
+ * 安装任务中的单个插件（序列化为 {@code plugin_install_task.plugins} 的JSON数组元素）
+ *
+ * @param fileName 上传的文件名
+ * @param sha256   文件内容的SHA-256（十六进制）
+ * @param size     文件大小（字节）
+ * @param stage    当前阶段：uploaded、parsed、validated、installed
+ * @param pluginId 解析出的插件ID，解析前为null
+ * @param version  解析出的插件版本，解析前为null
+ * @author yonchain
+ */
+public record PluginInstallItem(String fileName, String sha256, long size, String stage,
+                                String pluginId, String version) {
+
+    public static final String STAGE_UPLOADED = "uploaded";
+    public static final String STAGE_PARSED = "parsed";
+    public static final String STAGE_VALIDATED = "validated";
+    public static final String STAGE_INSTALLED = "installed";
+
+    /**
+     * 进入下一阶段
+     */
+    public PluginInstallItem withStage(String stage, String pluginId, String version) {
+        return new PluginInstallItem(fileName, sha256, size, stage, pluginId, version);
+    }
+}
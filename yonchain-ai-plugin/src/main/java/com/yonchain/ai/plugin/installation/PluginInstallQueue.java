@@ -0,0 +1,440 @@
+package com.yonchain.ai.plugin.installation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.api.plugin.dto.PluginInfo;
+import com.yonchain.ai.plugin.PluginManager;
+import com.yonchain.ai.plugin.config.PluginConfig;
+import com.yonchain.ai.plugin.entity.InstallTask;
+import com.yonchain.ai.plugin.exception.PluginInstallException;
+import com.yonchain.ai.plugin.mapper.InstallTaskMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 插件异步安装队列
+ * <p>
+ * 上传在请求线程上直接流式写入暂存目录，同时计算SHA-256；同一租户重复提交相同的JAR时返回进行中的任务，
+ * 不重复写盘和安装，插件已全局安装相同的JAR（按SHA-256比较）时只补充租户安装记录，已安装其他版本或内容不同的JAR时
+ * 任务失败（需通过升级替换）。解析、验证、安装在后台工作线程上执行，租户安装记录在工作线程上的独立事务中创建，
+ * 每个阶段完成后更新 {@link InstallTask} 的插件列表（含当前阶段），结束时任务标记为completed或failed，
+ * 暂存文件随即删除。
+ * <p>
+ * 应用重启后，暂存文件仍在的pending/running任务重新排队；暂存文件不在本节点且超过
+ * {@code yonchain.plugin.install.stale-after} 未更新的任务标记为失败，同时清理暂存目录中的残留文件。
+ *
+ * @author yonchain
+ */
+@Service
+@Order(110) // 在插件系统初始化之后执行
+public class PluginInstallQueue implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginInstallQueue.class);
+
+    private static final TypeReference<List<PluginInstallItem>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private final PluginManager pluginManager;
+    private final InstallTaskMapper installTaskMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration staleAfter;
+    private final ExecutorService workers;
+
+    /**
+     * 进行中的任务：租户ID:SHA-256 -> 任务ID
+     */
+    private final Map<String, String> inFlight = new ConcurrentHashMap<>();
+
+    private volatile TenantInstallHandler tenantInstallHandler;
+
+    /**
+     * 插件安装完成（或已全局安装）后为租户创建安装记录
+     */
+    @FunctionalInterface
+    public interface TenantInstallHandler {
+
+        void onInstalled(String tenantId, PluginConfig pluginConfig) throws Exception;
+    }
+
+    public PluginInstallQueue(PluginManager pluginManager,
+                              InstallTaskMapper installTaskMapper,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${yonchain.plugin.install.workers:2}") int workers,
+                              @Value("${yonchain.plugin.install.stale-after:30m}") Duration staleAfter) {
+        this.pluginManager = pluginManager;
+        this.installTaskMapper = installTaskMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.staleAfter = staleAfter;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(workers, 1), runnable -> {
+            Thread thread = new Thread(runnable, "plugin-installer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void setTenantInstallHandler(TenantInstallHandler tenantInstallHandler) {
+        this.tenantInstallHandler = tenantInstallHandler;
+    }
+
+    /**
+     * 提交插件安装
+     * <p>
+     * 方法返回时上传已完整写入暂存目录、任务已保存，后续阶段在后台执行。
+     *
+     * @param tenantId    租户ID
+     * @param inputStream 插件文件输入流（由调用方关闭）
+     * @param fileName    文件名
+     * @return 安装任务ID；相同的JAR正在为该租户安装时返回已有任务的ID
+     * @throws PluginInstallException 保存上传或创建任务失败
+     */
+    public String submit(String tenantId, InputStream inputStream, String fileName) throws PluginInstallException {
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            throw new PluginInstallException("Tenant ID cannot be null or empty");
+        }
+        if (inputStream == null) {
+            throw new PluginInstallException("Plugin input stream cannot be null");
+        }
+        String name = fileName == null || fileName.isBlank()
+                ? "plugin-" + System.currentTimeMillis() + ".jar"
+                : Paths.get(fileName).getFileName().toString();
+
+        Path partFile = null;
+        try {
+            // 1. 流式写入暂存目录，同时计算哈希
+            Path stagingDir = pluginManager.getStagingDirectory();
+            partFile = Files.createTempFile(stagingDir, "upload-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (DigestInputStream digestStream = new DigestInputStream(inputStream, digest)) {
+                size = Files.copy(digestStream, partFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (size == 0) {
+                throw new PluginInstallException("Plugin file is empty: " + name);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+
+            // 2. 相同的JAR正在为该租户安装时合并到已有任务
+            InstallTask task = InstallTask.create(tenantId, null, 1L);
+            String key = inFlightKey(tenantId, sha256);
+            String existing = inFlight.putIfAbsent(key, task.getId());
+            if (existing != null) {
+                log.info("Plugin {} ({}) is already being installed for tenant {} by task {}", name, sha256,
+                        tenantId, existing);
+                return existing;
+            }
+
+            // 3. 暂存文件按任务命名，重启后据此恢复
+            PluginInstallItem item = new PluginInstallItem(name, sha256, size, PluginInstallItem.STAGE_UPLOADED,
+                    null, null);
+            try {
+                Files.move(partFile, stagedFile(stagingDir, task.getId()), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                task.setPlugins(writeItems(item));
+                installTaskMapper.insert(task);
+            } catch (IOException | RuntimeException e) {
+                inFlight.remove(key, task.getId());
+                pluginManager.discardStagedFile(stagedFile(stagingDir, task.getId()));
+                throw e;
+            }
+
+            log.info("Queued plugin installation task {} for tenant {}: {} ({} bytes, sha256 {})", task.getId(),
+                    tenantId, name, size, sha256);
+            enqueue(task, item);
+            return task.getId();
+
+        } catch (PluginInstallException e) {
+            throw e;
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            log.error("Failed to queue plugin installation: {}", name, e);
+            throw new PluginInstallException("Failed to queue plugin installation: " + e.getMessage(), e);
+        } finally {
+            pluginManager.discardStagedFile(partFile);
+        }
+    }
+
+    /**
+     * 查询安装任务
+     *
+     * @param taskId 任务ID
+     * @return 安装任务，不存在时为空
+     */
+    public Optional<InstallTask> getTask(String taskId) {
+        return Optional.ofNullable(installTaskMapper.findById(taskId));
+    }
+
+    /**
+     * 读取任务中的插件列表
+     *
+     * @param task 安装任务
+     * @return 插件列表，内容无法解析时为空列表
+     */
+    public List<PluginInstallItem> readItems(InstallTask task) {
+        if (task.getPlugins() == null || task.getPlugins().isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(task.getPlugins(), ITEMS_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid plugin list in install task {}: {}", task.getId(), e.getOriginalMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * 启动时恢复中断的任务并清理暂存目录
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Path stagingDir = pluginManager.getStagingDirectory();
+            Set<Path> resumed = new HashSet<>();
+            for (String status : List.of("pending", "running")) {
+                for (InstallTask task : installTaskMapper.findByStatus(status)) {
+                    resume(task, stagingDir).ifPresent(resumed::add);
+                }
+            }
+            sweepStagingDirectory(stagingDir, resumed);
+        } catch (Exception e) {
+            log.error("Failed to resume plugin installation tasks", e);
+        }
+    }
+
+    private Optional<Path> resume(InstallTask task, Path stagingDir) {
+        if (inFlight.containsValue(task.getId())) {
+            return Optional.empty();
+        }
+        List<PluginInstallItem> items = readItems(task);
+        Path stagedFile = stagedFile(stagingDir, task.getId());
+        if (items.size() == 1 && Files.isRegularFile(stagedFile)) {
+            PluginInstallItem item = items.get(0);
+            if (inFlight.putIfAbsent(inFlightKey(task.getTenantId(), item.sha256()), task.getId()) == null) {
+                log.info("Resuming plugin installation task {} at stage {}", task.getId(), item.stage());
+                enqueue(task, item);
+                return Optional.of(stagedFile);
+            }
+        }
+        // 暂存文件可能在其他节点上，只处理长时间没有进展的任务
+        LocalDateTime staleBefore = LocalDateTime.now().minus(staleAfter);
+        if (task.getUpdatedAt() == null || task.getUpdatedAt().isBefore(staleBefore)) {
+            log.warn("Plugin installation task {} was interrupted and its upload is gone; marking it failed",
+                    task.getId());
+            task.setError("Installation was interrupted and the uploaded file is no longer available");
+            updateTask(task);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 删除暂存目录中超过 stale-after 且不属于恢复任务的文件（进程退出时残留的上传）
+     */
+    private void sweepStagingDirectory(Path stagingDir, Set<Path> resumed) throws IOException {
+        Instant staleBefore = Instant.now().minus(staleAfter);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(stagingDir)) {
+            for (Path file : files) {
+                if (resumed.contains(file) || !Files.isRegularFile(file)
+                        || !Files.getLastModifiedTime(file).toInstant().isBefore(staleBefore)) {
+                    continue;
+                }
+                log.info("Deleting abandoned plugin upload: {}", file);
+                pluginManager.discardStagedFile(file);
+            }
+        }
+    }
+
+    private void enqueue(InstallTask task, PluginInstallItem item) {
+        try {
+            workers.execute(() -> process(task, item));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(inFlightKey(task.getTenantId(), item.sha256()), task.getId());
+            throw e;
+        }
+    }
+
+    /**
+     * 在工作线程上执行解析、验证、安装
+     */
+    private void process(InstallTask task, PluginInstallItem item) {
+        Path stagedFile = null;
+        try {
+            stagedFile = stagedFile(pluginManager.getStagingDirectory(), task.getId());
+            task.updateStatus("running");
+            updateTask(task, item);
+
+            // 1. 解析
+            PluginConfig pluginConfig = pluginManager.parseStagedPlugin(stagedFile);
+            item = item.withStage(PluginInstallItem.STAGE_PARSED, pluginConfig.getId(), pluginConfig.getVersion());
+            updateTask(task, item);
+
+            // 2. 验证
+            pluginManager.validateStagedPlugin(pluginConfig);
+            item = item.withStage(PluginInstallItem.STAGE_VALIDATED, pluginConfig.getId(), pluginConfig.getVersion());
+            updateTask(task, item);
+
+            // 3. 全局安装（已安装相同版本时复用，其他版本需通过升级替换）
+            Optional<PluginInfo> installed = pluginManager.getPlugin(pluginConfig.getId())
+                    .filter(pluginInfo -> !"install_failed".equals(pluginInfo.getStatus()));
+            if (installed.isPresent()) {
+                checkInstalledMatches(installed.get(), pluginConfig, item);
+                log.info("Plugin {} already installed globally (version {}), task {} skips installation",
+                        pluginConfig.getId(), installed.get().getVersion(), task.getId());
+            } else {
+                pluginManager.installStagedPlugin(pluginConfig, item.fileName(), item.sha256());
+            }
+
+            // 4. 租户安装记录
+            TenantInstallHandler handler = tenantInstallHandler;
+            if (handler != null) {
+                recordTenantInstall(handler, task.getTenantId(), pluginConfig);
+            }
+
+            item = item.withStage(PluginInstallItem.STAGE_INSTALLED, pluginConfig.getId(), pluginConfig.getVersion());
+            task.setPlugins(writeItems(item));
+            task.complete();
+            updateTask(task);
+            log.info("Plugin installation task {} completed: {}", task.getId(), pluginConfig.getId());
+
+        } catch (Exception e) {
+            log.error("Plugin installation task {} failed at stage {}", task.getId(), item.stage(), e);
+            task.setPlugins(writeItems(item));
+            task.setError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            updateTask(task);
+        } finally {
+            pluginManager.discardStagedFile(stagedFile);
+            inFlight.remove(inFlightKey(task.getTenantId(), item.sha256()), task.getId());
+        }
+    }
+
+    /**
+     * 已安装的插件必须与上传的JAR版本和内容都一致，否则安装任务失败并提示使用升级
+     */
+    private void checkInstalledMatches(PluginInfo installed, PluginConfig pluginConfig,
+                                       PluginInstallItem item) throws PluginInstallException {
+        if (!Objects.equals(installed.getVersion(), pluginConfig.getVersion())) {
+            throw new PluginInstallException(String.format(
+                    "Plugin %s version %s is already installed; use upgrade to install version %s",
+                    pluginConfig.getId(), installed.getVersion(), pluginConfig.getVersion()));
+        }
+        String checksum = installedChecksum(installed);
+        if (checksum == null || !checksum.equalsIgnoreCase(item.sha256())) {
+            throw new PluginInstallException(String.format(
+                    "Plugin %s version %s is already installed with different content; use upgrade to replace it",
+                    pluginConfig.getId(), installed.getVersion()));
+        }
+    }
+
+    /**
+     * 已安装插件的SHA-256；记录校验和之前安装的插件按安装文件计算，安装文件不在本节点时返回null
+     */
+    private String installedChecksum(PluginInfo installed) {
+        if (installed.getChecksum() != null) {
+            return installed.getChecksum();
+        }
+        if (installed.getPluginPath() == null) {
+            return null;
+        }
+        Path pluginFile = Paths.get(installed.getPluginPath());
+        if (!Files.isRegularFile(pluginFile)) {
+            return null;
+        }
+        try {
+            return pluginManager.computeChecksum(pluginFile);
+        } catch (IOException e) {
+            log.warn("Failed to compute checksum of installed plugin {}: {}", installed.getPluginId(),
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 在独立事务中创建租户安装记录（工作线程上没有调用方的事务），失败时回滚
+     */
+    private void recordTenantInstall(TenantInstallHandler handler, String tenantId, PluginConfig pluginConfig)
+            throws Exception {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    handler.onInstalled(tenantId, pluginConfig);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            });
+        } catch (UndeclaredThrowableException e) {
+            throw (Exception) e.getUndeclaredThrowable();
+        }
+    }
+
+    private void updateTask(InstallTask task, PluginInstallItem item) {
+        task.setPlugins(writeItems(item));
+        task.setUpdatedAt(LocalDateTime.now());
+        updateTask(task);
+    }
+
+    /**
+     * 保存任务进度；数据库暂时不可用不影响安装本身
+     */
+    private void updateTask(InstallTask task) {
+        try {
+            installTaskMapper.update(task);
+        } catch (RuntimeException e) {
+            log.warn("Failed to update plugin installation task {}: {}", task.getId(), e.getMessage());
+        }
+    }
+
+    private String writeItems(PluginInstallItem item) {
+        try {
+            return objectMapper.writeValueAsString(List.of(item));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize install item", e);
+        }
+    }
+
+    private static Path stagedFile(Path stagingDir, String taskId) {
+        return stagingDir.resolve("task-" + taskId + ".jar");
+    }
+
+    private static String inFlightKey(String tenantId, String sha256) {
+        return tenantId + ":" + sha256;
+    }
+}
@@ -0,0 +1,34 @@
+package com.yonchain.ai.plugin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 插件类加载JFR事件
+ * <p>
+ * 由PluginClassLoader在类缓存未命中时记录，事件时长包括创建插件类加载器和加载类
+ */
+@Name(PluginClassLoadEvent.NAME)
+@Label("Plugin Class Load")
+@Category({"Yonchain", "Plugin"})
+@Description("Class loaded from a plugin JAR")
+@StackTrace(false)
+public class PluginClassLoadEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.yonchain.ai.PluginClassLoad";
+
+    @Label("Plugin Path")
+    public String pluginPath;
+
+    @Label("Class Name")
+    public String className;
+
+    @Label("Class Loader Created")
+    public boolean classLoaderCreated;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,34 @@
+package com.yonchain.ai.plugin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 插件启用JFR事件
+ * <p>
+ * 由ModelPluginAdapter.onPluginEnable记录，事件时长为加载插件实例、注册工厂和保存模型信息的总耗时
+ */
+@Name(PluginEnableEvent.NAME)
+@Label("Plugin Enable")
+@Category({"Yonchain", "Plugin"})
+@Description("Model plugin enabled")
+@StackTrace(false)
+public class PluginEnableEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.yonchain.ai.PluginEnable";
+
+    @Label("Plugin Id")
+    public String pluginId;
+
+    @Label("Provider")
+    public String provider;
+
+    @Label("Models")
+    public int models;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,257 @@
+package com.yonchain.ai.plugin.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 插件类加载器泄漏检测
+ * <p>
+ * 每个插件类加载器创建时登记一个虚引用，被GC回收后从登记表移除。插件卸载时先清理常见的持有路径：
+ * 线程上下文类加载器（Reactor调度器等线程池的线程会继承创建时的上下文类加载器）、Jackson和Spring的类型缓存，
+ * 并记录仍由插件代码创建的线程和指向插件类的ThreadLocal。卸载后经过至少两次老年代/并发GC仍未回收的类加载器判定为泄漏，
+ * 连同卸载时记录的线索输出一次告警。
+ *
+ * @author yonchain
+ */
+final class ClassLoaderLeakDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(ClassLoaderLeakDetector.class);
+
+    /**
+     * 判定泄漏前需要经历的老年代/并发GC次数（虚引用入队晚于GC完成，多等一次）
+     */
+    private static final int MAJOR_GCS_BEFORE_LEAK = 2;
+
+    private final ReferenceQueue<ClassLoader> queue = new ReferenceQueue<>();
+    private final Set<LoaderReference> tracked = ConcurrentHashMap.newKeySet();
+
+    private static volatile boolean threadLocalScanUnavailable;
+
+    /**
+     * 登记的类加载器虚引用，同时记录卸载时间和卸载时发现的线索
+     */
+    static final class LoaderReference extends PhantomReference<ClassLoader> {
+
+        private final String pluginPath;
+        private volatile long unloadedAtNanos;
+        private volatile long majorGcsAtUnload = -1;
+        private volatile List<String> suspects = List.of();
+        private volatile boolean reported;
+
+        private LoaderReference(ClassLoader loader, String pluginPath, ReferenceQueue<ClassLoader> queue) {
+            super(loader, queue);
+            this.pluginPath = pluginPath;
+        }
+
+        boolean isUnloaded() {
+            return majorGcsAtUnload >= 0;
+        }
+    }
+
+    LoaderReference track(IsolatedPluginClassLoader loader) {
+        LoaderReference reference = new LoaderReference(loader, loader.getPluginPath(), queue);
+        tracked.add(reference);
+        return reference;
+    }
+
+    /**
+     * 插件卸载时调用：清理宿主中指向该类加载器的引用，记录无法自动清理的线索
+     *
+     * @param loader    即将丢弃的类加载器
+     * @param reference 该类加载器的登记
+     */
+    void release(IsolatedPluginClassLoader loader, LoaderReference reference) {
+        List<String> suspects = new ArrayList<>();
+        ClassLoader host = loader.getParent();
+
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getContextClassLoader() == loader) {
+                thread.setContextClassLoader(host);
+                log.debug("Reset context class loader of thread {} after unloading {}", thread.getName(),
+                        loader.getPluginPath());
+            }
+            if (thread.getClass().getClassLoader() == loader) {
+                suspects.add("thread " + thread.getName() + " (" + thread.getClass().getName() + ") still running");
+            }
+            scanThreadLocals(thread, loader, suspects);
+        }
+
+        clearHostCaches(loader);
+
+        reference.suspects = List.copyOf(suspects);
+        reference.unloadedAtNanos = System.nanoTime();
+        reference.majorGcsAtUnload = majorGcCount();
+        for (String suspect : suspects) {
+            log.warn("Plugin {} may leak its class loader: {}", loader.getPluginPath(), suspect);
+        }
+    }
+
+    /**
+     * 尚未被回收的类加载器数量（包括使用中的和已卸载的）
+     */
+    int getLiveCount() {
+        expunge();
+        return tracked.size();
+    }
+
+    /**
+     * 已卸载且判定为泄漏的类加载器数量
+     */
+    int getLeakedCount() {
+        expunge();
+        long majorGcs = majorGcCount();
+        return (int) tracked.stream().filter(reference -> isLeaked(reference, majorGcs)).count();
+    }
+
+    /**
+     * 检查已卸载的类加载器，新发现的泄漏输出告警
+     *
+     * @return 判定为泄漏的插件路径
+     */
+    List<String> checkLeaks() {
+        expunge();
+        long majorGcs = majorGcCount();
+        List<String> leaked = new ArrayList<>();
+        for (LoaderReference reference : tracked) {
+            if (!isLeaked(reference, majorGcs)) {
+                continue;
+            }
+            leaked.add(reference.pluginPath);
+            if (!reference.reported) {
+                reference.reported = true;
+                long seconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - reference.unloadedAtNanos);
+                log.warn("Plugin class loader for {} is still reachable {}s and {} major GCs after unload; "
+                                + "Metaspace will grow on every reload. Suspects: {}", reference.pluginPath, seconds,
+                        majorGcs - reference.majorGcsAtUnload,
+                        reference.suspects.isEmpty() ? "none recorded (check static caches and registries)"
+                                : reference.suspects);
+            }
+        }
+        return leaked;
+    }
+
+    /**
+     * 是否有已卸载但尚未回收的类加载器
+     */
+    boolean hasPendingUnloads() {
+        expunge();
+        return tracked.stream().anyMatch(LoaderReference::isUnloaded);
+    }
+
+    private static boolean isLeaked(LoaderReference reference, long majorGcs) {
+        return reference.isUnloaded() && majorGcs - reference.majorGcsAtUnload >= MAJOR_GCS_BEFORE_LEAK;
+    }
+
+    private void expunge() {
+        for (Reference<? extends ClassLoader> reference; (reference = queue.poll()) != null; ) {
+            LoaderReference loaderReference = (LoaderReference) reference;
+            tracked.remove(loaderReference);
+            if (loaderReference.isUnloaded()) {
+                log.debug("Plugin class loader for {} collected {} ms after unload", loaderReference.pluginPath,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loaderReference.unloadedAtNanos));
+            }
+        }
+    }
+
+    /**
+     * 老年代/并发GC累计次数；类只会在这些回收中卸载
+     */
+    private static long majorGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String name = collector.getName();
+            boolean major = name.contains("Old") || name.contains("Concurrent") || name.contains("MarkSweep")
+                    || name.contains("Major") || name.equals("ZGC Cycles") || name.equals("Shenandoah Cycles");
+            if (major && collector.getCollectionCount() > 0) {
+                count += collector.getCollectionCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 清理宿主中以类为键的全局缓存
+     */
+    private static void clearHostCaches(ClassLoader loader) {
+        try {
+            com.fasterxml.jackson.databind.type.TypeFactory.defaultInstance().clearCache();
+        } catch (LinkageError e) {
+            // Jackson不在类路径上
+        }
+        try {
+            org.springframework.beans.CachedIntrospectionResults.clearClassLoader(loader);
+            org.springframework.core.ResolvableType.clearCache();
+            org.springframework.util.ReflectionUtils.clearCache();
+            org.springframework.core.annotation.AnnotationUtils.clearCache();
+        } catch (LinkageError e) {
+            // Spring不在类路径上
+        }
+        java.beans.Introspector.flushCaches();
+    }
+
+    /**
+     * 查找线程中键或值由插件类加载器定义的ThreadLocal
+     * <p>
+     * 需要 --add-opens java.base/java.lang=ALL-UNNAMED，未开放时跳过（只提示一次）。
+     * 只记录线索，不修改其他线程的ThreadLocal。
+     */
+    private static void scanThreadLocals(Thread thread, ClassLoader loader, List<String> suspects) {
+        if (threadLocalScanUnavailable) {
+            return;
+        }
+        try {
+            for (String fieldName : new String[]{"threadLocals", "inheritableThreadLocals"}) {
+                Field mapField = Thread.class.getDeclaredField(fieldName);
+                mapField.setAccessible(true);
+                Object map = mapField.get(thread);
+                if (map == null) {
+                    continue;
+                }
+                Field tableField = map.getClass().getDeclaredField("table");
+                tableField.setAccessible(true);
+                Object[] table = (Object[]) tableField.get(map);
+                if (table == null) {
+                    continue;
+                }
+                for (Object entry : table) {
+                    if (entry == null) {
+                        continue;
+                    }
+                    Object key = ((Reference<?>) entry).get();
+                    Field valueField = entry.getClass().getDeclaredField("value");
+                    valueField.setAccessible(true);
+                    Object value = valueField.get(entry);
+                    if (loadedBy(key, loader) || loadedBy(value, loader)) {
+                        suspects.add("thread " + thread.getName() + " holds ThreadLocal "
+                                + (key != null ? key.getClass().getName() : "<stale>") + " = "
+                                + (value != null ? value.getClass().getName() : "null"));
+                    }
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            threadLocalScanUnavailable = true;
+            log.info("ThreadLocal leak scan disabled ({}); add --add-opens java.base/java.lang=ALL-UNNAMED to enable",
+                    e.getClass().getSimpleName());
+        }
+    }
+
+    private static boolean loadedBy(Object object, ClassLoader loader) {
+        if (object == null) {
+            return false;
+        }
+        Class<?> type = object instanceof Class<?> clazz ? clazz : object.getClass();
+        return type.getClassLoader() == loader;
+    }
+}
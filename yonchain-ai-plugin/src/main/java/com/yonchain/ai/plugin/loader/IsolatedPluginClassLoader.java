@@ -0,0 +1,160 @@
+package com.yonchain.ai.plugin.loader;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 插件隔离类加载器（子优先）
+ * <p>
+ * 共享包（JDK、yonchain API、Spring/Spring AI、Reactor等，见 {@link PluginClassLoader}）先委托宿主加载，
+ * 保证插件与宿主之间传递的类型一致；其余类先从插件JAR加载，找不到再委托宿主，插件可以自带与宿主不同版本的依赖。
+ * 每个加载器维护自己的类索引，插件卸载时随加载器一起丢弃，不需要扫描全局缓存。
+ *
+ * @author yonchain
+ */
+final class IsolatedPluginClassLoader extends URLClassLoader {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    /**
+     * 始终由宿主加载的平台包
+     */
+    private static final String[] PLATFORM_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun.", "org.w3c.",
+            "org.xml."};
+
+    private final String pluginPath;
+    private final String[] sharedPackages;
+    private final Map<String, Class<?>> classIndex = new ConcurrentHashMap<>();
+
+    IsolatedPluginClassLoader(String pluginPath, URL[] urls, ClassLoader parent, String[] sharedPackages) {
+        super("plugin:" + pluginPath, urls, parent);
+        this.pluginPath = pluginPath;
+        this.sharedPackages = sharedPackages;
+    }
+
+    String getPluginPath() {
+        return pluginPath;
+    }
+
+    /**
+     * 通过本加载器解析过的类数量
+     */
+    int getIndexedClassCount() {
+        return classIndex.size();
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        Class<?> indexed = classIndex.get(name);
+        if (indexed != null) {
+            return indexed;
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                loaded = isShared(name) ? loadParentFirst(name) : loadChildFirst(name);
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            classIndex.put(name, loaded);
+            return loaded;
+        }
+    }
+
+    private Class<?> loadParentFirst(String name) throws ClassNotFoundException {
+        try {
+            return getParent().loadClass(name);
+        } catch (ClassNotFoundException e) {
+            if (isPlatform(name)) {
+                throw e;
+            }
+            return findClass(name);
+        }
+    }
+
+    private Class<?> loadChildFirst(String name) throws ClassNotFoundException {
+        try {
+            return findClass(name);
+        } catch (ClassNotFoundException e) {
+            return getParent().loadClass(name);
+        }
+    }
+
+    @Override
+    public URL getResource(String name) {
+        if (isSharedResource(name)) {
+            URL url = getParent().getResource(name);
+            return url != null ? url : findResource(name);
+        }
+        URL url = findResource(name);
+        return url != null ? url : getParent().getResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+        List<URL> urls = new ArrayList<>();
+        Enumeration<URL> first = isSharedResource(name) ? getParent().getResources(name) : findResources(name);
+        Enumeration<URL> second = isSharedResource(name) ? findResources(name) : getParent().getResources(name);
+        urls.addAll(Collections.list(first));
+        urls.addAll(Collections.list(second));
+        return Collections.enumeration(urls);
+    }
+
+    @Override
+    public void close() throws IOException {
+        classIndex.clear();
+        super.close();
+    }
+
+    private boolean isShared(String className) {
+        if (isPlatform(className)) {
+            return true;
+        }
+        for (String sharedPackage : sharedPackages) {
+            if (sharedPackage.endsWith(".") ? className.startsWith(sharedPackage)
+                    : isInPackage(className, sharedPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 类是否直接位于指定包中（不含子包）
+     */
+    private static boolean isInPackage(String className, String packageName) {
+        return className.length() > packageName.length()
+                && className.startsWith(packageName)
+                && className.charAt(packageName.length()) == '.'
+                && className.indexOf('.', packageName.length() + 1) < 0;
+    }
+
+    private static boolean isPlatform(String className) {
+        for (String platformPackage : PLATFORM_PACKAGES) {
+            if (className.startsWith(platformPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSharedResource(String resourceName) {
+        return resourceName.endsWith(".class")
+                && isShared(resourceName.substring(0, resourceName.length() - 6).replace('/', '.'));
+    }
+
+    @Override
+    public String toString() {
+        return "IsolatedPluginClassLoader[" + pluginPath + "]";
+    }
+}
@@ -1,22 +1,32 @@
 package com.yonchain.ai.plugin.loader;
 
+import com.yonchain.ai.plugin.jfr.PluginClassLoadEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /**
  * 插件类加载器
  * 负责动态加载插件JAR文件和类
+ * <p>
+ * 每个插件使用独立的子优先类加载器（{@link IsolatedPluginClassLoader}），只有共享包由宿主加载。
+ * 插件卸载后由 {@link ClassLoaderLeakDetector} 跟踪类加载器是否被回收，热重载不会让Metaspace持续增长。
  * 
  * @author yonchain
  */
@@ -25,11 +35,57 @@ public class PluginClassLoader {
     
     private static final Logger log = LoggerFactory.getLogger(PluginClassLoader.class);
     
-    // 缓存已加载的类加载器，避免重复加载
-    private final Map<String, URLClassLoader> classLoaderCache = new ConcurrentHashMap<>();
+    /**
+     * 默认共享包：插件与宿主之间传递的类型必须来自同一个类加载器
+     * <p>
+     * 以"."结尾的包含子包；不以"."结尾的只匹配该包本身。插件自己的代码也位于 com.yonchain.ai.plugin 下
+     * （如 com.yonchain.ai.plugin.deepseek），所以插件模块只共享顶层SPI接口和 spi、model、enums、event、exception 子包
+     */
+    private static final String[] DEFAULT_SHARED_PACKAGES = {
+            "com.yonchain.ai.api.",
+            "com.yonchain.ai.model.",
+            "com.yonchain.ai.plugin",
+            "com.yonchain.ai.plugin.spi.",
+            "com.yonchain.ai.plugin.model.",
+            "com.yonchain.ai.plugin.enums.",
+            "com.yonchain.ai.plugin.event.",
+            "com.yonchain.ai.plugin.exception.",
+            "org.springframework.",
+            "reactor.",
+            "org.reactivestreams.",
+            "io.micrometer.",
+            "com.fasterxml.jackson.",
+            "org.slf4j."
+    };
+    
+    /**
+     * 泄漏检查间隔（秒）
+     */
+    private static final long LEAK_CHECK_INTERVAL_SECONDS = 30;
+    
+    // 缓存已加载的类加载器，避免重复加载；类缓存由各类加载器自己维护
+    private final Map<String, LoadedPlugin> classLoaderCache = new ConcurrentHashMap<>();
+    
+    private final ClassLoaderLeakDetector leakDetector = new ClassLoaderLeakDetector();
     
-    // 缓存已加载的类，提高性能
-    private final Map<String, Class<?>> classCache = new ConcurrentHashMap<>();
+    private final String[] sharedPackages;
+    
+    private volatile ScheduledExecutorService leakCheckScheduler;
+    
+    private record LoadedPlugin(IsolatedPluginClassLoader classLoader,
+                                ClassLoaderLeakDetector.LoaderReference reference) {
+    }
+    
+    public PluginClassLoader(@Value("${yonchain.plugin.shared-packages:}") String[] extraSharedPackages) {
+        Set<String> packages = new LinkedHashSet<>(Arrays.asList(DEFAULT_SHARED_PACKAGES));
+        for (String extra : extraSharedPackages) {
+            String trimmed = extra.trim();
+            if (!trimmed.isEmpty()) {
+                packages.add(trimmed.endsWith(".") ? trimmed : trimmed + ".");
+            }
+        }
+        this.sharedPackages = packages.toArray(String[]::new);
+    }
     
     /**
      * 从指定路径加载类
@@ -41,31 +97,36 @@ public class PluginClassLoader {
      * @throws IOException IO异常
      */
     public Class<?> loadClass(Path pluginPath, String className) throws ClassNotFoundException, IOException {
-        String cacheKey = pluginPath.toString() + ":" + className;
-        
-        // 先检查缓存
-        Class<?> cachedClass = classCache.get(cacheKey);
-        if (cachedClass != null) {
-            log.debug("Using cached class: {} from {}", className, pluginPath);
-            return cachedClass;
+        // 记录JFR类加载事件（包括创建类加载器的耗时，类加载器索引命中时几乎没有开销）
+        PluginClassLoadEvent event = new PluginClassLoadEvent();
+        if (event.isEnabled()) {
+            event.pluginPath = pluginPath.toString();
+            event.className = className;
+            event.classLoaderCreated = !classLoaderCache.containsKey(pluginPath.toString());
+            event.begin();
         }
         
-        // 获取类加载器
-        URLClassLoader classLoader = getOrCreateClassLoader(pluginPath);
-        
         try {
-            // 加载类
-            Class<?> loadedClass = classLoader.loadClass(className);
+            // 获取类加载器
+            IsolatedPluginClassLoader classLoader = getOrCreateClassLoader(pluginPath);
             
-            // 缓存已加载的类
-            classCache.put(cacheKey, loadedClass);
+            // 加载类（由类加载器的类索引缓存）
+            Class<?> loadedClass = classLoader.loadClass(className);
             
             log.debug("Successfully loaded class: {} from {}", className, pluginPath);
             return loadedClass;
             
         } catch (ClassNotFoundException e) {
+            event.error = e.getClass().getSimpleName();
             log.error("Failed to load class: {} from {}", className, pluginPath, e);
             throw e;
+        } catch (IOException e) {
+            event.error = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.commit();
+            }
         }
     }
     
@@ -114,24 +175,19 @@ public class PluginClassLoader {
     
     /**
      * 卸载插件类加载器
+     * <p>
+     * 调用前插件的实例、Bean和注册表条目应已移除。卸载时重置仍指向该类加载器的线程上下文类加载器、清理宿主的类型缓存，
+     * 之后由泄漏检测跟踪类加载器是否被回收。
      * 
      * @param pluginPath 插件路径
      */
     public void unloadPlugin(Path pluginPath) {
-        String pathKey = pluginPath.toString();
-        URLClassLoader classLoader = classLoaderCache.remove(pathKey);
-        
-        if (classLoader != null) {
-            try {
-                classLoader.close();
-                log.debug("Unloaded plugin class loader for: {}", pluginPath);
-            } catch (IOException e) {
-                log.error("Failed to close class loader for: {}", pluginPath, e);
-            }
+        LoadedPlugin loaded = classLoaderCache.remove(pluginPath.toString());
+        if (loaded != null) {
+            release(loaded);
+            log.debug("Unloaded plugin class loader for: {}", pluginPath);
+            scheduleLeakCheck();
         }
-        
-        // 清理相关的类缓存
-        classCache.entrySet().removeIf(entry -> entry.getKey().startsWith(pathKey + ":"));
     }
     
     /**
@@ -151,22 +207,71 @@ public class PluginClassLoader {
      * @return 类加载器
      * @throws IOException IO异常
      */
-    private URLClassLoader getOrCreateClassLoader(Path pluginPath) throws IOException {
+    private IsolatedPluginClassLoader getOrCreateClassLoader(Path pluginPath) throws IOException {
         String pathKey = pluginPath.toString();
         
         // 先检查缓存
-        URLClassLoader cachedClassLoader = classLoaderCache.get(pathKey);
-        if (cachedClassLoader != null) {
-            return cachedClassLoader;
+        LoadedPlugin cached = classLoaderCache.get(pathKey);
+        if (cached != null) {
+            return cached.classLoader();
         }
         
-        // 创建新的类加载器
-        URLClassLoader classLoader = createClassLoader(pluginPath);
-        classLoaderCache.put(pathKey, classLoader);
-        
+        // 创建新的类加载器；并发创建时只保留一个，多余的立即关闭
+        IsolatedPluginClassLoader classLoader = createClassLoader(pluginPath);
+        LoadedPlugin created = new LoadedPlugin(classLoader, leakDetector.track(classLoader));
+        LoadedPlugin existing = classLoaderCache.putIfAbsent(pathKey, created);
+        if (existing != null) {
+            release(created);
+            return existing.classLoader();
+        }
         return classLoader;
     }
     
+    /**
+     * 关闭类加载器并交给泄漏检测跟踪
+     */
+    private void release(LoadedPlugin loaded) {
+        leakDetector.release(loaded.classLoader(), loaded.reference());
+        try {
+            loaded.classLoader().close();
+        } catch (IOException e) {
+            log.error("Failed to close class loader for: {}", loaded.classLoader().getPluginPath(), e);
+        }
+    }
+    
+    /**
+     * 有已卸载的类加载器时定期检查是否被回收，全部回收后停止检查
+     */
+    private synchronized void scheduleLeakCheck() {
+        if (leakCheckScheduler != null) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "plugin-leak-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkLeaks, LEAK_CHECK_INTERVAL_SECONDS, LEAK_CHECK_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+        leakCheckScheduler = scheduler;
+    }
+    
+    private void checkLeaks() {
+        try {
+            leakDetector.checkLeaks();
+            if (!leakDetector.hasPendingUnloads()) {
+                synchronized (this) {
+                    if (!leakDetector.hasPendingUnloads() && leakCheckScheduler != null) {
+                        leakCheckScheduler.shutdown();
+                        leakCheckScheduler = null;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Plugin class loader leak check failed: {}", e.getMessage());
+        }
+    }
+    
     /**
      * 创建类加载器
      * 
@@ -174,7 +279,7 @@ public class PluginClassLoader {
      * @return 类加载器
      * @throws IOException IO异常
      */
-    private URLClassLoader createClassLoader(Path pluginPath) throws IOException {
+    private IsolatedPluginClassLoader createClassLoader(Path pluginPath) throws IOException {
         if (!Files.exists(pluginPath)) {
             throw new IOException("Plugin path does not exist: " + pluginPath);
         }
@@ -184,7 +289,8 @@ public class PluginClassLoader {
             if (pluginPath.toString().endsWith(".jar")) {
                 URL jarUrl = pluginPath.toUri().toURL();
                 log.debug("Creating class loader for JAR: {}", pluginPath);
-                return new URLClassLoader(new URL[]{jarUrl}, this.getClass().getClassLoader());
+                return new IsolatedPluginClassLoader(pluginPath.toString(), new URL[]{jarUrl},
+                        this.getClass().getClassLoader(), sharedPackages);
             } else {
                 throw new IOException("Unsupported plugin file format: " + pluginPath);
             }
@@ -204,7 +310,7 @@ public class PluginClassLoader {
      * @return 类加载器
      * @throws IOException IO异常
      */
-    private URLClassLoader createDirectoryClassLoader(Path pluginDir) throws IOException {
+    private IsolatedPluginClassLoader createDirectoryClassLoader(Path pluginDir) throws IOException {
         // 查找所有JAR文件和classes目录
         try (Stream<Path> paths = Files.walk(pluginDir)) {
             URL[] urls = paths
@@ -227,7 +333,8 @@ public class PluginClassLoader {
             }
             
             log.debug("Creating directory class loader with {} URLs for: {}", urls.length, pluginDir);
-            return new URLClassLoader(urls, this.getClass().getClassLoader());
+            return new IsolatedPluginClassLoader(pluginDir.toString(), urls, this.getClass().getClassLoader(),
+                    sharedPackages);
         }
     }
     
@@ -266,17 +373,13 @@ public class PluginClassLoader {
         log.info("Clearing plugin loader cache...");
         
         // 关闭所有类加载器
-        for (URLClassLoader classLoader : classLoaderCache.values()) {
-            try {
-                classLoader.close();
-            } catch (IOException e) {
-                log.error("Failed to close class loader", e);
+        for (String pathKey : classLoaderCache.keySet()) {
+            LoadedPlugin loaded = classLoaderCache.remove(pathKey);
+            if (loaded != null) {
+                release(loaded);
             }
         }
-        
-        // 清理缓存
-        classLoaderCache.clear();
-        classCache.clear();
+        scheduleLeakCheck();
         
         log.info("Plugin loader cache cleared");
     }
@@ -287,7 +390,30 @@ public class PluginClassLoader {
      * @return 统计信息
      */
     public CacheStats getCacheStats() {
-        return new CacheStats(classLoaderCache.size(), classCache.size());
+        int classCount = classLoaderCache.values().stream()
+                .mapToInt(loaded -> loaded.classLoader().getIndexedClassCount())
+                .sum();
+        return new CacheStats(classLoaderCache.size(), classCount);
+    }
+    
+    /**
+     * 获取尚未被GC回收的插件类加载器数量（包括已卸载但仍被引用的）
+     * 
+     * 在Full GC之后与 {@link CacheStats#getClassLoaderCount()} 比较，差值持续增长说明插件卸载后类加载器泄漏
+     * 
+     * @return 存活的类加载器数量
+     */
+    public int getLiveClassLoaderCount() {
+        return leakDetector.getLiveCount();
+    }
+    
+    /**
+     * 获取判定为泄漏的类加载器数量：已卸载且经过两次以上老年代/并发GC仍未回收
+     * 
+     * @return 泄漏的类加载器数量
+     */
+    public int getLeakedClassLoaderCount() {
+        return leakDetector.getLeakedCount();
     }
     
     /**
@@ -19,8 +19,8 @@ public interface InstallTaskMapper {
      * @param installTask 安装任务
      * @return 影响行数
      */
-    @Insert("INSERT INTO install_tasks (id, tenant_id, status, total_plugins, completed_plugins, plugins, error_message, created_at, updated_at) " +
-            "VALUES (#{id}, #{tenantId}, #{status}, #{totalPlugins}, #{completedPlugins}, #{plugins}, #{errorMessage}, #{createdAt}, #{updatedAt})")
+    @Insert("INSERT INTO plugin_install_task (id, tenant_id, status, total_plugins, completed_plugins, plugins, error_message, created_at, updated_at) " +
+            "VALUES (#{id}::uuid, #{tenantId}::uuid, #{status}, #{totalPlugins}, #{completedPlugins}, #{plugins}, #{errorMessage}, #{createdAt}, #{updatedAt})")
     int insert(InstallTask installTask);
 
     /**
@@ -29,7 +29,7 @@ public interface InstallTaskMapper {
      * @param id 任务ID
      * @return 安装任务
      */
-    @Select("SELECT * FROM install_tasks WHERE id = #{id}")
+    @Select("SELECT * FROM plugin_install_task WHERE id = #{id}::uuid")
     InstallTask findById(@Param("id") String id);
 
     /**
@@ -38,7 +38,7 @@ public interface InstallTaskMapper {
      * @param tenantId 租户ID
      * @return 安装任务列表
      */
-    @Select("SELECT * FROM install_tasks WHERE tenant_id = #{tenantId} ORDER BY created_at DESC")
+    @Select("SELECT * FROM plugin_install_task WHERE tenant_id = #{tenantId}::uuid ORDER BY created_at DESC")
     List<InstallTask> findByTenantId(@Param("tenantId") String tenantId);
 
     /**
@@ -47,7 +47,7 @@ public interface InstallTaskMapper {
      * @param status 任务状态
      * @return 安装任务列表
      */
-    @Select("SELECT * FROM install_tasks WHERE status = #{status} ORDER BY created_at DESC")
+    @Select("SELECT * FROM plugin_install_task WHERE status = #{status} ORDER BY created_at DESC")
     List<InstallTask> findByStatus(@Param("status") String status);
 
     /**
@@ -57,7 +57,7 @@ public interface InstallTaskMapper {
      * @param status 任务状态
      * @return 安装任务列表
      */
-    @Select("SELECT * FROM install_tasks WHERE tenant_id = #{tenantId} AND status = #{status} ORDER BY created_at DESC")
+    @Select("SELECT * FROM plugin_install_task WHERE tenant_id = #{tenantId}::uuid AND status = #{status} ORDER BY created_at DESC")
     List<InstallTask> findByTenantIdAndStatus(@Param("tenantId") String tenantId, @Param("status") String status);
 
     /**
@@ -65,7 +65,7 @@ public interface InstallTaskMapper {
      * 
      * @return 安装任务列表
      */
-    @Select("SELECT * FROM install_tasks ORDER BY created_at DESC")
+    @Select("SELECT * FROM plugin_install_task ORDER BY created_at DESC")
     List<InstallTask> findAll();
 
     /**
@@ -76,7 +76,7 @@ public interface InstallTaskMapper {
      * @param updatedAt 更新时间
      * @return 影响行数
      */
-    @Update("UPDATE install_tasks SET status = #{status}, updated_at = #{updatedAt} WHERE id = #{id}")
+    @Update("UPDATE plugin_install_task SET status = #{status}, updated_at = #{updatedAt} WHERE id = #{id}::uuid")
     int updateStatus(@Param("id") String id, @Param("status") String status, @Param("updatedAt") java.time.LocalDateTime updatedAt);
 
     /**
@@ -87,7 +87,7 @@ public interface InstallTaskMapper {
      * @param updatedAt 更新时间
      * @return 影响行数
      */
-    @Update("UPDATE install_tasks SET completed_plugins = #{completedPlugins}, updated_at = #{updatedAt} WHERE id = #{id}")
+    @Update("UPDATE plugin_install_task SET completed_plugins = #{completedPlugins}, updated_at = #{updatedAt} WHERE id = #{id}::uuid")
     int updateProgress(@Param("id") String id, @Param("completedPlugins") Long completedPlugins, @Param("updatedAt") java.time.LocalDateTime updatedAt);
 
     /**
@@ -99,7 +99,7 @@ public interface InstallTaskMapper {
      * @param updatedAt 更新时间
      * @return 影响行数
      */
-    @Update("UPDATE install_tasks SET status = #{status}, error_message = #{errorMessage}, updated_at = #{updatedAt} WHERE id = #{id}")
+    @Update("UPDATE plugin_install_task SET status = #{status}, error_message = #{errorMessage}, updated_at = #{updatedAt} WHERE id = #{id}::uuid")
     int updateError(@Param("id") String id, @Param("status") String status, @Param("errorMessage") String errorMessage, @Param("updatedAt") java.time.LocalDateTime updatedAt);
 
     /**
@@ -110,7 +110,7 @@ public interface InstallTaskMapper {
      * @param updatedAt 更新时间
      * @return 影响行数
      */
-    @Update("UPDATE install_tasks SET status = 'completed', completed_plugins = #{totalPlugins}, updated_at = #{updatedAt} WHERE id = #{id}")
+    @Update("UPDATE plugin_install_task SET status = 'completed', completed_plugins = #{totalPlugins}, updated_at = #{updatedAt} WHERE id = #{id}::uuid")
     int complete(@Param("id") String id, @Param("totalPlugins") Long totalPlugins, @Param("updatedAt") java.time.LocalDateTime updatedAt);
 
     /**
@@ -119,9 +119,9 @@ public interface InstallTaskMapper {
      * @param installTask 安装任务
      * @return 影响行数
      */
-    @Update("UPDATE install_tasks SET tenant_id = #{tenantId}, status = #{status}, total_plugins = #{totalPlugins}, " +
+    @Update("UPDATE plugin_install_task SET tenant_id = #{tenantId}::uuid, status = #{status}, total_plugins = #{totalPlugins}, " +
             "completed_plugins = #{completedPlugins}, plugins = #{plugins}, error_message = #{errorMessage}, " +
-            "updated_at = #{updatedAt} WHERE id = #{id}")
+            "updated_at = #{updatedAt} WHERE id = #{id}::uuid")
     int update(InstallTask installTask);
 
     /**
@@ -130,7 +130,7 @@ public interface InstallTaskMapper {
      * @param id 任务ID
      * @return 影响行数
      */
-    @Delete("DELETE FROM install_tasks WHERE id = #{id}")
+    @Delete("DELETE FROM plugin_install_task WHERE id = #{id}::uuid")
     int deleteById(@Param("id") String id);
 
     /**
@@ -139,7 +139,7 @@ public interface InstallTaskMapper {
      * @param tenantId 租户ID
      * @return 影响行数
      */
-    @Delete("DELETE FROM install_tasks WHERE tenant_id = #{tenantId}")
+    @Delete("DELETE FROM plugin_install_task WHERE tenant_id = #{tenantId}::uuid")
     int deleteByTenantId(@Param("tenantId") String tenantId);
 
     /**
@@ -147,7 +147,7 @@ public interface InstallTaskMapper {
      * 
      * @return 任务总数
      */
-    @Select("SELECT COUNT(*) FROM install_tasks")
+    @Select("SELECT COUNT(*) FROM plugin_install_task")
     long count();
 
     /**
@@ -156,7 +156,7 @@ public interface InstallTaskMapper {
      * @param tenantId 租户ID
      * @return 任务数量
      */
-    @Select("SELECT COUNT(*) FROM install_tasks WHERE tenant_id = #{tenantId}")
+    @Select("SELECT COUNT(*) FROM plugin_install_task WHERE tenant_id = #{tenantId}::uuid")
     long countByTenantId(@Param("tenantId") String tenantId);
 
     /**
@@ -165,7 +165,7 @@ public interface InstallTaskMapper {
      * @param status 任务状态
      * @return 任务数量
      */
-    @Select("SELECT COUNT(*) FROM install_tasks WHERE status = #{status}")
+    @Select("SELECT COUNT(*) FROM plugin_install_task WHERE status = #{status}")
     long countByStatus(@Param("status") String status);
 
     /**
@@ -174,7 +174,7 @@ public interface InstallTaskMapper {
      * @param id 任务ID
      * @return 是否存在
      */
-    @Select("SELECT COUNT(*) > 0 FROM install_tasks WHERE id = #{id}")
+    @Select("SELECT COUNT(*) > 0 FROM plugin_install_task WHERE id = #{id}::uuid")
     boolean existsById(@Param("id") String id);
 }
 
@@ -21,10 +21,10 @@ public interface PluginMapper {
      */
     @Insert("INSERT INTO plugin (plugin_id, name, version, description, author, homepage, " +
             "type, status, plugin_path, main_class, provider_source, provider_interface, " +
-            "created_at, updated_at, installed_at, enabled_at, disabled_at,icon_path) " +
+            "created_at, updated_at, installed_at, enabled_at, disabled_at,icon_path, checksum, dependencies) " +
             "VALUES (#{pluginId}, #{name}, #{version}, #{description}, #{author}, #{homepage}, " +
             "#{type}, #{status}, #{pluginPath}, #{mainClass}, #{providerSource}, #{providerInterface}, " +
-            "#{createdAt}, #{updatedAt}, #{installedAt}, #{enabledAt}, #{disabledAt},#{iconPath})")
+            "#{createdAt}, #{updatedAt}, #{installedAt}, #{enabledAt}, #{disabledAt},#{iconPath}, #{checksum}, #{dependencies})")
     int insert(PluginEntity plugin);
     
     /**
@@ -58,7 +58,9 @@ public interface PluginMapper {
             "installed_at = #{installedAt}, " +
             "enabled_at = #{enabledAt}, " +
             "disabled_at = #{disabledAt}, " +
-            "icon_path = #{iconPath} " +
+            "icon_path = #{iconPath}, " +
+            "checksum = #{checksum}, " +
+            "dependencies = #{dependencies} " +
             "WHERE plugin_id = #{pluginId}")
     int update(PluginEntity plugin);
     
@@ -81,7 +83,7 @@ public interface PluginMapper {
      */
     @Select("SELECT plugin_id, name, version, description, author, homepage, " +
             "type, status, plugin_path, main_class, provider_source, provider_interface, " +
-            "created_at, updated_at, installed_at, enabled_at, disabled_at,icon_path " +
+            "created_at, updated_at, installed_at, enabled_at, disabled_at,icon_path, checksum, dependencies " +
             "FROM plugin WHERE plugin_id = #{pluginId}")
     @Results({
         @Result(property = "pluginId", column = "plugin_id"),
@@ -101,8 +103,9 @@ public interface PluginMapper {
         @Result(property = "installedAt", column = "installed_at"),
         @Result(property = "enabledAt", column = "enabled_at"),
         @Result(property = "disabledAt", column = "disabled_at"),
-        @Result(property = "iconPath", column = "icon_path")
-
+        @Result(property = "iconPath", column = "icon_path"),
+        @Result(property = "checksum", column = "checksum"),
+        @Result(property = "dependencies", column = "dependencies")
     })
     PluginEntity selectById(String pluginId);
     
@@ -113,7 +116,7 @@ public interface PluginMapper {
      */
     @Select("SELECT plugin_id, name, version, description, author, homepage, " +
             "type, status, plugin_path, main_class, provider_source, provider_interface, " +
-            "created_at, updated_at, installed_at, enabled_at, disabled_at,icon_path " +
+            "created_at, updated_at, installed_at, enabled_at, disabled_at,icon_path, checksum, dependencies " +
             "FROM plugin ORDER BY created_at DESC")
     @Results({
         @Result(property = "pluginId", column = "plugin_id"),
@@ -133,7 +136,9 @@ public interface PluginMapper {
         @Result(property = "installedAt", column = "installed_at"),
         @Result(property = "enabledAt", column = "enabled_at"),
         @Result(property = "disabledAt", column = "disabled_at"),
-        @Result(property = "iconPath", column = "icon_path")
+        @Result(property = "iconPath", column = "icon_path"),
+        @Result(property = "checksum", column = "checksum"),
+        @Result(property = "dependencies", column = "dependencies")
     })
     List<PluginEntity> selectAll();
     
@@ -145,7 +150,7 @@ public interface PluginMapper {
      */
     @Select("SELECT plugin_id, name, version, description, author, homepage, " +
             "type, status, plugin_path, main_class, provider_source, provider_interface, " +
-            "created_at, updated_at, installed_at, enabled_at, disabled_at " +
+            "created_at, updated_at, installed_at, enabled_at, disabled_at,icon_path, checksum, dependencies " +
             "FROM plugin WHERE type = #{type} ORDER BY created_at DESC")
     @Results({
         @Result(property = "pluginId", column = "plugin_id"),
@@ -164,7 +169,10 @@ public interface PluginMapper {
         @Result(property = "updatedAt", column = "updated_at"),
         @Result(property = "installedAt", column = "installed_at"),
         @Result(property = "enabledAt", column = "enabled_at"),
-        @Result(property = "disabledAt", column = "disabled_at")
+        @Result(property = "disabledAt", column = "disabled_at"),
+        @Result(property = "iconPath", column = "icon_path"),
+        @Result(property = "checksum", column = "checksum"),
+        @Result(property = "dependencies", column = "dependencies")
     })
     List<PluginEntity> selectByType(String type);
     
@@ -176,7 +184,7 @@ public interface PluginMapper {
      */
     @Select("SELECT plugin_id, name, version, description, author, homepage, " +
             "type, status, plugin_path, main_class, provider_source, provider_interface, " +
-            "created_at, updated_at, installed_at, enabled_at, disabled_at " +
+            "created_at, updated_at, installed_at, enabled_at, disabled_at,icon_path, checksum, dependencies " +
             "FROM plugin WHERE status = #{status} ORDER BY created_at DESC")
     @Results({
         @Result(property = "pluginId", column = "plugin_id"),
@@ -195,7 +203,10 @@ public interface PluginMapper {
         @Result(property = "updatedAt", column = "updated_at"),
         @Result(property = "installedAt", column = "installed_at"),
         @Result(property = "enabledAt", column = "enabled_at"),
-        @Result(property = "disabledAt", column = "disabled_at")
+        @Result(property = "disabledAt", column = "disabled_at"),
+        @Result(property = "iconPath", column = "icon_path"),
+        @Result(property = "checksum", column = "checksum"),
+        @Result(property = "dependencies", column = "dependencies")
     })
     List<PluginEntity> selectByStatus(String status);
     
@@ -207,7 +218,7 @@ public interface PluginMapper {
      */
     @Select("SELECT plugin_id, name, version, description, author, homepage, " +
             "type, status, plugin_path, main_class, provider_source, provider_interface, " +
-            "created_at, updated_at, installed_at, enabled_at, disabled_at " +
+            "created_at, updated_at, installed_at, enabled_at, disabled_at,icon_path, checksum, dependencies " +
             "FROM plugin WHERE name LIKE CONCAT('%', #{name}, '%') ORDER BY created_at DESC")
     @Results({
         @Result(property = "pluginId", column = "plugin_id"),
@@ -226,7 +237,10 @@ public interface PluginMapper {
         @Result(property = "updatedAt", column = "updated_at"),
         @Result(property = "installedAt", column = "installed_at"),
         @Result(property = "enabledAt", column = "enabled_at"),
-        @Result(property = "disabledAt", column = "disabled_at")
+        @Result(property = "disabledAt", column = "disabled_at"),
+        @Result(property = "iconPath", column = "icon_path"),
+        @Result(property = "checksum", column = "checksum"),
+        @Result(property = "dependencies", column = "dependencies")
     })
     List<PluginEntity> selectByNameLike(String name);
     
@@ -16,6 +16,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -327,7 +329,13 @@ public class DefaultModelPlugin implements ModelPlugin {
                 if (properties.containsKey("context_size")) {
                     metadata.setMaxTokens((Integer) properties.get("context_size"));
                 }
+                metadata.setProperties(new HashMap<>(properties));
             }
+            metadata.setParameterRules(modelConfig.getParameterRules());
+            if (modelConfig.getFeatures() != null) {
+                metadata.setSupportedFeatures(new HashSet<>(modelConfig.getFeatures()));
+            }
+            metadata.setPricing(modelConfig.getPricing());
             
             // 创建基础ModelConfig
             ModelConfig config = createBaseModelConfig(modelConfig);
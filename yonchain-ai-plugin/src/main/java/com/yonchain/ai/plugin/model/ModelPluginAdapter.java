@@ -5,8 +5,11 @@ import com.yonchain.ai.api.model.ModelProviderInfo;
 import com.yonchain.ai.api.model.DefaultModelProvider;
 import com.yonchain.ai.api.model.ModelConfigItem;
 import com.yonchain.ai.model.ModelConfiguration;
+import com.yonchain.ai.model.ModelFactoryGeneration;
 import com.yonchain.ai.model.ModelRegistry;
 import com.yonchain.ai.model.enums.ModelType;
+import com.yonchain.ai.model.options.ModelOptionsHandler;
+import com.yonchain.ai.model.options.ModelOptionsHandlerRegistry;
 import com.yonchain.ai.plugin.*;
 import com.yonchain.ai.api.plugin.dto.PluginInfo;
 import com.yonchain.ai.plugin.enums.PluginType;
@@ -20,12 +23,14 @@ import com.yonchain.ai.plugin.config.PluginConfig;
 import com.yonchain.ai.plugin.config.ModelConfigData;
 import com.yonchain.ai.plugin.config.ConfigDrivenParser;
 import com.yonchain.ai.plugin.loader.PluginClassLoader;
+import com.yonchain.ai.plugin.jfr.PluginEnableEvent;
+import com.yonchain.ai.plugin.parser.index.PluginDescriptorIndex;
+import com.yonchain.ai.plugin.parser.index.PluginDescriptorIndexer;
 import com.yonchain.ai.business.ModelMetadata;
 
-import java.io.InputStream;
 import org.slf4j.Logger;
-import org.yaml.snakeyaml.Yaml;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
@@ -33,10 +38,12 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -59,6 +66,10 @@ public class ModelPluginAdapter implements PluginAdapter {
     private final ModelService modelService;
     private final PluginIconService pluginIconService;
     private final ModelConfiguration modelConfiguration;
+    private final PluginDescriptorIndexer descriptorIndexer;
+    
+    // 升级时等待旧版本上进行中的调用结束的最长时间
+    private final Duration drainTimeout;
     
     // 缓存插件实例和提供商
     private final Map<String, ModelPlugin> pluginInstances = new ConcurrentHashMap<>();
@@ -75,7 +86,9 @@ public class ModelPluginAdapter implements PluginAdapter {
                              ApplicationContext applicationContext,
                              ModelService modelService,
                              PluginIconService pluginIconService,
-                             ModelConfiguration modelConfiguration) {
+                             ModelConfiguration modelConfiguration,
+                             PluginDescriptorIndexer descriptorIndexer,
+                             @Value("${yonchain.plugin.upgrade.drain-timeout:60s}") Duration drainTimeout) {
         this.pluginRegistry = pluginRegistry;
         this.modelRegistry = modelRegistry;
         this.pluginGenerator = pluginGenerator;
@@ -85,6 +98,8 @@ public class ModelPluginAdapter implements PluginAdapter {
         this.modelService = modelService;
         this.pluginIconService = pluginIconService;
         this.modelConfiguration = modelConfiguration;
+        this.descriptorIndexer = descriptorIndexer;
+        this.drainTimeout = drainTimeout;
     }
     
     @Override
@@ -135,6 +150,13 @@ public class ModelPluginAdapter implements PluginAdapter {
     public void onPluginEnable(String pluginId) throws PluginException {
         log.info("Enabling model plugin: {}", pluginId);
         
+        // JFR插件启用事件，与同一时间段的类加载、GC事件关联
+        PluginEnableEvent event = new PluginEnableEvent();
+        if (event.isEnabled()) {
+            event.pluginId = pluginId;
+            event.begin();
+        }
+        
         try {
             // 1. 获取插件信息
             Optional<PluginInfo> pluginInfoOpt = pluginRegistry.findByPluginId(pluginId);
@@ -156,6 +178,8 @@ public class ModelPluginAdapter implements PluginAdapter {
                 throw new PluginException("Plugin does not provide a model provider: " + pluginId);
             }
             
+            event.provider = modelProvider.getProviderName();
+            
             // 4. 注册模型提供商到Spring容器
             registerModelProvider(pluginId, modelProvider);
             
@@ -165,6 +189,10 @@ public class ModelPluginAdapter implements PluginAdapter {
             // 6. 注册适配器到ModelConfiguration（符合ModelFactory标准）
             modelConfiguration.registerFactory(modelProvider.getProviderName(), factoryAdapter);
 
+            // 注册插件类加载器，用于加载插件随附的分词词表（tokenizer/*.tiktoken）
+            modelConfiguration.getTokenizerRegistry().registerResourceLoader(
+                    modelProvider.getProviderName(), pluginInstance.getClass().getClassLoader());
+
             // 7. 保存提供商信息到数据库（用于可视化界面展示和配置）
             ModelProviderInfo providerInfo = convertToProviderInfo(pluginInstance, modelProvider, pluginId);
             modelService.saveProvider(pluginId, providerInfo);
@@ -172,13 +200,14 @@ public class ModelPluginAdapter implements PluginAdapter {
             // 8. 保存模型信息到数据库（用于可视化界面展示和配置）
             List<ModelMetadata> models = pluginInstance.getModels();
             if (models != null && !models.isEmpty()) {
+                event.models = models.size();
                 List<Object> modelObjects = new ArrayList<>(models);
                 modelService.saveModels(pluginId, modelObjects, modelProvider.getProviderName());
                 log.debug("Saved {} models to database from plugin: {}", models.size(), pluginId);
             }
             
             // 9. 注册OptionsHandlers到ModelConfiguration
-            registerPluginOptionsHandlers(pluginInstance, modelConfiguration);
+            registerPluginOptionsHandlers(pluginInstance, pluginInfo.getPluginPath(), modelConfiguration);
             
             // 10. 调用插件的启用回调
             pluginInstance.onEnable();
@@ -195,7 +224,12 @@ public class ModelPluginAdapter implements PluginAdapter {
             // 清理可能的残留状态
             cleanup(pluginId);
             
+            event.error = e.getClass().getSimpleName();
             throw new PluginException("Failed to enable model plugin: " + e.getMessage(), e);
+        } finally {
+            if (event.shouldCommit()) {
+                event.commit();
+            }
         }
     }
     
@@ -230,6 +264,7 @@ public class ModelPluginAdapter implements PluginAdapter {
             // 7. 从ModelConfiguration注销模型工厂
             if (modelProvider != null) {
                 modelConfiguration.removeFactory(modelProvider.getProviderName());
+                modelConfiguration.getTokenizerRegistry().unregisterResourceLoader(modelProvider.getProviderName());
                 log.debug("Removed factory from ModelConfiguration: {}", modelProvider.getProviderName());
             }
             
@@ -247,6 +282,9 @@ public class ModelPluginAdapter implements PluginAdapter {
             pluginInstances.remove(pluginId);
             modelProviders.remove(pluginId);
             
+            // 11. 卸载插件类加载器（必须在以上引用全部移除之后）
+            unloadPluginClassLoader(pluginId);
+            
             log.info("Model plugin disabled successfully: {}", pluginId);
             
         } catch (Exception e) {
@@ -259,6 +297,121 @@ public class ModelPluginAdapter implements PluginAdapter {
         }
     }
     
+    /**
+     * 蓝绿切换到新版本
+     * 
+     * 新版本从新的JAR路径加载（独立的类加载器），准备完成后以新的一代原子替换模型工厂，新调用立即使用新版本；
+     * 等待旧的一代上进行中的调用（包括流式调用）结束后，再销毁旧版本并卸载其类加载器。等待超时时返回，
+     * 旧版本保留到进行中的调用全部结束再销毁。切换前失败时旧版本不受影响。
+     */
+    @Override
+    public CompletableFuture<Void> onPluginUpgrade(PluginInfo current, PluginInfo upgraded) throws PluginException {
+        String pluginId = current.getPluginId();
+        log.info("Upgrading model plugin {} from {} to {}", pluginId, current.getVersion(), upgraded.getVersion());
+        
+        ModelPlugin oldInstance = pluginInstances.get(pluginId);
+        ModelProvider oldProvider = modelProviders.get(pluginId);
+        if (oldInstance == null || oldProvider == null) {
+            throw new PluginException(pluginId, "Plugin is not enabled: " + pluginId);
+        }
+        String providerName = oldProvider.getProviderName();
+        
+        // 1. 加载新版本并完成切换前的全部准备，失败时丢弃新版本
+        ModelPlugin newInstance = loadPluginInstance(upgraded);
+        if (newInstance == null) {
+            pluginClassLoader.unloadPlugin(upgraded.getPluginPath());
+            throw new PluginException(pluginId, "Failed to load plugin version " + upgraded.getVersion());
+        }
+        ModelProvider newProvider;
+        try {
+            newProvider = newInstance.getProvider();
+            if (newProvider == null || !providerName.equals(newProvider.getProviderName())) {
+                throw new PluginException(pluginId, "Upgraded plugin must keep provider " + providerName
+                        + ", use uninstall and install to change it");
+            }
+            
+            // 提供商和模型信息按编码更新，不删除现有数据和租户配置
+            modelService.saveProvider(pluginId, convertToProviderInfo(newInstance, newProvider, pluginId));
+            List<ModelMetadata> models = newInstance.getModels();
+            if (models != null && !models.isEmpty()) {
+                modelService.saveModels(pluginId, new ArrayList<>(models), providerName);
+            }
+            
+            newInstance.onEnable();
+        } catch (Exception e) {
+            log.error("Failed to prepare plugin {} version {}, keeping version {}", pluginId,
+                    upgraded.getVersion(), current.getVersion(), e);
+            newInstance.dispose();
+            pluginClassLoader.unloadPlugin(upgraded.getPluginPath());
+            throw e instanceof PluginException pe ? pe
+                    : new PluginException(pluginId, "Failed to prepare upgrade: " + e.getMessage(), e);
+        }
+        
+        // 2. 原子切换模型工厂，随后切换选项处理器、分词词表和Spring Bean
+        ModelFactoryGeneration previous = modelConfiguration
+                .swapFactory(providerName, new PluginModelFactory(newProvider))
+                .orElse(null);
+        unregisterPluginOptionsHandlers(oldInstance, modelConfiguration);
+        registerPluginOptionsHandlers(newInstance, upgraded.getPluginPath(), modelConfiguration);
+        modelConfiguration.getTokenizerRegistry().registerResourceLoader(
+                providerName, newInstance.getClass().getClassLoader());
+        unregisterModelProvider(pluginId);
+        registerModelProvider(pluginId, newProvider);
+        pluginInstances.put(pluginId, newInstance);
+        modelProviders.put(pluginId, newProvider);
+        log.info("Switched provider {} to plugin version {}", providerName, upgraded.getVersion());
+        
+        // 3. 排空旧的一代后销毁旧版本
+        Runnable retire = () -> retirePreviousVersion(pluginId, oldInstance, current.getPluginPath());
+        if (drain(pluginId, previous)) {
+            retire.run();
+            log.info("Model plugin upgraded successfully: {} -> {}", pluginId, upgraded.getVersion());
+            return CompletableFuture.completedFuture(null);
+        }
+        log.info("Model plugin upgraded: {} -> {}, previous version is retired once its calls finish", pluginId,
+                upgraded.getVersion());
+        return previous.drained().thenRunAsync(retire);
+    }
+    
+    /**
+     * 等待旧的一代上进行中的调用结束
+     * 
+     * @return 是否已排空（没有旧的一代时为true）；超时或被中断时返回false，由调用方延后销毁旧版本
+     */
+    private boolean drain(String pluginId, ModelFactoryGeneration previous) {
+        if (previous == null) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            if (previous.awaitDrained(drainTimeout)) {
+                log.info("Drained previous version of plugin {} in {} ms", pluginId,
+                        (System.nanoTime() - start) / 1_000_000);
+                return true;
+            }
+            log.warn("Timed out after {} waiting for {} in-flight calls on previous version of plugin {}, "
+                    + "deferring its unload", drainTimeout, previous.getInFlight(), pluginId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while draining previous version of plugin {}, deferring its unload", pluginId);
+        }
+        return false;
+    }
+    
+    /**
+     * 销毁旧版本并卸载其类加载器（旧的一代已没有进行中的调用）
+     */
+    private void retirePreviousVersion(String pluginId, ModelPlugin oldInstance, String oldPluginPath) {
+        try {
+            oldInstance.onDisable();
+            oldInstance.dispose();
+        } catch (Exception e) {
+            log.warn("Failed to dispose previous version of plugin {}: {}", pluginId, e.getMessage());
+        }
+        pluginClassLoader.unloadPlugin(oldPluginPath);
+        log.info("Previous version of plugin {} unloaded", pluginId);
+    }
+    
     /**
      * 加载插件实例
      * 
@@ -270,14 +423,15 @@ public class ModelPluginAdapter implements PluginAdapter {
             String pluginId = pluginInfo.getPluginId();
             String pluginPath = pluginInfo.getPluginPath();
             
-            // 1. 创建并解析插件配置
-            PluginConfig pluginConfig = createPluginConfig(pluginInfo);
+            // 1. 创建并解析插件配置（描述文件统一取自索引，JAR只扫描一次）
+            PluginDescriptorIndex index = descriptorIndexer.index(java.nio.file.Paths.get(pluginPath));
+            PluginConfig pluginConfig = createPluginConfig(pluginInfo, index);
             
             // 2. 解析提供商配置
-            ProviderConfig providerConfig = parseProviderConfig(pluginConfig);
+            ProviderConfig providerConfig = parseProviderConfig(pluginConfig, index);
             
             // 3. 解析模型配置
-            List<ModelConfigData> modelConfigs = parseModelConfigs(pluginConfig);
+            List<ModelConfigData> modelConfigs = parseModelConfigs(pluginConfig, index);
             
             // 4. 使用配置驱动的插件生成器
             ModelPlugin instance = pluginGenerator.generateModelPlugin(
@@ -429,6 +583,7 @@ public class ModelPluginAdapter implements PluginAdapter {
             if (modelProvider != null) {
                 try {
                     modelConfiguration.removeFactory(modelProvider.getProviderName());
+                    modelConfiguration.getTokenizerRegistry().unregisterResourceLoader(modelProvider.getProviderName());
                     log.debug("Cleaned up factory from ModelConfiguration: {}", modelProvider.getProviderName());
                 } catch (Exception e) {
                     log.error("Failed to cleanup factory from ModelConfiguration: {}", modelProvider.getProviderName(), e);
@@ -446,12 +601,25 @@ public class ModelPluginAdapter implements PluginAdapter {
                 log.error("Failed to cleanup plugin data from database: {}", pluginId, e);
             }
             
+            unloadPluginClassLoader(pluginId);
+            
             log.debug("Cleaned up all resources for plugin: {}", pluginId);
         } catch (Exception e) {
             log.error("Failed to cleanup resources for plugin: {}", pluginId, e);
         }
     }
     
+    /**
+     * 卸载插件类加载器，之后由泄漏检测跟踪是否被回收
+     * 
+     * @param pluginId 插件ID
+     */
+    private void unloadPluginClassLoader(String pluginId) {
+        pluginRegistry.findByPluginId(pluginId)
+                .map(PluginInfo::getPluginPath)
+                .ifPresent(pluginClassLoader::unloadPlugin);
+    }
+    
     /**
      * 获取插件实例
      * 
@@ -700,14 +868,16 @@ public class ModelPluginAdapter implements PluginAdapter {
      * 注册插件的OptionsHandlers到ModelConfiguration
      * 
      * @param pluginInstance 插件实例
+     * @param pluginPath 插件路径（用于类加载器）
      * @param modelConfiguration 模型配置
      */
-    private void registerPluginOptionsHandlers(ModelPlugin pluginInstance, ModelConfiguration modelConfiguration) {
+    private void registerPluginOptionsHandlers(ModelPlugin pluginInstance, String pluginPath,
+                                               ModelConfiguration modelConfiguration) {
         try {
             log.info("Registering OptionsHandlers for plugin: {}", pluginInstance.getId());
             
             // 使用插件感知的方式注册选项处理器
-            registerPluginOptionsHandlersWithClassLoader(pluginInstance, modelConfiguration);
+            registerPluginOptionsHandlersWithClassLoader(pluginInstance, pluginPath, modelConfiguration);
             
             log.info("Successfully registered OptionsHandlers for plugin: {}", pluginInstance.getId());
             
@@ -877,16 +1047,16 @@ public class ModelPluginAdapter implements PluginAdapter {
         String pluginId = pluginConfig.getId();
         
         try {
-            // 从JAR中读取提供商配置文件
-            InputStream configStream = pluginConfig.getConfigInputStream(configFile);
-            if (configStream == null) {
+            // 从描述文件索引中读取提供商配置
+            Map<String, Object> configData = descriptorIndexer.index(pluginConfig.getPluginPath()).getProviderYaml(configFile);
+            if (configData == null) {
                 throw new IllegalArgumentException(
                     String.format("Provider configuration file [%s] not found in plugin [%s]", configFile, pluginId)
                 );
             }
             
             // 解析提供商配置
-            ProviderConfig providerConfig = parseProviderConfig(configStream);
+            ProviderConfig providerConfig = configParser.parseProviderConfig(configData);
             if (providerConfig == null) {
                 throw new IllegalArgumentException(
                     String.format("Failed to parse provider configuration file [%s] in plugin [%s]", configFile, pluginId)
@@ -978,7 +1148,7 @@ public class ModelPluginAdapter implements PluginAdapter {
             // 验证options_handler字段（选项处理器）
             String optionsHandler = (String) typeConfig.get("options_handler");
             if (optionsHandler == null || optionsHandler.trim().isEmpty()) {
-                errors.add(String.format("Model type [%s] must specify 'options_handler' field (e.g., com.yonchain.ai.plugin.deepseek.DeepSeekChatOptionsHandler)", modelType));
+                errors.add(String.format("Model type [%s] must specify 'options_handler' field (e.g., org.springframework.ai.deepseek.DeepSeekChatOptions)", modelType));
             }
             
             // 验证predefined字段
@@ -989,78 +1159,15 @@ public class ModelPluginAdapter implements PluginAdapter {
         }
     }
     
-    /**
-     * 解析提供商配置文件
-     * 
-     * @param inputStream 配置文件输入流
-     * @return 提供商配置对象
-     */
-    private ProviderConfig parseProviderConfig(InputStream inputStream) {
-        try {
-            Yaml yaml = new Yaml();
-            Map<String, Object> configData = yaml.load(inputStream);
-            
-            if (configData == null) {
-                return null;
-            }
-            
-            // 手动构建ProviderConfig对象
-            ProviderConfig config = new ProviderConfig();
-            config.setProvider((String) configData.get("provider"));
-            config.setProviderSource((String) configData.get("provider_source"));
-            config.setBackground((String) configData.get("background"));
-            
-            @SuppressWarnings("unchecked")
-            Map<String, String> label = (Map<String, String>) configData.get("label");
-            config.setLabel(label);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, String> description = (Map<String, String>) configData.get("description");
-            config.setDescription(description);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, String> iconSmall = (Map<String, String>) configData.get("icon_small");
-            config.setIconSmall(iconSmall);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, String> iconLarge = (Map<String, String>) configData.get("icon_large");
-            config.setIconLarge(iconLarge);
-            
-            @SuppressWarnings("unchecked")
-            List<String> supportedModelTypes = (List<String>) configData.get("supported_model_types");
-            config.setSupportedModelTypes(supportedModelTypes);
-            
-            @SuppressWarnings("unchecked")
-            List<String> configurateMethods = (List<String>) configData.get("configurate_methods");
-            config.setConfigurateMethods(configurateMethods);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> models = (Map<String, Object>) configData.get("models");
-            config.setModels(models);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> help = (Map<String, Object>) configData.get("help");
-            config.setHelp(help);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> credentialSchema = (Map<String, Object>) configData.get("provider_credential_schema");
-            config.setProviderCredentialSchema(credentialSchema);
-            
-            return config;
-            
-        } catch (Exception e) {
-            log.error("Failed to parse provider configuration", e);
-            return null;
-        }
-    }
-    
     /**
      * 使用插件类加载器注册选项处理器
      * 
      * @param pluginInstance 插件实例
+     * @param pluginPath 插件路径（用于类加载器）
      * @param modelConfiguration 模型配置
      */
-    private void registerPluginOptionsHandlersWithClassLoader(ModelPlugin pluginInstance, ModelConfiguration modelConfiguration) {
+    private void registerPluginOptionsHandlersWithClassLoader(ModelPlugin pluginInstance, String pluginPath,
+                                                              ModelConfiguration modelConfiguration) {
         String pluginId = pluginInstance.getId();
         
         try {
@@ -1078,14 +1185,6 @@ public class ModelPluginAdapter implements PluginAdapter {
                 return;
             }
             
-            // 获取插件路径（用于类加载器）
-            Optional<PluginInfo> pluginInfoOpt = pluginRegistry.findByPluginId(pluginId);
-            if (!pluginInfoOpt.isPresent()) {
-                log.error("Plugin info not found for: {}", pluginId);
-                return;
-            }
-            
-            String pluginPath = pluginInfoOpt.get().getPluginPath();
             String providerName = providerConfig.getProvider();
             
             // 使用插件类加载器创建并注册选项处理器
@@ -1094,12 +1193,12 @@ public class ModelPluginAdapter implements PluginAdapter {
                 String handlerClassName = entry.getValue();
                 
                 try {
-                    // 使用插件类加载器加载处理器类
+                    // 使用插件类加载器加载处理器类（也可以是Spring AI选项类，此时使用通用处理器）
                     Class<?> handlerClass = pluginClassLoader.loadClass(pluginPath, handlerClassName);
-                    Object handlerInstance = handlerClass.getDeclaredConstructor().newInstance();
+                    ModelOptionsHandler<?> handlerInstance = ModelOptionsHandlerRegistry.createHandler(handlerClass);
                     
                     // 注册到ModelConfiguration
-                    modelConfiguration.registerNamespaceHandler(providerName, modelType, (com.yonchain.ai.model.options.ModelOptionsHandler<?>) handlerInstance);
+                    modelConfiguration.registerNamespaceHandler(providerName, modelType, handlerInstance);
                     
                     log.debug("Successfully registered options handler: {}:{} -> {}", providerName, modelType, handlerClassName);
                     
@@ -1120,7 +1219,7 @@ public class ModelPluginAdapter implements PluginAdapter {
     /**
      * 创建并解析插件配置
      */
-    private PluginConfig createPluginConfig(PluginInfo pluginInfo) {
+    private PluginConfig createPluginConfig(PluginInfo pluginInfo, PluginDescriptorIndex index) {
         try {
             // 创建基础的 PluginConfig
             PluginConfig pluginConfig = new PluginConfig();
@@ -1128,22 +1227,24 @@ public class ModelPluginAdapter implements PluginAdapter {
             pluginConfig.setPluginPath(java.nio.file.Paths.get(pluginInfo.getPluginPath()));
             
             // 解析 plugin.yaml 文件
-            try (InputStream inputStream = pluginConfig.getConfigInputStream("plugin.yaml")) {
-                PluginConfig parsedConfig = configParser.parsePluginConfig(inputStream);
-                
-                // 合并解析的配置
-                pluginConfig.setName(parsedConfig.getName());
-                pluginConfig.setVersion(parsedConfig.getVersion());
-                pluginConfig.setAuthor(parsedConfig.getAuthor());
-                pluginConfig.setType(parsedConfig.getType());
-                pluginConfig.setIcon(parsedConfig.getIcon());
-                pluginConfig.setDescription(parsedConfig.getDescription());
-                pluginConfig.setLabel(parsedConfig.getLabel());
-                pluginConfig.setPlugins(parsedConfig.getPlugins());
-                pluginConfig.setResource(parsedConfig.getResource());
-                
-                return pluginConfig;
+            if (!index.hasPluginYaml()) {
+                throw new RuntimeException("Config file not found: " + PluginDescriptorIndex.PLUGIN_YAML);
             }
+            PluginConfig parsedConfig = configParser.parsePluginConfig(index.getPluginYaml());
+            
+            // 合并解析的配置
+            pluginConfig.setName(parsedConfig.getName());
+            pluginConfig.setVersion(parsedConfig.getVersion());
+            pluginConfig.setAuthor(parsedConfig.getAuthor());
+            pluginConfig.setType(parsedConfig.getType());
+            pluginConfig.setIcon(parsedConfig.getIcon());
+            pluginConfig.setDescription(parsedConfig.getDescription());
+            pluginConfig.setLabel(parsedConfig.getLabel());
+            pluginConfig.setPlugins(parsedConfig.getPlugins());
+            pluginConfig.setDependencies(parsedConfig.getDependencies());
+            pluginConfig.setResource(parsedConfig.getResource());
+            
+            return pluginConfig;
         } catch (Exception e) {
             log.error("Failed to create plugin config for: {}", pluginInfo.getPluginId(), e);
             throw new RuntimeException("Failed to create plugin config", e);
@@ -1153,7 +1254,7 @@ public class ModelPluginAdapter implements PluginAdapter {
     /**
      * 解析提供商配置
      */
-    private ProviderConfig parseProviderConfig(PluginConfig pluginConfig) {
+    private ProviderConfig parseProviderConfig(PluginConfig pluginConfig, PluginDescriptorIndex index) {
         try {
             // 从plugin.yaml中获取提供商配置文件名
             String providerConfigFile = "deepseek.yaml"; // 默认值
@@ -1162,11 +1263,13 @@ public class ModelPluginAdapter implements PluginAdapter {
                 providerConfigFile = pluginConfig.getPlugins().get(0);
             }
             
-            try (InputStream inputStream = pluginConfig.getConfigInputStream(providerConfigFile)) {
-                ProviderConfig providerConfig = configParser.parseProviderConfig(inputStream);
-                pluginConfig.setProviderConfig(providerConfig);
-                return providerConfig;
+            Map<String, Object> configData = index.getProviderYaml(providerConfigFile);
+            if (configData == null) {
+                throw new RuntimeException("Config file not found: " + providerConfigFile);
             }
+            ProviderConfig providerConfig = configParser.parseProviderConfig(configData);
+            pluginConfig.setProviderConfig(providerConfig);
+            return providerConfig;
             
         } catch (Exception e) {
             log.error("Failed to parse provider config for: {}", pluginConfig.getId(), e);
@@ -1177,19 +1280,17 @@ public class ModelPluginAdapter implements PluginAdapter {
     /**
      * 解析模型配置
      */
-    private List<ModelConfigData> parseModelConfigs(PluginConfig pluginConfig) {
+    private List<ModelConfigData> parseModelConfigs(PluginConfig pluginConfig, PluginDescriptorIndex index) {
         List<ModelConfigData> modelConfigs = new ArrayList<>();
         
         try {
-            // 获取模型配置文件列表
-            List<String> modelConfigFiles = pluginConfig.getModelConfigFiles();
-            
-            for (String configFile : modelConfigFiles) {
-                try (InputStream inputStream = pluginConfig.getConfigInputStream(configFile)) {
-                    ModelConfigData modelConfig = configParser.parseModelConfig(inputStream);
+            // 模型配置文件（models目录下，索引中已按JAR顺序排列）
+            for (Map.Entry<String, Map<String, Object>> configFile : index.getModelYamls().entrySet()) {
+                try {
+                    ModelConfigData modelConfig = configParser.parseModelConfig(configFile.getValue());
                     modelConfigs.add(modelConfig);
                 } catch (Exception e) {
-                    log.warn("Failed to parse model config file: {}, skipping", configFile, e);
+                    log.warn("Failed to parse model config file: {}, skipping", configFile.getKey(), e);
                 }
             }
             
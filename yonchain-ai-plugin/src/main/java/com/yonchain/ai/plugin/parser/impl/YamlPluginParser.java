@@ -4,20 +4,19 @@ import com.yonchain.ai.plugin.config.PluginConfig;
 // import com.yonchain.ai.plugin.descriptor.ResourceConfig; // 已删除，简化处理
 import com.yonchain.ai.plugin.exception.PluginParseException;
 import com.yonchain.ai.plugin.parser.PluginParser;
+import com.yonchain.ai.plugin.parser.index.PluginJar;
+import com.yonchain.ai.plugin.parser.index.PluginDescriptorIndex;
+import com.yonchain.ai.plugin.parser.index.PluginDescriptorIndexer;
 import com.yonchain.ai.plugin.validation.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
-import org.yaml.snakeyaml.Yaml;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 
 /**
  * YAML格式插件解析器实现
@@ -32,7 +31,11 @@ public class YamlPluginParser implements PluginParser {
     private static final String PLUGIN_YAML = "plugin.yaml";
     private static final String PLUGIN_XML = "plugin.xml"; // 兼容XML格式
     
-    private final Yaml yaml = new Yaml();
+    private final PluginDescriptorIndexer descriptorIndexer;
+    
+    public YamlPluginParser(PluginDescriptorIndexer descriptorIndexer) {
+        this.descriptorIndexer = descriptorIndexer;
+    }
     
     @Override
     public PluginConfig parsePlugin(Path pluginPath) throws PluginParseException {
@@ -40,16 +43,11 @@ public class YamlPluginParser implements PluginParser {
             throw new PluginParseException("Invalid plugin path: " + pluginPath);
         }
         
-        try {
-            // 只支持JAR文件格式
-            if (Files.isRegularFile(pluginPath) && pluginPath.toString().endsWith(".jar")) {
-                return parsePluginFromJar(pluginPath);
-            } else {
-                throw new PluginParseException("Only JAR plugin format is supported: " + pluginPath);
-            }
-            
-        } catch (IOException e) {
-            throw new PluginParseException("Failed to parse plugin: " + pluginPath, e);
+        // 只支持JAR文件格式
+        if (Files.isRegularFile(pluginPath) && pluginPath.toString().endsWith(".jar")) {
+            return parsePluginFromJar(pluginPath);
+        } else {
+            throw new PluginParseException("Only JAR plugin format is supported: " + pluginPath);
         }
     }
 
@@ -145,64 +143,38 @@ public class YamlPluginParser implements PluginParser {
     }
 
     /**
-     * 从JAR文件解析插件
+     * 从JAR文件解析插件（plugin.yaml和图标取自描述文件索引，不重复打开JAR）
      * 
      * @param jarPath JAR文件路径
      * @return 插件配置
-     * @throws IOException IO异常
      * @throws PluginParseException 解析异常
      */
-    private PluginConfig parsePluginFromJar(Path jarPath) throws IOException, PluginParseException {
-        try (JarFile jarFile = new JarFile(jarPath.toFile())) {
-            // 优先尝试解析plugin.yaml
-            JarEntry yamlEntry = jarFile.getJarEntry(PLUGIN_YAML);
-            if (yamlEntry != null) {
-                PluginConfig pluginConfig;
-                try (InputStream inputStream = jarFile.getInputStream(yamlEntry)) {
-                    pluginConfig = parsePluginYamlFromStream(inputStream, jarPath);
-                }
-                
-                // 设置插件路径
-                pluginConfig.setPluginPath(jarPath);
-                
-                // 提取图标数据
-                extractIconFromJar(jarFile, pluginConfig);
-                
-                return pluginConfig;
-            }
+    private PluginConfig parsePluginFromJar(Path jarPath) throws PluginParseException {
+        PluginDescriptorIndex index = descriptorIndexer.index(jarPath);
+        if (index.hasPluginYaml()) {
+            PluginConfig pluginConfig = buildPluginConfig(index.getPluginYaml(), jarPath);
             
-            // 如果没有YAML文件，尝试XML文件（兼容性）
-            JarEntry xmlEntry = jarFile.getJarEntry(PLUGIN_XML);
-            if (xmlEntry != null) {
-                log.warn("Using deprecated plugin.xml format for plugin: {}", jarPath);
-                throw new PluginParseException("XML plugin format not yet supported, please use plugin.yaml");
-            }
+            // 设置插件路径
+            pluginConfig.setPluginPath(jarPath);
             
-            throw new PluginParseException("No plugin descriptor found (plugin.yaml or plugin.xml) in JAR: " + jarPath);
-        }
-    }
-    
-    /**
-     * 从输入流解析plugin.yaml
-     * 
-     * @param inputStream 输入流
-     * @param pluginPath 插件路径（用于错误信息）
-     * @return 插件配置
-     * @throws PluginParseException 解析异常
-     */
-    private PluginConfig parsePluginYamlFromStream(InputStream inputStream, Path pluginPath) throws PluginParseException {
-        try {
-            Map<String, Object> yamlData = yaml.load(inputStream);
-            
-            if (yamlData == null) {
-                throw new PluginParseException("Empty or invalid YAML file in plugin: " + pluginPath);
+            // 图标数据
+            if (index.getIconData() != null) {
+                pluginConfig.setIconData(index.getIconData());
+                log.debug("Icon data extracted for plugin {}: {} bytes", pluginConfig.getId(), index.getIconData().length);
+            } else if (pluginConfig.getIcon() != null && !pluginConfig.getIcon().trim().isEmpty()) {
+                log.warn("Icon file not found in JAR for plugin {}: {}", pluginConfig.getId(), pluginConfig.getIcon());
             }
             
-            return buildPluginConfig(yamlData, pluginPath);
-            
-        } catch (Exception e) {
-            throw new PluginParseException("Failed to parse plugin YAML in: " + pluginPath, e);
+            return pluginConfig;
+        }
+        
+        // 如果没有YAML文件，尝试XML文件（兼容性）
+        if (index.hasPluginXml()) {
+            log.warn("Using deprecated plugin.xml format for plugin: {}", jarPath);
+            throw new PluginParseException("XML plugin format not yet supported, please use plugin.yaml");
         }
+        
+        throw new PluginParseException("No plugin descriptor found (plugin.yaml or plugin.xml) in JAR: " + jarPath);
     }
     
     /**
@@ -244,6 +216,12 @@ public class YamlPluginParser implements PluginParser {
                 pluginConfig.setPlugins(pluginFiles);
             }
             
+            // 依赖的其他插件ID
+            List<String> dependencies = getStringList(yamlData, "dependencies");
+            if (dependencies != null) {
+                pluginConfig.setDependencies(dependencies);
+            }
+            
             // 资源配置
             Map<String, Object> resourceData = (Map<String, Object>) yamlData.get("resource");
             if (resourceData != null) {
@@ -299,73 +277,6 @@ public class YamlPluginParser implements PluginParser {
         return false;
     }
     
-    /**
-     * 从JAR文件中提取图标数据
-     * 
-     * @param jarFile JAR文件
-     * @param pluginConfig 插件配置
-     */
-    private void extractIconFromJar(JarFile jarFile, PluginConfig pluginConfig) {
-        String iconFileName = pluginConfig.getIcon();
-        if (iconFileName == null || iconFileName.trim().isEmpty()) {
-            log.debug("No icon specified for plugin: {}", pluginConfig.getId());
-            return;
-        }
-        
-        try {
-            // 在JAR文件中查找图标文件
-            String iconPath = findIconInJar(jarFile, iconFileName);
-            if (iconPath == null) {
-                log.warn("Icon file not found in JAR for plugin {}: {}", pluginConfig.getId(), iconFileName);
-                return;
-            }
-            
-            // 提取图标数据
-            JarEntry iconEntry = jarFile.getJarEntry(iconPath);
-            if (iconEntry != null) {
-                try (InputStream iconStream = jarFile.getInputStream(iconEntry)) {
-                    byte[] iconData = iconStream.readAllBytes();
-                    pluginConfig.setIconData(iconData);
-                    log.debug("Icon data extracted for plugin {}: {} bytes", pluginConfig.getId(), iconData.length);
-                } catch (IOException e) {
-                    log.warn("Failed to read icon data for plugin {}: {}", pluginConfig.getId(), e.getMessage());
-                }
-            }
-            
-        } catch (Exception e) {
-            log.warn("Failed to extract icon for plugin {}: {}", pluginConfig.getId(), e.getMessage());
-        }
-    }
-    
-    /**
-     * 在JAR文件中查找图标文件
-     * 
-     * @param jarFile JAR文件
-     * @param iconFileName 图标文件名
-     * @return 图标在JAR中的完整路径，未找到返回null
-     */
-    private String findIconInJar(JarFile jarFile, String iconFileName) {
-        // 优先在_assets目录中查找
-        String assetsIconPath = "_assets/" + iconFileName;
-        JarEntry assetsEntry = jarFile.getJarEntry(assetsIconPath);
-        if (assetsEntry != null) {
-            return assetsIconPath;
-        }
-        
-        // 如果_assets目录中没有，尝试直接查找
-        JarEntry directEntry = jarFile.getJarEntry(iconFileName);
-        if (directEntry != null) {
-            return iconFileName;
-        }
-        
-        // 搜索所有以该文件名结尾的条目
-        return jarFile.stream()
-                .map(JarEntry::getName)
-                .filter(name -> name.endsWith("/" + iconFileName) || name.equals(iconFileName))
-                .findFirst()
-                .orElse(null);
-    }
-    
     /**
      * 检查JAR文件是否是有效的插件JAR
      * 
@@ -373,10 +284,11 @@ public class YamlPluginParser implements PluginParser {
      * @return 是否有效
      */
     private boolean isValidPluginJar(Path jarPath) {
-        try (JarFile jarFile = new JarFile(jarPath.toFile())) {
-            // 检查JAR中是否包含plugin.yaml或plugin.xml
-            return jarFile.getEntry(PLUGIN_YAML) != null || 
-                   jarFile.getEntry(PLUGIN_XML) != null;
+        try {
+            // 只读取中央目录，检查JAR中是否包含plugin.yaml或plugin.xml
+            try (PluginJar jar = PluginJar.open(jarPath)) {
+                return jar.hasEntry(PLUGIN_YAML) || jar.hasEntry(PLUGIN_XML);
+            }
         } catch (IOException e) {
             log.debug("Failed to check JAR file: {}", jarPath, e);
             return false;
@@ -0,0 +1,427 @@
+package com.yonchain.ai.plugin.parser.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 插件描述文件索引
+ * <p>
+ * 一次扫描JAR得到的全部描述信息：plugin.yaml、提供商配置、models目录下的模型配置（均为YAML解析后的树）以及插件图标。
+ * 以紧凑的二进制格式保存，加载时直接还原为Map/List树，不再解析YAML。
+ *
+ * @author yonchain
+ */
+public final class PluginDescriptorIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginDescriptorIndex.class);
+
+    public static final String PLUGIN_YAML = "plugin.yaml";
+    public static final String PLUGIN_XML = "plugin.xml";
+    private static final String ASSETS_DIR = "_assets/";
+    private static final String MODELS_DIR = "models/";
+
+    /**
+     * 文件头 "YPDX"
+     */
+    private static final int MAGIC = 0x59504458;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte LIST = 6;
+    private static final byte MAP = 7;
+    private static final byte BYTES = 8;
+    private static final byte BIG_INTEGER = 9;
+    private static final byte BIG_DECIMAL = 10;
+    private static final byte DATE = 11;
+
+    private final String jarHash;
+    private final Map<String, Object> pluginYaml;
+    private final boolean pluginXml;
+    private final Map<String, Map<String, Object>> providerYamls;
+    private final Map<String, Map<String, Object>> modelYamls;
+    private final String iconEntry;
+    private final byte[] iconData;
+
+    private PluginDescriptorIndex(String jarHash, Map<String, Object> pluginYaml, boolean pluginXml,
+                                  Map<String, Map<String, Object>> providerYamls,
+                                  Map<String, Map<String, Object>> modelYamls, String iconEntry, byte[] iconData) {
+        this.jarHash = jarHash;
+        this.pluginYaml = pluginYaml;
+        this.pluginXml = pluginXml;
+        this.providerYamls = providerYamls;
+        this.modelYamls = modelYamls;
+        this.iconEntry = iconEntry;
+        this.iconData = iconData;
+    }
+
+    /**
+     * 扫描JAR，解析全部描述文件
+     * <p>
+     * 提供商配置取plugin.yaml中plugins列出的文件，未列出时取根目录下除plugin.yaml外的所有YAML文件；
+     * 模型配置取models目录下除 *_position.yaml 外的所有YAML文件，无法解析的模型配置跳过。
+     * 图标依次在 _assets 目录、根目录和任意目录中按文件名查找。
+     *
+     * @param jar     映射后的JAR
+     * @param jarHash JAR文件的SHA-256
+     * @throws IOException 条目无法读取，或plugin.yaml、提供商配置无法解析
+     */
+    public static PluginDescriptorIndex scan(PluginJar jar, String jarHash) throws IOException {
+        Yaml yaml = new Yaml();
+        Map<String, Object> pluginYaml = null;
+        List<String> providerFiles = new ArrayList<>();
+        List<String> modelFiles = new ArrayList<>();
+        List<String> rootYamlFiles = new ArrayList<>();
+        for (PluginJar.Entry entry : jar.getEntries()) {
+            String name = entry.name();
+            if (entry.isDirectory() || !name.endsWith(".yaml")) {
+                continue;
+            }
+            if (name.startsWith(MODELS_DIR) && !name.endsWith("_position.yaml")) {
+                modelFiles.add(name);
+            } else if (name.indexOf('/') < 0 && !name.equals(PLUGIN_YAML)) {
+                rootYamlFiles.add(name);
+            }
+        }
+
+        if (jar.hasEntry(PLUGIN_YAML)) {
+            pluginYaml = loadMap(yaml, jar, PLUGIN_YAML);
+            if (pluginYaml == null) {
+                throw new IOException("Empty or invalid YAML file in plugin: " + jar.getPath());
+            }
+            if (pluginYaml.get("plugins") instanceof List<?> plugins) {
+                plugins.forEach(file -> providerFiles.add(String.valueOf(file)));
+            }
+        }
+        if (providerFiles.isEmpty()) {
+            providerFiles.addAll(rootYamlFiles);
+        }
+
+        Map<String, Map<String, Object>> providerYamls = new LinkedHashMap<>();
+        for (String file : providerFiles) {
+            if (jar.hasEntry(file)) {
+                Map<String, Object> provider = loadMap(yaml, jar, file);
+                if (provider == null) {
+                    throw new IOException("Invalid provider config " + file + " in plugin: " + jar.getPath());
+                }
+                providerYamls.put(file, provider);
+            }
+        }
+
+        Map<String, Map<String, Object>> modelYamls = new LinkedHashMap<>();
+        for (String file : modelFiles) {
+            try {
+                Map<String, Object> model = loadMap(yaml, jar, file);
+                if (model != null) {
+                    modelYamls.put(file, model);
+                } else {
+                    log.warn("Invalid model config file: {}, skipping", file);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to parse model config file: {}, skipping", file, e);
+            }
+        }
+
+        String iconEntry = null;
+        byte[] iconData = null;
+        Object icon = pluginYaml != null ? pluginYaml.get("icon") : null;
+        if (icon != null && !icon.toString().trim().isEmpty()) {
+            iconEntry = findIcon(jar, icon.toString());
+            if (iconEntry != null) {
+                iconData = jar.read(iconEntry);
+            }
+        }
+
+        return new PluginDescriptorIndex(jarHash, pluginYaml, jar.hasEntry(PLUGIN_XML), providerYamls, modelYamls,
+                iconEntry, iconData);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> loadMap(Yaml yaml, PluginJar jar, String name) throws IOException {
+        Object data = yaml.load(new ByteArrayInputStream(jar.read(name)));
+        return data instanceof Map ? (Map<String, Object>) data : null;
+    }
+
+    private static String findIcon(PluginJar jar, String iconFileName) {
+        if (jar.hasEntry(ASSETS_DIR + iconFileName)) {
+            return ASSETS_DIR + iconFileName;
+        }
+        if (jar.hasEntry(iconFileName)) {
+            return iconFileName;
+        }
+        return jar.getEntries().stream()
+                .map(PluginJar.Entry::name)
+                .filter(name -> name.endsWith("/" + iconFileName))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public String getJarHash() {
+        return jarHash;
+    }
+
+    /**
+     * plugin.yaml 的内容，JAR中没有plugin.yaml时返回null
+     */
+    public Map<String, Object> getPluginYaml() {
+        return pluginYaml;
+    }
+
+    public boolean hasPluginYaml() {
+        return pluginYaml != null;
+    }
+
+    public boolean hasPluginXml() {
+        return pluginXml;
+    }
+
+    /**
+     * 提供商配置文件的内容
+     *
+     * @param fileName 配置文件名（如 openai.yaml）
+     * @return 配置内容，未找到返回null
+     */
+    public Map<String, Object> getProviderYaml(String fileName) {
+        return providerYamls.get(fileName);
+    }
+
+    /**
+     * 模型配置文件的内容，按JAR中的顺序，键为条目名称
+     */
+    public Map<String, Map<String, Object>> getModelYamls() {
+        return Collections.unmodifiableMap(modelYamls);
+    }
+
+    /**
+     * 图标在JAR中的路径，未声明或未找到时返回null
+     */
+    public String getIconEntry() {
+        return iconEntry;
+    }
+
+    public byte[] getIconData() {
+        return iconData;
+    }
+
+    /**
+     * 编码为二进制索引
+     */
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        writeString(out, jarHash);
+        writeValue(out, pluginYaml);
+        out.writeBoolean(pluginXml);
+        writeFiles(out, providerYamls);
+        writeFiles(out, modelYamls);
+        writeString(out, iconEntry);
+        if (iconData != null) {
+            out.writeInt(iconData.length);
+            out.write(iconData);
+        } else {
+            out.writeInt(-1);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 从二进制索引还原，每次调用返回独立的副本
+     *
+     * @throws IOException 文件头或版本不匹配、数据损坏
+     */
+    public static PluginDescriptorIndex decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a plugin descriptor index");
+        }
+        int version = in.readUnsignedShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported plugin descriptor index version: " + version);
+        }
+        String jarHash = readString(in);
+        Map<String, Object> pluginYaml = asMap(readValue(in));
+        boolean pluginXml = in.readBoolean();
+        Map<String, Map<String, Object>> providerYamls = readFiles(in);
+        Map<String, Map<String, Object>> modelYamls = readFiles(in);
+        String iconEntry = readString(in);
+        int iconLength = in.readInt();
+        byte[] iconData = null;
+        if (iconLength >= 0) {
+            iconData = new byte[iconLength];
+            in.readFully(iconData);
+        }
+        return new PluginDescriptorIndex(jarHash, pluginYaml, pluginXml, providerYamls, modelYamls, iconEntry,
+                iconData);
+    }
+
+    private static void writeFiles(DataOutputStream out, Map<String, Map<String, Object>> files) throws IOException {
+        out.writeInt(files.size());
+        for (Map.Entry<String, Map<String, Object>> file : files.entrySet()) {
+            writeString(out, file.getKey());
+            writeValue(out, file.getValue());
+        }
+    }
+
+    private static Map<String, Map<String, Object>> readFiles(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, Map<String, Object>> files = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = readString(in);
+            files.put(name, asMap(readValue(in)));
+        }
+        return files;
+    }
+
+    /**
+     * 写入YAML树中的一个值；SnakeYAML产生的其他类型（如集合）按列表或字符串保存
+     */
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INT);
+            out.writeInt(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof BigInteger number) {
+            out.writeByte(BIG_INTEGER);
+            writeString(out, number.toString());
+        } else if (value instanceof BigDecimal number) {
+            out.writeByte(BIG_DECIMAL);
+            writeString(out, number.toString());
+        } else if (value instanceof Date date) {
+            out.writeByte(DATE);
+            out.writeLong(date.getTime());
+        } else if (value instanceof byte[] binary) {
+            out.writeByte(BYTES);
+            out.writeInt(binary.length);
+            out.write(binary);
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Collection<?> collection) {
+            out.writeByte(LIST);
+            out.writeInt(collection.size());
+            for (Object element : collection) {
+                writeValue(out, element);
+            }
+        } else {
+            out.writeByte(STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case BOOLEAN:
+                return in.readBoolean();
+            case BIG_INTEGER:
+                return new BigInteger(readString(in));
+            case BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case DATE:
+                return new Date(in.readLong());
+            case BYTES: {
+                byte[] binary = new byte[in.readInt()];
+                in.readFully(binary);
+                return binary;
+            }
+            case MAP: {
+                int size = in.readInt();
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(in);
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            case LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            default:
+                throw new IOException("Corrupt plugin descriptor index: unknown tag " + tag);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) throws IOException {
+        if (value != null && !(value instanceof Map)) {
+            throw new IOException("Corrupt plugin descriptor index: expected a map");
+        }
+        return (Map<String, Object>) value;
+    }
+}
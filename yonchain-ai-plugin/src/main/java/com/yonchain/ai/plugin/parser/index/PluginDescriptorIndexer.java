@@ -0,0 +1,143 @@
+package com.yonchain.ai.plugin.parser.index;
+
+import com.yonchain.ai.plugin.exception.PluginParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 插件描述文件索引器
+ * <p>
+ * 安装、启用插件时的plugin.yaml、提供商配置、模型配置和图标统一从这里读取：首次访问某个JAR时读取中央目录并扫描一次，
+ * 结果以二进制索引保存在JAR旁边（{@code <jar>.idx}，文件头记录JAR的SHA-256），之后的启动只需校验哈希即可直接还原，
+ * 不再解析YAML。进程内按文件大小和修改时间缓存编码后的索引，JAR被替换后自动重建。
+ *
+ * @author yonchain
+ */
+@Component
+public class PluginDescriptorIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginDescriptorIndexer.class);
+
+    public static final String INDEX_SUFFIX = ".idx";
+
+    private final Map<Path, CachedIndex> cache = new ConcurrentHashMap<>();
+
+    private record CachedIndex(long size, long lastModified, byte[] encoded) {
+    }
+
+    /**
+     * 获取插件JAR的描述文件索引
+     *
+     * @param jarPath 插件JAR路径
+     * @return 索引（每次调用返回独立的副本，调用方可以修改其中的数据）
+     * @throws PluginParseException JAR无法读取或描述文件无法解析
+     */
+    public PluginDescriptorIndex index(Path jarPath) throws PluginParseException {
+        Path key = jarPath.toAbsolutePath().normalize();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            CachedIndex cached = cache.get(key);
+            if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+                return PluginDescriptorIndex.decode(cached.encoded());
+            }
+
+            Path indexPath = indexPath(key);
+            byte[] encoded;
+            PluginDescriptorIndex index;
+            try (PluginJar jar = PluginJar.open(key)) {
+                String hash = jar.sha256();
+                encoded = readIndexFile(indexPath, hash);
+                if (encoded != null) {
+                    index = PluginDescriptorIndex.decode(encoded);
+                    log.debug("Loaded plugin descriptor index {} for {}", indexPath, key);
+                } else {
+                    long start = System.nanoTime();
+                    index = PluginDescriptorIndex.scan(jar, hash);
+                    encoded = index.encode();
+                    writeIndexFile(indexPath, encoded);
+                    log.info("Indexed plugin JAR {} in {} ms: {} model configs", key,
+                            (System.nanoTime() - start) / 1_000_000, index.getModelYamls().size());
+                }
+            }
+            cache.put(key, new CachedIndex(size, lastModified, encoded));
+            return index;
+        } catch (IOException | RuntimeException e) {
+            throw new PluginParseException("Failed to index plugin JAR: " + jarPath + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 删除插件JAR的索引（内存和磁盘）
+     *
+     * @param jarPath 插件JAR路径
+     */
+    public void evict(Path jarPath) {
+        Path key = jarPath.toAbsolutePath().normalize();
+        cache.remove(key);
+        try {
+            Files.deleteIfExists(indexPath(key));
+        } catch (IOException e) {
+            log.warn("Failed to delete plugin descriptor index for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static Path indexPath(Path jarPath) {
+        return jarPath.resolveSibling(jarPath.getFileName() + INDEX_SUFFIX);
+    }
+
+    /**
+     * 读取磁盘上的索引，不存在、损坏或与JAR哈希不一致时返回null
+     */
+    private static byte[] readIndexFile(Path indexPath, String hash) {
+        try {
+            byte[] encoded = Files.readAllBytes(indexPath);
+            if (hash.equals(PluginDescriptorIndex.decode(encoded).getJarHash())) {
+                return encoded;
+            }
+            log.debug("Plugin descriptor index {} is stale, rebuilding", indexPath);
+        } catch (NoSuchFileException e) {
+            // 首次扫描
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable plugin descriptor index {}: {}", indexPath, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 写入索引，先写临时文件再替换，写入失败（如目录只读）时只记录日志
+     */
+    private static void writeIndexFile(Path indexPath, byte[] encoded) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(indexPath.getParent(), indexPath.getFileName().toString(), ".tmp");
+            Files.write(temp, encoded);
+            try {
+                Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write plugin descriptor index {}: {}", indexPath, e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // 临时文件清理失败不影响加载
+                }
+            }
+        }
+    }
+}
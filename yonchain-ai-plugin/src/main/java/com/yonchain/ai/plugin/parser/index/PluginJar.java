@@ -0,0 +1,369 @@
+package com.yonchain.ai.plugin.parser.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 只读的插件JAR
+ * <p>
+ * 打开时通过文件通道读取一次中央目录得到全部条目，之后按需读取并解压单个条目。
+ * 不创建JarFile，也不做内存映射：映射要等到GC才释放，Windows上映射存在期间无法删除文件，卸载或升级插件时旧JAR删不掉。
+ * 使用完毕必须调用 {@link #close()}（try-with-resources）关闭文件通道；不校验签名，只用于读取描述文件和资源。
+ *
+ * @author yonchain
+ */
+public final class PluginJar implements Closeable {
+
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private static final int LOC_HEADER = 30;
+    private static final int CEN_HEADER = 46;
+    private static final int END_HEADER = 22;
+    private static final int ZIP64_END = 56;
+    private static final int ZIP64_LOCATOR = 20;
+    private static final int MAX_COMMENT = 0xFFFF;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    // 只读取描述文件、配置和图标，单个条目解压后不超过16MB
+    private static final long MAX_ENTRY_SIZE = 16L * 1024 * 1024;
+    // DEFLATE的最大压缩比约为1032:1，声明大小超过该比例的条目一定是伪造的
+    private static final long MAX_DEFLATE_RATIO = 1032;
+    // 中央目录整体读入内存，超过该大小的JAR不是插件
+    private static final long MAX_CENTRAL_DIRECTORY = 64L * 1024 * 1024;
+
+    private static final int DIGEST_BUFFER = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final Map<String, Entry> entries;
+
+    /**
+     * 中央目录中的一个条目
+     *
+     * @param name              条目名称
+     * @param method            压缩方式
+     * @param compressedSize    压缩后大小
+     * @param size              原始大小
+     * @param localHeaderOffset 本地文件头偏移
+     */
+    public record Entry(String name, int method, long compressedSize, long size, long localHeaderOffset) {
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    private PluginJar(Path path, FileChannel channel, long fileSize, Map<String, Entry> entries) {
+        this.path = path;
+        this.channel = channel;
+        this.fileSize = fileSize;
+        this.entries = entries;
+    }
+
+    /**
+     * 打开JAR文件并读取中央目录
+     *
+     * @param path JAR文件路径
+     * @return 打开的JAR，调用方负责关闭
+     * @throws IOException 文件无法读取或不是有效的ZIP格式
+     */
+    public static PluginJar open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            return new PluginJar(path, channel, fileSize, readCentralDirectory(channel, fileSize, path));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 按中央目录顺序返回全部条目
+     */
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    public boolean hasEntry(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * 读取条目内容
+     *
+     * @param name 条目名称
+     * @return 解压后的内容，条目不存在时返回null
+     */
+    public byte[] read(String name) throws IOException {
+        Entry entry = entries.get(name);
+        return entry != null ? read(entry) : null;
+    }
+
+    /**
+     * 读取条目内容
+     * <p>
+     * 分配缓冲区前校验中央目录声明的大小：解压后不超过 {@link #MAX_ENTRY_SIZE}，压缩数据不超出文件，
+     * 且原始大小与压缩后大小相符（STORED相等，DEFLATED不超过最大压缩比），避免伪造的大小导致内存耗尽
+     */
+    public byte[] read(Entry entry) throws IOException {
+        checkSize(entry);
+        long offset = entry.localHeaderOffset();
+        checkBounds(offset, LOC_HEADER);
+        ByteBuffer header = readFully(offset, LOC_HEADER);
+        if (header.getInt(0) != LOC_SIGNATURE) {
+            throw new ZipException("Invalid local header for entry " + entry.name() + " in " + path);
+        }
+        long dataOffset = offset + LOC_HEADER + unsignedShort(header, 26) + unsignedShort(header, 28);
+        int compressedSize = (int) entry.compressedSize();
+        checkBounds(dataOffset, compressedSize);
+        ByteBuffer data = readFully(dataOffset, compressedSize);
+
+        byte[] content = new byte[(int) entry.size()];
+        switch (entry.method()) {
+            case STORED -> data.get(content);
+            case DEFLATED -> inflate(entry, data, content);
+            default -> throw new ZipException("Unsupported compression method " + entry.method()
+                    + " for entry " + entry.name());
+        }
+        return content;
+    }
+
+    /**
+     * 计算整个JAR文件的SHA-256（十六进制）
+     */
+    public String sha256() throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(DIGEST_BUFFER);
+        long position = 0;
+        while (position < fileSize) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new ZipException("Unexpected end of file in " + path);
+            }
+            buffer.flip();
+            digest.update(buffer);
+            position += read;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 关闭文件通道，之后不能再读取条目
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void checkSize(Entry entry) throws ZipException {
+        long size = entry.size();
+        long compressedSize = entry.compressedSize();
+        if (size < 0 || compressedSize < 0 || compressedSize > fileSize) {
+            throw new ZipException("Invalid size for entry " + entry.name() + " in " + path);
+        }
+        if (size > MAX_ENTRY_SIZE) {
+            throw new ZipException("Entry " + entry.name() + " too large: " + size + " bytes (max "
+                    + MAX_ENTRY_SIZE + ")");
+        }
+        boolean consistent = switch (entry.method()) {
+            case STORED -> size == compressedSize;
+            case DEFLATED -> size <= compressedSize * MAX_DEFLATE_RATIO;
+            default -> true;
+        };
+        if (!consistent) {
+            throw new ZipException("Entry " + entry.name() + " declares " + size + " bytes from "
+                    + compressedSize + " compressed bytes in " + path);
+        }
+    }
+
+    private void inflate(Entry entry, ByteBuffer data, byte[] content) throws ZipException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            int length = 0;
+            while (length < content.length) {
+                int inflated = inflater.inflate(content, length, content.length - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != content.length) {
+                throw new ZipException("Truncated entry " + entry.name() + ": expected " + content.length
+                        + " bytes but got " + length);
+            }
+        } catch (DataFormatException e) {
+            ZipException exception = new ZipException("Corrupt entry " + entry.name() + ": " + e.getMessage());
+            exception.initCause(e);
+            throw exception;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static Map<String, Entry> readCentralDirectory(FileChannel channel, long fileSize, Path path)
+            throws IOException {
+        // 结束记录位于文件末尾，之后最多跟一段注释；连同ZIP64定位器一起读入
+        int tailLength = (int) Math.min(fileSize, END_HEADER + MAX_COMMENT + ZIP64_LOCATOR);
+        long tailOffset = fileSize - tailLength;
+        ByteBuffer tail = readFully(channel, tailOffset, tailLength, path);
+        int end = findEndOfCentralDirectory(tail, path);
+        long total = unsignedShort(tail, end + 10);
+        long directorySize = unsignedInt(tail, end + 12);
+        long directoryOffset = unsignedInt(tail, end + 16);
+        long directoryEnd = tailOffset + end;
+
+        // ZIP64：条目数或中央目录偏移溢出时以ZIP64结束记录为准
+        int locator = end - ZIP64_LOCATOR;
+        if (locator >= 0 && tail.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+            long zip64End = tail.getLong(locator + 8);
+            if (zip64End < 0 || zip64End + ZIP64_END > fileSize) {
+                throw new ZipException("Invalid ZIP64 end of central directory in " + path);
+            }
+            ByteBuffer record = readFully(channel, zip64End, ZIP64_END, path);
+            if (record.getInt(0) != ZIP64_END_SIGNATURE) {
+                throw new ZipException("Invalid ZIP64 end of central directory in " + path);
+            }
+            total = record.getLong(32);
+            directorySize = record.getLong(40);
+            directoryOffset = record.getLong(48);
+            directoryEnd = zip64End;
+        }
+        if (directoryOffset < 0 || directorySize < 0 || directoryOffset + directorySize > directoryEnd) {
+            throw new ZipException("Invalid central directory offset in " + path);
+        }
+        if (directorySize > MAX_CENTRAL_DIRECTORY) {
+            throw new ZipException("Central directory too large in " + path);
+        }
+
+        ByteBuffer directory = readFully(channel, directoryOffset, (int) directorySize, path);
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        int position = 0;
+        for (long i = 0; i < total; i++) {
+            if (position + CEN_HEADER > directory.limit() || directory.getInt(position) != CEN_SIGNATURE) {
+                throw new ZipException("Invalid central directory header in " + path);
+            }
+            int method = unsignedShort(directory, position + 10);
+            long compressedSize = unsignedInt(directory, position + 20);
+            long size = unsignedInt(directory, position + 24);
+            int nameLength = unsignedShort(directory, position + 28);
+            int extraLength = unsignedShort(directory, position + 30);
+            int commentLength = unsignedShort(directory, position + 32);
+            long localHeaderOffset = unsignedInt(directory, position + 42);
+            if (position + CEN_HEADER + nameLength + extraLength > directory.limit()) {
+                throw new ZipException("Truncated central directory in " + path);
+            }
+
+            byte[] nameBytes = new byte[nameLength];
+            directory.get(position + CEN_HEADER, nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+            // ZIP64扩展字段按 原始大小、压缩后大小、本地头偏移 的顺序，只包含溢出的值
+            int extra = position + CEN_HEADER + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = unsignedShort(directory, extra);
+                int length = unsignedShort(directory, extra + 2);
+                if (id == ZIP64_EXTRA_ID) {
+                    int field = extra + 4;
+                    if (size == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+                        size = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+                        compressedSize = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (localHeaderOffset == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+                        localHeaderOffset = directory.getLong(field);
+                    }
+                    break;
+                }
+                extra += 4 + length;
+            }
+
+            entries.putIfAbsent(name, new Entry(name, method, compressedSize, size, localHeaderOffset));
+            position += CEN_HEADER + nameLength + extraLength + commentLength;
+        }
+        return Collections.unmodifiableMap(entries);
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer tail, Path path) throws ZipException {
+        int limit = tail.limit();
+        int lowest = Math.max(0, limit - END_HEADER - MAX_COMMENT);
+        for (int position = limit - END_HEADER; position >= lowest; position--) {
+            if (tail.getInt(position) == END_SIGNATURE
+                    && position + END_HEADER + unsignedShort(tail, position + 20) == limit) {
+                return position;
+            }
+        }
+        throw new ZipException("Not a ZIP file (end of central directory not found): " + path);
+    }
+
+    private void checkBounds(long offset, int size) throws ZipException {
+        if (offset < 0 || offset + size > fileSize) {
+            throw new ZipException("Entry data out of bounds in " + path);
+        }
+    }
+
+    private ByteBuffer readFully(long offset, int size) throws IOException {
+        return readFully(channel, offset, size, path);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int size, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new ZipException("Unexpected end of file in " + path);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int unsignedShort(ByteBuffer buffer, int offset) {
+        return Short.toUnsignedInt(buffer.getShort(offset));
+    }
+
+    private static long unsignedInt(ByteBuffer buffer, int offset) {
+        return Integer.toUnsignedLong(buffer.getInt(offset));
+    }
+}
@@ -0,0 +1,19 @@
+package com.yonchain.ai.plugin.registry;
+
+/**
+ * 插件目录变更广播
+ * <p>
+ * 本节点的插件发生安装、卸载、启用、禁用、升级等变更后通知其他节点，其他节点收到后调用
+ * {@link PluginRegistry#invalidate()}。
+ *
+ * @author yonchain
+ */
+public interface PluginCatalogBroadcaster {
+
+    /**
+     * 通知其他节点插件信息已变更
+     *
+     * @param pluginId 变更的插件ID
+     */
+    void broadcast(String pluginId);
+}
@@ -0,0 +1,53 @@
+package com.yonchain.ai.plugin.registry;
+
+import com.yonchain.ai.plugin.enums.PluginLifecycleType;
+import com.yonchain.ai.plugin.event.PluginEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 插件生命周期事件触发的目录失效
+ * <p>
+ * 安装、卸载、启用、禁用、升级和配置更新事件使本节点的插件目录快照失效，并通过
+ * {@link PluginCatalogBroadcaster} 通知其他节点。事件在事务中发布时等到提交后再处理，
+ * 其他节点重新加载时能读到已提交的数据。
+ *
+ * @author yonchain
+ */
+@Component
+public class PluginCatalogInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginCatalogInvalidator.class);
+
+    private final PluginRegistry pluginRegistry;
+    private final ObjectProvider<PluginCatalogBroadcaster> broadcasters;
+
+    public PluginCatalogInvalidator(PluginRegistry pluginRegistry,
+                                    ObjectProvider<PluginCatalogBroadcaster> broadcasters) {
+        this.pluginRegistry = pluginRegistry;
+        this.broadcasters = broadcasters;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginEvent(PluginEvent event) {
+        PluginLifecycleType type = event.getLifecycleType();
+        if (!event.isStatusChangeEvent() && type != PluginLifecycleType.UPGRADED
+                && type != PluginLifecycleType.CONFIG_UPDATED) {
+            return;
+        }
+
+        pluginRegistry.invalidate();
+        broadcasters.orderedStream().forEach(broadcaster -> {
+            try {
+                broadcaster.broadcast(event.getPluginId());
+            } catch (RuntimeException e) {
+                // 其他节点依靠定时刷新兜底
+                log.warn("Failed to broadcast plugin catalog change for {} ({}): {}", event.getPluginId(),
+                        type, e.getMessage());
+            }
+        });
+    }
+}
@@ -132,5 +132,11 @@ public interface PluginRegistry {
      * @return 启用的插件数量
      */
     long countByEnabled();
+    
+    /**
+     * 使查询缓存失效（其他节点变更了插件信息时调用），下次查询重新读取存储
+     */
+    default void invalidate() {
+    }
 }
 
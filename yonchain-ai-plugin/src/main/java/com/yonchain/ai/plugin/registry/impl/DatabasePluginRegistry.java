@@ -5,19 +5,35 @@ import com.yonchain.ai.plugin.entity.PluginEntity;
 import com.yonchain.ai.api.plugin.dto.PluginInfo;
 import com.yonchain.ai.plugin.mapper.PluginMapper;
 import com.yonchain.ai.plugin.registry.PluginRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * 基于数据库的插件注册表实现
+ * <p>
+ * 查询方法读取内存中的插件目录快照（plugin表全量，按创建时间倒序），每次返回新转换的 {@link PluginInfo}，
+ * 调用方修改返回对象不影响快照。本节点的写入在事务结束后使快照失效，其他节点的变更通过插件生命周期事件的广播
+ * （见 {@link com.yonchain.ai.plugin.registry.PluginCatalogInvalidator}）使快照失效，另由后台线程每
+ * {@code yonchain.plugin.catalog.refresh-interval} 重新加载一次兜底。事务中的查询按条件直接读数据库，不读写快照。
  * 
  * @author yonchain
  */
@@ -29,8 +45,50 @@ public class DatabasePluginRegistry implements PluginRegistry {
     // 内存缓存运行时插件实例
     private final Map<String, Plugin> pluginInstances = new ConcurrentHashMap<>();
     
-    @Autowired
-    private PluginMapper pluginMapper;
+    private final PluginMapper pluginMapper;
+    
+    /**
+     * 插件目录快照，失效后为null，下次查询时重新加载
+     */
+    private final AtomicReference<Map<String, PluginEntity>> catalog = new AtomicReference<>();
+    
+    /**
+     * 每次失效加一；加载期间发生失效时丢弃加载结果
+     */
+    private final AtomicLong catalogVersion = new AtomicLong();
+    
+    /**
+     * 快照定时刷新线程，刷新间隔为0时为null
+     */
+    private final ScheduledExecutorService refresher;
+    
+    public DatabasePluginRegistry(PluginMapper pluginMapper,
+                                  @Value("${yonchain.plugin.catalog.refresh-interval:60s}") Duration refreshInterval) {
+        this.pluginMapper = pluginMapper;
+        
+        if (!refreshInterval.isZero() && !refreshInterval.isNegative()) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "plugin-catalog-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = refreshInterval.toMillis();
+            refresher.scheduleWithFixedDelay(this::refreshCatalog, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            refresher = null;
+        }
+    }
+    
+    /**
+     * 停止快照刷新线程
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
     
     @Override
     @Transactional
@@ -59,6 +117,7 @@ public class DatabasePluginRegistry implements PluginRegistry {
                 pluginMapper.insert(entity);
                 log.info("Inserted new plugin: {}", pluginId);
             }
+            invalidateAfterCompletion();
             
             return pluginInfo;
             
@@ -74,7 +133,7 @@ public class DatabasePluginRegistry implements PluginRegistry {
             return Optional.empty();
         }
         
-        PluginEntity entity = pluginMapper.findById(pluginId);
+        PluginEntity entity = inTransaction() ? pluginMapper.findById(pluginId) : catalog().get(pluginId);
         return entity != null ? Optional.of(convertToPluginInfo(entity)) : Optional.empty();
     }
     
@@ -84,10 +143,7 @@ public class DatabasePluginRegistry implements PluginRegistry {
             return new ArrayList<>();
         }
         
-        return pluginMapper.findAll().stream()
-                .filter(entity -> name.equals(entity.getName()))
-                .map(this::convertToPluginInfo)
-                .collect(Collectors.toList());
+        return findInCatalog(entity -> name.equals(entity.getName()), () -> pluginMapper.selectByNameLike(name));
     }
     
     @Override
@@ -96,9 +152,7 @@ public class DatabasePluginRegistry implements PluginRegistry {
             return new ArrayList<>();
         }
         
-        return pluginMapper.findByType(type).stream()
-                .map(this::convertToPluginInfo)
-                .collect(Collectors.toList());
+        return findInCatalog(entity -> type.equals(entity.getType()), () -> pluginMapper.findByType(type));
     }
     
     @Override
@@ -107,9 +161,7 @@ public class DatabasePluginRegistry implements PluginRegistry {
             return new ArrayList<>();
         }
         
-        return pluginMapper.findByStatus(status).stream()
-                .map(this::convertToPluginInfo)
-                .collect(Collectors.toList());
+        return findInCatalog(entity -> status.equals(entity.getStatus()), () -> pluginMapper.findByStatus(status));
     }
     
     @Override
@@ -124,17 +176,13 @@ public class DatabasePluginRegistry implements PluginRegistry {
             return new ArrayList<>();
         }
         
-        return pluginMapper.findAll().stream()
-                .filter(entity -> type.equals(entity.getType()) && status.equals(entity.getStatus()))
-                .map(this::convertToPluginInfo)
-                .collect(Collectors.toList());
+        return findInCatalog(entity -> type.equals(entity.getType()) && status.equals(entity.getStatus()),
+                () -> pluginMapper.findByType(type));
     }
     
     @Override
     public List<PluginInfo> findAll() {
-        return pluginMapper.findAll().stream()
-                .map(this::convertToPluginInfo)
-                .collect(Collectors.toList());
+        return findInCatalog(entity -> true, pluginMapper::findAll);
     }
     
     @Override
@@ -142,7 +190,7 @@ public class DatabasePluginRegistry implements PluginRegistry {
         if (pluginId == null || pluginId.trim().isEmpty()) {
             return false;
         }
-        return pluginMapper.existsById(pluginId);
+        return inTransaction() ? pluginMapper.existsById(pluginId) : catalog().containsKey(pluginId);
     }
     
     @Override
@@ -163,6 +211,7 @@ public class DatabasePluginRegistry implements PluginRegistry {
             } else {
                 log.warn("Plugin not found in database: {}", pluginId);
             }
+            invalidateAfterCompletion();
             
             // 移除内存缓存
             pluginInstances.remove(pluginId);
@@ -203,7 +252,7 @@ public class DatabasePluginRegistry implements PluginRegistry {
     
     @Override
     public long count() {
-        return pluginMapper.countAll();
+        return inTransaction() ? pluginMapper.countAll() : catalog().size();
     }
     
     @Override
@@ -211,7 +260,10 @@ public class DatabasePluginRegistry implements PluginRegistry {
         if (type == null) {
             return 0;
         }
-        return pluginMapper.findByType(type).size();
+        if (inTransaction()) {
+            return pluginMapper.findByType(type).size();
+        }
+        return catalog().values().stream().filter(entity -> type.equals(entity.getType())).count();
     }
     
     @Override
@@ -219,7 +271,19 @@ public class DatabasePluginRegistry implements PluginRegistry {
         if (status == null) {
             return 0;
         }
-        return pluginMapper.countByStatus(status);
+        if (inTransaction()) {
+            return pluginMapper.countByStatus(status);
+        }
+        return catalog().values().stream().filter(entity -> status.equals(entity.getStatus())).count();
+    }
+    
+    /**
+     * 使插件目录快照失效
+     */
+    @Override
+    public void invalidate() {
+        catalogVersion.incrementAndGet();
+        catalog.set(null);
     }
     
     @Override
@@ -314,6 +378,7 @@ public class DatabasePluginRegistry implements PluginRegistry {
     @Transactional
     public void updatePluginStatus(String pluginId, String status) {
         pluginMapper.updateStatus(pluginId, status);
+        invalidateAfterCompletion();
         log.info("Updated plugin {} status to {}", pluginId, status);
     }
     
@@ -368,6 +433,93 @@ public class DatabasePluginRegistry implements PluginRegistry {
         log.debug("Removed cached plugin instance: {}", pluginId);
     }
     
+    /**
+     * 是否在事务中
+     * <p>
+     * 事务中的查询按条件直接读取数据库且不使用快照，既能读到本事务未提交的写入，也不会把它们放进快照。
+     */
+    private static boolean inTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive();
+    }
+    
+    /**
+     * 获取插件目录快照，没有时从数据库加载
+     */
+    private Map<String, PluginEntity> catalog() {
+        Map<String, PluginEntity> current = catalog.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (catalog) {
+            current = catalog.get();
+            return current != null ? current : reloadCatalog();
+        }
+    }
+    
+    /**
+     * 从数据库重新加载快照；加载期间发生失效时返回加载结果但不保存
+     */
+    private Map<String, PluginEntity> reloadCatalog() {
+        long version = catalogVersion.get();
+        Map<String, PluginEntity> loaded = loadCatalog();
+        catalog.set(loaded);
+        // 失效先增加版本再清空快照，这里先保存再检查版本，两者交错时总有一方清除过期的快照
+        if (catalogVersion.get() != version) {
+            catalog.compareAndSet(loaded, null);
+        }
+        return loaded;
+    }
+    
+    private Map<String, PluginEntity> loadCatalog() {
+        Map<String, PluginEntity> loaded = new LinkedHashMap<>();
+        for (PluginEntity entity : pluginMapper.findAll()) {
+            loaded.put(entity.getPluginId(), entity);
+        }
+        return Collections.unmodifiableMap(loaded);
+    }
+    
+    /**
+     * 后台定时重新加载，兜底遗漏的跨节点通知
+     */
+    private void refreshCatalog() {
+        try {
+            synchronized (catalog) {
+                reloadCatalog();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh plugin catalog: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 按条件查询插件
+     *
+     * @param filter 在快照上筛选的条件
+     * @param query  事务中使用的数据库查询，结果仍按filter筛选
+     */
+    private List<PluginInfo> findInCatalog(Predicate<PluginEntity> filter, Supplier<List<PluginEntity>> query) {
+        Collection<PluginEntity> entities = inTransaction() ? query.get() : catalog().values();
+        return entities.stream()
+                .filter(filter)
+                .map(this::convertToPluginInfo)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * 写入后立即失效，并在事务结束（提交或回滚）后再次失效，期间其他线程加载的快照不会保留
+     */
+    private void invalidateAfterCompletion() {
+        invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate();
+                }
+            });
+        }
+    }
+    
     /**
      * 将PluginInfo转换为数据库实体
      * 
@@ -386,6 +538,8 @@ public class DatabasePluginRegistry implements PluginRegistry {
         entity.setPluginPath(pluginInfo.getPluginPath());
         entity.setMainClass(pluginInfo.getMainClass());
         entity.setIconPath(pluginInfo.getIconPath());
+        entity.setChecksum(pluginInfo.getChecksum());
+        entity.setDependencies(pluginInfo.getDependencies());
         // 时间字段处理
         if (pluginInfo.getInstallTime() != null) {
             entity.setInstalledAt(pluginInfo.getInstallTime());
@@ -422,6 +576,8 @@ public class DatabasePluginRegistry implements PluginRegistry {
         pluginInfo.setPluginPath(entity.getPluginPath());
         pluginInfo.setMainClass(entity.getMainClass());
         pluginInfo.setIconPath(entity.getIconPath());
+        pluginInfo.setChecksum(entity.getChecksum());
+        pluginInfo.setDependencies(entity.getDependencies());
         // 时间字段处理
         if (entity.getInstalledAt() != null) {
             pluginInfo.setInstallTime(entity.getInstalledAt());
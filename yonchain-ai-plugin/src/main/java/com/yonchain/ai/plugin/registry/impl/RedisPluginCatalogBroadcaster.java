@@ -0,0 +1,63 @@
+package com.yonchain.ai.plugin.registry.impl;
+
+import com.yonchain.ai.plugin.registry.PluginCatalogBroadcaster;
+import com.yonchain.ai.plugin.registry.PluginRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * 基于Redis发布/订阅的插件目录变更广播
+ * <p>
+ * 消息内容为 {@code <节点ID>:<插件ID>}，节点ID在进程启动时随机生成，收到自己发出的消息时忽略。
+ * Redis不可用时广播失败只记录告警，其他节点由插件目录的定时刷新兜底。
+ *
+ * @author yonchain
+ */
+public class RedisPluginCatalogBroadcaster implements PluginCatalogBroadcaster, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisPluginCatalogBroadcaster.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PluginRegistry pluginRegistry;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * @param redisTemplate  Redis模板
+     * @param pluginRegistry 收到通知时失效的插件注册表
+     * @param channel        发布/订阅频道
+     */
+    public RedisPluginCatalogBroadcaster(StringRedisTemplate redisTemplate, PluginRegistry pluginRegistry,
+                                         String channel) {
+        this.redisTemplate = redisTemplate;
+        this.pluginRegistry = pluginRegistry;
+        this.channel = channel;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    @Override
+    public void broadcast(String pluginId) {
+        redisTemplate.convertAndSend(channel, nodeId + ":" + pluginId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator > 0 && nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        log.debug("Plugin {} changed on another node, invalidating plugin catalog",
+                separator >= 0 ? body.substring(separator + 1) : body);
+        pluginRegistry.invalidate();
+    }
+}
@@ -1,18 +1,15 @@
 package com.yonchain.ai.plugin.service;
 
+import com.yonchain.ai.plugin.parser.index.PluginJar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 
 /**
  * 插件图标管理服务
@@ -90,16 +87,19 @@ public class PluginIconService {
             // 确保图标存储目录存在
             Path iconDir = createIconStorageDirectory();
             
-            // 在JAR文件中查找图标文件
-            String iconPath = findIconInJar(jarPath, iconFileName);
-            if (iconPath == null) {
-                log.warn("Icon file not found in JAR for plugin {}: {}", pluginId, iconFileName);
-                return null;
+            // 在JAR文件中查找图标文件（只读取一次中央目录）
+            String savedIconPath;
+            try (PluginJar jar = PluginJar.open(jarPath)) {
+                String iconPath = findIconInJar(jar, iconFileName);
+                if (iconPath == null) {
+                    log.warn("Icon file not found in JAR for plugin {}: {}", pluginId, iconFileName);
+                    return null;
+                }
+                
+                // 提取并保存图标文件
+                savedIconPath = extractIconFromJar(jar, iconPath, pluginId, iconFileName, iconDir);
             }
             
-            // 提取并保存图标文件
-            String savedIconPath = extractIconFromJar(jarPath, iconPath, pluginId, iconFileName, iconDir);
-            
             if (savedIconPath != null) {
                 log.info("Successfully extracted icon for plugin {}: {}", pluginId, savedIconPath);
             }
@@ -229,53 +229,45 @@ public class PluginIconService {
     /**
      * 在JAR文件中查找图标文件
      * 
-     * @param jarPath JAR文件路径
+     * @param jar JAR文件
      * @param iconFileName 图标文件名
      * @return 图标在JAR中的完整路径，未找到返回null
      */
-    private String findIconInJar(Path jarPath, String iconFileName) {
-        try (JarFile jarFile = new JarFile(jarPath.toFile())) {
-            // 优先在_assets目录中查找
-            String assetsIconPath = ASSETS_DIR + iconFileName;
-            JarEntry assetsEntry = jarFile.getJarEntry(assetsIconPath);
-            if (assetsEntry != null) {
-                return assetsIconPath;
-            }
-            
-            // 如果_assets目录中没有，尝试直接查找
-            JarEntry directEntry = jarFile.getJarEntry(iconFileName);
-            if (directEntry != null) {
-                return iconFileName;
-            }
-            
-            // 搜索所有以该文件名结尾的条目
-            return jarFile.stream()
-                    .map(JarEntry::getName)
-                    .filter(name -> name.endsWith("/" + iconFileName) || name.equals(iconFileName))
-                    .findFirst()
-                    .orElse(null);
-                    
-        } catch (IOException e) {
-            log.error("Failed to search icon in JAR: {}", jarPath, e);
-            return null;
+    private String findIconInJar(PluginJar jar, String iconFileName) {
+        // 优先在_assets目录中查找
+        String assetsIconPath = ASSETS_DIR + iconFileName;
+        if (jar.hasEntry(assetsIconPath)) {
+            return assetsIconPath;
         }
+        
+        // 如果_assets目录中没有，尝试直接查找
+        if (jar.hasEntry(iconFileName)) {
+            return iconFileName;
+        }
+        
+        // 搜索所有以该文件名结尾的条目
+        return jar.getEntries().stream()
+                .map(PluginJar.Entry::name)
+                .filter(name -> name.endsWith("/" + iconFileName))
+                .findFirst()
+                .orElse(null);
     }
     
     /**
      * 从JAR文件中提取图标文件
      * 
-     * @param jarPath JAR文件路径
+     * @param jar JAR文件
      * @param iconPath 图标在JAR中的路径
      * @param pluginId 插件ID
      * @param iconFileName 原始图标文件名
      * @param iconDir 图标存储目录
      * @return 保存后的图标文件路径
      */
-    private String extractIconFromJar(Path jarPath, String iconPath, String pluginId, 
+    private String extractIconFromJar(PluginJar jar, String iconPath, String pluginId, 
                                      String iconFileName, Path iconDir) {
-        try (JarFile jarFile = new JarFile(jarPath.toFile())) {
-            JarEntry iconEntry = jarFile.getJarEntry(iconPath);
-            if (iconEntry == null) {
+        try {
+            byte[] iconData = jar.read(iconPath);
+            if (iconData == null) {
                 return null;
             }
             
@@ -285,14 +277,12 @@ public class PluginIconService {
             Path savedIconPath = iconDir.resolve(savedFileName);
             
             // 提取图标文件
-            try (InputStream iconStream = jarFile.getInputStream(iconEntry)) {
-                Files.copy(iconStream, savedIconPath, StandardCopyOption.REPLACE_EXISTING);
-                log.debug("Icon extracted to: {}", savedIconPath);
-                return savedIconPath.toString();
-            }
+            Files.write(savedIconPath, iconData);
+            log.debug("Icon extracted to: {}", savedIconPath);
+            return savedIconPath.toString();
             
         } catch (IOException e) {
-            log.error("Failed to extract icon from JAR: {}", jarPath, e);
+            log.error("Failed to extract icon from JAR: {}", jar.getPath(), e);
             return null;
         }
     }
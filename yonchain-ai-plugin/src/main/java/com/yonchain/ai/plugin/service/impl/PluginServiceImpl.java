@@ -6,12 +6,15 @@ import com.yonchain.ai.plugin.PluginManager;
 import com.yonchain.ai.plugin.config.PluginConfig;
 import com.yonchain.ai.plugin.exception.PluginInstallException;
 import com.yonchain.ai.plugin.exception.PluginParseException;
+import com.yonchain.ai.plugin.entity.InstallTask;
 import com.yonchain.ai.plugin.entity.PluginInstallation;
+import com.yonchain.ai.plugin.installation.PluginInstallQueue;
 import com.yonchain.ai.plugin.service.AiModelInstallationService;
 import com.yonchain.ai.plugin.service.ToolInstallationService;
 import com.yonchain.ai.plugin.service.PluginInstallationService;
 import com.yonchain.ai.plugin.parser.PluginParser;
 import com.yonchain.ai.plugin.service.PluginIconService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -44,11 +47,21 @@ public class PluginServiceImpl implements PluginService {
     private final AiModelInstallationService aiModelInstallationService;
     private final ToolInstallationService toolInstallationService;
     private final PluginInstallationService pluginInstallationService;
+    private final PluginInstallQueue pluginInstallQueue;
 
     // 配置目录
     private final String pluginUploadDir = System.getProperty("java.io.tmpdir") + "/yonchain-plugins";
     private final String tempIconDir = System.getProperty("java.io.tmpdir") + "/yonchain-plugins/temp-icons";
 
+    /**
+     * 异步安装完成后由安装队列回调，创建租户安装记录
+     */
+    @PostConstruct
+    void registerTenantInstallHandler() {
+        pluginInstallQueue.setTenantInstallHandler((tenantId, pluginConfig) ->
+                createTenantInstallationRecord(tenantId, pluginConfig.getId(), pluginConfig.getType(), pluginConfig));
+    }
+
     // ==================== 插件查询接口实现 ====================
 
 
@@ -222,13 +235,13 @@ public class PluginServiceImpl implements PluginService {
             log.debug("File verification passed: {} bytes", savedFileSize);
 
             try {
-                // 使用文件路径安装插件
+                // 使用文件路径安装插件（安装时另存到插件目录）
                 pluginManager.installPluginFromPath(tempFilePath.toString());
                 return "Plugin installed successfully";
 
             } finally {
-                // 清理临时文件（可选，保留用于调试）
-                // Files.deleteIfExists(tempFilePath);
+                // 清理临时文件
+                pluginManager.discardStagedFile(tempFilePath);
             }
 
         } catch (PluginInstallException e) {
@@ -346,17 +359,53 @@ public class PluginServiceImpl implements PluginService {
             log.error("Failed to install plugin for tenant: {}", tenantId, e);
             throw new RuntimeException("Failed to install plugin for tenant: " + e.getMessage(), e);
         } finally {
-            // 清理临时文件
-            if (tempFilePath != null && Files.exists(tempFilePath)) {
-                try {
-                    Files.deleteIfExists(tempFilePath);
-                } catch (IOException e) {
-                    log.warn("Failed to delete temp file: {}", tempFilePath, e);
-                }
-            }
+            // 清理临时文件（连同解析时生成的描述文件索引）
+            pluginManager.discardStagedFile(tempFilePath);
         }
     }
 
+    @Override
+    public String submitPluginInstallForTenant(String tenantId, InputStream inputStream, String fileName) {
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Tenant ID cannot be empty");
+        }
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Plugin input stream cannot be null");
+        }
+        if (fileName == null || !fileName.endsWith(".jar")) {
+            throw new IllegalArgumentException("Invalid plugin file format. Only .jar files are supported.");
+        }
+
+        try {
+            return pluginInstallQueue.submit(tenantId, inputStream, fileName);
+        } catch (PluginInstallException e) {
+            log.error("Failed to submit plugin installation for tenant: {}", tenantId, e);
+            throw new RuntimeException("Failed to submit plugin installation: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getInstallTask(String tenantId, String taskId) {
+        InstallTask task = pluginInstallQueue.getTask(taskId)
+                .filter(installTask -> tenantId == null || tenantId.equals(installTask.getTenantId()))
+                .orElse(null);
+        if (task == null) {
+            return null;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("taskId", task.getId());
+        result.put("status", task.getStatus());
+        result.put("totalPlugins", task.getTotalPlugins());
+        result.put("completedPlugins", task.getCompletedPlugins());
+        result.put("progress", task.getProgressPercentage());
+        result.put("plugins", pluginInstallQueue.readItems(task));
+        result.put("errorMessage", task.getErrorMessage());
+        result.put("createdAt", task.getCreatedAt());
+        result.put("updatedAt", task.getUpdatedAt());
+        return result;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public String installPluginByPathForTenant(String tenantId, String pluginPath) {
@@ -451,6 +500,25 @@ public class PluginServiceImpl implements PluginService {
         }
     }
 
+    @Override
+    public String upgradePlugin(String pluginId, InputStream inputStream, String fileName) {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Plugin input stream cannot be null");
+        }
+        if (fileName == null || !fileName.endsWith(".jar")) {
+            throw new IllegalArgumentException("Invalid plugin file format. Only .jar files are supported.");
+        }
+
+        try {
+            pluginManager.upgradePlugin(pluginId, inputStream, fileName);
+            return "Plugin upgraded successfully";
+
+        } catch (Exception e) {
+            log.error("Failed to upgrade plugin: {}", pluginId, e);
+            throw new RuntimeException("Failed to upgrade plugin: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public String uninstallPlugin(String pluginId) {
         try {
@@ -682,7 +750,7 @@ public class PluginServiceImpl implements PluginService {
         map.put("type", pluginConfig.getType());
         map.put("mainClass", null); // PluginConfig 不再有 pluginClass 字段
         map.put("iconUrl", tempIconUrl);
-        map.put("dependencies", pluginConfig.getPlugins()); // 使用 plugins 字段作为 dependencies
+        map.put("dependencies", pluginConfig.getDependencies());
         map.put("extensions", null); // extensions 字段暂时为空
         map.put("services", null); // services 字段暂时为空
         map.put("createdAt", LocalDateTime.now());
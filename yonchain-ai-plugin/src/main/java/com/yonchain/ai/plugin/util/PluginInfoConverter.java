@@ -42,6 +42,10 @@ public class PluginInfoConverter {
         pluginInfo.setPluginPath(pluginConfig.getPluginPath() != null ? pluginConfig.getPluginPath().toString() : null);
         pluginInfo.setMainClass(null); // PluginConfig 不再有 pluginClass 字段
         
+        // 依赖以逗号分隔保存，与控制台展示时的拆分方式一致；没有依赖时保存空串，与未记录依赖的旧数据（null）区分
+        pluginInfo.setDependencies(pluginConfig.getDependencies() != null
+                ? String.join(",", pluginConfig.getDependencies()) : "");
+        
         return pluginInfo;
     }
 }
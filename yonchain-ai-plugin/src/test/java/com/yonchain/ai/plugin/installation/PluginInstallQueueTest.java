@@ -0,0 +1,153 @@
+package com.yonchain.ai.plugin.installation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yonchain.ai.api.plugin.dto.PluginInfo;
+import com.yonchain.ai.plugin.PluginManager;
+import com.yonchain.ai.plugin.config.PluginConfig;
+import com.yonchain.ai.plugin.entity.InstallTask;
+import com.yonchain.ai.plugin.mapper.InstallTaskMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 插件安装队列测试
+ * <p>
+ * 插件已全局安装时，只有与已安装JAR内容相同的上传才复用安装，相同插件ID和版本的其他JAR被拒绝
+ */
+class PluginInstallQueueTest {
+
+    private static final String TENANT_ID = "t1";
+    private static final byte[] JAR = "plugin jar v1".getBytes(StandardCharsets.UTF_8);
+
+    private final PluginManager pluginManager = mock(PluginManager.class);
+    private final InstallTaskMapper installTaskMapper = mock(InstallTaskMapper.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final PluginInstallQueue.TenantInstallHandler handler = mock(PluginInstallQueue.TenantInstallHandler.class);
+
+    private final AtomicReference<InstallTask> finished = new AtomicReference<>();
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    @TempDir
+    Path stagingDir;
+
+    private PluginInstallQueue queue;
+    private PluginConfig pluginConfig;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pluginConfig = new PluginConfig();
+        pluginConfig.setId("yonchain.test");
+        pluginConfig.setVersion("1.0.0");
+        pluginConfig.setType("model");
+
+        when(pluginManager.getStagingDirectory()).thenReturn(stagingDir);
+        when(pluginManager.parseStagedPlugin(any())).thenReturn(pluginConfig);
+        doAnswer(invocation -> {
+            InstallTask task = invocation.getArgument(0);
+            if (task.isCompleted() || task.isFailed()) {
+                finished.set(task);
+                done.countDown();
+            }
+            return 1;
+        }).when(installTaskMapper).update(any());
+
+        queue = new PluginInstallQueue(pluginManager, installTaskMapper, new ObjectMapper(), transactionManager,
+                1, Duration.ofMinutes(30));
+        queue.setTenantInstallHandler(handler);
+    }
+
+    @Test
+    void differentJarWithInstalledIdAndVersionIsRejected() throws Exception {
+        when(pluginManager.getPlugin("yonchain.test")).thenReturn(Optional.of(installed(sha256("other jar"))));
+
+        InstallTask task = submitAndAwait();
+
+        assertTrue(task.isFailed());
+        assertTrue(task.getErrorMessage().contains("different content"), task.getErrorMessage());
+        verify(pluginManager, never()).installStagedPlugin(any(), anyString(), anyString());
+        verify(handler, never()).onInstalled(anyString(), any());
+    }
+
+    @Test
+    void sameJarReusesGlobalInstallation() throws Exception {
+        when(pluginManager.getPlugin("yonchain.test")).thenReturn(Optional.of(installed(sha256(JAR))));
+
+        InstallTask task = submitAndAwait();
+
+        assertTrue(task.isCompleted(), task.getErrorMessage());
+        verify(pluginManager, never()).installStagedPlugin(any(), anyString(), anyString());
+        verify(handler).onInstalled(TENANT_ID, pluginConfig);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void newInstallationPersistsUploadChecksum() throws Exception {
+        when(pluginManager.getPlugin("yonchain.test")).thenReturn(Optional.empty());
+
+        InstallTask task = submitAndAwait();
+
+        assertTrue(task.isCompleted(), task.getErrorMessage());
+        verify(pluginManager).installStagedPlugin(eq(pluginConfig), eq("test.jar"), eq(sha256(JAR)));
+    }
+
+    @Test
+    void tenantRecordFailureRollsBack() throws Exception {
+        when(pluginManager.getPlugin("yonchain.test")).thenReturn(Optional.empty());
+        doThrow(new IllegalStateException("insert failed")).when(handler).onInstalled(anyString(), any());
+
+        InstallTask task = submitAndAwait();
+
+        assertTrue(task.isFailed());
+        assertEquals("insert failed", task.getErrorMessage());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private InstallTask submitAndAwait() throws Exception {
+        queue.submit(TENANT_ID, new ByteArrayInputStream(JAR), "test.jar");
+        assertTrue(done.await(10, TimeUnit.SECONDS), "install task did not finish");
+        return finished.get();
+    }
+
+    private static PluginInfo installed(String checksum) {
+        PluginInfo pluginInfo = new PluginInfo();
+        pluginInfo.setPluginId("yonchain.test");
+        pluginInfo.setVersion("1.0.0");
+        pluginInfo.setStatus("enabled");
+        pluginInfo.setChecksum(checksum);
+        return pluginInfo;
+    }
+
+    private static String sha256(String content) throws Exception {
+        return sha256(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
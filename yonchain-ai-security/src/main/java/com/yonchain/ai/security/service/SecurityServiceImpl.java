@@ -10,6 +10,7 @@ import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.JWTParser;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
 
 import java.text.ParseException;
 import java.util.Map;
@@ -64,6 +65,15 @@ public class SecurityServiceImpl implements SecurityService {
         }
     }
 
+    @Override
+    public Map<String, Object> verifyToken(String token) {
+        try {
+            return jwtDecoder.decode(token).getClaims();
+        } catch (JwtException e) {
+            throw new YonchainException("Token校验失败", e);
+        }
+    }
+
     @Override
     public Password encodePassword(String rawPassword) {
         Assert.notNull(rawPassword, "原始密码不能为空");